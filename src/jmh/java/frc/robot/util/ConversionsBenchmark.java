@@ -0,0 +1,66 @@
+package frc.robot.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.constants.swerve.DriveConstants;
+
+/**
+ * Benchmarks the unit conversions the modules and elevator run every loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConversionsBenchmark {
+
+  private double m_counts = 12345;
+  private double m_circumference = DriveConstants.kWheelCircumference;
+  private double m_gearRatio = DriveConstants.kDriveGearRatio;
+
+  @Benchmark
+  public double falconToDegrees() {
+    return Conversions.falconToDegrees(m_counts, m_gearRatio);
+  }
+
+  @Benchmark
+  public double degreesToFalcon() {
+    return Conversions.degreesToFalcon(m_counts, m_gearRatio);
+  }
+
+  @Benchmark
+  public double falconToRPM() {
+    return Conversions.falconToRPM(m_counts, m_gearRatio);
+  }
+
+  @Benchmark
+  public double falconToMPS() {
+    return Conversions.falconToMPS(m_counts, m_circumference, m_gearRatio);
+  }
+
+  @Benchmark
+  public double MPSToFalcon() {
+    return Conversions.MPSToFalcon(m_counts, m_circumference, m_gearRatio);
+  }
+
+  @Benchmark
+  public double falconToMeters() {
+    return Conversions.falconToMeters(m_counts, m_circumference, m_gearRatio);
+  }
+
+  @Benchmark
+  public double ElevatorExtensionToHeight() {
+    return Conversions.ElevatorExtensionToHeight(m_counts);
+  }
+}
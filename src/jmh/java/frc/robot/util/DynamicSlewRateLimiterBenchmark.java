@@ -0,0 +1,51 @@
+package frc.robot.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the slew rate limiters the driver controls run every loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicSlewRateLimiterBenchmark {
+
+  private DynamicSlewRateLimiter m_limiter;
+  private DynamicSlewRateLimiter m_continuousLimiter;
+  private double m_input = 0;
+
+  @Setup
+  public void setup() {
+    m_limiter = new DynamicSlewRateLimiter(3);
+    m_continuousLimiter = new DynamicSlewRateLimiter(3);
+    m_continuousLimiter.setContinuousLimits(-Math.PI, Math.PI);
+    m_continuousLimiter.enableContinuous(true);
+  }
+
+  @Benchmark
+  public double calculate() {
+    m_input = -m_input + 0.5;
+    return m_limiter.calculate(m_input);
+  }
+
+  @Benchmark
+  public double calculateContinuous() {
+    // inputs outside the limits so the wrapping is included
+    m_input = -m_input + 4;
+    return m_continuousLimiter.calculate(m_input);
+  }
+}
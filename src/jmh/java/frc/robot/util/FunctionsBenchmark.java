@@ -0,0 +1,47 @@
+package frc.robot.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the controller input shaping run every loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionsBenchmark {
+
+  private double m_input = 0.4;
+  private double m_exponent = 3;
+  private double m_angle1 = 3.0;
+  private double m_angle2 = -3.0;
+
+  @Benchmark
+  public double deadband() {
+    m_input = -m_input;
+    return Functions.deadband(m_input, 0.05);
+  }
+
+  @Benchmark
+  public double expoMS() {
+    m_input = -m_input;
+    return Functions.expoMS(m_input, m_exponent);
+  }
+
+  @Benchmark
+  public double modulusMidpoint() {
+    return Functions.modulusMidpoint(m_angle1, m_angle2, -Math.PI, Math.PI);
+  }
+}
@@ -0,0 +1,80 @@
+package frc.robot.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks adding a value to the log, which every subsystem does many times a loop.
+ * Each parameter runs in its own fork, since the background writer can't be stopped once started.
+ * Each invocation adds a loop's worth of values, and waits outside the measured time for the background writer to
+ * write them, like it does between loops on the robot. Otherwise the ring buffer would fill up and the benchmark would
+ * time dropping values instead of adding them. The number of dropped values is printed at the end, and should be 0.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogManagerBenchmark {
+
+  /** How many values each invocation adds, much fewer than fit in the ring buffer. */
+  private static final int kValuesPerLoop = 256;
+
+  @Param({"false", "true"})
+  private boolean m_backgroundWriter;
+
+  private int m_handle;
+  private double m_value = 0;
+
+  @Setup
+  public void setup() {
+    if (m_backgroundWriter) LogManager.startBackgroundWriter();
+    m_handle = LogManager.registerDouble("Benchmark/value");
+  }
+
+  @Setup(Level.Invocation)
+  public void waitForWriter() throws InterruptedException {
+    while (LogManager.getWaitingCount() > 0) {
+      Thread.sleep(1);
+    }
+  }
+
+  @TearDown
+  public void reportDropped() {
+    System.out.println("LogManager dropped " + LogManager.getDroppedCount() + " values in "
+      + LogManager.getOverflowCount() + " overflows");
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(kValuesPerLoop)
+  public void addDouble() {
+    for (int i = 0; i < kValuesPerLoop; i++) {
+      m_value += 0.1;
+      LogManager.addDouble(m_handle, m_value);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(kValuesPerLoop)
+  public void addDoubleByName() {
+    for (int i = 0; i < kValuesPerLoop; i++) {
+      m_value += 0.1;
+      LogManager.addDouble("Benchmark/value by name", m_value);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the standard deviation used by the vision std dev command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StatisticsUtilBenchmark {
+
+  @Param({"1000"})
+  private int m_size;
+
+  private double[] m_array;
+  private ArrayList<Double> m_list;
+
+  @Setup
+  public void setup() {
+    m_array = new double[m_size];
+    m_list = new ArrayList<>();
+    for (int i = 0; i < m_size; i++) {
+      m_array[i] = Math.sin(i);
+      m_list.add(m_array[i]);
+    }
+  }
+
+  @Benchmark
+  public double stdDevArray() {
+    return StatisticsUtil.stdDev(m_array);
+  }
+
+  @Benchmark
+  public double stdDevArrayList() {
+    return StatisticsUtil.stdDev(m_list);
+  }
+}
@@ -0,0 +1,49 @@
+package lib;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Benchmarks the module state optimization every module runs every loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CTREModuleStateBenchmark {
+
+  // the current angle is not wrapped, so include some full turns
+  private double m_currentDegrees = 725;
+  private double m_desiredDegrees = -150;
+  private double m_speed = 2.5;
+
+  @Benchmark
+  public SwerveModuleState optimize() {
+    m_desiredDegrees += 7;
+    return CTREModuleState.optimize(
+      new SwerveModuleState(m_speed, Rotation2d.fromDegrees(m_desiredDegrees)),
+      Rotation2d.fromDegrees(m_currentDegrees)
+    );
+  }
+
+  @Benchmark
+  public double optimizePrimitive() {
+    m_desiredDegrees += 7;
+    return CTREModuleState.optimizeSpeed(m_speed, m_desiredDegrees, m_currentDegrees)
+      + CTREModuleState.optimizeAngle(m_desiredDegrees, m_currentDegrees);
+  }
+}
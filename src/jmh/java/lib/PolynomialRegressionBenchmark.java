@@ -0,0 +1,54 @@
+package lib;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks fitting a polynomial, which is done by the feedforward characterization commands.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolynomialRegressionBenchmark {
+
+  @Param({"50", "500"})
+  private int m_points;
+
+  private double[] m_x;
+  private double[] m_y;
+
+  @Setup
+  public void setup() {
+    m_x = new double[m_points];
+    m_y = new double[m_points];
+    for (int i = 0; i < m_points; i++) {
+      m_x[i] = i * 0.1;
+      // a line with some noise, like characterization data
+      m_y[i] = 0.3 + 1.5 * m_x[i] + Math.sin(i) * 0.05;
+    }
+  }
+
+  @Benchmark
+  public PolynomialRegression linear() {
+    return new PolynomialRegression(m_x, m_y, 1);
+  }
+
+  @Benchmark
+  public PolynomialRegression cubic() {
+    return new PolynomialRegression(m_x, m_y, 3);
+  }
+}
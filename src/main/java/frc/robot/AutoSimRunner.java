@@ -0,0 +1,265 @@
+package frc.robot;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Robot.RobotId;
+import frc.robot.constants.Constants;
+import frc.robot.util.SimBattery;
+
+/**
+ * Runs every auto routine in the auto chooser in the simulator, without the GUI or a driver station, as fast as the
+ * CPU allows. Run by the simulateAutos Gradle task, not on the robot.
+ *
+ * <p> Sim time is paused, and only moves forward {@link Constants#kLoopTime} after each robot loop, so a routine takes
+ * as long in sim time as it would in a match. For each routine, the wall time, sim time, start and end of every
+ * command scheduled while it ran, final pose, lowest battery voltage, and time browned out are printed and written
+ * to a CSV file.
+ *
+ * <p> The routines run one after another on the same robot, with a few disabled loops in between, so the
+ * mechanisms start where the previous routine left them. A routine that is still running after
+ * {@link #kMaxAutoSeconds} is stopped and reported as not finished. Commands inside a command group are not
+ * scheduled on their own, so only the routine itself and the commands it schedules show up here. The commands inside
+ * the routine, with its critical path, are printed by {@link frc.robot.util.CommandTimeline} when it ends.
+ */
+public class AutoSimRunner {
+
+  /** How long a routine can run in sim time before it is stopped. */
+  private static final double kMaxAutoSeconds = 15;
+  /** How many loops the robot is disabled for between routines. */
+  private static final int kDisabledLoops = 5;
+
+  /**
+   * A robot that runs one loop at a time when asked to, instead of on a timer.
+   */
+  static class SteppedRobot extends Robot {
+    SteppedRobot(RobotId robotId) {
+      super(robotId);
+    }
+
+    /**
+     * Runs one robot loop, then moves sim time forward by one loop.
+     */
+    void step() {
+      loopFunc();
+      SimHooks.stepTiming(Constants.kLoopTime);
+    }
+  }
+
+  /**
+   * When a command started and ended, in sim seconds since its routine started.
+   */
+  static class CommandTiming {
+    final String name;
+    final double start;
+    double end = Double.NaN;
+    boolean interrupted = false;
+
+    CommandTiming(String name, double start) {
+      this.name = name;
+      this.start = start;
+    }
+  }
+
+  /**
+   * How one routine ran.
+   */
+  static class RoutineResult {
+    final String name;
+    final List<CommandTiming> commands = new ArrayList<>();
+    double simSeconds;
+    double wallSeconds;
+    boolean finished;
+    Pose2d finalPose;
+    // where the simulated robot really ended, which finalPose only estimates
+    Pose2d finalSimulatedPose;
+    double minBatteryVoltage;
+    double brownoutSeconds;
+
+    RoutineResult(String name) {
+      this.name = name;
+    }
+  }
+
+  // the routine running now, or null between routines
+  private static RoutineResult running = null;
+  private static double routineStartTime = 0;
+
+  /**
+   * @param args the CSV file to write, then optionally only the routines with names containing this, then optionally
+   *     Red or Blue for the alliance (Blue by default)
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 3) {
+      System.err.println("Usage: AutoSimRunner <report file> [routine name filter] [Red|Blue]");
+      System.exit(1);
+    }
+    String filter = args.length > 1 ? args[1] : "";
+    boolean isRed = args.length > 2 && args[2].equalsIgnoreCase("Red");
+
+    SteppedRobot robot = startRobot(isRed);
+    RobotContainer container = robot.getRobotContainer();
+
+    List<RoutineResult> results = new ArrayList<>();
+    for (Map.Entry<String, Command> entry : container.getAutoRoutines().entrySet()) {
+      if (!entry.getKey().contains(filter)) continue;
+      results.add(runRoutine(robot, container, entry.getKey(), entry.getValue()));
+    }
+
+    printResults(results);
+    writeResults(Path.of(args[0]), results);
+    // the HAL and the robot's background threads would keep running
+    System.exit(0);
+  }
+
+  /**
+   * Starts the HAL with sim time paused, and builds a disabled robot that only runs when stepped.
+   *
+   * @param isRed if the robot is on the red alliance
+   */
+  static SteppedRobot startRobot(boolean isRed) {
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the HAL");
+    }
+    // sim time only moves when the robot is stepped
+    SimHooks.pauseTiming();
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setAllianceStationId(isRed ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+    setMode(false);
+
+    // record the timeline of each routine, robotInit installs it
+    Constants.kAutoTimeline = true;
+    SteppedRobot robot = new SteppedRobot(RobotId.SwerveCompetition);
+    robot.robotInit();
+    robot.simulationInit();
+
+    CommandScheduler.getInstance().onCommandInitialize((command) -> {
+      if (running != null) running.commands.add(new CommandTiming(command.getName(), getRoutineTime()));
+    });
+    CommandScheduler.getInstance().onCommandFinish((command) -> commandEnded(command, false));
+    CommandScheduler.getInstance().onCommandInterrupt((command) -> commandEnded(command, true));
+    return robot;
+  }
+
+  /**
+   * Runs a routine in autonomous until it ends or runs out of time.
+   */
+  static RoutineResult runRoutine(SteppedRobot robot, RobotContainer container, String name,
+      Command routine) {
+    container.selectAutoRoutine(name);
+    setMode(false);
+    for (int i = 0; i < kDisabledLoops; i++) {
+      robot.step();
+    }
+
+    RoutineResult result = new RoutineResult(name);
+    running = result;
+    routineStartTime = Timer.getFPGATimestamp();
+    long wallStartTime = System.nanoTime();
+    SimBattery.resetStats();
+    // the routine's first odometry reset places the simulated robot at its start
+    if (container.getDrivetrain() != null) container.getDrivetrain().placeSimulatedRobotOnNextReset();
+
+    setMode(true);
+    // autonomousInit schedules the routine on the first loop
+    robot.step();
+    while (routine.isScheduled() && getRoutineTime() < kMaxAutoSeconds) {
+      robot.step();
+    }
+
+    result.wallSeconds = (System.nanoTime() - wallStartTime) / 1e9;
+    result.simSeconds = getRoutineTime();
+    result.finished = !routine.isScheduled();
+    result.finalPose = container.getDrivetrain() == null ? new Pose2d() : container.getDrivetrain().getPose();
+    result.finalSimulatedPose = container.getDrivetrain() == null
+      ? new Pose2d()
+      : container.getDrivetrain().getSimulatedPose();
+    result.minBatteryVoltage = SimBattery.getMinVoltage();
+    result.brownoutSeconds = SimBattery.getBrownoutSeconds();
+
+    // disabling cancels the routine if it is still running
+    setMode(false);
+    robot.step();
+    running = null;
+    container.selectAutoRoutine(null);
+    return result;
+  }
+
+  private static void setMode(boolean autonomous) {
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setEnabled(autonomous);
+    DriverStationSim.notifyNewData();
+  }
+
+  private static double getRoutineTime() {
+    return Timer.getFPGATimestamp() - routineStartTime;
+  }
+
+  private static void commandEnded(Command command, boolean interrupted) {
+    if (running == null) return;
+    // the last start of the command that hasn't ended
+    for (int i = running.commands.size() - 1; i >= 0; i--) {
+      CommandTiming timing = running.commands.get(i);
+      if (timing.name.equals(command.getName()) && Double.isNaN(timing.end)) {
+        timing.end = getRoutineTime();
+        timing.interrupted = interrupted;
+        return;
+      }
+    }
+  }
+
+  private static void printResults(List<RoutineResult> results) {
+    double totalWallSeconds = 0;
+    double totalSimSeconds = 0;
+    for (RoutineResult result : results) {
+      totalWallSeconds += result.wallSeconds;
+      totalSimSeconds += result.simSeconds;
+      System.out.println(String.format(
+          "%s: %s after %.2f s sim time in %.3f s wall time (%.0fx), final pose (%.2f, %.2f, %.1f deg), "
+            + "battery down to %.2f V, browned out for %.2f s",
+          result.name, result.finished ? "finished" : "NOT FINISHED", result.simSeconds, result.wallSeconds,
+          result.simSeconds / result.wallSeconds, result.finalPose.getX(), result.finalPose.getY(),
+          result.finalPose.getRotation().getDegrees(), result.minBatteryVoltage, result.brownoutSeconds));
+      for (CommandTiming timing : result.commands) {
+        System.out.println(String.format("  %7.3f - %7.3f s  %s%s", timing.start, timing.end, timing.name,
+            timing.interrupted ? " (interrupted)" : ""));
+      }
+    }
+    System.out.println(String.format("Ran %d routines, %.1f s sim time in %.2f s wall time",
+        results.size(), totalSimSeconds, totalWallSeconds));
+  }
+
+  /**
+   * Writes one row per routine, followed by one row per command it scheduled.
+   */
+  private static void writeResults(Path file, List<RoutineResult> results) throws IOException {
+    if (file.getParent() != null) Files.createDirectories(file.getParent());
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+      writer.println("routine,command,start (s),end (s),interrupted,finished,wall time (s),x (m),y (m),heading (deg),"
+          + "min battery (V),brownout (s)");
+      for (RoutineResult result : results) {
+        writer.println(String.format("\"%s\",,0,%f,,%b,%f,%f,%f,%f,%f,%f", result.name, result.simSeconds,
+            result.finished, result.wallSeconds, result.finalPose.getX(), result.finalPose.getY(),
+            result.finalPose.getRotation().getDegrees(), result.minBatteryVoltage, result.brownoutSeconds));
+        for (CommandTiming timing : result.commands) {
+          writer.println(String.format("\"%s\",\"%s\",%f,%f,%b,,,,,,,", result.name, timing.name, timing.start,
+              timing.end, timing.interrupted));
+        }
+      }
+    }
+    System.out.println("Wrote " + file);
+  }
+}
@@ -0,0 +1,346 @@
+package frc.robot;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.AutoSimRunner.CommandTiming;
+import frc.robot.AutoSimRunner.RoutineResult;
+import frc.robot.AutoSimRunner.SteppedRobot;
+import frc.robot.util.CommandTimeline;
+import frc.robot.util.SimNoise;
+import frc.robot.util.StatisticsUtil;
+
+/**
+ * Runs one auto routine many times in the simulator with random errors, see {@link SimNoise}, to see how often it
+ * finishes, how long it takes, and how far from where it should the robot ends up. Run by the sweepAuto Gradle task,
+ * not on the robot.
+ *
+ * <p> The HAL and the command scheduler only exist once in a process, so each run is its own process running
+ * {@link AutoSimRunner}'s stepped robot, and a few run at a time. The first run has no errors, and the others are
+ * compared with where it ended. The starting error is only applied at the routine's first odometry reset, so the pose
+ * and odometry errors cover the whole routine, even when later paths reset odometry again. Each run's results are written to trials.csv and the distribution over the runs to
+ * summary.csv, and each run's output to logs/.
+ */
+public class AutoSweep {
+
+  /** How long a run can take in wall time before it is stopped and counted as failed. */
+  private static final long kTrialTimeoutSeconds = 300;
+  /** The most memory each run's process can use, so many can run at once. */
+  private static final String kTrialMaxHeap = "-Xmx512m";
+  private static final String kTrialArg = "--trial";
+  private static final String kNominalSeed = "nominal";
+  private static final double[] kPercentiles = {0, 10, 50, 90, 100};
+
+  /**
+   * How one run went, read back from the file the run's process wrote.
+   */
+  private static class TrialResult {
+    String seed;
+    boolean finished;
+    double simSeconds;
+    double wallSeconds;
+    Pose2d finalPose;
+    Pose2d finalSimulatedPose;
+    double minBatteryVoltage;
+    double brownoutSeconds;
+    // the commands that were interrupted, including the routine when it ran out of time, and the commands in it that
+    // timed out
+    List<String> interrupted = new ArrayList<>();
+
+    String toLine() {
+      return String.format("%s,%b,%f,%f,%f,%f,%f,%f,%f,%f,%f,%f,\"%s\"", seed, finished, simSeconds, wallSeconds,
+        finalPose.getX(), finalPose.getY(), finalPose.getRotation().getDegrees(), finalSimulatedPose.getX(),
+        finalSimulatedPose.getY(), finalSimulatedPose.getRotation().getDegrees(), minBatteryVoltage,
+        brownoutSeconds, String.join(";", interrupted));
+    }
+
+    static TrialResult fromLine(String line) {
+      String[] fields = line.split(",", 13);
+      TrialResult result = new TrialResult();
+      result.seed = fields[0];
+      result.finished = Boolean.parseBoolean(fields[1]);
+      result.simSeconds = Double.parseDouble(fields[2]);
+      result.wallSeconds = Double.parseDouble(fields[3]);
+      result.finalPose = new Pose2d(Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+        Rotation2d.fromDegrees(Double.parseDouble(fields[6])));
+      result.finalSimulatedPose = new Pose2d(Double.parseDouble(fields[7]), Double.parseDouble(fields[8]),
+        Rotation2d.fromDegrees(Double.parseDouble(fields[9])));
+      result.minBatteryVoltage = Double.parseDouble(fields[10]);
+      result.brownoutSeconds = Double.parseDouble(fields[11]);
+      String interrupted = fields[12].replace("\"", "");
+      if (!interrupted.isEmpty()) result.interrupted.addAll(Arrays.asList(interrupted.split(";")));
+      return result;
+    }
+  }
+
+  /**
+   * @param args the directory to write the reports to, the name of the routine in the auto chooser, how many runs,
+   *     then optionally how many to run at once (0 for one per processor), Red or Blue for the alliance, and the seed
+   *     of the first run with errors
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length > 0 && args[0].equals(kTrialArg)) {
+      runTrial(args);
+      return;
+    }
+    if (args.length < 3 || args.length > 6) {
+      System.err.println(
+        "Usage: AutoSweep <report directory> <routine name> <runs> [parallel runs] [Red|Blue] [first seed]");
+      System.exit(1);
+    }
+    Path reportDir = Path.of(args[0]);
+    String routine = args[1];
+    int runs = Integer.parseInt(args[2]);
+    int parallel = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+    if (parallel <= 0) parallel = Runtime.getRuntime().availableProcessors();
+    String alliance = args.length > 4 ? args[4] : "Blue";
+    long firstSeed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+    Files.createDirectories(reportDir.resolve("logs"));
+    List<String> seeds = new ArrayList<>();
+    seeds.add(kNominalSeed);
+    for (int i = 0; i < runs; i++) {
+      seeds.add(Long.toString(firstSeed + i));
+    }
+
+    System.out.println(String.format("Running %s %d times, %d at a time", routine, runs, parallel));
+    long wallStartTime = System.nanoTime();
+    ExecutorService pool = Executors.newFixedThreadPool(parallel);
+    List<Future<TrialResult>> futures = new ArrayList<>();
+    for (String seed : seeds) {
+      futures.add(pool.submit(() -> launchTrial(reportDir, routine, alliance, seed)));
+    }
+    pool.shutdown();
+
+    TrialResult nominal = null;
+    List<TrialResult> results = new ArrayList<>();
+    List<String> failed = new ArrayList<>();
+    for (int i = 0; i < seeds.size(); i++) {
+      TrialResult result;
+      try {
+        result = futures.get(i).get();
+      } catch (ExecutionException e) {
+        System.err.println("Run " + seeds.get(i) + " failed: " + e.getCause());
+        result = null;
+      }
+      if (result == null) {
+        failed.add(seeds.get(i));
+      } else if (i == 0) {
+        nominal = result;
+      } else {
+        results.add(result);
+      }
+    }
+    System.out.println(String.format("Ran in %.1f s wall time", (System.nanoTime() - wallStartTime) / 1e9));
+
+    writeTrials(reportDir.resolve("trials.csv"), nominal, results);
+    writeSummary(reportDir.resolve("summary.csv"), routine, nominal, results, failed);
+  }
+
+  /**
+   * Runs one run in a new process and waits for it.
+   *
+   * @return how it went, or null if the process failed
+   */
+  private static TrialResult launchTrial(Path reportDir, String routine, String alliance, String seed)
+      throws IOException, InterruptedException {
+    Path resultFile = reportDir.resolve("logs").resolve(seed + ".csv");
+    Files.deleteIfExists(resultFile);
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.add(kTrialMaxHeap);
+    // the simulator's native libraries
+    String libraryPath = System.getProperty("java.library.path");
+    if (libraryPath != null) command.add("-Djava.library.path=" + libraryPath);
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(AutoSweep.class.getName());
+    command.addAll(List.of(kTrialArg, resultFile.toString(), routine, alliance, seed));
+
+    // the environment and working directory are inherited, the robot needs both to find its libraries and paths
+    Process process = new ProcessBuilder(command)
+      .redirectErrorStream(true)
+      .redirectOutput(reportDir.resolve("logs").resolve(seed + ".log").toFile())
+      .start();
+    if (!process.waitFor(kTrialTimeoutSeconds, TimeUnit.SECONDS)) {
+      process.destroyForcibly();
+      System.err.println("Run " + seed + " took longer than " + kTrialTimeoutSeconds + " s");
+      return null;
+    }
+    if (process.exitValue() != 0 || !Files.exists(resultFile)) {
+      System.err.println("Run " + seed + " exited with " + process.exitValue() + ", see its log");
+      return null;
+    }
+    TrialResult result = TrialResult.fromLine(Files.readAllLines(resultFile).get(0));
+    System.out.println(String.format("  run %s: %s after %.2f s", seed, result.finished ? "finished" : "NOT FINISHED",
+      result.simSeconds));
+    return result;
+  }
+
+  /**
+   * Runs the routine once in this process and writes how it went.
+   *
+   * @param args --trial, the file to write, the routine name, Red or Blue, and the seed or nominal for no errors
+   */
+  private static void runTrial(String[] args) throws IOException {
+    Path resultFile = Path.of(args[1]);
+    String name = args[2];
+    boolean isRed = args[3].equalsIgnoreCase("Red");
+    String seed = args[4];
+    // the mechanisms take their errors when they're built
+    if (!seed.equals(kNominalSeed)) SimNoise.enable(Long.parseLong(seed));
+
+    SteppedRobot robot = AutoSimRunner.startRobot(isRed);
+    RobotContainer container = robot.getRobotContainer();
+    Command routine = container.getAutoRoutines().get(name);
+    if (routine == null) {
+      System.err.println("No routine named " + name + ", the routines are " + container.getAutoRoutines().keySet());
+      System.exit(1);
+    }
+    RoutineResult routineResult = AutoSimRunner.runRoutine(robot, container, name, routine);
+
+    TrialResult result = new TrialResult();
+    result.seed = seed;
+    result.finished = routineResult.finished;
+    result.simSeconds = routineResult.simSeconds;
+    result.wallSeconds = routineResult.wallSeconds;
+    result.finalPose = routineResult.finalPose;
+    result.finalSimulatedPose = routineResult.finalSimulatedPose;
+    result.minBatteryVoltage = routineResult.minBatteryVoltage;
+    result.brownoutSeconds = routineResult.brownoutSeconds;
+    for (CommandTiming timing : routineResult.commands) {
+      if (timing.interrupted) result.interrupted.add(timing.name);
+    }
+    CommandTimeline.Node timeline = CommandTimeline.getLastTimeline();
+    if (timeline != null) {
+      for (CommandTimeline.Node node : CommandTimeline.getTimedOut(timeline)) {
+        result.interrupted.add(node.getName() + " (timed out)");
+      }
+    }
+    Files.writeString(resultFile, result.toLine() + "\n");
+    // the HAL and the robot's background threads would keep running
+    System.exit(0);
+  }
+
+  private static void writeTrials(Path file, TrialResult nominal, List<TrialResult> results) throws IOException {
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+      writer.println("seed,finished,sim time (s),wall time (s),estimated x (m),estimated y (m),"
+        + "estimated heading (deg),x (m),y (m),heading (deg),min battery (V),brownout (s),interrupted");
+      if (nominal != null) writer.println(nominal.toLine());
+      for (TrialResult result : results) {
+        writer.println(result.toLine());
+      }
+    }
+    System.out.println("Wrote " + file);
+  }
+
+  /**
+   * Writes the percentiles of each measurement over the runs with errors, and how often each command was interrupted.
+   */
+  private static void writeSummary(Path file, String routine, TrialResult nominal, List<TrialResult> results,
+      List<String> failed) throws IOException {
+    List<Double> times = new ArrayList<>();
+    List<Double> poseErrors = new ArrayList<>();
+    List<Double> headingErrors = new ArrayList<>();
+    List<Double> estimateErrors = new ArrayList<>();
+    List<Double> batteryVoltages = new ArrayList<>();
+    Map<String, Integer> interruptedCounts = new TreeMap<>();
+    int finished = 0;
+    for (TrialResult result : results) {
+      if (result.finished) {
+        finished++;
+        times.add(result.simSeconds);
+      }
+      // compared with the run without errors, since that's where the routine was made to end
+      if (nominal != null) {
+        poseErrors.add(result.finalSimulatedPose.getTranslation()
+          .getDistance(nominal.finalSimulatedPose.getTranslation()));
+        headingErrors.add(Math.abs(result.finalSimulatedPose.getRotation()
+          .minus(nominal.finalSimulatedPose.getRotation()).getDegrees()));
+      }
+      estimateErrors.add(result.finalPose.getTranslation().getDistance(result.finalSimulatedPose.getTranslation()));
+      batteryVoltages.add(result.minBatteryVoltage);
+      for (String name : result.interrupted) {
+        interruptedCounts.merge(name, 1, Integer::sum);
+      }
+    }
+
+    StringBuilder header = new StringBuilder("measurement");
+    for (double percentile : kPercentiles) {
+      header.append(String.format(",p%.0f", percentile));
+    }
+    header.append(",mean");
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+      writer.println(header);
+      writeDistribution(writer, "completion time (s)", times);
+      writeDistribution(writer, "final pose error (m)", poseErrors);
+      writeDistribution(writer, "final heading error (deg)", headingErrors);
+      writeDistribution(writer, "odometry error (m)", estimateErrors);
+      writeDistribution(writer, "min battery (V)", batteryVoltages);
+      writer.println();
+      writer.println("interrupted or timed out command,runs");
+      for (Map.Entry<String, Integer> entry : interruptedCounts.entrySet()) {
+        writer.println(String.format("\"%s\",%d", entry.getKey(), entry.getValue()));
+      }
+    }
+
+    System.out.println(String.format("%s: %d of %d runs finished, %d failed%s", routine, finished, results.size(),
+      failed.size(), nominal == null ? ", the run without errors failed so there are no pose errors" : ""));
+    System.out.println(String.format("  completion time  %s s", formatDistribution(times)));
+    System.out.println(String.format("  final pose error %s m", formatDistribution(poseErrors)));
+    System.out.println(String.format("  heading error    %s deg", formatDistribution(headingErrors)));
+    System.out.println(String.format("  odometry error   %s m", formatDistribution(estimateErrors)));
+    for (Map.Entry<String, Integer> entry : interruptedCounts.entrySet()) {
+      System.out.println(String.format("  %s interrupted in %d runs", entry.getKey(), entry.getValue()));
+    }
+    System.out.println("Wrote " + file);
+  }
+
+  private static void writeDistribution(PrintWriter writer, String name, List<Double> values) {
+    StringBuilder line = new StringBuilder("\"" + name + "\"");
+    double[] sorted = sorted(values);
+    for (double percentile : kPercentiles) {
+      line.append(String.format(",%f", percentile(sorted, percentile)));
+    }
+    line.append(String.format(",%f", StatisticsUtil.mean(sorted)));
+    writer.println(line);
+  }
+
+  private static String formatDistribution(List<Double> values) {
+    double[] sorted = sorted(values);
+    return String.format("median %.3f, p90 %.3f, max %.3f",
+      percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 100));
+  }
+
+  private static double[] sorted(List<Double> values) {
+    double[] sorted = values.stream().mapToDouble(Double::doubleValue).toArray();
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * @param sorted the values, sorted
+   * @param percentile the percentile, from 0 to 100
+   * @return the nearest value at or above the percentile, or NaN if there are no values
+   */
+  private static double percentile(double[] sorted, double percentile) {
+    if (sorted.length == 0) return Double.NaN;
+    int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+  }
+}
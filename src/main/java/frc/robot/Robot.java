@@ -4,14 +4,24 @@
 
 package frc.robot;
 
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Preferences;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.robot.constants.Constants;
+import frc.robot.util.AllianceTrajectoryCache;
 import frc.robot.util.Blinkin;
+import frc.robot.util.CommandTimeline;
+import frc.robot.util.DeviceConfigurator;
 import frc.robot.util.LogManager;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.PathGroupLoader;
+import frc.robot.util.SimBattery;
+import frc.robot.util.StatusFramePolicy;
+import frc.robot.util.Telemetry;
+import lib.drivers.LazyTalonFX;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -24,6 +34,16 @@ public class Robot extends TimedRobot {
   private Command m_autoCommand;
   private RobotContainer m_robotContainer;
 
+  // the robot to build, or null to use the one in preferences
+  private final RobotId m_robotId;
+
+  private LoopProfiler.Stage m_schedulerStage;
+  private LoopProfiler.Stage m_logStage;
+
+  // how many motor sets were sent over CAN, and how many were skipped as duplicates
+  private int m_talonSentLog;
+  private int m_talonSuppressedLog;
+
   /**
    * Set of known Robot Names.
    * <p>The name of a robot in the RoboRIO's persistent memory.
@@ -36,6 +56,20 @@ public class Robot extends TimedRobot {
     ClassBot1, ClassBot2, ClassBot3, ClassBot4
   };
 
+  public Robot() {
+    this(null);
+  }
+
+  /**
+   * Creates a robot that builds the given robot instead of the one in preferences. Used by the {@link AutoSimRunner},
+   * so it doesn't change the preferences of the desktop simulation.
+   *
+   * @param robotId the robot to build, or null to use the one in preferences
+   */
+  Robot(RobotId robotId) {
+    m_robotId = robotId;
+  }
+
   /**
    * This function is run when the robot is first started up and should be used for any
    * initialization code.
@@ -48,8 +82,29 @@ public class Robot extends TimedRobot {
     //   Uncomment the next line, set the desired RobotId, deploy, and then comment the line out
     // setRobotId(RobotId.SwerveTest);
 
+    // move writing the log file off the main loop
+    if (Constants.kBackgroundLogging) LogManager.startBackgroundWriter();
+
     // build the RobotContainer with the robot id from preferences
-    m_robotContainer = new RobotContainer(getRobotId());
+    m_robotContainer = new RobotContainer(m_robotId != null ? m_robotId : getRobotId());
+
+    // the devices are configured in parallel while RobotContainer is built, wait for them before anything runs
+    DeviceConfigurator.awaitAll();
+
+    // every device is created, so the status frame load of each bus is known
+    StatusFramePolicy.reportBusLoad();
+
+    m_talonSentLog = LogManager.registerInt("CAN/LazyTalonFX sent");
+    m_talonSuppressedLog = LogManager.registerInt("CAN/LazyTalonFX suppressed");
+
+    if (Constants.kLoopProfiling) {
+      m_schedulerStage = LoopProfiler.register("CommandScheduler.run()");
+      m_logStage = LoopProfiler.register("LogManager.log()");
+      // controls are configured, so the command timing can be set up
+      LoopProfiler.profileCommands();
+    }
+
+    if (Constants.kAutoTimeline) CommandTimeline.install();
   }
  
   /**
@@ -65,9 +120,29 @@ public class Robot extends TimedRobot {
     // commands, running already-scheduled commands, removing finished or interrupted commands,
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
+    if (Constants.kLoopProfiling) m_schedulerStage.start();
     CommandScheduler.getInstance().run();
+    if (Constants.kLoopProfiling) m_schedulerStage.stop();
+    if (Constants.kAutoTimeline) CommandTimeline.update();
+
     Blinkin.colorPeriodic();
+
+    // the Shuffleboard values that are due this loop, after the subsystems and commands have run
+    Telemetry.update();
+
+    if (Constants.kLogging) {
+      LogManager.addInt(m_talonSentLog, (int) LazyTalonFX.getTotalSentCount());
+      LogManager.addInt(m_talonSuppressedLog, (int) LazyTalonFX.getTotalSuppressedCount());
+    }
+
+    // logs the path loading times once they are all loaded
+    PathGroupLoader.publishTimings();
+
+    if (Constants.kLoopProfiling) m_logStage.start();
     LogManager.log();
+    if (Constants.kLoopProfiling) m_logStage.stop();
+
+    if (Constants.kLoopProfiling) LoopProfiler.publish();
   }
 
   /**
@@ -81,7 +156,10 @@ public class Robot extends TimedRobot {
 
   /** This function is called periodically when the robot is disabled */
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    // transform the auto paths for the alliance now, so autonomous doesn't have to
+    AllianceTrajectoryCache.update(DriverStation.getAlliance());
+  }
 
   /**
    * This autonomous runs the autonomous command selected by your {@link RobotContainer} class.
@@ -104,6 +182,7 @@ public class Robot extends TimedRobot {
 
     // If there is an autonomous command, then schedule it
     if (m_autoCommand != null) {
+      if (Constants.kAutoTimeline) CommandTimeline.watch(m_autoCommand);
       m_autoCommand.schedule();
     }
   }
@@ -158,6 +237,15 @@ public class Robot extends TimedRobot {
 
   @Override
   public void simulationPeriodic() {
+    // runs after every subsystem's simulationPeriodic(), so the battery has this loop's currents
+    SimBattery.update();
+  }
+
+  /**
+   * @return the robot container, or null before {@link #robotInit()}
+   */
+  RobotContainer getRobotContainer() {
+    return m_robotContainer;
   }
 
   /**
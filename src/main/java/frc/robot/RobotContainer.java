@@ -1,5 +1,8 @@
 package frc.robot;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -60,6 +63,10 @@ public class RobotContainer {
 
   // Shuffleboard auto chooser
   private final SendableChooser<Command> m_autoCommand = new SendableChooser<>();
+  // every auto routine in the chooser other than Do Nothing, by name, so they can be run without the chooser
+  private final Map<String, Command> m_autoRoutines = new LinkedHashMap<>();
+  // when set, run instead of the chooser's selection
+  private Command m_selectedAutoRoutine = null;
 
   //shuffleboard tabs
   private final ShuffleboardTab m_mainTab = Shuffleboard.getTab("Main");
@@ -202,9 +209,34 @@ public class RobotContainer {
    * @return the command to run in autonomous
    */
   public Command getAutonomousCommand() {
+    if (m_selectedAutoRoutine != null) return m_selectedAutoRoutine;
     return m_autoCommand.getSelected();
   }
 
+  /**
+   * @return every auto routine in the auto chooser other than Do Nothing, by name, in the order they were added
+   */
+  Map<String, Command> getAutoRoutines() {
+    return Collections.unmodifiableMap(m_autoRoutines);
+  }
+
+  /**
+   * Runs an auto routine in autonomous instead of the one selected in the auto chooser. Used by the
+   * {@link AutoSimRunner}, since the chooser can only be set from the dashboard.
+   *
+   * @param name the name of the routine, or null to use the auto chooser again
+   */
+  void selectAutoRoutine(String name) {
+    m_selectedAutoRoutine = name == null ? null : m_autoRoutines.get(name);
+  }
+
+  /**
+   * @return the drivetrain, or null if this robot doesn't have one
+   */
+  Drivetrain getDrivetrain() {
+    return m_drive;
+  }
+
   /**
    * Adds the test commands to shuffleboard so they can be run that way.
    */
@@ -229,38 +261,38 @@ public class RobotContainer {
   /**
    * Updates the auto chooser on shuffleboard to display what auto routines can be selected for running.
    * 
-   * Do Nothing should stay the default, other autos are added with m_autoCommand.addOption()
+   * Do Nothing should stay the default, other autos are added with addAutoRoutine()
    */
   public void autoChooserUpdate() {
 
     m_autoCommand.setDefaultOption("Do Nothing", new PrintCommand("This will do nothing!"));
 
     // if (m_drive != null) {
-    //   m_autoCommand.addOption("Figure 8", new PathPlannerCommand("Figure 8", 0, m_drive, true));
-    //   m_autoCommand.addOption("One Meter", new PathPlannerCommand("One Meter", 0, m_drive, true));
+    //   addAutoRoutine("Figure 8", new PathPlannerCommand("Figure 8", 0, m_drive, true));
+    //   addAutoRoutine("One Meter", new PathPlannerCommand("One Meter", 0, m_drive, true));
     // }
 
     if (m_drive != null && m_elevator != null && m_wrist != null && m_intake != null) {
 
-      // m_autoCommand.addOption("ROUTINE 1: Grid 4 Engage Hybrid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 1: Grid 4 Engage Hybrid", Commands.sequence(
       //     new AutoDeposit(Position.BOTTOM, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 4 Engage No Mobility", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
-      // m_autoCommand.addOption("ROUTINE 2: Grid 4 Engage Mid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 2: Grid 4 Engage Mid", Commands.sequence(
       //     new AutoDeposit(Position.MIDDLE, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 4 Engage No Mobility", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
-      // m_autoCommand.addOption("ROUTINE 3: Grid 4 Engage Top", Commands.sequence(
+      // addAutoRoutine("ROUTINE 3: Grid 4 Engage Top", Commands.sequence(
       //     new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 4 Engage No Mobility", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
 
-      // m_autoCommand.addOption("ROUTINE 4: Grid 6 Engage Hybrid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 4: Grid 6 Engage Hybrid", Commands.sequence(
       //     new AutoDeposit(Position.BOTTOM, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 6 Engage No Mobility", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
 
-      m_autoCommand.addOption("Just Score", Commands.sequence(
+      addAutoRoutine("Just Score", Commands.sequence(
         // reset yaw to correct direction
         new InstantCommand(
           () -> m_drive.setYaw(new Rotation2d(DriverStation.getAlliance() == Alliance.Red ? 0 : Math.PI))
@@ -268,63 +300,63 @@ public class RobotContainer {
         new AutoDeposit(Position.TOP, GamePieceType.CONE, true, m_elevator, m_wrist, m_intake)
       ));
       
-      // m_autoCommand.addOption("ROUTINE 6: Grid 4/6 Engage Top NEW!!", Commands.sequence(
+      // addAutoRoutine("ROUTINE 6: Grid 4/6 Engage Top NEW!!", Commands.sequence(
       //     new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 6 Engage New", 0, m_drive, true),
       //     new BalanceCommand(m_drive, 0.7)));
 
-      // m_autoCommand.addOption("SPIN2WIN Engage", Commands.sequence(
+      // addAutoRoutine("SPIN2WIN Engage", Commands.sequence(
       //   new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
       //   new PathPlannerCommand("Grid 6 Engage Spin", 0, m_drive, true),
       //   new BalanceCommand(m_drive, 0.7)));
 
-      // m_autoCommand.addOption("ROUTINE 7: Grid 1 Mobility Hybrid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 7: Grid 1 Mobility Hybrid", Commands.sequence(
       //     new AutoDeposit(Position.BOTTOM, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 1 Mobility", 0, m_drive, true)));
-      // m_autoCommand.addOption("ROUTINE 8: Grid 1 Mobility Mid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 8: Grid 1 Mobility Mid", Commands.sequence(
       //     new AutoDeposit(Position.MIDDLE, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 1 Mobility", 0, m_drive, true)));
-      m_autoCommand.addOption("ROUTINE 9: Grid 1 Mobility Top", Commands.sequence(
+      addAutoRoutine("ROUTINE 9: Grid 1 Mobility Top", Commands.sequence(
           new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
           new PathPlannerCommand("Grid 1 Mobility", 0, m_drive, true)));
 
-      // m_autoCommand.addOption("ROUTINE 10: Grid 9 Mobility Hybrid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 10: Grid 9 Mobility Hybrid", Commands.sequence(
       //     new AutoDeposit(Position.BOTTOM, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 9 Mobility", 0, m_drive, true)));
-      // m_autoCommand.addOption("ROUTINE 11: Grid 9 Mobility Mid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 11: Grid 9 Mobility Mid", Commands.sequence(
       //     new AutoDeposit(Position.MIDDLE, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 9 Mobility", 0, m_drive, true)));
-      m_autoCommand.addOption("ROUTINE 12: Grid 9 Mobility Top", Commands.sequence(
+      addAutoRoutine("ROUTINE 12: Grid 9 Mobility Top", Commands.sequence(
           new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
           new PathPlannerCommand("Grid 9 Mobility", 0, m_drive, true)));
 
-      // m_autoCommand.addOption("ROUTINE 13: Grid 1 Engage Hybrid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 13: Grid 1 Engage Hybrid", Commands.sequence(
       //     new AutoDeposit(Position.BOTTOM, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 1 Engage", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
-      // m_autoCommand.addOption("ROUTINE 14: Grid 1 Engage Mid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 14: Grid 1 Engage Mid", Commands.sequence(
       //     new AutoDeposit(Position.MIDDLE, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 1 Engage", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
-      m_autoCommand.addOption("ROUTINE 15: Grid 1 Engage Top", Commands.sequence(
+      addAutoRoutine("ROUTINE 15: Grid 1 Engage Top", Commands.sequence(
           new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
           new PathPlannerCommand("Grid 1 Engage", 0, m_drive, true),
           new BalanceCommand(m_drive)));
 
-      // m_autoCommand.addOption("ROUTINE 16: Grid 9 Engage Hybrid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 16: Grid 9 Engage Hybrid", Commands.sequence(
       //     new AutoDeposit(Position.BOTTOM, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 9 Engage", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
-      // m_autoCommand.addOption("ROUTINE 17: Grid 9 Engage Mid", Commands.sequence(
+      // addAutoRoutine("ROUTINE 17: Grid 9 Engage Mid", Commands.sequence(
       //     new AutoDeposit(Position.MIDDLE, true, m_elevator, m_wrist, m_intake),
       //     new PathPlannerCommand("Grid 9 Engage", 0, m_drive, true),
       //     new BalanceCommand(m_drive)));
-      m_autoCommand.addOption("ROUTINE 18: Grid 9 Engage Top", Commands.sequence(
+      addAutoRoutine("ROUTINE 18: Grid 9 Engage Top", Commands.sequence(
           new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
           new PathPlannerCommand("Grid 9 Engage", 0, m_drive, true),
           new BalanceCommand(m_drive)));
 
-      // m_autoCommand.addOption("ROUTINE 19: Grid 1 Intake Cone Top",
+      // addAutoRoutine("ROUTINE 19: Grid 1 Intake Cone Top",
       //     Commands.sequence(
       //         new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
       //         new PathPlannerCommand("Grid 1 Two Piece", 0, m_drive, true)
@@ -332,7 +364,7 @@ public class RobotContainer {
       //               new PositionIntake(m_elevator, m_wrist, GamePieceType.CONE, Position.INTAKE), 
       //               new IntakeGamePiece(m_intake, GamePieceType.CONE, false)))));
 
-      m_autoCommand.addOption("ROUTINE 20: Grid 1 Intake Cube Top",
+      addAutoRoutine("ROUTINE 20: Grid 1 Intake Cube Top",
           Commands.sequence(
               new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
               new PathPlannerCommand("Grid 1 Two Piece", 0, m_drive, true)
@@ -340,7 +372,7 @@ public class RobotContainer {
                     new PositionIntake(m_elevator, m_wrist, GamePieceType.CUBE, Position.INTAKE), 
                     new IntakeGamePiece(m_intake, GamePieceType.CUBE, false)))));
 
-      // m_autoCommand.addOption("ROUTINE 21: Grid 9 Intake Cone Top",
+      // addAutoRoutine("ROUTINE 21: Grid 9 Intake Cone Top",
       //     Commands.sequence(
       //         new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
       //         new PathPlannerCommand("Grid 9 Two Piece", 0, m_drive, true)
@@ -348,7 +380,7 @@ public class RobotContainer {
       //             new PositionIntake(m_elevator, m_wrist, GamePieceType.CONE, Position.INTAKE), 
       //             new IntakeGamePiece(m_intake, GamePieceType.CONE, false)))));
       
-      m_autoCommand.addOption("ROUTINE 22: Grid 9 Intake Cube Top",
+      addAutoRoutine("ROUTINE 22: Grid 9 Intake Cube Top",
           Commands.sequence(
               new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
               new PathPlannerCommand("Grid 9 Two Piece", 0, m_drive, true)
@@ -356,39 +388,39 @@ public class RobotContainer {
                   new PositionIntake(m_elevator, m_wrist, GamePieceType.CUBE, Position.INTAKE), 
                   new IntakeGamePiece(m_intake, GamePieceType.CUBE, false)))));
 
-      m_autoCommand.addOption("ROUTINE 23: Grid 1 Two Piece Cube Top",
+      addAutoRoutine("ROUTINE 23: Grid 1 Two Piece Cube Top",
           Commands.sequence(
             new TwoPiece(false, m_drive, m_elevator, m_wrist, m_intake),
             new Stow(m_elevator, m_wrist) 
           ));
 
-      m_autoCommand.addOption("ROUTINE 24: Grid 9 Two Piece Cube Top",
+      addAutoRoutine("ROUTINE 24: Grid 9 Two Piece Cube Top",
           Commands.sequence(
             new TwoPiece(true, m_drive, m_elevator, m_wrist, m_intake),
             new Stow(m_elevator, m_wrist)
           ));
 
-      m_autoCommand.addOption("ROUTINE 25: Grid 1 Two Piece Cube Top Engage",
+      addAutoRoutine("ROUTINE 25: Grid 1 Two Piece Cube Top Engage",
           Commands.sequence(
               new TwoPiece(false, m_drive, m_elevator, m_wrist, m_intake),
               new PathPlannerCommand("Grid 1 Two Piece Engage", 0, m_drive, true)
                 .alongWith(new Stow(m_elevator, m_wrist)),
               new BalanceCommand(m_drive)));
       
-      m_autoCommand.addOption("ROUTINE 26: Grid 9 Two Piece Cube Top Engage",
+      addAutoRoutine("ROUTINE 26: Grid 9 Two Piece Cube Top Engage",
           Commands.sequence(
               new TwoPiece(true, m_drive, m_elevator, m_wrist, m_intake),
               new PathPlannerCommand("Grid 9 Two Piece Engage", 0, m_drive, true)
                 .alongWith(new Stow(m_elevator, m_wrist)),
               new BalanceCommand(m_drive)));
 
-      // m_autoCommand.addOption("Routine 27: Grid 4/6 Engage Mobility", Commands.sequence(
+      // addAutoRoutine("Routine 27: Grid 4/6 Engage Mobility", Commands.sequence(
       //   new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
       //   new PathPlannerCommand("Grid 6 Engage Mobility", 0, m_drive, true),
       //   new BalanceCommand(m_drive)));
       
       // THREE PIECE ROUTINES
-      m_autoCommand.addOption("Routine 28: Grid 1 Three Piece", 
+      addAutoRoutine("Routine 28: Grid 1 Three Piece", 
           Commands.sequence(
               new TwoPiece(false, m_drive, m_elevator, m_wrist, m_intake),
               new PathPlannerCommand("Grid 1 Three Piece", 0, m_drive, false)
@@ -406,7 +438,7 @@ public class RobotContainer {
                 ))
           ));
 
-      m_autoCommand.addOption("Routine 29: Grid 9 Three Piece", Commands.sequence(
+      addAutoRoutine("Routine 29: Grid 9 Three Piece", Commands.sequence(
         new TwoPiece(true, m_drive, m_elevator, m_wrist, m_intake),
         new PathPlannerCommand("Grid 9 Three Piece", 0, m_drive, false)
           .alongWith(Commands.sequence( 
@@ -423,7 +455,7 @@ public class RobotContainer {
           ))
       ));
 
-        // m_autoCommand.addOption("Routine 30: Grid 9 Two Piece Intake 1",
+        // addAutoRoutine("Routine 30: Grid 9 Two Piece Intake 1",
         //   Commands.sequence(
         //     new TwoPiece(true, m_drive, m_elevator, m_wrist, m_intake),
         //     new PathPlannerCommand("Grid 9 Three Piece", 0, m_drive, false)
@@ -437,7 +469,7 @@ public class RobotContainer {
         //       .alongWith(new Stow(m_elevator, m_wrist))
         //   ));
         
-        // m_autoCommand.addOption("Routine 31: Grid 4/6 Engage with Intake", Commands.sequence(
+        // addAutoRoutine("Routine 31: Grid 4/6 Engage with Intake", Commands.sequence(
         //   new AutoDeposit(Position.TOP, false, m_elevator, m_wrist, m_intake),
         //   new PathPlannerCommand("Grid 6 Engage Intake", 0, m_drive, true)
         //     .alongWith(Commands.sequence(
@@ -450,7 +482,7 @@ public class RobotContainer {
         //   new BalanceCommand(m_drive, 0.0)
         // ));
 
-        // m_autoCommand.addOption("Routine XXX: SECRET (WORKING?????) ENGAGE>>???", Commands.sequence(
+        // addAutoRoutine("Routine XXX: SECRET (WORKING?????) ENGAGE>>???", Commands.sequence(
         //   new AutoDeposit(Position.TOP, false, m_elevator, m_wrist, m_intake),
         //   new PathPlannerCommand("Grid 6 Engage Intake", 0, m_drive, true)
         //     .alongWith(new Stow(m_elevator, m_wrist))
@@ -459,7 +491,7 @@ public class RobotContainer {
         //   new BalanceCommand(m_drive, 0.0)
         // ));
 
-        // m_autoCommand.addOption("Routine 33: PUSH DOWN ENGAGE ?", Commands.sequence(
+        // addAutoRoutine("Routine 33: PUSH DOWN ENGAGE ?", Commands.sequence(
         //   new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
         //   new PathPlannerCommand("Grid 6 Engage Push Down", 0, m_drive, true),
         //   new PositionIntake(m_elevator, m_wrist, GamePieceType.CUBE, Position.INTAKE),
@@ -468,12 +500,12 @@ public class RobotContainer {
         //   new BalanceCommand(m_drive, 0.0)
         // ));
         
-        // m_autoCommand.addOption("ROUTINE 34: Grid 6 Engage OLD", Commands.sequence(
+        // addAutoRoutine("ROUTINE 34: Grid 6 Engage OLD", Commands.sequence(
         //     new AutoDeposit(Position.TOP, true, m_elevator, m_wrist, m_intake),
         //     new PathPlannerCommand("Grid 6 Engage No Mobility", 0, m_drive, true),
         //     new BalanceCommand(m_drive)));
 
-        // m_autoCommand.addOption("Routine 32: Grid 4/6 Engage with Shoot", Commands.sequence(
+        // addAutoRoutine("Routine 32: Grid 4/6 Engage with Shoot", Commands.sequence(
         //   new AutoDeposit(Position.TOP, false, m_elevator, m_wrist, m_intake),
         //   new PathPlannerCommand("Grid 6 Engage Shoot", 0, m_drive, true)
         //     .deadlineWith(Commands.sequence(
@@ -493,7 +525,7 @@ public class RobotContainer {
         // ));
         
 
-        // m_autoCommand.addOption("Routine 30: Grid 9 Three Piece Hybrid",
+        // addAutoRoutine("Routine 30: Grid 9 Three Piece Hybrid",
         //   Commands.sequence(
         //       new AutoDeposit(Position.BOTTOM, GamePieceType.CONE, true, m_elevator, m_wrist, m_intake),
         //       new PathPlannerCommand("Grid 9 Three Piece Hybrid", 0, m_drive, true)
@@ -513,6 +545,17 @@ public class RobotContainer {
     }
   }
 
+  /**
+   * Adds an auto routine to the auto chooser.
+   *
+   * @param name the name shown in the chooser
+   * @param command the routine
+   */
+  private void addAutoRoutine(String name, Command command) {
+    m_autoCommand.addOption(name, command);
+    m_autoRoutines.put(name, command);
+  }
+
   /**
    * Loads the command scheduler shuffleboard which will add event markers whenever a command finishes, ends, or is interrupted.
    */
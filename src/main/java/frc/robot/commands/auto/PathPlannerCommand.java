@@ -16,10 +16,13 @@ import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.robot.constants.AutoConstants;
 import frc.robot.subsystems.Drivetrain;
+import frc.robot.util.AllianceTrajectoryCache;
 import frc.robot.util.Conversions;
 import frc.robot.util.PathGroupLoader;
 
@@ -47,11 +50,11 @@ public class PathPlannerCommand extends SequentialCommandGroup {
   }
   
   public PathPlannerCommand(String pathGroupName, int pathIndex, Drivetrain drive) {
-    this(PathGroupLoader.getPathGroup(pathGroupName), pathIndex, drive, true, true, false); 
+    this(pathGroupName, PathGroupLoader.getPathGroup(pathGroupName), pathIndex, drive, true, true, false); 
   }
   
   public PathPlannerCommand(String pathGroupName, int pathIndex, Drivetrain drive, boolean resetPose) {
-    this(PathGroupLoader.getPathGroup(pathGroupName), pathIndex, drive, resetPose, true, false); 
+    this(pathGroupName, PathGroupLoader.getPathGroup(pathGroupName), pathIndex, drive, resetPose, true, false); 
   }
 
   public PathPlannerCommand(List<PathPlannerTrajectory> pathGroup, int pathIndex, Drivetrain drive, boolean resetPose){
@@ -59,32 +62,63 @@ public class PathPlannerCommand extends SequentialCommandGroup {
   }
 
   public PathPlannerCommand(List<PathPlannerTrajectory> pathGroup, int pathIndex, Drivetrain drive, boolean resetPose, boolean useAllianceColor, boolean isPerpetual) {
+    this(null, pathGroup, pathIndex, drive, resetPose, useAllianceColor, isPerpetual);
+  }
+
+  /**
+   * Paths from a named path group are added to the {@link AllianceTrajectoryCache}, so they are transformed for the
+   * alliance while disabled instead of when the command starts. Paths without a group name are transformed when the
+   * command starts.
+   *
+   * @param pathGroupName the name of the path group, or null if the paths aren't from a path group file
+   */
+  private PathPlannerCommand(String pathGroupName, List<PathPlannerTrajectory> pathGroup, int pathIndex, Drivetrain drive, boolean resetPose, boolean useAllianceColor, boolean isPerpetual) {
 
     addRequirements(drive);
     if (pathIndex < 0 || pathIndex > pathGroup.size() - 1) {
       throw new IndexOutOfBoundsException("Path index out of range"); 
     }
+
+    PathPlannerTrajectory path = pathGroup.get(pathIndex);
+    if (pathGroupName != null) {
+      AllianceTrajectoryCache.register(pathGroupName, pathIndex, path);
+    }
+
+    // The controller command is made when this starts, with the path already transformed for the alliance,
+    // so it doesn't transform the path itself
+    Command[] controllerCommand = new Command[1];
     
     addCommands(
       new InstantCommand( () -> {
-        PathPlannerTrajectory path = PathPlannerTrajectory.transformTrajectoryForAlliance(
-          pathGroup.get(pathIndex), DriverStation.getAlliance());
         if (resetPose) {
-          drive.resetOdometry(Conversions.absolutePoseToPathPlannerPose(path.getInitialHolonomicPose(), DriverStation.getAlliance()));
+          PathPlannerTrajectory transformedPath = AllianceTrajectoryCache.get(
+            pathGroupName, pathIndex, path, DriverStation.getAlliance());
+          drive.resetOdometry(Conversions.absolutePoseToPathPlannerPose(transformedPath.getInitialHolonomicPose(), DriverStation.getAlliance()));
         }
       }),
-      createSwerveControllerCommand(
-        pathGroup.get(pathIndex), 
-        useAllianceColor ? // Pose supplier
-          () -> Conversions.absolutePoseToPathPlannerPose(drive.getPose(), DriverStation.getAlliance()) : 
-          () -> drive.getPose(), 
-        drive.getPathplannerXController(), // X controller can't normal PID as pathplanner has Feed Forward 
-        drive.getPathplannerYController(), // Y controller can't normal PID as pathplanner has Feed Forward 
-        drive.getPathplannerRotationController(), // Rotation controller can't normal PID as pathplanner has Feed Forward 
-        (chassisSpeeds) -> { drive.setChassisSpeeds(chassisSpeeds, false); }, // chassis Speeds consumer
-        useAllianceColor,  // use Alliance color
-        drive, // Requires this drive subsystem
-        isPerpetual
+      new FunctionalCommand(
+        () -> {
+          controllerCommand[0] = createSwerveControllerCommand(
+            useAllianceColor && path.fromGUI ? 
+              AllianceTrajectoryCache.get(pathGroupName, pathIndex, path, DriverStation.getAlliance()) : 
+              path, 
+            useAllianceColor ? // Pose supplier
+              () -> Conversions.absolutePoseToPathPlannerPose(drive.getPose(), DriverStation.getAlliance()) : 
+              () -> drive.getPose(), 
+            drive.getPathplannerXController(), // X controller can't normal PID as pathplanner has Feed Forward 
+            drive.getPathplannerYController(), // Y controller can't normal PID as pathplanner has Feed Forward 
+            drive.getPathplannerRotationController(), // Rotation controller can't normal PID as pathplanner has Feed Forward 
+            (chassisSpeeds) -> { drive.setChassisSpeeds(chassisSpeeds, false); }, // chassis Speeds consumer
+            false,  // already transformed for the alliance color
+            drive, // Requires this drive subsystem
+            isPerpetual
+          );
+          controllerCommand[0].initialize();
+        },
+        () -> controllerCommand[0].execute(),
+        (interrupted) -> controllerCommand[0].end(interrupted),
+        () -> controllerCommand[0].isFinished(),
+        drive
       )
     );
   }
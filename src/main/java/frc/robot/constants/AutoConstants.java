@@ -7,7 +7,14 @@ public class AutoConstants {
 
   // Pathplanner output folder should be src/main/deploy/pathplanner
   public static final String kTrajectoryDirectory = "pathplanner/";
+  // Paths generated at build time by the precompileTrajectories task, in the deploy directory
+  public static final String kPrecompiledTrajectoryFile = "trajectories.bin";
 
   public static final double kMaxAutoSpeed = 4.3; // m/s
   public static final double kMaxAutoAccel = 2.1; // m/s^2
+
+  // How many threads generate paths at boot. The roboRIO has two cores.
+  public static final int kPathLoadingThreads = 2;
+  // If true, paths keep generating after robotInit, and getting a path waits only if it isn't ready yet
+  public static final boolean kLazyPathLoading = true;
 }
@@ -18,9 +18,18 @@ public final class Constants {
   public static final String kRobotIdKey = "RobotId";
 
   public static final boolean kLogging = true;
+  // if true, log values are written to the log file by a background thread instead of the main loop
+  public static final boolean kBackgroundLogging = true;
+  // if true, the time each subsystem periodic and command execute takes is logged under Profiler/
+  public static final boolean kLoopProfiling = true;
+  // if true, CAN devices are configured on a thread pool while the robot boots instead of one after another
+  public static final boolean kParallelDeviceConfig = true;
 
   // this is not a constant...
   public static boolean kUseTelemetry = false;
+  // if true, the start and end of every command in the auto routine is recorded and its critical path is printed.
+  // Not a constant, the auto simulator turns it on, it reads WPILib's private fields so it is off on the robot
+  public static boolean kAutoTimeline = false;
 
   // port for the led controller, the Blinkin
   public static final int kBlinkinPort = 0;
@@ -3,6 +3,7 @@ package frc.robot.constants;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.TalonFXInvertType;
 
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.util.Units;
 import frc.robot.util.Conversions;
 
@@ -96,5 +97,13 @@ public class ElevatorConstants {
 
     public static final double kCalibrationPower = -0.2;
     public static final double kMotorRamp = 0.1;
+
+    //SIM
+    // to know how fast the elevator will move with a certain power, the sim needs to know the motor, spool, and mass
+    public static final DCMotor kGearBox = DCMotor.getFalcon500(1);
+    // Mass lifted by the spool: the carriage, first stage, wrist, and intake
+    public static final double kCarriageMass = Units.lbsToKilograms(18); // FIXME: Elevator, weigh it
+    // How far from the ends of travel the limit switches trip
+    public static final double kSimLimitSwitchDistance = Units.inchesToMeters(0.25);
 }
 
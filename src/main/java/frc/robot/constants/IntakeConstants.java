@@ -2,6 +2,7 @@ package frc.robot.constants;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
+import edu.wpi.first.math.system.plant.DCMotor;
 import frc.robot.commands.scoring.intake.IntakeGamePiece;
 import frc.robot.util.GamePieceType;
 
@@ -56,4 +57,11 @@ public final class IntakeConstants {
    * Max distance from the center a game piece can be, the distance sensor will be limited to this amount.
    */
   public static final double kMaxDistanceSensorRange = 0.4;
+
+  //SIM
+  // to know how much current the rollers draw, the sim needs to know the motor, gear ratio, and MOI
+  public static final DCMotor kGearBox = DCMotor.getFalcon500(1);
+  public static final double kGearRatio = 3; // FIXME: Intake
+  /** Moment of inertia of the rollers (kg m^2). */
+  public static final double kMomentOfInertia = 0.002; // FIXME: Intake
 }
\ No newline at end of file
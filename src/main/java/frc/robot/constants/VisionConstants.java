@@ -25,6 +25,13 @@ public class VisionConstants {
   // If vision is enabled
   public static final boolean kEnabled = true;
 
+  // If each camera should estimate poses on its own thread instead of in the main loop
+  public static final boolean kUseThreads = true;
+  // How long the camera threads wait between checking for new results, in milliseconds
+  public static final long kThreadPeriodMs = 5;
+  // The most poses a camera will hold for the main thread. The oldest poses are dropped past this.
+  public static final int kMaxQueuedPoses = 10;
+
   // The angle to use charge station vision at in degrees. 
   // If the pitch or the roll of the robot is above this amount, it will trust vision more for a bit.
   public static final double kChargeStationAngle = 2.5;
@@ -5,11 +5,13 @@ import com.ctre.phoenix.motorcontrol.NeutralMode;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.util.Units;
 import frc.robot.Robot.RobotId;
 import frc.robot.constants.Constants;
 import frc.robot.constants.FalconConstants;
 import lib.COTSFalconSwerveConstants;
+import lib.PrimitiveSwerveKinematics;
 
 /**
  * Constants, are by default, for the competition robot. Constants get changed if the RobotId detected is not the competition robot.
@@ -46,12 +48,24 @@ public class DriveConstants {
 
   public static Rotation2d kStartingHeading = new Rotation2d();
 
-  public static final SwerveDriveKinematics kKinematics = new SwerveDriveKinematics(
+  private static final Translation2d[] kModuleTranslations = {
     new Translation2d(DriveConstants.kTrackWidth / 2, DriveConstants.kTrackWidth / 2),
     new Translation2d(DriveConstants.kTrackWidth / 2, -DriveConstants.kTrackWidth / 2),
     new Translation2d(-DriveConstants.kTrackWidth / 2, DriveConstants.kTrackWidth / 2),
     new Translation2d(-DriveConstants.kTrackWidth / 2, -DriveConstants.kTrackWidth / 2)
-  );
+  };
+
+  public static final SwerveDriveKinematics kKinematics = new SwerveDriveKinematics(kModuleTranslations);
+
+  /**
+   * @param moduleIndex the index of the module, see ModuleType
+   * @return where the module is from the center of the robot, in meters
+   */
+  public static Translation2d getModuleTranslation(int moduleIndex) {
+    return kModuleTranslations[moduleIndex];
+  }
+  // Same kinematics, but writes into arrays so driving does not allocate every loop
+  public static final PrimitiveSwerveKinematics kPrimitiveKinematics = new PrimitiveSwerveKinematics(kModuleTranslations);
 
   public static int kDriveFrontLeft = 20;
   public static int kSteerFrontLeft = 15;
@@ -112,6 +126,16 @@ public class DriveConstants {
   public static String kSteerMotorCAN = Constants.kCanivoreCAN;
   public static String kSteerEncoderCAN = Constants.kCanivoreCAN;
   public static String kPigeonCAN = Constants.kCanivoreCAN;
+
+  /* Odometry */
+  // If the module positions and gyro should be sampled on their own thread, faster than the main loop
+  public static final boolean kUseOdometryThread = true;
+  // How many times a second the odometry thread samples, in Hz
+  public static final double kOdometryFrequency = 250;
+  // How often the sensors the odometry thread reads send new values, in ms. Should be at most 1000 / kOdometryFrequency
+  public static final int kOdometryStatusFramePeriodMs = 4;
+  // How many samples the odometry thread can hold before the main loop drains them
+  public static final int kOdometryBufferSize = 64;
   
 
   public static final COTSFalconSwerveConstants kModuleConstants = COTSFalconSwerveConstants.SDSMK4i(COTSFalconSwerveConstants.driveGearRatios.SDSMK4i_L2);
@@ -135,6 +159,9 @@ public class DriveConstants {
   public static final NeutralMode kDriveNeutralMode = NeutralMode.Brake;
   public static final NeutralMode kAngleNeutralMode = NeutralMode.Coast;
 
+  // How far the steer position setpoint has to change before it is sent again, in encoder ticks (about 0.01 degrees)
+  public static final double kAngleSetEpsilon = 1;
+
   /* Drive Motor PID Values */
   public static final double kDriveP = 0.05;
   public static final double kDriveI = 0.0;
@@ -158,6 +185,20 @@ public class DriveConstants {
   public static final double kSlowDriveFactor = 0.2;
   public static final double kSlowRotFactor = 0.1;
 
+  /* Simulation, see SwerveDriveSim */
+  public static final DCMotor kDriveGearBox = DCMotor.getFalcon500(1);
+  public static final DCMotor kSteerGearBox = DCMotor.getFalcon500(1);
+  // mass of the robot with bumpers and battery, in kg
+  public static final double kRobotMass = Units.lbsToKilograms(125);
+  // moment of inertia of the robot about its center, in kg m^2. About that of a uniform square of the same mass.
+  public static final double kRobotMomentOfInertia = kRobotMass * kRobotWidthWithBumpers * kRobotWidthWithBumpers / 6;
+  // moment of inertia of a module about its steering axis, in kg m^2
+  public static final double kSteerMomentOfInertia = 0.004;
+  // friction between the wheels and the carpet
+  public static final double kWheelCoefficientOfFriction = 1.1;
+  // how long each physics step is. Smaller is more accurate, but slower to simulate.
+  public static final double kSimSubstepSeconds = 0.001;
+
   /**
    * Updates the constants if the RobotId is not the competition robot.
    */
@@ -25,6 +25,7 @@ import frc.robot.subsystems.Wrist;
 import frc.robot.util.Blinkin;
 import frc.robot.util.GamePieceType;
 import frc.robot.util.Node;
+import frc.robot.util.Telemetry;
 import frc.robot.util.Vision;
 import frc.robot.util.Blinkin.Colors;
 import lib.controllers.GameController;
@@ -120,7 +121,7 @@ public class Operator {
    * @param tab The tab on shuffleboard
    */
   public void setUpShuffleboard(ShuffleboardTab tab) {
-    tab.addStringArray("Selected node", () -> new String[] {
+    Telemetry.addStringArray(tab, "Selected node", Telemetry.Rate.MEDIUM, () -> new String[] {
       "Alliance: " + getSelectedNode().alliance,
       "Type: " + getSelectedNode().type,
       "Row: " + getSelectedNode().row,
@@ -131,7 +132,7 @@ public class Operator {
         getSelectedNode().scorePose.getRotation().getDegrees()
       )
     });
-    tab.addDouble("Column Alignment", () -> getSelectedNode().column);
+    Telemetry.addDouble(tab, "Column Alignment", Telemetry.Rate.MEDIUM, () -> getSelectedNode().column);
   }
 
   /**
@@ -1,14 +1,14 @@
 package frc.robot.subsystems;
 
 import java.util.ArrayList;
+import java.util.function.DoubleSupplier;
 
 import org.photonvision.EstimatedRobotPose;
 
-import com.ctre.phoenix.sensors.Pigeon2.AxisDirection;
-import com.ctre.phoenix.sensors.WPI_Pigeon2;
 import com.pathplanner.lib.PathPlannerTrajectory;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
@@ -16,13 +16,15 @@ import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
@@ -31,7 +33,6 @@ import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Robot;
 import frc.robot.commands.test.CircleDrive;
 import frc.robot.commands.test.DriveFeedForwardCharacterization;
 import frc.robot.commands.test.SteerFeedForwardCharacterizationSingle;
@@ -43,9 +44,18 @@ import frc.robot.constants.FieldConstants;
 import frc.robot.constants.VisionConstants;
 import frc.robot.constants.swerve.DriveConstants;
 import frc.robot.constants.swerve.ModuleConstants;
+import frc.robot.util.DeviceConfigurator;
 import frc.robot.util.DrawMechanism;
+import frc.robot.util.InputsLog;
 import frc.robot.util.LogManager;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.OdometryThread;
+import frc.robot.util.PoseEstimatorReplay;
+import frc.robot.util.SimBattery;
+import frc.robot.util.SimNoise;
+import frc.robot.util.Telemetry;
 import frc.robot.util.Vision;
+import lib.PrimitiveSwerveKinematics;
 /** 
  * Represents a swerve drive style drivetrain.
  * 
@@ -61,13 +71,36 @@ public class Drivetrain extends SubsystemBase {
 
   // Odometry
   private final SwerveDrivePoseEstimator m_poseEstimator;
+  // Samples the modules and gyro faster than the main loop, null if it isn't used
+  private final OdometryThread m_odometryThread;
+  // reused positions for feeding odometry samples to the pose estimator, which copies them
+  private final SwerveModulePosition[] m_odometryPositions = new SwerveModulePosition[4];
+  // the angles the odometry samples were last at, Rotation2d can't be changed, so one is only made when they change
+  private final double[] m_odometrySteerRadians = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+  private double m_odometryYawDegrees = Double.NaN;
+  private Rotation2d m_odometryYaw = new Rotation2d();
+  private final OdometryThread.SampleConsumer m_odometrySampleConsumer = this::addOdometrySample;
   private final DrawMechanism m_mechanism;
 
   // This is left intentionally public
   public final Module[] m_modules;
 
-  private final WPI_Pigeon2 m_pigeon;
+  private final GyroIO m_gyroIO;
+  // Physics model that moves the modules and gyro in simulation, and their simulated IO, null on the robot
+  private final SwerveDriveSim m_driveSim;
+  private final ModuleIOSim[] m_moduleSims;
+  private final GyroIOSim m_gyroSim;
+  // SimBattery handles of the drive and steer motors
+  private final int m_driveBatteryHandle;
+  private final int m_steerBatteryHandle;
+  // When the simulated cameras last saw a tag, see SimNoise
+  private double m_lastSimVisionTime = 0;
+  // Gyro values for this loop, read once by updateInputs()
+  private final GyroInputs m_gyroInputs = new GyroInputs();
+  private final int m_gyroInputsHandle = InputsLog.register("Swerve/Gyro", m_gyroInputs);
   private Vision m_vision;
+  // reused list of the poses from vision each loop
+  private final ArrayList<EstimatedRobotPose> m_estimatedPoses = new ArrayList<>();
 
   // PID Controllers for chassis movement
   private final PIDController m_xController;
@@ -108,9 +141,36 @@ public class Drivetrain extends SubsystemBase {
   // If vision is enabled
   // Do not change this. Instead, change kEnabled in VisionConstants
   boolean m_visionEnabled = true;
+  // if the next odometry reset also places the simulated robot, only the first reset of a routine does
+  private boolean m_placeSimulatedRobot = true;
 
   int m_loggerStep = 0;
 
+  // Log handles and buffers, registered/allocated once so updateLogs() does not allocate every loop
+  private final int m_poseLog = LogManager.registerDoubleArray(PoseEstimatorReplay.kPoseLog);
+  private final int m_actualStatesLog = LogManager.registerDoubleArray("Swerve/actual swerve states");
+  private final int m_desiredStatesLog = LogManager.registerDoubleArray("Swerve/desired swerve states");
+  private final int m_closestTagDistanceLog = LogManager.registerDouble("Vision/ClosestTag Distance");
+  // Everything given to the pose estimator, so it can be replayed, see PoseEstimatorReplay
+  private final int m_odometrySampleLog = LogManager.registerDoubleArray(PoseEstimatorReplay.kSampleLog);
+  private final int m_visionMeasurementLog = LogManager.registerDoubleArray(PoseEstimatorReplay.kVisionLog);
+  private final int m_odometryResetLog = LogManager.registerDoubleArray(PoseEstimatorReplay.kResetLog);
+  private final double[] m_odometrySampleLogValues = new double[PoseEstimatorReplay.kSampleLength];
+  private final double[] m_visionMeasurementLogValues = new double[PoseEstimatorReplay.kVisionLength];
+  private final double[] m_odometryResetLogValues = new double[PoseEstimatorReplay.kResetLength];
+  private final double[] m_poseLogValues = new double[3];
+  private final double[] m_actualStatesLogValues = new double[8];
+  private final double[] m_desiredStatesLogValues = new double[8];
+
+  // reused buffers for commanding the modules and getting their positions without allocating
+  private final double[] m_moduleSpeeds = new double[4];
+  private final double[] m_moduleAngles = new double[4];
+  private final SwerveModulePosition[] m_modulePositions = {
+    new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition()
+  };
+
+  private final LoopProfiler.Stage m_periodicStage = LoopProfiler.register("Drivetrain.periodic()");
+
   /**
    * Creates a new Swerve Style Drivetrain.
    * @param drivetrainTab the shuffleboard tab to display drivetrain data on
@@ -123,45 +183,74 @@ public class Drivetrain extends SubsystemBase {
 
     m_vision = vision;
     
-    m_pigeon = new WPI_Pigeon2(DriveConstants.kPigeon, DriveConstants.kPigeonCAN);
-    m_pigeon.configFactoryDefault();
-    // Our pigeon is mounted with y forward, and z upward
-    m_pigeon.configMountPose(AxisDirection.PositiveY, AxisDirection.PositiveZ);
-
-    if (RobotBase.isReal()) {
-      m_modules = new Module[] {
-        new Module(ModuleConstants.FRONT_LEFT, swerveModulesTab),
-        new Module(ModuleConstants.FRONT_RIGHT, swerveModulesTab),
-        new Module(ModuleConstants.BACK_LEFT, swerveModulesTab),
-        new Module(ModuleConstants.BACK_RIGHT, swerveModulesTab),
-      };
+    ModuleConstants[] moduleConstants = {
+      ModuleConstants.FRONT_LEFT, ModuleConstants.FRONT_RIGHT, ModuleConstants.BACK_LEFT, ModuleConstants.BACK_RIGHT
+    };
+    m_modules = new Module[4];
+    if (InputsLog.isReplaying()) {
+      // nothing is read from the hardware, the inputs are set from the log
+      m_driveSim = null;
+      m_moduleSims = null;
+      m_gyroSim = null;
+      m_driveBatteryHandle = -1;
+      m_steerBatteryHandle = -1;
+      m_gyroIO = new GyroIO() {};
+      for (int i = 0; i < 4; i++) {
+        m_modules[i] = new Module(moduleConstants[i], swerveModulesTab, new ModuleIO() {});
+      }
+    } else if (RobotBase.isReal()) {
+      m_driveSim = null;
+      m_moduleSims = null;
+      m_gyroSim = null;
+      m_driveBatteryHandle = -1;
+      m_steerBatteryHandle = -1;
+      m_gyroIO = new GyroIOPigeon2();
+      for (int i = 0; i < 4; i++) {
+        m_modules[i] = new Module(moduleConstants[i], swerveModulesTab, new ModuleIOTalonFX(moduleConstants[i]));
+      }
     } else {
-      m_modules = new ModuleSim[] {
-        new ModuleSim(ModuleConstants.FRONT_LEFT, swerveModulesTab),
-        new ModuleSim(ModuleConstants.FRONT_RIGHT, swerveModulesTab),
-        new ModuleSim(ModuleConstants.BACK_LEFT, swerveModulesTab),
-        new ModuleSim(ModuleConstants.BACK_RIGHT, swerveModulesTab),
-      };
+      m_driveSim = new SwerveDriveSim(DriveConstants.kSimSubstepSeconds);
+      m_driveSim.setFrictionScale(SimNoise.nextFrictionScale());
+      for (int i = 0; i < 4; i++) {
+        m_driveSim.setWheelSlip(i, SimNoise.nextWheelSlip());
+      }
+      m_driveBatteryHandle = SimBattery.register("Drive");
+      m_steerBatteryHandle = SimBattery.register("Steer");
+      m_gyroSim = new GyroIOSim();
+      m_gyroIO = m_gyroSim;
+      m_moduleSims = new ModuleIOSim[4];
+      for (int i = 0; i < 4; i++) {
+        m_moduleSims[i] = new ModuleIOSim(m_driveSim, moduleConstants[i].getType().id);
+        m_modules[i] = new Module(moduleConstants[i], swerveModulesTab, m_moduleSims[i]);
+      }
     }
 
     m_prevModule = m_modules[0];
 
-    /*
-     * By pausing init for a second before setting module offsets, we avoid a bug
-     * with inverting motors.
-     * See https://github.com/Team364/BaseFalconSwerve/issues/8 for more info.
-     */
-    Timer.delay(1.0);
-    resetModulesToAbsolute();
-
-    m_pigeon.setYaw(DriveConstants.kStartingHeading.getDegrees());
-    m_poseEstimator = new SwerveDrivePoseEstimator(
-      DriveConstants.kKinematics,
-      Rotation2d.fromDegrees(m_pigeon.getYaw()),
+    // seeded again once the devices are configured, see startOdometry
+    m_poseEstimator = createPoseEstimator(
+      Rotation2d.fromDegrees(m_gyroInputs.yawDegrees),
       getModulePositions(),
       new Pose2d() // initial Odometry Location
     );
-    m_poseEstimator.setVisionMeasurementStdDevs(VisionConstants.kBaseVisionPoseStdDevs);
+
+    for (int i = 0; i < 4; i++) {
+      m_odometryPositions[i] = new SwerveModulePosition();
+    }
+    // The simulated modules only move once a loop, so sampling them faster does nothing
+    if (DriveConstants.kUseOdometryThread && RobotBase.isReal()) {
+      DoubleSupplier[] drivePositions = new DoubleSupplier[4];
+      DoubleSupplier[] steerAngles = new DoubleSupplier[4];
+      for (Module mod : m_modules) {
+        drivePositions[mod.getModuleIndex()] = mod::getDrivePositionMeters;
+        steerAngles[mod.getModuleIndex()] = mod::getAngleRadians;
+      }
+      m_odometryThread = new OdometryThread(m_gyroIO::getYawDegrees, drivePositions, steerAngles, DriveConstants.kOdometryBufferSize);
+    } else {
+      m_odometryThread = null;
+    }
+    // the CANcoders and the drive encoders are configured in the background, so their positions can't be used yet
+    DeviceConfigurator.afterConfiguration(this::startOdometry);
     m_mechanism = DrawMechanism.getInstance();
 
     m_xController = new PIDController(DriveConstants.kTranslationalP, 0, DriveConstants.kTranslationalD);
@@ -182,8 +271,38 @@ public class Drivetrain extends SubsystemBase {
     setupModulesShuffleboard();
   }
 
+  /**
+   * Resets the modules to their absolute positions and starts odometry from them. Runs once every device is
+   * configured, since until then the drive encoders may not be zeroed and the CANcoders may not have their range set.
+   */
+  private void startOdometry() {
+    /*
+     * By pausing init for a second before setting module offsets, we avoid a bug
+     * with inverting motors.
+     * See https://github.com/Team364/BaseFalconSwerve/issues/8 for more info.
+     */
+    if (!InputsLog.isReplaying()) Timer.delay(1.0);
+    resetModulesToAbsolute();
+
+    m_gyroIO.setYaw(DriveConstants.kStartingHeading.getDegrees());
+    // the module positions changed when they were reset
+    updateInputs();
+    processInputs();
+    m_poseEstimator.resetPosition(Rotation2d.fromDegrees(m_gyroInputs.yawDegrees), getModulePositions(), new Pose2d());
+    // the replay starts the estimator where this one starts
+    if (Constants.kLogging) logOdometryReset(m_gyroInputs.yawDegrees, new Pose2d());
+
+    if (m_odometryThread != null) m_odometryThread.start(DriveConstants.kOdometryFrequency);
+  }
+
   @Override
   public void periodic() {
+    if (Constants.kLoopProfiling) m_periodicStage.start();
+
+    // Drivetrain is registered before the modules, so this runs before anything else uses them this loop
+    updateInputs();
+    processInputs();
+
     updateDriveModuleFeedforwardShuffleboard();
     updateDriveModuleFeedforwardShuffleboard();
 
@@ -192,6 +311,43 @@ public class Drivetrain extends SubsystemBase {
     m_fieldDisplay.setRobotPose(getPose());
 
     if (Constants.kLogging) updateLogs();
+
+    if (Constants.kLoopProfiling) m_periodicStage.stop();
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    // nothing is simulated in replay
+    if (m_driveSim == null) return;
+    // move the simulated robot with what the modules were told to do last loop
+    for (ModuleIOSim module : m_moduleSims) {
+      module.applyControl();
+    }
+    double lastHeadingRadians = m_driveSim.getHeadingRadians();
+    m_driveSim.update(Constants.kLoopTime, RobotController.getBatteryVoltage());
+    SimBattery.setCurrent(m_driveBatteryHandle, m_driveSim.getDriveSupplyCurrent());
+    SimBattery.setCurrent(m_steerBatteryHandle, m_driveSim.getSteerSupplyCurrent());
+    m_gyroSim.addHeading(Units.radiansToDegrees(m_driveSim.getHeadingRadians() - lastHeadingRadians));
+  }
+
+  /**
+   * Reads the sensors of every module and the gyro once, so they are not read over CAN every time they are used.
+   */
+  public void updateInputs() {
+    for (int i = 0; i < 4; i++) {
+      m_modules[i].updateInputs();
+    }
+    m_gyroIO.updateInputs(m_gyroInputs);
+  }
+
+  /**
+   * Logs the inputs read this loop, or in replay, sets them from the log, see {@link InputsLog}.
+   */
+  private void processInputs() {
+    for (int i = 0; i < 4; i++) {
+      m_modules[i].processInputs();
+    }
+    InputsLog.process(m_gyroInputsHandle);
   }
 
   // PIDs for Chassis movement
@@ -233,11 +389,11 @@ public class Drivetrain extends SubsystemBase {
   }
 
   public Rotation2d getPitch() {
-    return Rotation2d.fromDegrees(m_pigeon.getPitch());
+    return Rotation2d.fromDegrees(m_gyroInputs.pitchDegrees);
   }
   
   public Rotation2d getRoll() {
-    return Rotation2d.fromDegrees(m_pigeon.getRoll());
+    return Rotation2d.fromDegrees(m_gyroInputs.rollDegrees);
   }  
   
   /**
@@ -261,7 +417,26 @@ public class Drivetrain extends SubsystemBase {
   */
   public void resetOdometry(Pose2d pose) {
     // NOTE: must use pigeon yaw for odometer!
-    m_poseEstimator.resetPosition(Rotation2d.fromDegrees(m_pigeon.getYaw()), getModulePositions(), pose);
+    // samples from before the reset would be measured from the wrong starting positions
+    if (m_odometryThread != null) m_odometryThread.clear();
+    // the robot may have turned since the gyro was read at the start of the loop, in replay this keeps the logged yaw
+    m_gyroIO.updateInputs(m_gyroInputs);
+    m_poseEstimator.resetPosition(Rotation2d.fromDegrees(m_gyroInputs.yawDegrees), getModulePositions(), pose);
+    if (Constants.kLogging) logOdometryReset(m_gyroInputs.yawDegrees, pose);
+    // the first reset of a routine places the simulated robot, a little off when SimNoise is on, and later resets leave
+    // it where it is, so the error odometry built up over the whole routine is measured instead of erased
+    if (m_driveSim != null && m_placeSimulatedRobot) {
+      m_driveSim.resetPose(pose.plus(SimNoise.getStartingPoseError()));
+      m_placeSimulatedRobot = false;
+    }
+  }
+
+  /**
+   * Makes the next odometry reset place the simulated robot at the pose it resets to. Call before each routine is run
+   * in the simulator.
+   */
+  public void placeSimulatedRobotOnNextReset() {
+    m_placeSimulatedRobot = true;
   }
 
   /**
@@ -274,13 +449,15 @@ public class Drivetrain extends SubsystemBase {
   * @param isOpenLoop whether to use velocity control for the drive motors
   */
   public void drive(double xSpeed, double ySpeed, double rot, boolean fieldRelative, boolean isOpenLoop) {           
-    setChassisSpeeds((
-      fieldRelative
-          ? ChassisSpeeds.fromFieldRelativeSpeeds(xSpeed, ySpeed, rot, getYaw())
-          : new ChassisSpeeds(xSpeed, ySpeed, rot)
-      ),
-      isOpenLoop
-    );
+    if (fieldRelative) {
+      // same as ChassisSpeeds.fromFieldRelativeSpeeds, rotates the speeds by the negative yaw
+      double yaw = getYaw().getRadians();
+      double cos = Math.cos(yaw);
+      double sin = Math.sin(yaw);
+      setChassisSpeeds(xSpeed * cos + ySpeed * sin, -xSpeed * sin + ySpeed * cos, rot, isOpenLoop);
+    } else {
+      setChassisSpeeds(xSpeed, ySpeed, rot, isOpenLoop);
+    }
   }
 
   /**
@@ -289,9 +466,24 @@ public class Drivetrain extends SubsystemBase {
   * @param swerveModuleStates an array of module states to set swerve modules to. Order of the array matters here!
   */
   public void setModuleStates(SwerveModuleState[] swerveModuleStates, boolean isOpenLoop) {
-    SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, DriveConstants.kMaxSpeed);
     for (int i = 0; i < 4; i++) {
-      m_modules[i].setDesiredState(swerveModuleStates[i], isOpenLoop);
+      m_moduleSpeeds[i] = swerveModuleStates[i].speedMetersPerSecond;
+      m_moduleAngles[i] = swerveModuleStates[i].angle.getRadians();
+    }
+    setModuleStates(m_moduleSpeeds, m_moduleAngles, isOpenLoop);
+  }
+
+  /**
+  * Sets the desired speeds and angles for all swerve modules without allocating.
+  * 
+  * @param speeds the speed of each module in m/s, by module index. Desaturated in place.
+  * @param anglesRadians the angle of each module in radians, by module index
+  * @param isOpenLoop whether to use velocity control for the drive motors
+  */
+  public void setModuleStates(double[] speeds, double[] anglesRadians, boolean isOpenLoop) {
+    PrimitiveSwerveKinematics.desaturateWheelSpeeds(speeds, DriveConstants.kMaxSpeed);
+    for (int i = 0; i < 4; i++) {
+      m_modules[i].setDesiredState(speeds[i], anglesRadians[i], isOpenLoop);
     }
   }
   
@@ -310,6 +502,14 @@ public class Drivetrain extends SubsystemBase {
   public Pose2d getPose() {
     return m_poseEstimator.getEstimatedPosition();
   }
+
+  /**
+   * @return where the robot really is in simulation, which {@link #getPose()} only estimates. The estimated pose on
+   *     the robot.
+   */
+  public Pose2d getSimulatedPose() {
+    return m_driveSim == null ? getPose() : m_driveSim.getPose();
+  }
   
   /**
    * Enables or disables the state deadband for all swerve modules. 
@@ -329,15 +529,17 @@ public class Drivetrain extends SubsystemBase {
 
   /**
   * Gets an array of SwerveModulePositions, which store the distance travleled by the drive and the steer angle.
+  * The array is reused, so copy it if it needs to be kept past this loop.
   * 
   * @return an array of all swerve module positions
   */
   public SwerveModulePosition[] getModulePositions() {
-    SwerveModulePosition[] positions = new SwerveModulePosition[4];
     for (Module mod : m_modules) {
-      positions[mod.getModuleIndex()] = mod.getPosition();
+      SwerveModulePosition position = m_modulePositions[mod.getModuleIndex()];
+      position.distanceMeters = mod.getInputs().drivePositionMeters;
+      position.angle = mod.getAngle();
     }
-    return positions;
+    return m_modulePositions;
   }
 
   /**
@@ -359,12 +561,27 @@ public class Drivetrain extends SubsystemBase {
    * @param isOpenLoop if open loop control should be used for the drive velocity
    */
   public void setChassisSpeeds(ChassisSpeeds chassisSpeeds, boolean isOpenLoop) {
-    if (Robot.isSimulation()) {
-      m_pigeon.getSimCollection().addHeading(
-      + Units.radiansToDegrees(chassisSpeeds.omegaRadiansPerSecond * Constants.kLoopTime));
-    }
-    SwerveModuleState[] swerveModuleStates = DriveConstants.kKinematics.toSwerveModuleStates(chassisSpeeds);
-    setModuleStates(swerveModuleStates, isOpenLoop);
+    setChassisSpeeds(
+      chassisSpeeds.vxMetersPerSecond,
+      chassisSpeeds.vyMetersPerSecond,
+      chassisSpeeds.omegaRadiansPerSecond,
+      isOpenLoop
+    );
+  }
+
+  /**
+   * Sets the chassis speeds of the robot without allocating.
+   * 
+   * @param vxMetersPerSecond forward speed of the robot
+   * @param vyMetersPerSecond sideways speed of the robot, positive is left
+   * @param omegaRadiansPerSecond angular speed of the robot, positive is counterclockwise
+   * @param isOpenLoop if open loop control should be used for the drive velocity
+   */
+  public void setChassisSpeeds(double vxMetersPerSecond, double vyMetersPerSecond, double omegaRadiansPerSecond, boolean isOpenLoop) {
+    // the angles are kept from the last call, so the modules stay where they are when the robot stops
+    DriveConstants.kPrimitiveKinematics.toModuleStates(
+      vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond, m_moduleSpeeds, m_moduleAngles);
+    setModuleStates(m_moduleSpeeds, m_moduleAngles, isOpenLoop);
   }
 
   public void resetModulesToAbsolute() {
@@ -376,7 +593,15 @@ public class Drivetrain extends SubsystemBase {
   /** Updates the field relative position of the robot. */
   public void updateOdometry() {
     // Updates pose based on encoders and gyro. NOTE: must use yaw directly from gyro!
-    m_poseEstimator.update(Rotation2d.fromDegrees(m_pigeon.getYaw()), getModulePositions());
+    if (m_odometryThread != null) {
+      // use every sample taken since the last loop, at the time it was taken
+      m_odometryThread.drain(m_odometrySampleConsumer);
+    } else {
+      double timestampSeconds = Timer.getFPGATimestamp();
+      m_poseEstimator.updateWithTime(timestampSeconds, Rotation2d.fromDegrees(m_gyroInputs.yawDegrees),
+        getModulePositions());
+      if (Constants.kLogging) logOdometrySample(timestampSeconds, m_gyroInputs.yawDegrees, m_modulePositions);
+    }
     // if (DriverStation.getAlliance() == Alliance.Blue) {
     //   m_mechanism.setDistanceToGrid(Math.max(m_poseEstimator.getEstimatedPosition().getX()
     //   - (FieldConstants.kAprilTags.get(5).pose.getX() + FieldConstants.kAprilTagOffset)
@@ -395,8 +620,11 @@ public class Drivetrain extends SubsystemBase {
         m_chargeStationVision = true;
       }
 
-      // An array list of poses returned by different cameras
-      ArrayList<EstimatedRobotPose> estimatedPoses = m_vision.getEstimatedPoses(m_poseEstimator.getEstimatedPosition());
+      // The poses estimated by the cameras since the last loop
+      ArrayList<EstimatedRobotPose> estimatedPoses = m_estimatedPoses;
+      estimatedPoses.clear();
+      m_vision.setReferencePose(m_poseEstimator.getEstimatedPosition());
+      m_vision.pollEstimatedPoses(estimatedPoses);
       // The current position as a translation
       Translation2d currentEstimatedPoseTranslation = m_poseEstimator.getEstimatedPosition().getTranslation();
       for (int i = 0; i < estimatedPoses.size(); i++) {
@@ -422,7 +650,7 @@ public class Drivetrain extends SubsystemBase {
         visionFactor = Math.max(0, visionFactor);
 
         // Adds the vision measurement for this camera
-        m_poseEstimator.addVisionMeasurement(
+        addVisionMeasurement(
           estimatedPose.estimatedPose.toPose2d(),
           estimatedPose.timestampSeconds,
           m_chargeStationVision ? VisionConstants.kChargeStationVisionPoseStdDevs :
@@ -430,7 +658,7 @@ public class Drivetrain extends SubsystemBase {
               visionFactor
             )
         );
-        LogManager.addDouble("Vision/ClosestTag Distance", 
+        LogManager.addDouble(m_closestTagDistanceLog, 
           currentEstimatedPoseTranslation.getDistance(closestTagPoseTranslation)
         );
       }
@@ -439,9 +667,74 @@ public class Drivetrain extends SubsystemBase {
       if (estimatedPoses.size()>0) {
         m_chargeStationVision = false;
       }
+    } else if (m_driveSim != null && m_visionEnabled && SimNoise.isEnabled()) {
+      // There are no camera results in simulation, so the cameras see the simulated robot with noise
+      double time = Timer.getFPGATimestamp();
+      if (time - m_lastSimVisionTime >= SimNoise.getVisionPeriod()) {
+        m_lastSimVisionTime = time;
+        addVisionMeasurement(SimNoise.addVisionNoise(m_driveSim.getPose()), time,
+          VisionConstants.kBaseVisionPoseStdDevs);
+      }
+    }
+  }
+
+  /**
+   * Adds a sample from the odometry thread to the pose estimator.
+   */
+  private void addOdometrySample(double timestampSeconds, double yawDegrees, double[] drivePositions, double[] steerAngles) {
+    for (int i = 0; i < 4; i++) {
+      m_odometryPositions[i].distanceMeters = drivePositions[i];
+      // the steer angles rarely change between samples, so keep the Rotation2d instead of making one every sample
+      if (steerAngles[i] != m_odometrySteerRadians[i]) {
+        m_odometrySteerRadians[i] = steerAngles[i];
+        m_odometryPositions[i].angle = new Rotation2d(steerAngles[i]);
+      }
+    }
+    if (yawDegrees != m_odometryYawDegrees) {
+      m_odometryYawDegrees = yawDegrees;
+      m_odometryYaw = Rotation2d.fromDegrees(yawDegrees);
+    }
+    m_poseEstimator.updateWithTime(timestampSeconds, m_odometryYaw, m_odometryPositions);
+    if (Constants.kLogging) logOdometrySample(timestampSeconds, yawDegrees, m_odometryPositions);
+  }
+
+  private void logOdometryReset(double yawDegrees, Pose2d pose) {
+    PoseEstimatorReplay.packReset(m_odometryResetLogValues, yawDegrees, m_modulePositions, pose);
+    LogManager.addDoubleArray(m_odometryResetLog, m_odometryResetLogValues);
+  }
+
+  private void logOdometrySample(double timestampSeconds, double yawDegrees, SwerveModulePosition[] positions) {
+    PoseEstimatorReplay.packSample(m_odometrySampleLogValues, timestampSeconds, yawDegrees, positions);
+    LogManager.addDoubleArray(m_odometrySampleLog, m_odometrySampleLogValues);
+  }
+
+  /**
+   * Adds a pose from vision to the pose estimator, and logs it so it can be replayed.
+   */
+  private void addVisionMeasurement(Pose2d pose, double timestampSeconds, Matrix<N3, N1> stdDevs) {
+    m_poseEstimator.addVisionMeasurement(pose, timestampSeconds, stdDevs);
+    if (Constants.kLogging) {
+      PoseEstimatorReplay.packVision(m_visionMeasurementLogValues, pose, timestampSeconds, stdDevs);
+      LogManager.addDoubleArray(m_visionMeasurementLog, m_visionMeasurementLogValues);
     }
   }
 
+  /**
+   * Creates the pose estimator the drivetrain uses. Also used to replay logs, so it must not use the hardware.
+   *
+   * @param yaw the yaw from the gyro
+   * @param positions the positions of the modules
+   * @param pose the pose to start at
+   * @return the pose estimator
+   */
+  public static SwerveDrivePoseEstimator createPoseEstimator(Rotation2d yaw, SwerveModulePosition[] positions,
+      Pose2d pose) {
+    SwerveDrivePoseEstimator poseEstimator = new SwerveDrivePoseEstimator(DriveConstants.kKinematics, yaw, positions,
+      pose);
+    poseEstimator.setVisionMeasurementStdDevs(VisionConstants.kBaseVisionPoseStdDevs);
+    return poseEstimator;
+  }
+
   /**
    * Drives the robot using the provided x speed, y speed, and positional heading.
    * 
@@ -483,18 +776,17 @@ public class Drivetrain extends SubsystemBase {
   * @return the rate in rads/s from the pigeon
   */
   public double getAngularRate(int id) {
-
-    // uses pass by reference and edits reference to array
-    double[] rawGyros = new double[3];
-    m_pigeon.getRawGyro(rawGyros);
-
+    double degreesPerSecond = id == 0 ? m_gyroInputs.xRateDegreesPerSecond
+      : id == 1 ? m_gyroInputs.yRateDegreesPerSecond : m_gyroInputs.zRateDegreesPerSecond;
     // outputs in deg/s, so convert to rad/s
-    return Units.degreesToRadians(rawGyros[id]);
+    return Units.degreesToRadians(degreesPerSecond);
   }
 
 
   public void enableVision(boolean enabled) {
     m_visionEnabled = enabled;
+    // so poses from while vision was off aren't used when it's turned back on
+    if (m_vision != null) m_vision.setQueueingEnabled(enabled);
   }
 
   /**
@@ -588,18 +880,20 @@ public class Drivetrain extends SubsystemBase {
     m_drivetrainTab.add("PP rotationController", getPathplannerRotationController());
     
     // add angles
-    m_drivetrainTab.addNumber("Yaw (deg)", () -> getYaw().getDegrees());
-    m_drivetrainTab.addNumber("estimated X", () -> m_poseEstimator.getEstimatedPosition().getX());
-    m_drivetrainTab.addNumber("estimated Y", () -> m_poseEstimator.getEstimatedPosition().getY());
-    m_drivetrainTab.addNumber("getPitch", () -> m_pigeon.getPitch());
-    m_drivetrainTab.addNumber("getRoll", () -> m_pigeon.getRoll());
-    m_drivetrainTab.addNumber("pigeon yaw", () -> m_pigeon.getYaw());
+    Telemetry.addDouble(m_drivetrainTab, "Yaw (deg)", Telemetry.Rate.MEDIUM, () -> getYaw().getDegrees());
+    Telemetry.addDouble(m_drivetrainTab, "estimated X", Telemetry.Rate.MEDIUM,
+      () -> m_poseEstimator.getEstimatedPosition().getX());
+    Telemetry.addDouble(m_drivetrainTab, "estimated Y", Telemetry.Rate.MEDIUM,
+      () -> m_poseEstimator.getEstimatedPosition().getY());
+    Telemetry.addDouble(m_drivetrainTab, "getPitch", Telemetry.Rate.MEDIUM, () -> m_gyroInputs.pitchDegrees);
+    Telemetry.addDouble(m_drivetrainTab, "getRoll", Telemetry.Rate.MEDIUM, () -> m_gyroInputs.rollDegrees);
+    Telemetry.addDouble(m_drivetrainTab, "pigeon yaw", Telemetry.Rate.MEDIUM, () -> m_gyroInputs.yawDegrees);
     
-    m_drivetrainTab.addNumber("Gyro X", () -> getAngularRate(0));
-    m_drivetrainTab.addNumber("Gyro Y", () -> getAngularRate(1));
-    m_drivetrainTab.addNumber("Gyro Z", () -> getAngularRate(2));
+    Telemetry.addDouble(m_drivetrainTab, "Gyro X", Telemetry.Rate.MEDIUM, () -> getAngularRate(0));
+    Telemetry.addDouble(m_drivetrainTab, "Gyro Y", Telemetry.Rate.MEDIUM, () -> getAngularRate(1));
+    Telemetry.addDouble(m_drivetrainTab, "Gyro Z", Telemetry.Rate.MEDIUM, () -> getAngularRate(2));
 
-    m_drivetrainTab.addNumber("Chassis Velocity", () -> getChassisSpeedsMagnitude());
+    Telemetry.addDouble(m_drivetrainTab, "Chassis Velocity", Telemetry.Rate.FAST, () -> getChassisSpeedsMagnitude());
   }
 
   /**
@@ -791,36 +1085,23 @@ public class Drivetrain extends SubsystemBase {
     if (m_loggerStep < 4) return;
     m_loggerStep = 0;
 
-    double[] pose = {
-      getPose().getX(),
-      getPose().getY(),
-      getPose().getRotation().getRadians()
-    };
-    LogManager.addDoubleArray("Swerve/Pose2d", pose);
-
-    double[] actualStates = {
-      m_modules[0].getAngle().getRadians(),
-      m_modules[0].getState().speedMetersPerSecond,
-      m_modules[1].getAngle().getRadians(),
-      m_modules[1].getState().speedMetersPerSecond,
-      m_modules[2].getAngle().getRadians(),
-      m_modules[2].getState().speedMetersPerSecond,
-      m_modules[3].getAngle().getRadians(),
-      m_modules[3].getState().speedMetersPerSecond
-    };
-    LogManager.addDoubleArray("Swerve/actual swerve states", actualStates);
-
-    double[] desiredStates = {
-      m_modules[0].getDesiredAngle().getRadians(),
-      m_modules[0].getDesiredVelocity(),
-      m_modules[1].getDesiredAngle().getRadians(),
-      m_modules[1].getDesiredVelocity(),
-      m_modules[2].getDesiredAngle().getRadians(),
-      m_modules[2].getDesiredVelocity(),
-      m_modules[3].getDesiredAngle().getRadians(),
-      m_modules[3].getDesiredVelocity()
-    };
-    LogManager.addDoubleArray("Swerve/desired swerve states", desiredStates);
+    Pose2d pose = getPose();
+    m_poseLogValues[0] = pose.getX();
+    m_poseLogValues[1] = pose.getY();
+    m_poseLogValues[2] = pose.getRotation().getRadians();
+    LogManager.addDoubleArray(m_poseLog, m_poseLogValues);
+
+    for (int i = 0; i < 4; i++) {
+      m_actualStatesLogValues[2 * i] = m_modules[i].getInputs().steerAngleRadians;
+      m_actualStatesLogValues[2 * i + 1] = m_modules[i].getVelocity();
+    }
+    LogManager.addDoubleArray(m_actualStatesLog, m_actualStatesLogValues);
+
+    for (int i = 0; i < 4; i++) {
+      m_desiredStatesLogValues[2 * i] = m_modules[i].getDesiredAngleRadians();
+      m_desiredStatesLogValues[2 * i + 1] = m_modules[i].getDesiredVelocity();
+    }
+    LogManager.addDoubleArray(m_desiredStatesLog, m_desiredStatesLogValues);
 
     // double[] errorStates = {
     //   desiredStates[0] - actualStates[0],
@@ -2,14 +2,6 @@ package frc.robot.subsystems;
 
 import java.util.function.BooleanSupplier;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.DemandType;
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
-import lib.drivers.LazyTalonFX;
-
-import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
@@ -17,7 +9,10 @@ import frc.robot.constants.Constants;
 import frc.robot.constants.ElevatorConstants;
 import frc.robot.util.Conversions;
 import frc.robot.util.DrawMechanism;
+import frc.robot.util.InputsLog;
 import frc.robot.util.LogManager;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.Telemetry;
 
 
 public class Elevator extends SubsystemBase {
@@ -27,16 +22,38 @@ public class Elevator extends SubsystemBase {
   private ElevatorMode m_mode;
   private ElevatorStatus m_status;
 
-  private final LazyTalonFX m_motor;
-  private final DigitalInput m_bottomLimitSwitch;
-  private final DigitalInput m_topLimitSwitch;
+  // The motor and limit switches, on the robot, in simulation, or nothing in replay
+  private final ElevatorIO m_io;
+  // The simulated hardware, null on the robot and in replay
+  private final ElevatorIOSim m_sim;
+  // Sensor values for this loop, read once at the start of periodic()
+  private final ElevatorInputs m_inputs = new ElevatorInputs();
+  private final int m_inputsHandle = InputsLog.register("Elevator", m_inputs);
   private double m_desiredPosition = ElevatorConstants.kPostCalibrationPosition;
   private double m_desiredPower = 0;
   private boolean m_isCalibrated;
 
   private double m_gravityCompensation = 0;
+  private int m_profileSlot = 0;
+
+  // Log handles, registered once so logging every loop does not build strings
+  private final int m_desiredPositionLog = LogManager.registerDouble("Elevator/desiredPosition");
+  private final int m_extensionLog = LogManager.registerDouble("Elevator/extension");
+  private final int m_bottomLimitSwitchLog = LogManager.registerBoolean("Elevator/bottomLimitSwitch");
+
+  private final LoopProfiler.Stage m_periodicStage = LoopProfiler.register("Elevator.periodic()");
 
   public Elevator(ShuffleboardTab elevatorTab, BooleanSupplier hasConeSupplier) {
+    this(elevatorTab, hasConeSupplier, InputsLog.isReplaying() ? new ElevatorIO() {}
+      : RobotBase.isReal() ? new ElevatorIOTalonFX() : new ElevatorIOSim());
+  }
+
+  /**
+   * @param elevatorTab the shuffleboard tab to display elevator data on
+   * @param hasConeSupplier if the intake has a cone, for choosing the gains
+   * @param io the elevator's hardware
+   */
+  public Elevator(ShuffleboardTab elevatorTab, BooleanSupplier hasConeSupplier, ElevatorIO io) {
     m_elevatorTab = elevatorTab;
 
     m_hasConeSupplier = hasConeSupplier;
@@ -44,67 +61,14 @@ public class Elevator extends SubsystemBase {
     m_status = ElevatorStatus.NONE;
     m_isCalibrated = false;
 
-    m_motor = new LazyTalonFX(ElevatorConstants.kMotorID, Constants.kCanivoreCAN);
-    configElevatorMotor();
-
-    m_bottomLimitSwitch = new DigitalInput(ElevatorConstants.kBottomLimitSwitchPort);
-    m_topLimitSwitch = new DigitalInput(ElevatorConstants.kTopLimitSwitchPort);
+    m_io = io;
+    m_sim = io instanceof ElevatorIOSim ? (ElevatorIOSim) io : null;
 
     setupShuffleboard();
-  }
 
-  private void configElevatorMotor() {
-    m_motor.configFactoryDefault();
-    m_motor.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(
-      ElevatorConstants.kEnableCurrentLimit,
-      ElevatorConstants.kContinuousCurrentLimit,
-      ElevatorConstants.kPeakCurrentLimit,
-      ElevatorConstants.kPeakCurrentDuration
-    ));
-    
-    //configure PIDS and feedforwards within motor(not RoboRiO)
-    //each PID is for a different condition
-    m_motor.config_kP(0, ElevatorConstants.kBottomP);
-    m_motor.config_kI(0, ElevatorConstants.kBottomI);
-    m_motor.config_kD(0, ElevatorConstants.kBottomD);
-    m_motor.config_kF(0, ElevatorConstants.kBottomF);
-
-    m_motor.config_kP(1, ElevatorConstants.kBottomWithConeP);
-    m_motor.config_kI(1, ElevatorConstants.kBottomWithConeI);
-    m_motor.config_kD(1, ElevatorConstants.kBottomWithConeD);
-    m_motor.config_kF(1, ElevatorConstants.kBottomWithConeF);
-
-    m_motor.config_kP(2, ElevatorConstants.kTopP);
-    m_motor.config_kI(2, ElevatorConstants.kTopI);
-    m_motor.config_kD(2, ElevatorConstants.kTopD);
-    m_motor.config_kF(2, ElevatorConstants.kTopF);
-
-    m_motor.config_kP(3, ElevatorConstants.kTopWithConeP);
-    m_motor.config_kI(3, ElevatorConstants.kTopWithConeI);
-    m_motor.config_kD(3, ElevatorConstants.kTopWithConeD);
-    m_motor.config_kF(3, ElevatorConstants.kTopWithConeF);
-
-    m_motor.setInverted(ElevatorConstants.kMotorInvert);
-    m_motor.setNeutralMode(ElevatorConstants.kNeutralMode);
-    m_motor.configVoltageCompSaturation(Constants.kRobotVoltage);
-    m_motor.enableVoltageCompensation(true);
-
-    // m_motor.configClosedloopRamp(ElevatorConstants.kMotorRamp);
-
-    m_motor.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor);
-
-    m_motor.configForwardSoftLimitThreshold(
-      Conversions.MetersToFalcon(
-        ElevatorConstants.kMaxPosition,
-        ElevatorConstants.kSpoolCircumference,
-        ElevatorConstants.kGearRatio
-      )
-    );
-    m_motor.configReverseSoftLimitThreshold(Units.inchesToMeters(0));
-
-    m_motor.configNeutralDeadband(0.005);
-
-    toggleSoftLimits(false);
+    // the limit switches are checked before the first loop
+    m_io.updateInputs(m_inputs);
+    InputsLog.process(m_inputsHandle);
   }
 
   /**
@@ -114,8 +78,7 @@ public class Elevator extends SubsystemBase {
    * @param enabled
    */
   public void toggleSoftLimits(boolean enabled) {
-    m_motor.configForwardSoftLimitEnable(enabled);
-    m_motor.configReverseSoftLimitEnable(enabled);
+    m_io.setSoftLimitsEnabled(enabled);
   }
 
   /**
@@ -123,7 +86,7 @@ public class Elevator extends SubsystemBase {
    * @return true or false
    */
   public boolean isTopLimitSwitchReached() {
-    return m_topLimitSwitch.get() != ElevatorConstants.kTopLimitSwitchNC;
+    return m_inputs.topLimitSwitchReached;
   }
 
   /**
@@ -131,7 +94,7 @@ public class Elevator extends SubsystemBase {
    * @return true or false
    */
   public boolean isBottomLimitSwitchReached() {
-    return m_bottomLimitSwitch.get() != ElevatorConstants.kBottomLimitSwitchNC;
+    return m_inputs.bottomLimitSwitchReached;
   }
 
   /**
@@ -139,8 +102,7 @@ public class Elevator extends SubsystemBase {
    * @param power
    */
   public void setMaxOutput(double power) {
-    m_motor.configPeakOutputForward(power);
-    m_motor.configPeakOutputReverse(power);
+    m_io.setMaxOutput(power);
   }
 
   /**
@@ -167,14 +129,7 @@ public class Elevator extends SubsystemBase {
    * @return position (m)
    */
   public double getPosition() {
-    // in simulation, assume we are at the desired position
-    if (RobotBase.isSimulation()) return m_desiredPosition;
-    // calculate elevator position based on falcon encoder
-    return Conversions.falconToMeters(
-      m_motor.getSelectedSensorPosition(),
-      ElevatorConstants.kSpoolCircumference,
-      ElevatorConstants.kGearRatio
-    );
+    return m_inputs.positionMeters;
   }
 
   /**
@@ -183,8 +138,6 @@ public class Elevator extends SubsystemBase {
    */
   public void setDesiredPosition(double desiredPosition) {
     m_desiredPosition = desiredPosition;
-    if (m_mode == ElevatorMode.POSITION && m_isCalibrated && RobotBase.isSimulation())
-      DrawMechanism.getInstance().setElevatorExtension(m_desiredPosition);
   }
 
   /**
@@ -196,10 +149,10 @@ public class Elevator extends SubsystemBase {
   }
 
   /**
-   * Reset/zero the inbuilt falcon motor encoder
+   * Reset/zero the inbuilt falcon motor encoder. The position reads 0 from the next loop.
    */
   public void zeroEncoder() {
-    m_motor.setSelectedSensorPosition(0.0);
+    m_io.zeroEncoder();
   }
 
   /**
@@ -222,11 +175,7 @@ public class Elevator extends SubsystemBase {
    * @return elevator velocity
    */
   public double getVelocity() {
-    return Conversions.falconToMPS(
-      m_motor.getSelectedSensorVelocity(),
-      ElevatorConstants.kSpoolCircumference,
-      ElevatorConstants.kGearRatio
-    );
+    return m_inputs.velocityMetersPerSecond;
   }
   
   /**
@@ -290,23 +239,23 @@ public class Elevator extends SubsystemBase {
   private void updateClosedLoopSlot() {
     switch (m_status) {
       case BOTTOM:
-        m_motor.selectProfileSlot(0, 0);
+        m_profileSlot = 0;
         m_gravityCompensation = ElevatorConstants.kBottomGravityCompensation;
         break;
       case BOTTOM_CONE:
-        m_motor.selectProfileSlot(1, 0);
+        m_profileSlot = 1;
         m_gravityCompensation = ElevatorConstants.kBottomWithConeGravityCompensation;
         break;
       case TOP:
-        m_motor.selectProfileSlot(2, 0);
+        m_profileSlot = 2;
         m_gravityCompensation = ElevatorConstants.kTopGravityCompensation;
         break;
       case TOP_CONE:
-        m_motor.selectProfileSlot(3, 0);
+        m_profileSlot = 3;
         m_gravityCompensation = ElevatorConstants.kTopWithConeGravityCompensation;
         break;
       case NONE:
-        break;
+        return;
     };
   }
 
@@ -329,7 +278,11 @@ public class Elevator extends SubsystemBase {
   /**The periodic method for the subsystem, it runs forever from the moment that the robot is enabled */
   @Override
   public void periodic() {
-    
+    if (Constants.kLoopProfiling) m_periodicStage.start();
+
+    m_io.updateInputs(m_inputs);
+    InputsLog.process(m_inputsHandle);
+
     // automatically calibrate if the bottom limitswitch is on
     if (!m_isCalibrated && isBottomLimitSwitchReached()) {
       zeroEncoder();
@@ -344,64 +297,84 @@ public class Elevator extends SubsystemBase {
     double positionError = m_desiredPosition - getPosition();
     if ((isBottomLimitSwitchReached() && (positionError < 0 || m_desiredPower < 0))
         || (isTopLimitSwitchReached() && (positionError > 0 || m_desiredPower > 0))) {
-      m_motor.stopMotor();
+      m_io.stop();
+      if (Constants.kLoopProfiling) m_periodicStage.stop();
       return;
     }
     //depending on the elevatorMode, do certain things.
     switch (m_mode) {
       case CALIBRATION:
-        m_motor.set(ControlMode.PercentOutput, ElevatorConstants.kCalibrationPower);
+        m_io.setPower(ElevatorConstants.kCalibrationPower);
         break;
       case DISABLED:
-        m_motor.stopMotor();
+        m_io.stop();
         break;
       case MANUAL:
         if (!m_isCalibrated) break; //if the elevator is not calibrated don't do anything. 
         updateElevatorStatus();
-        m_motor.set(ControlMode.PercentOutput, m_desiredPower);
+        m_io.setPower(m_desiredPower);
         break;
       case POSITION:
         if (!m_isCalibrated) break; //if the elevator is not calibrated don't do anything
         updateElevatorStatus(); //set the m_status variable to the desired status variable requested
         updateClosedLoopSlot(); //select the right PIDs and set m_gravityCompenstion to the right gravity compensation variable
-        m_motor.set( 
-          ControlMode.Position, //type of control we want to use(PID control is position control, so use ControlMode.Position)
-          Conversions.MetersToFalcon(m_desiredPosition, ElevatorConstants.kSpoolCircumference, ElevatorConstants.kGearRatio), //process variable(elevator position)
-          DemandType.ArbitraryFeedForward, //type of feedforward
+        m_io.setPosition(
+          m_desiredPosition, //process variable(elevator position)
+          m_profileSlot, //the PIDs selected for the status
           m_gravityCompensation // put in the m_gravityCompensation variable
         );
         break;
     }
     
     if (Constants.kLogging) updateLogs(); //if we are logging(Constants.kLogging is set to true), update the elevator logs
+
+    if (Constants.kLoopProfiling) m_periodicStage.stop();
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    // nothing is simulated in replay
+    if (m_sim != null) m_sim.update();
   }
 
   private void setupShuffleboard() {
     if (Constants.kUseTelemetry) { 
       //if we are using telemetry(Constants.kUseTelemetry is set to true), put a bunch of stuff on the elevatorTab on shuffleboard
-      m_elevatorTab.addDouble("Current Position (m)", this::getPosition);
-      m_elevatorTab.addDouble("Current Height (m)", this::getHeight);
-      m_elevatorTab.addDouble("Desired Position (m)", () -> m_desiredPosition);
-      m_elevatorTab.addDouble("Desired Height (m)", () -> Conversions.ElevatorExtensionToHeight(m_desiredPosition));
-      m_elevatorTab.addDouble("Desired Power", () -> m_desiredPower);
-      m_elevatorTab.addBoolean("Is Calibrated", () -> m_isCalibrated);
-      m_elevatorTab.addBoolean("Reached desired position", this::reachedDesiredPosition);
-      m_elevatorTab.addBoolean("Reached Top Limit Switch", this::isTopLimitSwitchReached);
-      m_elevatorTab.addBoolean("Reached Bottom Limit Switch", this::isBottomLimitSwitchReached);
-      m_elevatorTab.addDouble("Supply Current (A)", m_motor::getSupplyCurrent);
-      m_elevatorTab.addDouble("Stator Current (A)", m_motor::getStatorCurrent);
-      m_elevatorTab.addDouble("Commanded power", m_motor::get);
-      m_elevatorTab.addString("Mode", () -> m_mode.toString());
-      m_elevatorTab.addString("Status", () -> m_status.toString());
-      m_elevatorTab.addDouble("Gravity compensation", () -> m_gravityCompensation);
+      Telemetry.addDouble(m_elevatorTab, "Current Position (m)", Telemetry.Rate.FAST, this::getPosition);
+      Telemetry.addDouble(m_elevatorTab, "Current Height (m)", Telemetry.Rate.MEDIUM, this::getHeight);
+      Telemetry.addDouble(m_elevatorTab, "Desired Position (m)", Telemetry.Rate.MEDIUM, () -> m_desiredPosition);
+      Telemetry.addDouble(m_elevatorTab, "Desired Height (m)", Telemetry.Rate.MEDIUM,
+        () -> Conversions.ElevatorExtensionToHeight(m_desiredPosition));
+      Telemetry.addDouble(m_elevatorTab, "Desired Power", Telemetry.Rate.MEDIUM, () -> m_desiredPower);
+      Telemetry.addBoolean(m_elevatorTab, "Is Calibrated", Telemetry.Rate.SLOW, () -> m_isCalibrated);
+      Telemetry.addBoolean(m_elevatorTab, "Reached desired position", Telemetry.Rate.MEDIUM,
+        this::reachedDesiredPosition);
+      Telemetry.addBoolean(m_elevatorTab, "Reached Top Limit Switch", Telemetry.Rate.MEDIUM,
+        this::isTopLimitSwitchReached);
+      Telemetry.addBoolean(m_elevatorTab, "Reached Bottom Limit Switch", Telemetry.Rate.MEDIUM,
+        this::isBottomLimitSwitchReached);
+      Telemetry.addDouble(m_elevatorTab, "Supply Current (A)", Telemetry.Rate.MEDIUM, () -> m_inputs.supplyCurrent);
+      Telemetry.addDouble(m_elevatorTab, "Stator Current (A)", Telemetry.Rate.MEDIUM, () -> m_inputs.statorCurrent);
+      Telemetry.addDouble(m_elevatorTab, "Commanded power", Telemetry.Rate.FAST, () -> m_inputs.appliedOutput);
+      Telemetry.addString(m_elevatorTab, "Mode", Telemetry.Rate.MEDIUM, () -> m_mode.toString());
+      Telemetry.addString(m_elevatorTab, "Status", Telemetry.Rate.MEDIUM, () -> m_status.toString());
+      Telemetry.addDouble(m_elevatorTab, "Gravity compensation", Telemetry.Rate.SLOW, () -> m_gravityCompensation);
     }
   }
 
   public void updateLogs() {
     //update the elevator logs
-    LogManager.addDouble("Elevator/desiredPosition", m_desiredPosition);
-    LogManager.addDouble("Elevator/extension", getPosition());
-    LogManager.addBoolean("Elevator/bottomLimitSwitch", isBottomLimitSwitchReached());
+    LogManager.addDouble(m_desiredPositionLog, m_desiredPosition);
+    LogManager.addDouble(m_extensionLog, getPosition());
+    LogManager.addBoolean(m_bottomLimitSwitchLog, isBottomLimitSwitchReached());
+  }
+
+  /**
+   * Deallocate resources.
+   * <p>
+   * Test routines need to deallocate simulation resources.
+   */
+  public void close() {
+    m_io.close();
   }
 }
- 
\ No newline at end of file
@@ -0,0 +1,60 @@
+package frc.robot.subsystems;
+
+/**
+ * The hardware of the elevator: its Falcon and two limit switches. The {@link Elevator} only talks to its hardware
+ * through this, so it runs the same on the robot ({@link ElevatorIOTalonFX}), in simulation ({@link ElevatorIOSim}),
+ * and in replay.
+ *
+ * <p> Every method does nothing by default, which is the IO used in replay, {@code new ElevatorIO() {}}. The inputs
+ * are then filled in from the log, see {@link frc.robot.util.InputsLog}.
+ */
+public interface ElevatorIO {
+
+  /**
+   * Reads the motor and the limit switches.
+   * @param inputs the inputs to fill in
+   */
+  default void updateInputs(ElevatorInputs inputs) {}
+
+  /**
+   * Runs the motor open loop.
+   * @param power the percent output, in [-1, 1]
+   */
+  default void setPower(double power) {}
+
+  /**
+   * Runs the Talon's position closed loop.
+   *
+   * @param positionMeters the position to move the carriage to, above where the encoder was zeroed
+   * @param slot the slot of the gains to use, see {@link frc.robot.constants.ElevatorConstants}
+   * @param feedforward the percent output added to the closed loop, to hold the carriage up
+   */
+  default void setPosition(double positionMeters, int slot, double feedforward) {}
+
+  /**
+   * Stops the motor.
+   */
+  default void stop() {}
+
+  /**
+   * Zeroes the encoder where the carriage is now. The inputs read 0 from the next time they are read.
+   */
+  default void zeroEncoder() {}
+
+  /**
+   * Turns the Talon's soft limits on or off.
+   * @param enabled if the soft limits are on
+   */
+  default void setSoftLimitsEnabled(boolean enabled) {}
+
+  /**
+   * Caps the percent output of the motor in both directions.
+   * @param power the highest percent output
+   */
+  default void setMaxOutput(double power) {}
+
+  /**
+   * Frees the hardware. For tests.
+   */
+  default void close() {}
+}
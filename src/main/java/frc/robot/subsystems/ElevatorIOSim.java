@@ -0,0 +1,184 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import frc.robot.constants.Constants;
+import frc.robot.constants.ElevatorConstants;
+import frc.robot.util.Conversions;
+import frc.robot.util.DrawMechanism;
+import frc.robot.util.SimBattery;
+import frc.robot.util.SimNoise;
+
+/**
+ * The hardware of the elevator in simulation.
+ *
+ * <p> The carriage is moved by an {@link ElevatorSim}, which is the source of truth for the encoder and the limit
+ * switches. The Talon's closed loop is run every millisecond, like the Talon does, from what the elevator last told
+ * it to do. The soft limits and peak output aren't simulated. No Talon or DIO is made, so nothing goes through the
+ * HAL.
+ *
+ * @see ElevatorIOTalonFX
+ */
+public class ElevatorIOSim implements ElevatorIO {
+
+  /** The Talon runs its closed loop every millisecond, so the simulation steps that often. */
+  private static final double kSimTalonLoopTime = 0.001;
+  /** kP, kD, and kF of each slot, for simulating the Talon's closed loop. kI isn't simulated, it is always 0. */
+  private static final double[][] kSimSlotGains = {
+    {ElevatorConstants.kBottomP, ElevatorConstants.kBottomD, ElevatorConstants.kBottomF},
+    {ElevatorConstants.kBottomWithConeP, ElevatorConstants.kBottomWithConeD, ElevatorConstants.kBottomWithConeF},
+    {ElevatorConstants.kTopP, ElevatorConstants.kTopD, ElevatorConstants.kTopF},
+    {ElevatorConstants.kTopWithConeP, ElevatorConstants.kTopWithConeD, ElevatorConstants.kTopWithConeF},
+  };
+
+  /** Physics Simulator for the elevator. takes in a motor voltage and calculates how far the carriage will move. */
+  private final ElevatorSim m_elevatorSim;
+  private final SupplyCurrentLimitSim m_currentLimitSim;
+  // the mass of the simulated carriage, kCarriageMass unless SimNoise is on
+  private final double m_simCarriageMass;
+  // where the simulated encoder was zeroed, and the position error of the last simulated Talon loop, if the closed
+  // loop ran in the last one
+  private double m_simEncoderZero = 0;
+  private double m_lastSimPositionError = 0;
+  private boolean m_simClosedLoopRunning = false;
+  // the average supply current over the last loop, the last stator current and output, and the SimBattery handle
+  private double m_simSupplyCurrent = 0;
+  private double m_simStatorCurrent = 0;
+  private double m_simOutput = 0;
+  private final int m_batteryHandle;
+
+  // what the Talon was last told to do
+  private boolean m_closedLoop = false;
+  private double m_power = 0;
+  private double m_setpointTicks = 0;
+  private int m_profileSlot = 0;
+  private double m_feedforward = 0;
+
+  public ElevatorIOSim() {
+    m_simCarriageMass = ElevatorConstants.kCarriageMass * SimNoise.nextLoadScale();
+    m_elevatorSim = new ElevatorSim(
+      ElevatorConstants.kGearBox,
+      ElevatorConstants.kGearRatio,
+      m_simCarriageMass,
+      ElevatorConstants.kSpoolCircumference / (2 * Math.PI),
+      // the hardstops, the elevator starts at the bottom like on the robot
+      0,
+      ElevatorConstants.kMaxPosition,
+      // gravity is straight down in the sim, but the elevator is tilted, see getSimGravityVoltage()
+      false
+    );
+    m_currentLimitSim = new SupplyCurrentLimitSim(ElevatorConstants.kEnableCurrentLimit,
+      ElevatorConstants.kContinuousCurrentLimit, ElevatorConstants.kPeakCurrentLimit,
+      ElevatorConstants.kPeakCurrentDuration);
+    m_batteryHandle = SimBattery.register("Elevator");
+  }
+
+  /**
+   * Runs the Talon's closed loop and the physics simulation for a loop. Call once a loop, after the elevator has
+   * told the Talon what to do.
+   */
+  public void update() {
+    double batteryVoltage = RobotController.getBatteryVoltage();
+    double spoolRadius = ElevatorConstants.kSpoolCircumference / (2 * Math.PI);
+
+    // run the Talon's closed loop and the physics simulation every millisecond for the length of the loop
+    int steps = (int) Math.round(Constants.kLoopTime / kSimTalonLoopTime);
+    m_simSupplyCurrent = 0;
+    for (int i = 0; i < steps; i++) {
+      double motorSpeed = m_elevatorSim.getVelocityMetersPerSecond() / spoolRadius * ElevatorConstants.kGearRatio;
+      // voltage compensation can't give more than the battery has
+      double voltage = MathUtil.clamp(getSimOutput() * Constants.kRobotVoltage, -batteryVoltage, batteryVoltage);
+      voltage = m_currentLimitSim.limitVoltage(ElevatorConstants.kGearBox, voltage, motorSpeed, batteryVoltage,
+        kSimTalonLoopTime);
+      m_simStatorCurrent = Math.abs(ElevatorConstants.kGearBox.getCurrent(motorSpeed, voltage));
+      m_simSupplyCurrent += m_simStatorCurrent * Math.abs(voltage) / batteryVoltage / steps;
+      m_simOutput = voltage / batteryVoltage;
+      m_elevatorSim.setInput(voltage + getSimGravityVoltage());
+      m_elevatorSim.update(kSimTalonLoopTime);
+    }
+
+    SimBattery.setCurrent(m_batteryHandle, m_simSupplyCurrent);
+
+    // update the drawing of the robot
+    DrawMechanism.getInstance().setElevatorExtension(m_elevatorSim.getPositionMeters());
+  }
+
+  /**
+   * Runs the Talon's control mode, from what it was last told to do.
+   * @return the percent output of the Talon
+   */
+  private double getSimOutput() {
+    // the Talon is neutral while the robot is disabled, and starts its closed loop over when it is enabled again
+    if (!DriverStation.isEnabled() || !m_closedLoop) {
+      m_simClosedLoopRunning = false;
+      return DriverStation.isEnabled() ? m_power : 0;
+    }
+    // the Talon's gains are in encoder ticks, and 1023 is full output
+    double[] gains = kSimSlotGains[m_profileSlot];
+    double position = Conversions.MetersToFalcon(m_elevatorSim.getPositionMeters() - m_simEncoderZero,
+      ElevatorConstants.kSpoolCircumference, ElevatorConstants.kGearRatio);
+    double error = m_setpointTicks - position;
+    // like the Talon, there's no derivative in the first loop after switching to position control
+    if (!m_simClosedLoopRunning) {
+      m_lastSimPositionError = error;
+      m_simClosedLoopRunning = true;
+    }
+    double output = (gains[0] * error + gains[1] * (error - m_lastSimPositionError)
+      + gains[2] * m_setpointTicks) / 1023;
+    m_lastSimPositionError = error;
+    return output + m_feedforward;
+  }
+
+  /**
+   * ElevatorSim pulls the carriage straight down, but the elevator is tilted by kElevatorAngle. Instead, the
+   * voltage that would hold the carriage against the part of gravity along the elevator is taken off the input.
+   * @return the voltage to add to the input of the physics simulation
+   */
+  private double getSimGravityVoltage() {
+    double force = m_simCarriageMass * Constants.kGravitationalAccel
+      * Math.sin(ElevatorConstants.kElevatorAngle);
+    double torque = force * ElevatorConstants.kSpoolCircumference / (2 * Math.PI) / ElevatorConstants.kGearRatio;
+    return -ElevatorConstants.kGearBox.rOhms * torque / ElevatorConstants.kGearBox.KtNMPerAmp;
+  }
+
+  @Override
+  public void updateInputs(ElevatorInputs inputs) {
+    double position = m_elevatorSim.getPositionMeters();
+    inputs.positionMeters = position - m_simEncoderZero;
+    inputs.velocityMetersPerSecond = m_elevatorSim.getVelocityMetersPerSecond();
+    inputs.appliedOutput = m_simOutput;
+    inputs.supplyCurrent = m_simSupplyCurrent;
+    inputs.statorCurrent = m_simStatorCurrent;
+    inputs.bottomLimitSwitchReached = position <= ElevatorConstants.kSimLimitSwitchDistance;
+    inputs.topLimitSwitchReached =
+      position >= ElevatorConstants.kMaxPosition - ElevatorConstants.kSimLimitSwitchDistance;
+  }
+
+  @Override
+  public void setPower(double power) {
+    m_closedLoop = false;
+    m_power = power;
+  }
+
+  @Override
+  public void setPosition(double positionMeters, int slot, double feedforward) {
+    if (!m_closedLoop) m_simClosedLoopRunning = false;
+    m_closedLoop = true;
+    m_setpointTicks = Conversions.MetersToFalcon(positionMeters, ElevatorConstants.kSpoolCircumference,
+      ElevatorConstants.kGearRatio);
+    m_profileSlot = slot;
+    m_feedforward = feedforward;
+  }
+
+  @Override
+  public void stop() {
+    setPower(0);
+  }
+
+  @Override
+  public void zeroEncoder() {
+    m_simEncoderZero = m_elevatorSim.getPositionMeters();
+  }
+}
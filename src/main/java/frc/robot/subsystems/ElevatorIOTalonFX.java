@@ -0,0 +1,174 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.ParamEnum;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
+import lib.drivers.LazyTalonFX;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.constants.Constants;
+import frc.robot.constants.ElevatorConstants;
+import frc.robot.util.Conversions;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.StatusFramePolicy;
+
+/**
+ * The hardware of the elevator on the robot.
+ *
+ * @see ElevatorIOSim
+ */
+public class ElevatorIOTalonFX implements ElevatorIO {
+
+  private final LazyTalonFX m_motor;
+  private final DigitalInput m_bottomLimitSwitch;
+  private final DigitalInput m_topLimitSwitch;
+
+  /**
+   * Makes and configures the motor and limit switches.
+   */
+  public ElevatorIOTalonFX() {
+    m_motor = new LazyTalonFX(ElevatorConstants.kMotorID, Constants.kCanivoreCAN);
+    configElevatorMotor();
+
+    m_bottomLimitSwitch = new DigitalInput(ElevatorConstants.kBottomLimitSwitchPort);
+    m_topLimitSwitch = new DigitalInput(ElevatorConstants.kTopLimitSwitchPort);
+  }
+
+  private void configElevatorMotor() {
+    DeviceConfigurator.Batch batch = new DeviceConfigurator.Batch("Elevator motor")
+      .add("factory default", (timeoutMs) -> m_motor.configFactoryDefault(timeoutMs))
+      .add("supply current limit", (timeoutMs) -> m_motor.configSupplyCurrentLimit(
+        new SupplyCurrentLimitConfiguration(
+          ElevatorConstants.kEnableCurrentLimit,
+          ElevatorConstants.kContinuousCurrentLimit,
+          ElevatorConstants.kPeakCurrentLimit,
+          ElevatorConstants.kPeakCurrentDuration
+        ), timeoutMs));
+
+    //configure PIDS and feedforwards within motor(not RoboRiO)
+    //each PID is for a different condition
+    addGains(batch, 0, ElevatorConstants.kBottomP, ElevatorConstants.kBottomI,
+      ElevatorConstants.kBottomD, ElevatorConstants.kBottomF);
+    addGains(batch, 1, ElevatorConstants.kBottomWithConeP, ElevatorConstants.kBottomWithConeI,
+      ElevatorConstants.kBottomWithConeD, ElevatorConstants.kBottomWithConeF);
+    addGains(batch, 2, ElevatorConstants.kTopP, ElevatorConstants.kTopI,
+      ElevatorConstants.kTopD, ElevatorConstants.kTopF);
+    addGains(batch, 3, ElevatorConstants.kTopWithConeP, ElevatorConstants.kTopWithConeI,
+      ElevatorConstants.kTopWithConeD, ElevatorConstants.kTopWithConeF);
+
+    batch
+      .run("inverted", () -> m_motor.setInverted(ElevatorConstants.kMotorInvert))
+      .run("neutral mode", () -> m_motor.setNeutralMode(ElevatorConstants.kNeutralMode))
+      .add("voltage compensation", (timeoutMs) -> m_motor.configVoltageCompSaturation(Constants.kRobotVoltage, timeoutMs))
+      .run("enable voltage compensation", () -> m_motor.enableVoltageCompensation(true))
+
+      // .add("closed loop ramp", (timeoutMs) -> m_motor.configClosedloopRamp(ElevatorConstants.kMotorRamp, timeoutMs))
+
+      .add("feedback sensor",
+        (timeoutMs) -> m_motor.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor, 0, timeoutMs))
+
+      .add("forward soft limit", (timeoutMs) -> m_motor.configForwardSoftLimitThreshold(
+        Conversions.MetersToFalcon(
+          ElevatorConstants.kMaxPosition,
+          ElevatorConstants.kSpoolCircumference,
+          ElevatorConstants.kGearRatio
+        ), timeoutMs))
+      .add("reverse soft limit",
+        (timeoutMs) -> m_motor.configReverseSoftLimitThreshold(Units.inchesToMeters(0), timeoutMs))
+
+      .add("neutral deadband", (timeoutMs) -> m_motor.configNeutralDeadband(0.005, timeoutMs))
+
+      .run("status frames",
+        () -> StatusFramePolicy.apply(m_motor, Constants.kCanivoreCAN, StatusFramePolicy.Role.ELEVATOR))
+
+      .add("forward soft limit enable", (timeoutMs) -> m_motor.configForwardSoftLimitEnable(false, timeoutMs))
+      .add("reverse soft limit enable", (timeoutMs) -> m_motor.configReverseSoftLimitEnable(false, timeoutMs));
+
+    DeviceConfigurator.configure(m_motor, batch);
+  }
+
+  /**
+   * Adds setting and reading back the PIDF gains of one slot to the motor's config batch.
+   */
+  private void addGains(DeviceConfigurator.Batch batch, int slot, double kP, double kI, double kD, double kF) {
+    batch
+      .add("slot " + slot + " kP", (timeoutMs) -> m_motor.config_kP(slot, kP, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_motor, ParamEnum.eProfileParamSlot_P, slot, kP))
+      .add("slot " + slot + " kI", (timeoutMs) -> m_motor.config_kI(slot, kI, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_motor, ParamEnum.eProfileParamSlot_I, slot, kI))
+      .add("slot " + slot + " kD", (timeoutMs) -> m_motor.config_kD(slot, kD, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_motor, ParamEnum.eProfileParamSlot_D, slot, kD))
+      .add("slot " + slot + " kF", (timeoutMs) -> m_motor.config_kF(slot, kF, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_motor, ParamEnum.eProfileParamSlot_F, slot, kF));
+  }
+
+  @Override
+  public void updateInputs(ElevatorInputs inputs) {
+    // calculate elevator position based on falcon encoder
+    inputs.positionMeters = Conversions.falconToMeters(
+      m_motor.getSelectedSensorPosition(),
+      ElevatorConstants.kSpoolCircumference,
+      ElevatorConstants.kGearRatio
+    );
+    inputs.velocityMetersPerSecond = Conversions.falconToMPS(
+      m_motor.getSelectedSensorVelocity(),
+      ElevatorConstants.kSpoolCircumference,
+      ElevatorConstants.kGearRatio
+    );
+    inputs.appliedOutput = m_motor.getMotorOutputPercent();
+    inputs.supplyCurrent = m_motor.getSupplyCurrent();
+    inputs.statorCurrent = m_motor.getStatorCurrent();
+    inputs.bottomLimitSwitchReached = m_bottomLimitSwitch.get() != ElevatorConstants.kBottomLimitSwitchNC;
+    inputs.topLimitSwitchReached = m_topLimitSwitch.get() != ElevatorConstants.kTopLimitSwitchNC;
+  }
+
+  @Override
+  public void setPower(double power) {
+    m_motor.set(ControlMode.PercentOutput, power);
+  }
+
+  @Override
+  public void setPosition(double positionMeters, int slot, double feedforward) {
+    m_motor.selectProfileSlot(slot, 0);
+    m_motor.set(
+      ControlMode.Position,
+      Conversions.MetersToFalcon(positionMeters, ElevatorConstants.kSpoolCircumference, ElevatorConstants.kGearRatio),
+      DemandType.ArbitraryFeedForward,
+      feedforward
+    );
+  }
+
+  @Override
+  public void stop() {
+    m_motor.stopMotor();
+  }
+
+  @Override
+  public void zeroEncoder() {
+    m_motor.setSelectedSensorPosition(0.0);
+  }
+
+  @Override
+  public void setSoftLimitsEnabled(boolean enabled) {
+    m_motor.configForwardSoftLimitEnable(enabled);
+    m_motor.configReverseSoftLimitEnable(enabled);
+  }
+
+  @Override
+  public void setMaxOutput(double power) {
+    m_motor.configPeakOutputForward(power);
+    m_motor.configPeakOutputReverse(power);
+  }
+
+  @Override
+  public void close() {
+    // don't close the motor while it is still being configured
+    DeviceConfigurator.await(m_motor);
+    m_motor.close();
+    m_bottomLimitSwitch.close();
+    m_topLimitSwitch.close();
+  }
+}
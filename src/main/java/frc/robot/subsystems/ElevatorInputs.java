@@ -0,0 +1,50 @@
+package frc.robot.subsystems;
+
+import frc.robot.util.LoggableInputs;
+
+/**
+ * The sensor values of the elevator, read once a loop at the start of {@link Elevator#periodic()}.
+ */
+public class ElevatorInputs implements LoggableInputs {
+  /** Position of the carriage above where the encoder was zeroed, in meters */
+  public double positionMeters = 0;
+  /** Speed of the carriage, in meters per second */
+  public double velocityMetersPerSecond = 0;
+  /** Percent output of the motor, in [-1, 1] */
+  public double appliedOutput = 0;
+  /** Supply current of the motor, in amps */
+  public double supplyCurrent = 0;
+  /** Stator current of the motor, in amps */
+  public double statorCurrent = 0;
+  /** If the carriage is at the bottom limit switch */
+  public boolean bottomLimitSwitchReached = false;
+  /** If the carriage is at the top limit switch */
+  public boolean topLimitSwitchReached = false;
+
+  @Override
+  public int size() {
+    return 7;
+  }
+
+  @Override
+  public void toArray(double[] values) {
+    values[0] = positionMeters;
+    values[1] = velocityMetersPerSecond;
+    values[2] = appliedOutput;
+    values[3] = supplyCurrent;
+    values[4] = statorCurrent;
+    values[5] = bottomLimitSwitchReached ? 1 : 0;
+    values[6] = topLimitSwitchReached ? 1 : 0;
+  }
+
+  @Override
+  public void fromArray(double[] values) {
+    positionMeters = values[0];
+    velocityMetersPerSecond = values[1];
+    appliedOutput = values[2];
+    supplyCurrent = values[3];
+    statorCurrent = values[4];
+    bottomLimitSwitchReached = values[5] != 0;
+    topLimitSwitchReached = values[6] != 0;
+  }
+}
@@ -0,0 +1,31 @@
+package frc.robot.subsystems;
+
+/**
+ * The gyro of the drivetrain. The {@link Drivetrain} only talks to it through this, so it runs the same on the robot
+ * ({@link GyroIOPigeon2}), in simulation ({@link GyroIOSim}), and in replay.
+ *
+ * <p> Every method does nothing by default, which is the IO used in replay, {@code new GyroIO() {}}. The inputs are
+ * then filled in from the log, see {@link frc.robot.util.InputsLog}.
+ */
+public interface GyroIO {
+
+  /**
+   * Reads the gyro.
+   * @param inputs the inputs to fill in
+   */
+  default void updateInputs(GyroInputs inputs) {}
+
+  /**
+   * Sets the yaw the gyro reads now.
+   * @param yawDegrees the yaw, in degrees
+   */
+  default void setYaw(double yawDegrees) {}
+
+  /**
+   * Reads the yaw directly. Used by the odometry thread.
+   * @return the yaw, in degrees
+   */
+  default double getYawDegrees() {
+    return 0;
+  }
+}
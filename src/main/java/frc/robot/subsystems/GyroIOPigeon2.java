@@ -0,0 +1,51 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
+import com.ctre.phoenix.sensors.WPI_Pigeon2;
+import com.ctre.phoenix.sensors.Pigeon2.AxisDirection;
+
+import frc.robot.constants.swerve.DriveConstants;
+
+/**
+ * The Pigeon 2 on the robot.
+ *
+ * @see GyroIOSim
+ */
+public class GyroIOPigeon2 implements GyroIO {
+
+  private final WPI_Pigeon2 m_pigeon;
+  // reused for reading the angular rates
+  private final double[] m_rawGyro = new double[3];
+
+  public GyroIOPigeon2() {
+    m_pigeon = new WPI_Pigeon2(DriveConstants.kPigeon, DriveConstants.kPigeonCAN);
+    m_pigeon.configFactoryDefault();
+    // Our pigeon is mounted with y forward, and z upward
+    m_pigeon.configMountPose(AxisDirection.PositiveY, AxisDirection.PositiveZ);
+    if (DriveConstants.kUseOdometryThread) {
+      // sends the yaw as often as the odometry thread reads it
+      m_pigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, DriveConstants.kOdometryStatusFramePeriodMs);
+    }
+  }
+
+  @Override
+  public void updateInputs(GyroInputs inputs) {
+    inputs.yawDegrees = m_pigeon.getYaw();
+    inputs.pitchDegrees = m_pigeon.getPitch();
+    inputs.rollDegrees = m_pigeon.getRoll();
+    m_pigeon.getRawGyro(m_rawGyro);
+    inputs.xRateDegreesPerSecond = m_rawGyro[0];
+    inputs.yRateDegreesPerSecond = m_rawGyro[1];
+    inputs.zRateDegreesPerSecond = m_rawGyro[2];
+  }
+
+  @Override
+  public void setYaw(double yawDegrees) {
+    m_pigeon.setYaw(yawDegrees);
+  }
+
+  @Override
+  public double getYawDegrees() {
+    return m_pigeon.getYaw();
+  }
+}
@@ -0,0 +1,44 @@
+package frc.robot.subsystems;
+
+import frc.robot.constants.Constants;
+
+/**
+ * The gyro in simulation. It turns with the {@link SwerveDriveSim}, and the robot never tips, so its pitch and roll
+ * are always 0.
+ *
+ * @see GyroIOPigeon2
+ */
+public class GyroIOSim implements GyroIO {
+
+  private double m_yawDegrees = 0;
+  private double m_yawRateDegreesPerSecond = 0;
+
+  /**
+   * Turns the gyro with the robot. Call once a loop, after the model is updated.
+   * @param degrees how far the robot turned this loop, counterclockwise positive
+   */
+  public void addHeading(double degrees) {
+    m_yawDegrees += degrees;
+    m_yawRateDegreesPerSecond = degrees / Constants.kLoopTime;
+  }
+
+  @Override
+  public void updateInputs(GyroInputs inputs) {
+    inputs.yawDegrees = m_yawDegrees;
+    inputs.pitchDegrees = 0;
+    inputs.rollDegrees = 0;
+    inputs.xRateDegreesPerSecond = 0;
+    inputs.yRateDegreesPerSecond = 0;
+    inputs.zRateDegreesPerSecond = m_yawRateDegreesPerSecond;
+  }
+
+  @Override
+  public void setYaw(double yawDegrees) {
+    m_yawDegrees = yawDegrees;
+  }
+
+  @Override
+  public double getYawDegrees() {
+    return m_yawDegrees;
+  }
+}
@@ -0,0 +1,45 @@
+package frc.robot.subsystems;
+
+import frc.robot.util.LoggableInputs;
+
+/**
+ * The values of the gyro, read once a loop by {@link Drivetrain#updateInputs()}.
+ */
+public class GyroInputs implements LoggableInputs {
+  /** Yaw of the robot, in degrees. Not wrapped. */
+  public double yawDegrees = 0;
+  /** Pitch of the robot, in degrees */
+  public double pitchDegrees = 0;
+  /** Roll of the robot, in degrees */
+  public double rollDegrees = 0;
+
+  /** Angular rate around the gyro's x, y, and z axes, in degrees per second */
+  public double xRateDegreesPerSecond = 0;
+  public double yRateDegreesPerSecond = 0;
+  public double zRateDegreesPerSecond = 0;
+
+  @Override
+  public int size() {
+    return 6;
+  }
+
+  @Override
+  public void toArray(double[] values) {
+    values[0] = yawDegrees;
+    values[1] = pitchDegrees;
+    values[2] = rollDegrees;
+    values[3] = xRateDegreesPerSecond;
+    values[4] = yRateDegreesPerSecond;
+    values[5] = zRateDegreesPerSecond;
+  }
+
+  @Override
+  public void fromArray(double[] values) {
+    yawDegrees = values[0];
+    pitchDegrees = values[1];
+    rollDegrees = values[2];
+    xRateDegreesPerSecond = values[3];
+    yRateDegreesPerSecond = values[4];
+    zRateDegreesPerSecond = values[5];
+  }
+}
@@ -7,8 +7,6 @@
 
 package frc.robot.subsystems;
 
-import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
-import lib.drivers.LazyTalonFX;
 import com.revrobotics.Rev2mDistanceSensor;
 import com.revrobotics.Rev2mDistanceSensor.Port;
 import com.revrobotics.Rev2mDistanceSensor.Unit;
@@ -20,8 +18,10 @@ import frc.robot.constants.Constants;
 import frc.robot.constants.IntakeConstants;
 import frc.robot.util.DrawMechanism;
 import frc.robot.util.GamePieceType;
+import frc.robot.util.InputsLog;
 import frc.robot.util.LogManager;
-import frc.robot.util.MotorFactory;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.Telemetry;
 
 
 public class Intake extends SubsystemBase {
@@ -30,7 +30,11 @@ public class Intake extends SubsystemBase {
     INTAKE_CUBE, OUTTAKE_CUBE, OUTTAKE_CUBE_AUTO, INTAKE_CONE, OUTTAKE_CONE, DISABLED, HOLD_GAME_PIECE
   }
 
-  private final LazyTalonFX m_intakeMotor;
+  private final IntakeIO m_io;
+  // the simulated hardware, null unless simulating
+  private final IntakeIOSim m_sim;
+  private final IntakeInputs m_inputs = new IntakeInputs();
+  private final int m_inputsHandle = InputsLog.register("Intake", m_inputs);
   private final ShuffleboardTab m_intakeTab;
   // private final Rev2mDistanceSensor m_distSensor;
 
@@ -39,17 +43,25 @@ public class Intake extends SubsystemBase {
 
   private double m_power;
 
+  // Log handles, registered once so logging every loop does not build strings
+  private final int m_currentLog = LogManager.registerDouble("Intake/current");
+  private final int m_powerLog = LogManager.registerDouble("Intake/power");
+
+  private final LoopProfiler.Stage m_periodicStage = LoopProfiler.register("Intake.periodic()");
 
   public Intake(ShuffleboardTab intakeTab) {
-    m_intakeMotor = MotorFactory.createTalonFX(IntakeConstants.kIntakeMotorId, Constants.kRioCAN);
-    m_intakeMotor.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(
-      IntakeConstants.kEnableCurrentLimit,
-      IntakeConstants.kContinuousCurrentLimit,
-      IntakeConstants.kPeakCurrentLimit,
-      IntakeConstants.kPeakCurrentDuration
-    ));
-    m_intakeMotor.setNeutralMode(IntakeConstants.kNeutralMode);
-    m_intakeMotor.enableVoltageCompensation(true);
+    this(intakeTab, InputsLog.isReplaying() ? new IntakeIO() {}
+      : RobotBase.isReal() ? new IntakeIOTalonFX() : new IntakeIOSim());
+  }
+
+  /**
+   * Makes the intake with the given hardware.
+   * @param intakeTab the Shuffleboard tab
+   * @param io the hardware, see {@link IntakeIO}
+   */
+  public Intake(ShuffleboardTab intakeTab, IntakeIO io) {
+    m_io = io;
+    m_sim = io instanceof IntakeIOSim ? (IntakeIOSim) io : null;
 
     // if (RobotBase.isReal()) {
     //   m_distSensor = new Rev2mDistanceSensor(Port.kMXP);
@@ -69,6 +81,8 @@ public class Intake extends SubsystemBase {
 
     if (Constants.kUseTelemetry) setupShuffleboard();
 
+    m_io.updateInputs(m_inputs);
+    InputsLog.process(m_inputsHandle);
   }
 
   public void setMode(IntakeMode mode) {
@@ -78,11 +92,15 @@ public class Intake extends SubsystemBase {
   }
 
   private void setMotorPower(double power) {
-    m_intakeMotor.set(power); 
+    m_io.setPower(power);
   }
 
   @Override
   public void periodic() {
+    if (Constants.kLoopProfiling) m_periodicStage.start();
+
+    m_io.updateInputs(m_inputs);
+    InputsLog.process(m_inputsHandle);
 
     switch (m_mode) {
       case INTAKE_CUBE:
@@ -110,17 +128,24 @@ public class Intake extends SubsystemBase {
     setMotorPower(m_power);
 
     if (Constants.kLogging) {
-      LogManager.addDouble("Intake/current", getCurrent());
-      LogManager.addDouble("Intake/power", m_power);
+      LogManager.addDouble(m_currentLog, getCurrent());
+      LogManager.addDouble(m_powerLog, m_power);
     }
+
+    if (Constants.kLoopProfiling) m_periodicStage.stop();
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    if (m_sim != null) m_sim.update();
   }
 
   private void setupShuffleboard() {
-    m_intakeTab.addString("Intake Mode", () -> m_mode.name());
-    m_intakeTab.addDouble("Intake Motor Current", () -> getCurrent());
-    m_intakeTab.addDouble("Intake Power", () -> m_power);
-    m_intakeTab.addString("Held Game Piece", () -> m_heldPiece.name());
-    m_intakeTab.addDouble("Cone distance from center", () -> getConePos());
+    Telemetry.addString(m_intakeTab, "Intake Mode", Telemetry.Rate.MEDIUM, () -> m_mode.name());
+    Telemetry.addDouble(m_intakeTab, "Intake Motor Current", Telemetry.Rate.MEDIUM, () -> getCurrent());
+    Telemetry.addDouble(m_intakeTab, "Intake Power", Telemetry.Rate.MEDIUM, () -> m_power);
+    Telemetry.addString(m_intakeTab, "Held Game Piece", Telemetry.Rate.MEDIUM, () -> m_heldPiece.name());
+    Telemetry.addDouble(m_intakeTab, "Cone distance from center", Telemetry.Rate.SLOW, () -> getConePos());
   }
   
   public boolean containsGamePiece() {
@@ -140,7 +165,7 @@ public class Intake extends SubsystemBase {
    * @return the supply current
    */
   public double getCurrent() {
-    return Math.abs(m_intakeMotor.getSupplyCurrent());
+    return Math.abs(m_inputs.supplyCurrent);
   }
 
   public GamePieceType getHeldGamePiece() {
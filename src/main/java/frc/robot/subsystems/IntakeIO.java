@@ -0,0 +1,24 @@
+package frc.robot.subsystems;
+
+/**
+ * The hardware of the intake: the Falcon that runs its rollers. The {@link Intake} only talks to its hardware through
+ * this, so it runs the same on the robot ({@link IntakeIOTalonFX}), in simulation ({@link IntakeIOSim}), and in
+ * replay.
+ *
+ * <p> Every method does nothing by default, which is the IO used in replay, {@code new IntakeIO() {}}. The inputs are
+ * then filled in from the log, see {@link frc.robot.util.InputsLog}.
+ */
+public interface IntakeIO {
+
+  /**
+   * Reads the motor.
+   * @param inputs the inputs to fill in
+   */
+  default void updateInputs(IntakeInputs inputs) {}
+
+  /**
+   * Runs the rollers open loop.
+   * @param power the percent output, in [-1, 1]
+   */
+  default void setPower(double power) {}
+}
@@ -0,0 +1,67 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.robot.constants.Constants;
+import frc.robot.constants.IntakeConstants;
+import frc.robot.util.SimBattery;
+
+/**
+ * The hardware of the intake in simulation. The rollers are a {@link FlywheelSim}, to know how much current they
+ * draw. No Talon is made, so nothing goes through the HAL.
+ *
+ * @see IntakeIOTalonFX
+ */
+public class IntakeIOSim implements IntakeIO {
+
+  /** Physics Simulator for the rollers, to know how much current they draw. */
+  private final FlywheelSim m_rollerSim;
+  private final SupplyCurrentLimitSim m_currentLimitSim;
+  private final int m_batteryHandle;
+
+  private double m_power = 0;
+  private double m_output = 0;
+  private double m_supplyCurrent = 0;
+
+  public IntakeIOSim() {
+    m_rollerSim = new FlywheelSim(IntakeConstants.kGearBox, IntakeConstants.kGearRatio,
+      IntakeConstants.kMomentOfInertia);
+    m_currentLimitSim = new SupplyCurrentLimitSim(IntakeConstants.kEnableCurrentLimit,
+      IntakeConstants.kContinuousCurrentLimit, IntakeConstants.kPeakCurrentLimit,
+      IntakeConstants.kPeakCurrentDuration);
+    m_batteryHandle = SimBattery.register("Intake");
+  }
+
+  /**
+   * Runs the physics simulation for a loop. Call once a loop, after the intake has set the motor's power.
+   */
+  public void update() {
+    double batteryVoltage = RobotController.getBatteryVoltage();
+    double motorSpeed = m_rollerSim.getAngularVelocityRadPerSec() * IntakeConstants.kGearRatio;
+    // the Talon is neutral while the robot is disabled, and voltage compensation can't give more than the battery has
+    double power = DriverStation.isEnabled() ? m_power : 0;
+    double voltage = MathUtil.clamp(power * Constants.kRobotVoltage, -batteryVoltage, batteryVoltage);
+    voltage = m_currentLimitSim.limitVoltage(IntakeConstants.kGearBox, voltage, motorSpeed, batteryVoltage,
+      Constants.kLoopTime);
+    m_rollerSim.setInputVoltage(voltage);
+    m_rollerSim.update(Constants.kLoopTime);
+
+    m_output = voltage / batteryVoltage;
+    m_supplyCurrent = Math.abs(IntakeConstants.kGearBox.getCurrent(motorSpeed, voltage) * voltage)
+      / batteryVoltage;
+    SimBattery.setCurrent(m_batteryHandle, m_supplyCurrent);
+  }
+
+  @Override
+  public void updateInputs(IntakeInputs inputs) {
+    inputs.appliedOutput = m_output;
+    inputs.supplyCurrent = m_supplyCurrent;
+  }
+
+  @Override
+  public void setPower(double power) {
+    m_power = power;
+  }
+}
@@ -0,0 +1,51 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
+import lib.drivers.LazyTalonFX;
+
+import frc.robot.constants.Constants;
+import frc.robot.constants.IntakeConstants;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.MotorFactory;
+import frc.robot.util.StatusFramePolicy;
+
+/**
+ * The hardware of the intake on the robot.
+ *
+ * @see IntakeIOSim
+ */
+public class IntakeIOTalonFX implements IntakeIO {
+
+  private final LazyTalonFX m_intakeMotor;
+
+  /**
+   * Makes and configures the motor.
+   */
+  public IntakeIOTalonFX() {
+    m_intakeMotor = MotorFactory.createTalonFX(IntakeConstants.kIntakeMotorId, Constants.kRioCAN);
+    // runs after the MotorFactory settings
+    DeviceConfigurator.configure(m_intakeMotor, new DeviceConfigurator.Batch("Intake motor")
+      .add("supply current limit", (timeoutMs) -> m_intakeMotor.configSupplyCurrentLimit(
+        new SupplyCurrentLimitConfiguration(
+          IntakeConstants.kEnableCurrentLimit,
+          IntakeConstants.kContinuousCurrentLimit,
+          IntakeConstants.kPeakCurrentLimit,
+          IntakeConstants.kPeakCurrentDuration
+        ), timeoutMs))
+      .run("neutral mode", () -> m_intakeMotor.setNeutralMode(IntakeConstants.kNeutralMode))
+      .run("enable voltage compensation", () -> m_intakeMotor.enableVoltageCompensation(true))
+      .run("status frames",
+        () -> StatusFramePolicy.apply(m_intakeMotor, Constants.kRioCAN, StatusFramePolicy.Role.INTAKE)));
+  }
+
+  @Override
+  public void updateInputs(IntakeInputs inputs) {
+    inputs.appliedOutput = m_intakeMotor.getMotorOutputPercent();
+    inputs.supplyCurrent = m_intakeMotor.getSupplyCurrent();
+  }
+
+  @Override
+  public void setPower(double power) {
+    m_intakeMotor.set(power);
+  }
+}
@@ -0,0 +1,30 @@
+package frc.robot.subsystems;
+
+import frc.robot.util.LoggableInputs;
+
+/**
+ * The sensor values of the intake, read once a loop at the start of {@link Intake#periodic()}.
+ */
+public class IntakeInputs implements LoggableInputs {
+  /** Percent output of the motor, in [-1, 1] */
+  public double appliedOutput = 0;
+  /** Supply current of the motor, in amps */
+  public double supplyCurrent = 0;
+
+  @Override
+  public int size() {
+    return 2;
+  }
+
+  @Override
+  public void toArray(double[] values) {
+    values[0] = appliedOutput;
+    values[1] = supplyCurrent;
+  }
+
+  @Override
+  public void fromArray(double[] values) {
+    appliedOutput = values[0];
+    supplyCurrent = values[1];
+  }
+}
@@ -1,25 +1,7 @@
 package frc.robot.subsystems;
 
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
-import lib.CTREModuleState;
-import frc.robot.constants.Constants;
-import frc.robot.constants.swerve.DriveConstants;
-import frc.robot.constants.swerve.ModuleConstants;
-import frc.robot.util.Conversions;
-import frc.robot.util.LogManager;
-
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.DemandType;
-import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
-import lib.drivers.LazyTalonFX;
-import com.ctre.phoenix.sensors.AbsoluteSensorRange;
-import com.ctre.phoenix.sensors.SensorInitializationStrategy;
-import com.ctre.phoenix.sensors.SensorTimeBase;
-import com.ctre.phoenix.sensors.WPI_CANCoder;
 
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -32,20 +14,24 @@ import frc.robot.constants.Constants;
 import frc.robot.constants.swerve.DriveConstants;
 import frc.robot.constants.swerve.ModuleConstants;
 import frc.robot.util.Conversions;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.InputsLog;
+import frc.robot.util.LogManager;
+import frc.robot.util.Telemetry;
 import lib.CTREModuleState;
 
 public class Module extends SubsystemBase {
   private final ShuffleboardTab m_swerveTab;
 
   private final int m_moduleIndex;
-  private Rotation2d m_angleOffset;
 
   private final String m_moduleAbbr;
 
-  private final LazyTalonFX m_angleMotor;
-  private final LazyTalonFX m_driveMotor;
-  private final WPI_CANCoder m_CANcoder;
-  private SwerveModuleState m_desiredState;
+  // The Talons and CANcoder, on the robot, in simulation, or nothing in replay
+  private final ModuleIO m_io;
+
+  private double m_desiredSpeed = 0;
+  private double m_desiredAngleRadians = 0;
 
   private boolean m_stateDeadband;
 
@@ -53,107 +39,136 @@ public class Module extends SubsystemBase {
 
   private boolean m_optimizeStates = true;
 
-  public Module(ModuleConstants moduleConstants, ShuffleboardTab swerveTab) {
+  // Sensor values for this loop, read once by updateInputs()
+  private final ModuleInputs m_inputs = new ModuleInputs();
+  private final int m_inputsHandle;
+
+  // Log handles, registered once so logging every loop does not build strings
+  private final int m_driveSpeedLog;
+  private final int m_driveSpeedErrorLog;
+  private final int m_driveVoltageLog;
+  private final int m_driveCurrentLog;
+  private final int m_steerPositionLog;
+  private final int m_steerPositionErrorLog;
+  private final int m_steerVelocityLog;
+  private final int m_steerVoltageLog;
+  private final int m_steerCurrentLog;
+  private final int m_stateDeadbandLog;
+  private final int m_optimizedLog;
+  private final int m_driveCharacterizationVoltageLog;
+  private final int m_angleCharacterizationVoltageLog;
+
+  /**
+   * @param moduleConstants the ports and offset of the module
+   * @param swerveTab the shuffleboard tab to display module data on
+   * @param io the module's hardware
+   */
+  public Module(ModuleConstants moduleConstants, ShuffleboardTab swerveTab, ModuleIO io) {
     m_swerveTab = swerveTab;
     m_moduleIndex = moduleConstants.getType().id;
     m_moduleAbbr = moduleConstants.getType().abbrev;
-    m_angleOffset = new Rotation2d(moduleConstants.getSteerOffset());
+    m_io = io;
+    m_inputsHandle = InputsLog.register("Swerve/Modules/" + m_moduleAbbr, m_inputs);
 
     m_stateDeadband = true;
 
-    /* Angle Encoder Config */
-    m_CANcoder = new WPI_CANCoder(moduleConstants.getEncoderPort(), DriveConstants.kSteerEncoderCAN);
-    configCANcoder();
-
-    /* Angle Motor Config */
-    m_angleMotor = new LazyTalonFX(moduleConstants.getSteerPort(), DriveConstants.kSteerEncoderCAN);
-    configAngleMotor();
-
-    /* Drive Motor Config */
-    m_driveMotor = new LazyTalonFX(moduleConstants.getDrivePort(), DriveConstants.kDriveMotorCAN);
-    configDriveMotor();
-
-    setDesiredState(new SwerveModuleState(0, getAngle()), false);
+    m_driveSpeedLog = LogManager.registerDouble("Swerve/Modules/DriveSpeed/" + m_moduleAbbr);
+    m_driveSpeedErrorLog = LogManager.registerDouble("Swerve/Modules/DriveSpeedError/" + m_moduleAbbr);
+    m_driveVoltageLog = LogManager.registerDouble("Swerve/Modules/DriveVoltage/" + m_moduleAbbr);
+    m_driveCurrentLog = LogManager.registerDouble("Swerve/Modules/DriveCurrent/" + m_moduleAbbr);
+    m_steerPositionLog = LogManager.registerDouble("Swerve/Modules/SteerPosition/" + m_moduleAbbr);
+    m_steerPositionErrorLog = LogManager.registerDouble("Swerve/Modules/SteerPositionError/" + m_moduleAbbr);
+    m_steerVelocityLog = LogManager.registerDouble("Swerve/Modules/SteerVelocity/" + m_moduleAbbr);
+    m_steerVoltageLog = LogManager.registerDouble("Swerve/Modules/SteerVoltage/" + m_moduleAbbr);
+    m_steerCurrentLog = LogManager.registerDouble("Swerve/Modules/SteerCurrent/" + m_moduleAbbr);
+    m_stateDeadbandLog = LogManager.registerBoolean("Swerve/Modules/StateDeadband/" + m_moduleAbbr);
+    m_optimizedLog = LogManager.registerBoolean("Swerve/Modules/Optimized/" + m_moduleAbbr);
+    m_driveCharacterizationVoltageLog = LogManager.registerDouble("Swerve/Modules/DriveCharacterizationVoltage/" + m_moduleAbbr);
+    m_angleCharacterizationVoltageLog = LogManager.registerDouble("Swerve/Modules/AngleCharacterizationVoltage/" + m_moduleAbbr);
+
+    // hold the angle the module is at once the steer motor is reset to the CANcoder
+    DeviceConfigurator.afterConfiguration(() -> {
+      updateInputs();
+      setDesiredState(new SwerveModuleState(0, getAngle()), false);
+    });
 
     setupShuffleboard();
   }
 
   public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop) {
+    setDesiredState(desiredState.speedMetersPerSecond, desiredState.angle.getRadians(), isOpenLoop);
+  }
+
+  /**
+   * Sets the desired state of the module without allocating.
+   *
+   * @param speedMetersPerSecond the desired drive speed
+   * @param angleRadians the desired angle
+   * @param isOpenLoop whether to use closed/open loop control for drive velocity
+   */
+  public void setDesiredState(double speedMetersPerSecond, double angleRadians, boolean isOpenLoop) {
     /*
      * This is a custom optimize function, since default WPILib optimize assumes
      * continuous controller which CTRE and Rev onboard is not
      */
-    desiredState = m_optimizeStates ? CTREModuleState.optimize(desiredState, getState().angle) : desiredState;
-    m_desiredState = desiredState;
-    setAngle(desiredState);
-    setSpeed(desiredState, isOpenLoop);
+    if (m_optimizeStates) {
+      double currentDegrees = Math.toDegrees(m_inputs.steerAngleRadians);
+      double desiredDegrees = Math.toDegrees(angleRadians);
+      speedMetersPerSecond = CTREModuleState.optimizeSpeed(speedMetersPerSecond, desiredDegrees, currentDegrees);
+      angleRadians = Math.toRadians(CTREModuleState.optimizeAngle(desiredDegrees, currentDegrees));
+    }
+    m_desiredSpeed = speedMetersPerSecond;
+    m_desiredAngleRadians = angleRadians;
+    setAngle();
+    setSpeed(isOpenLoop);
   }
 
-  private void setSpeed(SwerveModuleState desiredState, boolean isOpenLoop) {
+  private void setSpeed(boolean isOpenLoop) {
     if (isOpenLoop) {
-      double percentOutput = desiredState.speedMetersPerSecond / DriveConstants.kMaxSpeed;
-      m_driveMotor.set(ControlMode.PercentOutput, percentOutput);
+      double percentOutput = m_desiredSpeed / DriveConstants.kMaxSpeed;
+      m_io.setDriveControl(ControlMode.PercentOutput, percentOutput, DemandType.Neutral, 0);
     } else {
-      double velocity = Conversions.MPSToFalcon(desiredState.speedMetersPerSecond, DriveConstants.kWheelCircumference,
+      double velocity = Conversions.MPSToFalcon(m_desiredSpeed, DriveConstants.kWheelCircumference,
           DriveConstants.kDriveGearRatio);
-      m_driveMotor.set(ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward,
-          feedforward.calculate(desiredState.speedMetersPerSecond));
+      m_io.setDriveControl(ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward,
+          feedforward.calculate(m_desiredSpeed));
     }
     if(Constants.kLogging){
-      double motorSpeed = Conversions.falconToMPS(m_driveMotor.getSelectedSensorVelocity(), DriveConstants.kWheelCircumference,
-        DriveConstants.kDriveGearRatio);
-      LogManager.addDouble("Swerve/Modules/DriveSpeed/"+m_moduleAbbr,
-          motorSpeed
-      );
-      LogManager.addDouble("Swerve/Modules/DriveSpeedError/"+m_moduleAbbr,
-          motorSpeed-desiredState.speedMetersPerSecond
-      );
-      LogManager.addDouble("Swerve/Modules/DriveVoltage/"+m_moduleAbbr,
-          m_driveMotor.getMotorOutputVoltage()
-      );
-      LogManager.addDouble("Swerve/Modules/DriveCurrent/"+m_moduleAbbr,
-          m_driveMotor.getStatorCurrent()
-      );
+      double motorSpeed = m_inputs.driveVelocityMetersPerSecond;
+      LogManager.addDouble(m_driveSpeedLog, motorSpeed);
+      LogManager.addDouble(m_driveSpeedErrorLog, motorSpeed-m_desiredSpeed);
+      LogManager.addDouble(m_driveVoltageLog, m_inputs.driveVoltage);
+      LogManager.addDouble(m_driveCurrentLog, m_inputs.driveCurrent);
     }
   }
 
-  private void setAngle(SwerveModuleState desiredState) {
+  private void setAngle() {
     // Prevent rotating module if desired speed < 1%. Prevents Jittering.
-    if (m_stateDeadband && (Math.abs(desiredState.speedMetersPerSecond) <= (DriveConstants.kMaxSpeed * 0.01))) {
+    if (m_stateDeadband && (Math.abs(m_desiredSpeed) <= (DriveConstants.kMaxSpeed * 0.01))) {
       stop();
       return;
     }
-    m_angleMotor.set(ControlMode.Position, Conversions.degreesToFalcon(desiredState.angle.getDegrees(), DriveConstants.kAngleGearRatio));
+    double desiredDegrees = Math.toDegrees(m_desiredAngleRadians);
+    m_io.setSteerControl(ControlMode.Position, Conversions.degreesToFalcon(desiredDegrees, DriveConstants.kAngleGearRatio));
     if(Constants.kLogging){
-      double position = Conversions.falconToDegrees(m_angleMotor.getSelectedSensorPosition(), 
-        DriveConstants.kAngleGearRatio);
-      LogManager.addDouble("Swerve/Modules/SteerPosition/"+m_moduleAbbr,
-          position
-      );
-      LogManager.addDouble("Swerve/Modules/SteerPositionError/"+m_moduleAbbr,
-          position-desiredState.angle.getDegrees()
-      );
-      LogManager.addDouble("Swerve/Modules/SteerVelocity/"+m_moduleAbbr,
-          Conversions.falconToDegrees(m_angleMotor.getSelectedSensorVelocity(), 
-            DriveConstants.kAngleGearRatio)
-      );
-      LogManager.addDouble("Swerve/Modules/SteerVoltage/"+m_moduleAbbr,
-          m_angleMotor.getMotorOutputVoltage()
-      );
-      LogManager.addDouble("Swerve/Modules/SteerCurrent/"+m_moduleAbbr,
-          m_angleMotor.getStatorCurrent()
-      );
+      double position = Math.toDegrees(m_inputs.steerAngleRadians);
+      LogManager.addDouble(m_steerPositionLog, position);
+      LogManager.addDouble(m_steerPositionErrorLog, position-desiredDegrees);
+      // logged in degrees per 100 ms, the unit the motor reports velocity in
+      LogManager.addDouble(m_steerVelocityLog, Math.toDegrees(m_inputs.steerVelocityRadiansPerSecond) / 10);
+      LogManager.addDouble(m_steerVoltageLog, m_inputs.steerVoltage);
+      LogManager.addDouble(m_steerCurrentLog, m_inputs.steerCurrent);
     }
   }
 
   public void enableStateDeadband(boolean enabled) {
     m_stateDeadband = enabled;
-    LogManager.addBoolean("Swerve/Modules/StateDeadband/"+m_moduleAbbr, enabled);
+    LogManager.addBoolean(m_stateDeadbandLog, enabled);
   }
 
   public void setOptimize(boolean enable) {
     m_optimizeStates = enable;
-    LogManager.addBoolean("Swerve/Modules/Optimized/"+m_moduleAbbr, enable);
+    LogManager.addBoolean(m_optimizedLog, enable);
   }
 
   public int getModuleIndex() {
@@ -161,117 +176,115 @@ public class Module extends SubsystemBase {
   }
 
   public Rotation2d getAngle() {
-    return Rotation2d.fromDegrees(
-        Conversions.falconToDegrees(m_angleMotor.getSelectedSensorPosition(), DriveConstants.kAngleGearRatio));
+    return new Rotation2d(m_inputs.steerAngleRadians);
   }
 
+  /**
+   * @return the absolute angle from the CANcoder, from the last {@link #updateInputs()}
+   */
   public Rotation2d getCANcoder() {
-    return Rotation2d.fromDegrees(m_CANcoder.getAbsolutePosition());
+    return Rotation2d.fromDegrees(m_inputs.canCoderAngleDegrees);
   }
 
   public void resetToAbsolute() {
-    double absolutePosition = Conversions.degreesToFalcon(getCANcoder().getDegrees() - m_angleOffset.getDegrees(),
-        DriveConstants.kAngleGearRatio);
-    m_angleMotor.setSelectedSensorPosition(absolutePosition);
-  }
-
-  private void configCANcoder() {
-    m_CANcoder.configFactoryDefault();
-    m_CANcoder.configAbsoluteSensorRange(AbsoluteSensorRange.Unsigned_0_to_360);
-    m_CANcoder.configSensorDirection(DriveConstants.kModuleConstants.canCoderInvert);
-    m_CANcoder.configSensorInitializationStrategy(SensorInitializationStrategy.BootToAbsolutePosition);
-    m_CANcoder.configFeedbackCoefficient(0.087890625, "deg", SensorTimeBase.PerSecond);
-  }
-
-  private void configAngleMotor() {
-    m_angleMotor.configFactoryDefault();
-    m_angleMotor.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(
-      DriveConstants.kAngleEnableCurrentLimit,
-      DriveConstants.kAngleContinuousCurrentLimit,
-      DriveConstants.kAnglePeakCurrentLimit,
-      DriveConstants.kAnglePeakCurrentDuration
-    ));
-    m_angleMotor.config_kP(0, DriveConstants.kModuleConstants.angleKP);
-    m_angleMotor.config_kI(0, DriveConstants.kModuleConstants.angleKI);
-    m_angleMotor.config_kD(0, DriveConstants.kModuleConstants.angleKD);
-    m_angleMotor.config_kF(0, DriveConstants.kModuleConstants.angleKF);
-    m_angleMotor.setInverted(DriveConstants.kAngleMotorInvert);
-    m_angleMotor.setNeutralMode(DriveConstants.kAngleNeutralMode);
-    m_angleMotor.configVoltageCompSaturation(Constants.kRobotVoltage);
-    m_angleMotor.enableVoltageCompensation(true);
-    resetToAbsolute();
+    m_io.resetToAbsolute();
   }
 
   public void setDriveCharacterizationVoltage(double voltage) {
-    m_angleMotor.set(ControlMode.Position, Conversions.degreesToFalcon(0, DriveConstants.kAngleGearRatio));
-    m_driveMotor.set(ControlMode.PercentOutput, voltage / Constants.kRobotVoltage);
+    m_io.setSteerControl(ControlMode.Position, Conversions.degreesToFalcon(0, DriveConstants.kAngleGearRatio));
+    m_io.setDriveControl(ControlMode.PercentOutput, voltage / Constants.kRobotVoltage, DemandType.Neutral, 0);
     if(Constants.kLogging){
-      LogManager.addDouble("Swerve/Modules/DriveCharacterizationVoltage/"+m_moduleAbbr,
-        voltage
-      );
+      LogManager.addDouble(m_driveCharacterizationVoltageLog, voltage);
     }
   }
 
   public void setAngleCharacterizationVoltage(double voltage) {
-    m_angleMotor.set(ControlMode.PercentOutput, voltage / Constants.kRobotVoltage);
+    m_io.setSteerControl(ControlMode.PercentOutput, voltage / Constants.kRobotVoltage);
     // Set the drive motor to just enough to overcome static friction
-    m_driveMotor.set(ControlMode.PercentOutput, 1.1 * DriveConstants.kDriveKS);
+    m_io.setDriveControl(ControlMode.PercentOutput, 1.1 * DriveConstants.kDriveKS, DemandType.Neutral, 0);
     if(Constants.kLogging){
-      LogManager.addDouble("Swerve/Modules/AngleCharacterizationVoltage/"+m_moduleAbbr,
-        voltage
-      );
+      LogManager.addDouble(m_angleCharacterizationVoltageLog, voltage);
     }
   }
 
   public double getSteerVelocity() {
-    return Conversions.falconToRPM(m_angleMotor.getSelectedSensorVelocity(), DriveConstants.kAngleGearRatio) * 2 * Math.PI / 60;
-  }
-
-  private void configDriveMotor() {
-    m_driveMotor.configFactoryDefault();
-    m_driveMotor.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(
-      DriveConstants.kDriveEnableCurrentLimit,
-      DriveConstants.kDriveContinuousCurrentLimit,
-      DriveConstants.kDrivePeakCurrentLimit,
-      DriveConstants.kDrivePeakCurrentDuration
-    ));
-    m_driveMotor.config_kP(0, DriveConstants.kDriveP);
-    m_driveMotor.config_kI(0, DriveConstants.kDriveI);
-    m_driveMotor.config_kD(0, DriveConstants.kDriveD);
-    m_driveMotor.config_kF(0, DriveConstants.kDriveF);
-    m_driveMotor.configOpenloopRamp(DriveConstants.kOpenLoopRamp);
-    m_driveMotor.configClosedloopRamp(DriveConstants.kClosedLoopRamp);
-    m_driveMotor.setInverted(DriveConstants.kDriveMotorInvert);
-    m_driveMotor.setNeutralMode(DriveConstants.kDriveNeutralMode);
-    m_driveMotor.configVoltageCompSaturation(Constants.kRobotVoltage);
-    m_driveMotor.enableVoltageCompensation(true);
-    m_driveMotor.setSelectedSensorPosition(0);
+    return m_inputs.steerVelocityRadiansPerSecond;
   }
 
   public SwerveModuleState getState() {
-    return new SwerveModuleState(
-        Conversions.falconToMPS(m_driveMotor.getSelectedSensorVelocity(), DriveConstants.kWheelCircumference,
-            DriveConstants.kDriveGearRatio),
-        getAngle());
+    return new SwerveModuleState(getVelocity(), getAngle());
+  }
+
+  /**
+   * @return the speed of the drive wheel in meters per second, from the last {@link #updateInputs()}
+   */
+  public double getVelocity() {
+    return m_inputs.driveVelocityMetersPerSecond;
   }
 
   public SwerveModulePosition getPosition() {
-    return new SwerveModulePosition(
-        Conversions.falconToMeters(m_driveMotor.getSelectedSensorPosition(), DriveConstants.kWheelCircumference,
-            DriveConstants.kDriveGearRatio),
-        getAngle());
+    return new SwerveModulePosition(m_inputs.drivePositionMeters, getAngle());
+  }
+
+  /**
+   * Reads every sensor on the module into the inputs. Should be called once at the start of every loop,
+   * before anything uses the module.
+   */
+  public void updateInputs() {
+    m_io.updateInputs(m_inputs);
+  }
+
+  /**
+   * Logs the inputs read this loop, or in replay, sets them from the log. Call once a loop, after
+   * {@link #updateInputs()}.
+   */
+  public void processInputs() {
+    InputsLog.process(m_inputsHandle);
+  }
+
+  /**
+   * @return the sensor values from the last {@link #updateInputs()}
+   */
+  public ModuleInputs getInputs() {
+    return m_inputs;
+  }
+
+  /**
+   * Reads the distance the drive wheel has traveled directly from the motor, without allocating.
+   * Used by the odometry thread, everything else should use {@link #getInputs()}.
+   * @return the distance in meters
+   */
+  public double getDrivePositionMeters() {
+    return m_io.getDrivePositionMeters();
+  }
+
+  /**
+   * Reads the angle of the module directly from the motor, without allocating.
+   * Used by the odometry thread, everything else should use {@link #getInputs()}.
+   * @return the angle in radians
+   */
+  public double getAngleRadians() {
+    return m_io.getSteerAngleRadians();
   }
 
   private void setupShuffleboard() {
     if (Constants.kUseTelemetry && RobotBase.isReal()) {
-      m_swerveTab.addDouble(m_moduleAbbr + " CANcoder Angle (deg)", getCANcoder()::getDegrees);
-      m_swerveTab.addDouble(m_moduleAbbr + " FX Angle (deg)", getPosition().angle::getDegrees);
-      m_swerveTab.addDouble(m_moduleAbbr + " Velocity (m/s)", () -> getState().speedMetersPerSecond);
-      m_swerveTab.addDouble(m_moduleAbbr + " Desired Velocity (m/s)", () -> getDesiredState().speedMetersPerSecond);
-      m_swerveTab.addDouble(m_moduleAbbr + " Desired Angle (deg)", () -> getDesiredState().angle.getDegrees());
-      m_swerveTab.addBoolean(m_moduleAbbr + " Jitter prevention enabled", () -> m_stateDeadband);
-      m_swerveTab.addDouble(m_moduleAbbr + " Drive Current (A)", () -> m_driveMotor.getSupplyCurrent());
-      m_swerveTab.addDouble(m_moduleAbbr + " Angle Current (A)", () -> m_angleMotor.getSupplyCurrent());
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " CANcoder Angle (deg)", Telemetry.Rate.MEDIUM,
+        () -> m_inputs.canCoderAngleDegrees);
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " FX Angle (deg)", Telemetry.Rate.MEDIUM,
+        () -> Math.toDegrees(m_inputs.steerAngleRadians));
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " Velocity (m/s)", Telemetry.Rate.FAST,
+        () -> m_inputs.driveVelocityMetersPerSecond);
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " Desired Velocity (m/s)", Telemetry.Rate.FAST,
+        () -> getDesiredVelocity());
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " Desired Angle (deg)", Telemetry.Rate.MEDIUM,
+        () -> Math.toDegrees(getDesiredAngleRadians()));
+      Telemetry.addBoolean(m_swerveTab, m_moduleAbbr + " Jitter prevention enabled", Telemetry.Rate.SLOW,
+        () -> m_stateDeadband);
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " Drive Current (A)", Telemetry.Rate.MEDIUM,
+        () -> m_inputs.driveSupplyCurrent);
+      Telemetry.addDouble(m_swerveTab, m_moduleAbbr + " Angle Current (A)", Telemetry.Rate.MEDIUM,
+        () -> m_inputs.steerSupplyCurrent);
     }
   }
 
@@ -281,19 +294,23 @@ public class Module extends SubsystemBase {
   }
 
   public SwerveModuleState getDesiredState() {
-    return m_desiredState;
+    return new SwerveModuleState(getDesiredVelocity(), getDesiredAngle());
   }
 
   public double getDesiredVelocity() {
-    return getDesiredState().speedMetersPerSecond;
+    return m_desiredSpeed;
   }
 
   public Rotation2d getDesiredAngle() {
-    return getDesiredState().angle;
+    return new Rotation2d(getDesiredAngleRadians());
+  }
+
+  public double getDesiredAngleRadians() {
+    return m_desiredAngleRadians;
   }
 
   public double getDriveVelocityError() {
-    return getDesiredState().speedMetersPerSecond - getState().speedMetersPerSecond;
+    return getDesiredVelocity() - getVelocity();
   }
 
   public double getDriveFeedForwardKV() {
@@ -305,8 +322,8 @@ public class Module extends SubsystemBase {
   }
 
   public void stop() {
-    m_driveMotor.set(0);
-    m_angleMotor.set(0);
+    m_io.setDriveControl(ControlMode.PercentOutput, 0, DemandType.Neutral, 0);
+    m_io.setSteerControl(ControlMode.PercentOutput, 0);
   }
 
   public void setDriveVoltage(double volts) {
@@ -0,0 +1,60 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+
+/**
+ * The hardware of a swerve module: its drive and steer Talons and its CANcoder. The {@link Module} only talks to its
+ * hardware through this, so it runs the same on the robot ({@link ModuleIOTalonFX}), in simulation
+ * ({@link ModuleIOSim}), and in replay.
+ *
+ * <p> Every method does nothing by default, which is the IO used in replay, {@code new ModuleIO() {}}. The inputs are
+ * then filled in from the log, see {@link frc.robot.util.InputsLog}.
+ */
+public interface ModuleIO {
+
+  /**
+   * Reads every sensor on the module.
+   * @param inputs the inputs to fill in
+   */
+  default void updateInputs(ModuleInputs inputs) {}
+
+  /**
+   * Tells the drive Talon what to do, the same as {@code TalonFX.set(mode, demand0, demand1Type, demand1)}.
+   *
+   * @param mode the control mode, in the Talon's units
+   * @param demand the demand of the control mode
+   * @param demandType the type of the auxiliary demand
+   * @param feedforward the auxiliary demand, the percent output added when it is an arbitrary feedforward
+   */
+  default void setDriveControl(ControlMode mode, double demand, DemandType demandType, double feedforward) {}
+
+  /**
+   * Tells the steer Talon what to do, the same as {@code TalonFX.set(mode, value)}.
+   *
+   * @param mode the control mode, in the Talon's units
+   * @param demand the demand of the control mode
+   */
+  default void setSteerControl(ControlMode mode, double demand) {}
+
+  /**
+   * Resets the steer motor's encoder to the absolute angle from the CANcoder.
+   */
+  default void resetToAbsolute() {}
+
+  /**
+   * Reads the distance the drive wheel has traveled directly, without allocating. Used by the odometry thread.
+   * @return the distance in meters
+   */
+  default double getDrivePositionMeters() {
+    return 0;
+  }
+
+  /**
+   * Reads the angle of the module directly, without allocating. Used by the odometry thread.
+   * @return the angle in radians, not wrapped
+   */
+  default double getSteerAngleRadians() {
+    return 0;
+  }
+}
@@ -0,0 +1,95 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * The hardware of a swerve module in simulation.
+ *
+ * <p> What the module tells its Talons to do is kept, and passed to the {@link SwerveDriveSim} before it is updated.
+ * Its sensors are read from the model. No Talons or CANcoders are made, so nothing goes through the HAL.
+ *
+ * @see ModuleIOTalonFX
+ */
+public class ModuleIOSim implements ModuleIO {
+
+  private final SwerveDriveSim m_driveSim;
+  private final int m_moduleIndex;
+
+  // what the Talons were last told to do, null modes until they are told anything
+  private ControlMode m_driveMode = null;
+  private double m_driveDemand = 0;
+  private DemandType m_driveDemandType = null;
+  private double m_driveFeedforward = 0;
+  private ControlMode m_steerMode = null;
+  private double m_steerDemand = 0;
+
+  /**
+   * @param driveSim the physics model of the swerve drive
+   * @param moduleIndex the index of the module in the model
+   */
+  public ModuleIOSim(SwerveDriveSim driveSim, int moduleIndex) {
+    m_driveSim = driveSim;
+    m_moduleIndex = moduleIndex;
+  }
+
+  /**
+   * Passes what the Talons were last told to do to the physics model. Call this before the model is updated.
+   */
+  public void applyControl() {
+    // the Talons are neutral while the robot is disabled
+    boolean enabled = DriverStation.isEnabled();
+    if (m_driveMode == null || !enabled) {
+      m_driveSim.setDriveControl(m_moduleIndex, ControlMode.PercentOutput, 0, null, 0);
+    } else {
+      m_driveSim.setDriveControl(m_moduleIndex, m_driveMode, m_driveDemand, m_driveDemandType, m_driveFeedforward);
+    }
+
+    if (m_steerMode == null || !enabled) {
+      m_driveSim.setSteerControl(m_moduleIndex, ControlMode.PercentOutput, 0);
+    } else {
+      m_driveSim.setSteerControl(m_moduleIndex, m_steerMode, m_steerDemand);
+    }
+  }
+
+  /**
+   * Fills in the inputs from the physics model.
+   */
+  @Override
+  public void updateInputs(ModuleInputs inputs) {
+    m_driveSim.updateInputs(m_moduleIndex, inputs);
+  }
+
+  @Override
+  public void setDriveControl(ControlMode mode, double demand, DemandType demandType, double feedforward) {
+    m_driveMode = mode;
+    m_driveDemand = demand;
+    m_driveDemandType = demandType;
+    m_driveFeedforward = feedforward;
+  }
+
+  @Override
+  public void setSteerControl(ControlMode mode, double demand) {
+    m_steerMode = mode;
+    m_steerDemand = demand;
+  }
+
+  /**
+   * Does nothing, the simulated steer motor always knows the absolute angle.
+   */
+  @Override
+  public void resetToAbsolute() {
+  }
+
+  @Override
+  public double getDrivePositionMeters() {
+    return m_driveSim.getDrivePositionMeters(m_moduleIndex);
+  }
+
+  @Override
+  public double getSteerAngleRadians() {
+    return m_driveSim.getSteerAngleRadians(m_moduleIndex);
+  }
+}
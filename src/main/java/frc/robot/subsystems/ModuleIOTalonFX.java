@@ -0,0 +1,198 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.ParamEnum;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
+import com.ctre.phoenix.sensors.AbsoluteSensorRange;
+import com.ctre.phoenix.sensors.CANCoderConfiguration;
+import com.ctre.phoenix.sensors.SensorInitializationStrategy;
+import com.ctre.phoenix.sensors.SensorTimeBase;
+import com.ctre.phoenix.sensors.WPI_CANCoder;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.constants.Constants;
+import frc.robot.constants.swerve.DriveConstants;
+import frc.robot.constants.swerve.ModuleConstants;
+import frc.robot.util.Conversions;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.StatusFramePolicy;
+import lib.drivers.LazyTalonFX;
+
+/**
+ * The hardware of a swerve module on the robot: two Falcons and a CANcoder.
+ *
+ * @see ModuleIOSim
+ */
+public class ModuleIOTalonFX implements ModuleIO {
+
+  private final String m_moduleAbbr;
+  private final Rotation2d m_angleOffset;
+
+  private final LazyTalonFX m_angleMotor;
+  private final LazyTalonFX m_driveMotor;
+  private final WPI_CANCoder m_CANcoder;
+
+  /**
+   * Makes and configures the module's devices.
+   * @param moduleConstants the ports and offset of the module
+   */
+  public ModuleIOTalonFX(ModuleConstants moduleConstants) {
+    m_moduleAbbr = moduleConstants.getType().abbrev;
+    m_angleOffset = new Rotation2d(moduleConstants.getSteerOffset());
+
+    /* Angle Encoder Config */
+    m_CANcoder = new WPI_CANCoder(moduleConstants.getEncoderPort(), DriveConstants.kSteerEncoderCAN);
+    configCANcoder();
+
+    /* Angle Motor Config */
+    m_angleMotor = new LazyTalonFX(moduleConstants.getSteerPort(), DriveConstants.kSteerEncoderCAN);
+    // the setpoint jitters with the joystick, so skip changes too small to move the wheel
+    m_angleMotor.setEpsilon(DriveConstants.kAngleSetEpsilon);
+    configAngleMotor();
+
+    /* Drive Motor Config */
+    m_driveMotor = new LazyTalonFX(moduleConstants.getDrivePort(), DriveConstants.kDriveMotorCAN);
+    configDriveMotor();
+  }
+
+  @Override
+  public void updateInputs(ModuleInputs inputs) {
+    inputs.drivePositionMeters = getDrivePositionMeters();
+    inputs.driveVelocityMetersPerSecond = Conversions.falconToMPS(m_driveMotor.getSelectedSensorVelocity(),
+        DriveConstants.kWheelCircumference, DriveConstants.kDriveGearRatio);
+    inputs.driveVoltage = m_driveMotor.getMotorOutputVoltage();
+    inputs.driveCurrent = m_driveMotor.getStatorCurrent();
+    inputs.driveSupplyCurrent = m_driveMotor.getSupplyCurrent();
+
+    inputs.steerAngleRadians = getSteerAngleRadians();
+    inputs.steerVelocityRadiansPerSecond = Conversions.falconToRPM(m_angleMotor.getSelectedSensorVelocity(),
+        DriveConstants.kAngleGearRatio) * 2 * Math.PI / 60;
+    inputs.steerVoltage = m_angleMotor.getMotorOutputVoltage();
+    inputs.steerCurrent = m_angleMotor.getStatorCurrent();
+    inputs.steerSupplyCurrent = m_angleMotor.getSupplyCurrent();
+
+    inputs.canCoderAngleDegrees = m_CANcoder.getAbsolutePosition();
+  }
+
+  @Override
+  public void setDriveControl(ControlMode mode, double demand, DemandType demandType, double feedforward) {
+    m_driveMotor.set(mode, demand, demandType, feedforward);
+  }
+
+  @Override
+  public void setSteerControl(ControlMode mode, double demand) {
+    m_angleMotor.set(mode, demand);
+  }
+
+  /**
+   * Reads the CANcoder directly, since this runs while the steer motor is configured, before the first inputs.
+   */
+  @Override
+  public void resetToAbsolute() {
+    double absolutePosition = Conversions.degreesToFalcon(
+        m_CANcoder.getAbsolutePosition() - m_angleOffset.getDegrees(), DriveConstants.kAngleGearRatio);
+    m_angleMotor.setSelectedSensorPosition(absolutePosition);
+  }
+
+  @Override
+  public double getDrivePositionMeters() {
+    return Conversions.falconToMeters(m_driveMotor.getSelectedSensorPosition(), DriveConstants.kWheelCircumference,
+        DriveConstants.kDriveGearRatio);
+  }
+
+  @Override
+  public double getSteerAngleRadians() {
+    return Math.toRadians(Conversions.falconToDegrees(m_angleMotor.getSelectedSensorPosition(), DriveConstants.kAngleGearRatio));
+  }
+
+  private void configCANcoder() {
+    DeviceConfigurator.configure(m_CANcoder, new DeviceConfigurator.Batch(m_moduleAbbr + " CANcoder")
+      .add("factory default", (timeoutMs) -> m_CANcoder.configFactoryDefault(timeoutMs))
+      .add("absolute sensor range",
+        (timeoutMs) -> m_CANcoder.configAbsoluteSensorRange(AbsoluteSensorRange.Unsigned_0_to_360, timeoutMs))
+      .add("sensor direction",
+        (timeoutMs) -> m_CANcoder.configSensorDirection(DriveConstants.kModuleConstants.canCoderInvert, timeoutMs))
+      .add("initialization strategy", (timeoutMs) -> m_CANcoder.configSensorInitializationStrategy(
+        SensorInitializationStrategy.BootToAbsolutePosition, timeoutMs))
+      .add("feedback coefficient",
+        (timeoutMs) -> m_CANcoder.configFeedbackCoefficient(0.087890625, "deg", SensorTimeBase.PerSecond, timeoutMs),
+        (timeoutMs) -> {
+          // the steer motors are reset from this, so check all of it made it
+          CANCoderConfiguration config = new CANCoderConfiguration();
+          return m_CANcoder.getAllConfigs(config, timeoutMs) == ErrorCode.OK
+            && config.absoluteSensorRange == AbsoluteSensorRange.Unsigned_0_to_360
+            && config.sensorDirection == DriveConstants.kModuleConstants.canCoderInvert
+            && config.initializationStrategy == SensorInitializationStrategy.BootToAbsolutePosition
+            && config.sensorCoefficient == 0.087890625;
+        })
+      .run("status frames", () -> StatusFramePolicy.apply(m_CANcoder, DriveConstants.kSteerEncoderCAN)));
+  }
+
+  private void configAngleMotor() {
+    DeviceConfigurator.configure(m_angleMotor, new DeviceConfigurator.Batch(m_moduleAbbr + " steer motor")
+      // the motor is reset to the CANcoder's absolute position at the end
+      .after(m_CANcoder)
+      .add("factory default", (timeoutMs) -> m_angleMotor.configFactoryDefault(timeoutMs))
+      .add("supply current limit", (timeoutMs) -> m_angleMotor.configSupplyCurrentLimit(
+        new SupplyCurrentLimitConfiguration(
+          DriveConstants.kAngleEnableCurrentLimit,
+          DriveConstants.kAngleContinuousCurrentLimit,
+          DriveConstants.kAnglePeakCurrentLimit,
+          DriveConstants.kAnglePeakCurrentDuration
+        ), timeoutMs))
+      .add("kP", (timeoutMs) -> m_angleMotor.config_kP(0, DriveConstants.kModuleConstants.angleKP, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_angleMotor, ParamEnum.eProfileParamSlot_P, 0,
+          DriveConstants.kModuleConstants.angleKP))
+      .add("kI", (timeoutMs) -> m_angleMotor.config_kI(0, DriveConstants.kModuleConstants.angleKI, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_angleMotor, ParamEnum.eProfileParamSlot_I, 0,
+          DriveConstants.kModuleConstants.angleKI))
+      .add("kD", (timeoutMs) -> m_angleMotor.config_kD(0, DriveConstants.kModuleConstants.angleKD, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_angleMotor, ParamEnum.eProfileParamSlot_D, 0,
+          DriveConstants.kModuleConstants.angleKD))
+      .add("kF", (timeoutMs) -> m_angleMotor.config_kF(0, DriveConstants.kModuleConstants.angleKF, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_angleMotor, ParamEnum.eProfileParamSlot_F, 0,
+          DriveConstants.kModuleConstants.angleKF))
+      .run("inverted", () -> m_angleMotor.setInverted(DriveConstants.kAngleMotorInvert))
+      .run("neutral mode", () -> m_angleMotor.setNeutralMode(DriveConstants.kAngleNeutralMode))
+      .add("voltage compensation",
+        (timeoutMs) -> m_angleMotor.configVoltageCompSaturation(Constants.kRobotVoltage, timeoutMs))
+      .run("enable voltage compensation", () -> m_angleMotor.enableVoltageCompensation(true))
+      // sends the position as often as the odometry thread reads it
+      .run("status frames", () -> StatusFramePolicy.apply(
+        m_angleMotor, DriveConstants.kSteerEncoderCAN, StatusFramePolicy.Role.SWERVE_STEER))
+      .run("reset to absolute", this::resetToAbsolute));
+  }
+
+  private void configDriveMotor() {
+    DeviceConfigurator.configure(m_driveMotor, new DeviceConfigurator.Batch(m_moduleAbbr + " drive motor")
+      .add("factory default", (timeoutMs) -> m_driveMotor.configFactoryDefault(timeoutMs))
+      .add("supply current limit", (timeoutMs) -> m_driveMotor.configSupplyCurrentLimit(
+        new SupplyCurrentLimitConfiguration(
+          DriveConstants.kDriveEnableCurrentLimit,
+          DriveConstants.kDriveContinuousCurrentLimit,
+          DriveConstants.kDrivePeakCurrentLimit,
+          DriveConstants.kDrivePeakCurrentDuration
+        ), timeoutMs))
+      .add("kP", (timeoutMs) -> m_driveMotor.config_kP(0, DriveConstants.kDriveP, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_driveMotor, ParamEnum.eProfileParamSlot_P, 0, DriveConstants.kDriveP))
+      .add("kI", (timeoutMs) -> m_driveMotor.config_kI(0, DriveConstants.kDriveI, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_driveMotor, ParamEnum.eProfileParamSlot_I, 0, DriveConstants.kDriveI))
+      .add("kD", (timeoutMs) -> m_driveMotor.config_kD(0, DriveConstants.kDriveD, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_driveMotor, ParamEnum.eProfileParamSlot_D, 0, DriveConstants.kDriveD))
+      .add("kF", (timeoutMs) -> m_driveMotor.config_kF(0, DriveConstants.kDriveF, timeoutMs),
+        DeviceConfigurator.parameterEquals(m_driveMotor, ParamEnum.eProfileParamSlot_F, 0, DriveConstants.kDriveF))
+      .add("open loop ramp", (timeoutMs) -> m_driveMotor.configOpenloopRamp(DriveConstants.kOpenLoopRamp, timeoutMs))
+      .add("closed loop ramp",
+        (timeoutMs) -> m_driveMotor.configClosedloopRamp(DriveConstants.kClosedLoopRamp, timeoutMs))
+      .run("inverted", () -> m_driveMotor.setInverted(DriveConstants.kDriveMotorInvert))
+      .run("neutral mode", () -> m_driveMotor.setNeutralMode(DriveConstants.kDriveNeutralMode))
+      .add("voltage compensation",
+        (timeoutMs) -> m_driveMotor.configVoltageCompSaturation(Constants.kRobotVoltage, timeoutMs))
+      .run("enable voltage compensation", () -> m_driveMotor.enableVoltageCompensation(true))
+      .run("status frames", () -> StatusFramePolicy.apply(
+        m_driveMotor, DriveConstants.kDriveMotorCAN, StatusFramePolicy.Role.SWERVE_DRIVE))
+      .add("zero position", (timeoutMs) -> m_driveMotor.setSelectedSensorPosition(0, 0, timeoutMs)));
+  }
+}
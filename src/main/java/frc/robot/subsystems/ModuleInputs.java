@@ -0,0 +1,69 @@
+package frc.robot.subsystems;
+
+import frc.robot.util.LoggableInputs;
+
+/**
+ * The sensor values of a swerve module, read once a loop by {@link Module#updateInputs()}.
+ * Everything that needs a module's sensors during the loop reads them from here instead of over CAN.
+ */
+public class ModuleInputs implements LoggableInputs {
+  /** Distance the drive wheel has traveled, in meters */
+  public double drivePositionMeters = 0;
+  /** Speed of the drive wheel, in meters per second */
+  public double driveVelocityMetersPerSecond = 0;
+  /** Voltage applied to the drive motor, in volts */
+  public double driveVoltage = 0;
+  /** Stator current of the drive motor, in amps */
+  public double driveCurrent = 0;
+  /** Supply current of the drive motor, in amps */
+  public double driveSupplyCurrent = 0;
+
+  /** Angle of the module from the steer motor encoder, in radians. Not wrapped. */
+  public double steerAngleRadians = 0;
+  /** Speed of the steer motor, in radians per second */
+  public double steerVelocityRadiansPerSecond = 0;
+  /** Voltage applied to the steer motor, in volts */
+  public double steerVoltage = 0;
+  /** Stator current of the steer motor, in amps */
+  public double steerCurrent = 0;
+  /** Supply current of the steer motor, in amps */
+  public double steerSupplyCurrent = 0;
+
+  /** Absolute angle from the CANcoder, in degrees */
+  public double canCoderAngleDegrees = 0;
+
+  @Override
+  public int size() {
+    return 11;
+  }
+
+  @Override
+  public void toArray(double[] values) {
+    values[0] = drivePositionMeters;
+    values[1] = driveVelocityMetersPerSecond;
+    values[2] = driveVoltage;
+    values[3] = driveCurrent;
+    values[4] = driveSupplyCurrent;
+    values[5] = steerAngleRadians;
+    values[6] = steerVelocityRadiansPerSecond;
+    values[7] = steerVoltage;
+    values[8] = steerCurrent;
+    values[9] = steerSupplyCurrent;
+    values[10] = canCoderAngleDegrees;
+  }
+
+  @Override
+  public void fromArray(double[] values) {
+    drivePositionMeters = values[0];
+    driveVelocityMetersPerSecond = values[1];
+    driveVoltage = values[2];
+    driveCurrent = values[3];
+    driveSupplyCurrent = values[4];
+    steerAngleRadians = values[5];
+    steerVelocityRadiansPerSecond = values[6];
+    steerVoltage = values[7];
+    steerCurrent = values[8];
+    steerSupplyCurrent = values[9];
+    canCoderAngleDegrees = values[10];
+  }
+}
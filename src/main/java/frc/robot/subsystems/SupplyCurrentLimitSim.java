@@ -0,0 +1,52 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * The Talon's supply current limit, for the physics models used in simulation. Once the supply current is over the
+ * peak for longer than the peak duration, it is held at the continuous limit until the motor asks for less than that.
+ */
+class SupplyCurrentLimitSim {
+  private final boolean m_enabled;
+  private final double m_continuousAmps, m_peakAmps, m_peakSeconds;
+  private double m_overPeakSeconds = 0;
+  private boolean m_limiting = false;
+
+  SupplyCurrentLimitSim(boolean enabled, double continuousAmps, double peakAmps, double peakSeconds) {
+    m_enabled = enabled;
+    m_continuousAmps = continuousAmps;
+    m_peakAmps = peakAmps;
+    m_peakSeconds = peakSeconds;
+  }
+
+  /**
+   * @param supplyAmps the supply current the motor would draw without the limit
+   * @param dtSeconds the length of the step
+   * @return the most supply current the motor can draw this step
+   */
+  double update(double supplyAmps, double dtSeconds) {
+    if (!m_enabled) return Double.POSITIVE_INFINITY;
+    m_overPeakSeconds = supplyAmps > m_peakAmps ? m_overPeakSeconds + dtSeconds : 0;
+    m_limiting = supplyAmps > m_continuousAmps && (m_limiting || m_overPeakSeconds > m_peakSeconds);
+    return m_limiting ? m_continuousAmps : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Finds the voltage the Talon gives the motor with the limit.
+   *
+   * @param motor the motor
+   * @param voltage the voltage the Talon would give without the limit
+   * @param speedRadPerSec the speed of the motor
+   * @param busVoltage the voltage the Talon gets
+   * @param dtSeconds the length of the step
+   * @return the voltage the Talon gives the motor
+   */
+  double limitVoltage(DCMotor motor, double voltage, double speedRadPerSec, double busVoltage, double dtSeconds) {
+    double statorCurrent = motor.getCurrent(speedRadPerSec, voltage);
+    double supplyCurrent = busVoltage > 0 ? statorCurrent * voltage / busVoltage : 0;
+    double maxSupplyCurrent = update(Math.abs(supplyCurrent), dtSeconds);
+    if (Math.abs(supplyCurrent) <= maxSupplyCurrent) return voltage;
+    return statorCurrent * maxSupplyCurrent / Math.abs(supplyCurrent) * motor.rOhms
+      + speedRadPerSec / motor.KvRadPerSecPerVolt;
+  }
+}
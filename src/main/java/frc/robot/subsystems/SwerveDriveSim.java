@@ -0,0 +1,414 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.robot.constants.Constants;
+import frc.robot.constants.swerve.DriveConstants;
+import frc.robot.util.Conversions;
+
+/**
+ * Physics model of the swerve drive, used in simulation instead of the motors and gyro.
+ *
+ * <p> Each drive and steer motor is a {@link DCMotor} turning its load. The modules tell the model what their Talons
+ * were last told to do, and the model runs the Talon's closed loop, neutral deadband, open loop ramp, and supply
+ * current limit on every step, like the Talon does. The drive wheels push the robot with the force from their
+ * motors, less rolling friction, and keep it from sliding sideways, up to the friction between the wheels and the
+ * carpet. The wheels always roll with the robot, so a wheel that loses traction doesn't spin faster than the ground.
+ * The Talons get the voltage passed to each update, which sags with the current the whole robot draws, see
+ * {@link frc.robot.util.SimBattery}.
+ *
+ * <p> Every {@link #update(double, double)} is split into steps of a fixed length, since the Talons run their closed
+ * loops every millisecond. Nothing is allocated while updating, so the model can run many times faster than real time.
+ */
+public class SwerveDriveSim {
+
+  /** Below this output, the Talon is neutral. */
+  private static final double kNeutralDeadband = 0.04;
+  /** How often the Talon runs its closed loop, the time the derivative gain is for. */
+  private static final double kTalonLoopSeconds = 0.001;
+  /** Below this speed, in meters per second, a wheel counts as stopped for friction. */
+  private static final double kStoppedSpeed = 1e-3;
+
+  /**
+   * A motor and its Talon.
+   */
+  private static class SimMotor {
+    final DCMotor motor;
+    final boolean brake;
+    final SupplyCurrentLimitSim limit;
+    // the percent output after the ramp, in [-1, 1]
+    double output = 0;
+    double voltage = 0;
+    double statorCurrent = 0;
+    double supplyCurrent = 0;
+
+    SimMotor(DCMotor motor, boolean brake, SupplyCurrentLimitSim limit) {
+      this.motor = motor;
+      this.brake = brake;
+      this.limit = limit;
+    }
+
+    /**
+     * Finds the current the motor draws this step.
+     *
+     * @param output the percent output from the control mode
+     * @param rampPerSecond how fast the output can change per second, or infinity for no ramp
+     * @param busVoltage the voltage the Talon gets
+     * @param speedRadPerSec the speed of the motor
+     * @param dtSeconds the length of the step
+     */
+    void update(double output, double rampPerSecond, double busVoltage, double speedRadPerSec, double dtSeconds) {
+      output = MathUtil.clamp(output, -1, 1);
+      double maxChange = rampPerSecond * dtSeconds;
+      this.output = MathUtil.clamp(output, this.output - maxChange, this.output + maxChange);
+
+      if (Math.abs(this.output) < kNeutralDeadband && !brake) {
+        // coast, the windings are open
+        voltage = 0;
+        statorCurrent = 0;
+        supplyCurrent = 0;
+        return;
+      }
+      // in brake, neutral shorts the windings
+      double outputVoltage = Math.abs(this.output) < kNeutralDeadband ? 0 : this.output * Constants.kRobotVoltage;
+      // voltage compensation can't give more than the battery has
+      voltage = MathUtil.clamp(outputVoltage, -busVoltage, busVoltage);
+      statorCurrent = motor.getCurrent(speedRadPerSec, voltage);
+      supplyCurrent = busVoltage > 0 ? statorCurrent * voltage / busVoltage : 0;
+
+      double maxSupplyCurrent = limit.update(Math.abs(supplyCurrent), dtSeconds);
+      if (Math.abs(supplyCurrent) > maxSupplyCurrent) {
+        double scale = maxSupplyCurrent / Math.abs(supplyCurrent);
+        statorCurrent *= scale;
+        supplyCurrent *= scale;
+        voltage = statorCurrent * motor.rOhms + speedRadPerSec / motor.KvRadPerSecPerVolt;
+      }
+    }
+  }
+
+  /**
+   * One module: what its Talons were told to do, and where it is.
+   */
+  private static class SimModule {
+    final double x, y;
+    final SimMotor drive = new SimMotor(DriveConstants.kDriveGearBox, true, new SupplyCurrentLimitSim(
+      DriveConstants.kDriveEnableCurrentLimit, DriveConstants.kDriveContinuousCurrentLimit,
+      DriveConstants.kDrivePeakCurrentLimit, DriveConstants.kDrivePeakCurrentDuration));
+    final SimMotor steer = new SimMotor(DriveConstants.kSteerGearBox, false, new SupplyCurrentLimitSim(
+      DriveConstants.kAngleEnableCurrentLimit, DriveConstants.kAngleContinuousCurrentLimit,
+      DriveConstants.kAnglePeakCurrentLimit, DriveConstants.kAnglePeakCurrentDuration));
+
+    // the last demands sent to the Talons, in the Talon's units
+    ControlMode driveMode = ControlMode.PercentOutput;
+    double driveDemand = 0;
+    double driveFeedforward = 0;
+    ControlMode steerMode = ControlMode.PercentOutput;
+    double steerDemand = 0;
+    double lastSteerError = 0;
+
+    double drivePositionMeters = 0;
+    double driveVelocityMetersPerSecond = 0;
+    double steerAngleRadians = 0;
+    double steerVelocityRadiansPerSecond = 0;
+    // how much faster the encoder says the wheel turns than the ground moves under it
+    double slipScale = 1;
+
+    SimModule(Translation2d translation) {
+      x = translation.getX();
+      y = translation.getY();
+    }
+  }
+
+  private final SimModule[] m_modules = new SimModule[4];
+  private final double m_substepSeconds;
+
+  private final double m_wheelRadius = DriveConstants.kWheelCircumference / (2 * Math.PI);
+  // the force on the ground from a Talon's static friction voltage
+  private final double m_rollingFriction;
+  // the most force each wheel can push with before it slips
+  private double m_maxWheelForce;
+
+  // the robot on the field, in meters, radians, and per second
+  private double m_x = 0, m_y = 0, m_heading = 0;
+  private double m_vx = 0, m_vy = 0, m_omega = 0;
+
+  private double m_busVoltage = Constants.kRobotVoltage;
+  // the average supply current over the last update
+  private double m_driveSupplyCurrent = 0;
+  private double m_steerSupplyCurrent = 0;
+
+  /**
+   * @param substepSeconds the length of each physics step, see {@link DriveConstants#kSimSubstepSeconds}
+   */
+  public SwerveDriveSim(double substepSeconds) {
+    m_substepSeconds = substepSeconds;
+    for (int i = 0; i < 4; i++) {
+      m_modules[i] = new SimModule(DriveConstants.getModuleTranslation(i));
+    }
+    DCMotor motor = DriveConstants.kDriveGearBox;
+    m_rollingFriction = motor.getTorque(DriveConstants.kDriveKS * Constants.kRobotVoltage / motor.rOhms)
+      * DriveConstants.kDriveGearRatio / m_wheelRadius;
+    setFrictionScale(1);
+  }
+
+  /**
+   * Makes a wheel slip a little all the time, so its motor turns and its encoder counts more or less than the ground
+   * moved under it, like a worn wheel or a wheel that isn't the size odometry thinks it is.
+   *
+   * @param moduleIndex the index of the module
+   * @param scale how far the encoder says the wheel went for each meter the robot moved, 1 for no slip
+   */
+  public void setWheelSlip(int moduleIndex, double scale) {
+    m_modules[moduleIndex].slipScale = scale;
+  }
+
+  /**
+   * Scales the friction between the wheels and the carpet from {@link DriveConstants#kWheelCoefficientOfFriction}.
+   *
+   * @param scale the scale, 1 for the constant
+   */
+  public void setFrictionScale(double scale) {
+    m_maxWheelForce = scale * DriveConstants.kWheelCoefficientOfFriction * DriveConstants.kRobotMass
+      * Constants.kGravitationalAccel / 4;
+  }
+
+  /**
+   * Sets what the drive Talon of a module was last told to do.
+   *
+   * @param moduleIndex the index of the module
+   * @param mode the control mode, only percent output and velocity are simulated
+   * @param demand the demand, in the units of the control mode
+   * @param demandType the type of the auxiliary demand, only arbitrary feedforward is simulated
+   * @param feedforward the auxiliary demand
+   */
+  public void setDriveControl(int moduleIndex, ControlMode mode, double demand, DemandType demandType,
+      double feedforward) {
+    SimModule module = m_modules[moduleIndex];
+    module.driveMode = mode;
+    module.driveDemand = demand;
+    module.driveFeedforward = demandType == DemandType.ArbitraryFeedForward ? feedforward : 0;
+  }
+
+  /**
+   * Sets what the steer Talon of a module was last told to do.
+   *
+   * @param moduleIndex the index of the module
+   * @param mode the control mode, only percent output and position are simulated
+   * @param demand the demand, in the units of the control mode
+   */
+  public void setSteerControl(int moduleIndex, ControlMode mode, double demand) {
+    SimModule module = m_modules[moduleIndex];
+    module.steerMode = mode;
+    module.steerDemand = demand;
+  }
+
+  /**
+   * Moves the simulation forward.
+   *
+   * @param dtSeconds how long to simulate, in seconds
+   * @param busVoltage the voltage the Talons get, in volts
+   */
+  public void update(double dtSeconds, double busVoltage) {
+    m_busVoltage = busVoltage;
+    m_driveSupplyCurrent = 0;
+    m_steerSupplyCurrent = 0;
+    int steps = Math.max(1, (int) Math.round(dtSeconds / m_substepSeconds));
+    for (int i = 0; i < steps; i++) {
+      step(dtSeconds / steps);
+    }
+    m_driveSupplyCurrent /= steps;
+    m_steerSupplyCurrent /= steps;
+  }
+
+  private void step(double dt) {
+
+    double cos = Math.cos(m_heading);
+    double sin = Math.sin(m_heading);
+    // the robot's speed in its own frame
+    double vx = m_vx * cos + m_vy * sin;
+    double vy = -m_vx * sin + m_vy * cos;
+
+    // forces and torque on the robot, in its own frame
+    double fx = 0, fy = 0, torque = 0;
+    for (SimModule module : m_modules) {
+      // speed of the wheel's contact patch, along the wheel and across it
+      double px = vx - m_omega * module.y;
+      double py = vy + m_omega * module.x;
+      double wheelCos = Math.cos(module.steerAngleRadians);
+      double wheelSin = Math.sin(module.steerAngleRadians);
+      double rolling = px * wheelCos + py * wheelSin;
+      double sliding = -px * wheelSin + py * wheelCos;
+      module.driveVelocityMetersPerSecond = rolling * module.slipScale;
+
+      // drive motor
+      double driveMotorSpeed = module.driveVelocityMetersPerSecond / m_wheelRadius * DriveConstants.kDriveGearRatio;
+      module.drive.update(getDriveOutput(module), getDriveRamp(module), m_busVoltage, driveMotorSpeed, dt);
+      double force = module.drive.motor.getTorque(module.drive.statorCurrent)
+        * DriveConstants.kDriveGearRatio / m_wheelRadius;
+      if (Math.abs(rolling) > kStoppedSpeed) {
+        force -= Math.copySign(m_rollingFriction, rolling);
+      } else {
+        // static friction holds the wheel until the motor pushes harder than it
+        force = Math.abs(force) <= m_rollingFriction ? 0 : force - Math.copySign(m_rollingFriction, force);
+      }
+      // the force that stops the wheel sliding sideways by the end of the step
+      double sideForce = -sliding * DriveConstants.kRobotMass / 4 / dt;
+      double totalForce = Math.hypot(force, sideForce);
+      if (totalForce > m_maxWheelForce) {
+        force *= m_maxWheelForce / totalForce;
+        sideForce *= m_maxWheelForce / totalForce;
+      }
+      double wheelFx = force * wheelCos - sideForce * wheelSin;
+      double wheelFy = force * wheelSin + sideForce * wheelCos;
+      fx += wheelFx;
+      fy += wheelFy;
+      torque += module.x * wheelFy - module.y * wheelFx;
+      module.drivePositionMeters += module.driveVelocityMetersPerSecond * dt;
+
+      // steer motor
+      double steerMotorSpeed = module.steerVelocityRadiansPerSecond * DriveConstants.kAngleGearRatio;
+      module.steer.update(getSteerOutput(module, dt), Double.POSITIVE_INFINITY, m_busVoltage, steerMotorSpeed, dt);
+      double steerTorque = module.steer.motor.getTorque(module.steer.statorCurrent) * DriveConstants.kAngleGearRatio;
+      module.steerVelocityRadiansPerSecond += steerTorque / DriveConstants.kSteerMomentOfInertia * dt;
+      module.steerAngleRadians += module.steerVelocityRadiansPerSecond * dt;
+
+      m_driveSupplyCurrent += Math.abs(module.drive.supplyCurrent);
+      m_steerSupplyCurrent += Math.abs(module.steer.supplyCurrent);
+    }
+
+    m_vx += (fx * cos - fy * sin) / DriveConstants.kRobotMass * dt;
+    m_vy += (fx * sin + fy * cos) / DriveConstants.kRobotMass * dt;
+    m_omega += torque / DriveConstants.kRobotMomentOfInertia * dt;
+    m_x += m_vx * dt;
+    m_y += m_vy * dt;
+    m_heading += m_omega * dt;
+  }
+
+  /**
+   * Runs the drive Talon's control mode.
+   */
+  private double getDriveOutput(SimModule module) {
+    switch (module.driveMode) {
+      case PercentOutput:
+        return module.driveDemand;
+      case Velocity:
+        double velocity = Conversions.MPSToFalcon(module.driveVelocityMetersPerSecond,
+          DriveConstants.kWheelCircumference, DriveConstants.kDriveGearRatio);
+        return module.driveFeedforward + DriveConstants.kDriveP * (module.driveDemand - velocity) / 1023;
+      default:
+        return 0;
+    }
+  }
+
+  private double getDriveRamp(SimModule module) {
+    double rampSeconds = module.driveMode == ControlMode.PercentOutput
+      ? DriveConstants.kOpenLoopRamp
+      : DriveConstants.kClosedLoopRamp;
+    return rampSeconds > 0 ? 1 / rampSeconds : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Runs the steer Talon's control mode.
+   */
+  private double getSteerOutput(SimModule module, double dt) {
+    switch (module.steerMode) {
+      case PercentOutput:
+        return module.steerDemand;
+      case Position:
+        double position = Conversions.degreesToFalcon(Math.toDegrees(module.steerAngleRadians),
+          DriveConstants.kAngleGearRatio);
+        double error = module.steerDemand - position;
+        double derivative = (error - module.lastSteerError) * kTalonLoopSeconds / dt;
+        module.lastSteerError = error;
+        return (DriveConstants.kModuleConstants.angleKP * error
+          + DriveConstants.kModuleConstants.angleKD * derivative) / 1023;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Moves the simulated robot, e.g. when odometry is reset, so its pose matches the estimated pose.
+   * Its speed doesn't change.
+   *
+   * @param pose the new pose
+   */
+  public void resetPose(Pose2d pose) {
+    m_x = pose.getX();
+    m_y = pose.getY();
+    m_heading = pose.getRotation().getRadians();
+  }
+
+  /**
+   * @return where the simulated robot really is, which odometry only estimates
+   */
+  public Pose2d getPose() {
+    return new Pose2d(m_x, m_y, new Rotation2d(m_heading));
+  }
+
+  /**
+   * @return the heading of the robot in radians, counterclockwise positive. Not wrapped.
+   */
+  public double getHeadingRadians() {
+    return m_heading;
+  }
+
+  /**
+   * @return the average current the drive motors drew from the battery over the last update, in amps
+   */
+  public double getDriveSupplyCurrent() {
+    return m_driveSupplyCurrent;
+  }
+
+  /**
+   * @return the average current the steer motors drew from the battery over the last update, in amps
+   */
+  public double getSteerSupplyCurrent() {
+    return m_steerSupplyCurrent;
+  }
+
+  /**
+   * Fills in the sensor values of a module.
+   *
+   * @param moduleIndex the index of the module
+   * @param inputs the inputs to fill in
+   */
+  public void updateInputs(int moduleIndex, ModuleInputs inputs) {
+    SimModule module = m_modules[moduleIndex];
+    inputs.drivePositionMeters = module.drivePositionMeters;
+    inputs.driveVelocityMetersPerSecond = module.driveVelocityMetersPerSecond;
+    inputs.driveVoltage = module.drive.voltage;
+    inputs.driveCurrent = module.drive.statorCurrent;
+    inputs.driveSupplyCurrent = module.drive.supplyCurrent;
+
+    inputs.steerAngleRadians = module.steerAngleRadians;
+    inputs.steerVelocityRadiansPerSecond = module.steerVelocityRadiansPerSecond;
+    inputs.steerVoltage = module.steer.voltage;
+    inputs.steerCurrent = module.steer.statorCurrent;
+    inputs.steerSupplyCurrent = module.steer.supplyCurrent;
+
+    inputs.canCoderAngleDegrees = Math.toDegrees(MathUtil.inputModulus(module.steerAngleRadians, 0, 2 * Math.PI));
+  }
+
+  /**
+   * @param moduleIndex the index of the module
+   * @return the distance the drive wheel has traveled, in meters
+   */
+  public double getDrivePositionMeters(int moduleIndex) {
+    return m_modules[moduleIndex].drivePositionMeters;
+  }
+
+  /**
+   * @param moduleIndex the index of the module
+   * @return the angle of the module in radians. Not wrapped.
+   */
+  public double getSteerAngleRadians(int moduleIndex) {
+    return m_modules[moduleIndex].steerAngleRadians;
+  }
+}
@@ -1,61 +1,50 @@
 package frc.robot.subsystems;
 
-import lib.drivers.LazyTalonFX;
-
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.wpilibj.DutyCycleEncoder;
 import edu.wpi.first.wpilibj.RobotBase;
-import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
-import edu.wpi.first.wpilibj.simulation.DutyCycleEncoderSim;
-import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.constants.Constants;
-import frc.robot.constants.FalconConstants;
 import frc.robot.constants.WristConstants;
-import frc.robot.util.DrawMechanism;
+import frc.robot.util.InputsLog;
 import frc.robot.util.LogManager;
-import frc.robot.util.MotorFactory;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.Telemetry;
 
 public class Wrist extends SubsystemBase {
-  private final LazyTalonFX m_motor;
-  private final PIDController m_pid;
+  private final WristIO m_io;
+  // the simulated hardware, null unless simulating
+  private final WristIOSim m_sim;
+  private final WristInputs m_inputs = new WristInputs();
+  private final int m_inputsHandle = InputsLog.register("Wrist", m_inputs);
 
-  // unit tests want access to the DutyCycleEncoder and DutyCycleEncoderSim
-  protected final DutyCycleEncoder m_absEncoder;
-  protected DutyCycleEncoderSim m_absEncoderSim;
+  private final PIDController m_pid;
 
   private double m_pidPower = 0;
   private double m_power = 0;
   private double m_lastPos = 0;
 
-  /** Physics Simulator for the wrist. takes in a motor voltage and calculates how much the arm will move. */
-  private SingleJointedArmSim m_armSim;
+  // Log handles, registered once so logging every loop does not build strings
+  private final int m_positionLog = LogManager.registerDouble("Wrist/position");
+  private final int m_motorPowerLog = LogManager.registerDouble("Wrist/motor power");
+  private final int m_pidOutputLog = LogManager.registerDouble("Wrist/pidOutput");
+
+  private final LoopProfiler.Stage m_periodicStage = LoopProfiler.register("Wrist.periodic()");
   
   public Wrist(ShuffleboardTab wristTab) {
-    // configure the motor.
-    m_motor = MotorFactory.createTalonFXSupplyLimit(
-      WristConstants.kMotorID, 
-      Constants.kRioCAN, 
-      WristConstants.kContinuousCurrentLimit, 
-      WristConstants.kPeakCurrentLimit, 
-      WristConstants.kPeakCurrentDuration);
-    m_motor.setNeutralMode(WristConstants.kNeutralMode);
-    m_motor.setInverted(WristConstants.kMotorInvert); 
-    m_motor.enableVoltageCompensation(true);
-
-    // config deadband to be less, may be powering at small values to keep it up
-    m_motor.configNeutralDeadband(0.005);
-
-    // configure the encoder
-    m_absEncoder = new DutyCycleEncoder(WristConstants.kAbsEncoderPort);
-    // Cleaner encoder implementation
-    // offset to zero (arm horizontal)
-    m_absEncoder.setPositionOffset(WristConstants.kEncoderOffset);
-    // scale to radians and invert direction
-    m_absEncoder.setDistancePerRotation(-2.0 * Math.PI);
+    this(wristTab, InputsLog.isReplaying() ? new WristIO() {}
+      : RobotBase.isReal() ? new WristIOTalonFX() : new WristIOSim());
+  }
+
+  /**
+   * Makes the wrist with the given hardware.
+   * @param wristTab the Shuffleboard tab
+   * @param io the hardware, see {@link WristIO}
+   */
+  public Wrist(ShuffleboardTab wristTab, WristIO io) {
+    m_io = io;
+    m_sim = io instanceof WristIOSim ? (WristIOSim) io : null;
 
     // make the PID controller
     m_pid = new PIDController(WristConstants.kP, WristConstants.kI, WristConstants.kD);
@@ -69,25 +58,8 @@ public class Wrist extends SubsystemBase {
       setupShuffleboardTab(wristTab);
     }
 
-    // if a simulation, set up the simulation resources
-    if (RobotBase.isSimulation()) {
-      // make the simulator
-      m_armSim = new SingleJointedArmSim(
-        // to know how much the arm will move with a certain power, needs to know the motor, gear ratio, MOI, and length
-        WristConstants.kGearBox, 
-        WristConstants.kGearRatio,
-        WristConstants.kMomentOfInertia,
-        WristConstants.kLength,
-        // prevents moving past min/max
-        WristConstants.kMinPos,
-        WristConstants.kMaxPos,
-        true // will simulate gravity
-      );
-
-      // make the encoder simulator
-      // this allows us to set the encoder during simulations...
-      m_absEncoderSim = new DutyCycleEncoderSim(m_absEncoder);
-    }
+    m_io.updateInputs(m_inputs);
+    InputsLog.process(m_inputsHandle);
   }
 
 
@@ -104,6 +76,11 @@ public class Wrist extends SubsystemBase {
 
   @Override
   public void periodic() {
+    if (Constants.kLoopProfiling) m_periodicStage.start();
+
+    m_io.updateInputs(m_inputs);
+    InputsLog.process(m_inputsHandle);
+
     // obtain the wrist position
     double position = getAbsEncoderPos();
 
@@ -119,6 +96,8 @@ public class Wrist extends SubsystemBase {
     setMotorPower(m_pidPower + feedforwardPower);
 
     if (Constants.kLogging) updateLogs();
+
+    if (Constants.kLoopProfiling) m_periodicStage.stop();
   }
 
   /**
@@ -146,14 +125,14 @@ public class Wrist extends SubsystemBase {
       m_power = 0;
     }
     
-    m_motor.set(m_power);
+    m_io.setPower(m_power);
   }
 
   /**
    * @return the absolute encoder position in rotations, zero being facing forward
    */
   public double getAbsEncoderPos() {
-    double pos = m_absEncoder.getDistance();
+    double pos = m_inputs.positionRadians;
     if (pos > WristConstants.kMaxPos || pos < WristConstants.kMinPos) {
       pos = m_lastPos;
     }
@@ -162,38 +141,24 @@ public class Wrist extends SubsystemBase {
   }
 
   private void updateLogs() {
-    LogManager.addDouble("Wrist/position", getAbsEncoderPos());
-    LogManager.addDouble("Wrist/motor power", m_power);
-    LogManager.addDouble("Wrist/pidOutput", m_pidPower);
+    LogManager.addDouble(m_positionLog, getAbsEncoderPos());
+    LogManager.addDouble(m_motorPowerLog, m_power);
+    LogManager.addDouble(m_pidOutputLog, m_pidPower);
   }
 
   private void setupShuffleboardTab(ShuffleboardTab wristTab) {
-    wristTab.addNumber("Wrist Position", () -> getAbsEncoderPos());
+    Telemetry.addDouble(wristTab, "Wrist Position", Telemetry.Rate.FAST, () -> getAbsEncoderPos());
     wristTab.add("wrist PID", m_pid);
-    wristTab.addNumber("wrist power final", () -> m_power);
-    wristTab.addNumber("Wrist PID output", () -> m_pidPower);
-    wristTab.addNumber("Wrist Error", () -> m_pid.getSetpoint() - getAbsEncoderPos());
-    wristTab.addBoolean("At Setpoint", () -> reachedSetpoint());
-    wristTab.addNumber("Current Draw", () -> m_motor.getSupplyCurrent());
+    Telemetry.addDouble(wristTab, "wrist power final", Telemetry.Rate.FAST, () -> m_power);
+    Telemetry.addDouble(wristTab, "Wrist PID output", Telemetry.Rate.MEDIUM, () -> m_pidPower);
+    Telemetry.addDouble(wristTab, "Wrist Error", Telemetry.Rate.MEDIUM, () -> m_pid.getSetpoint() - getAbsEncoderPos());
+    Telemetry.addBoolean(wristTab, "At Setpoint", Telemetry.Rate.MEDIUM, () -> reachedSetpoint());
+    Telemetry.addDouble(wristTab, "Current Draw", Telemetry.Rate.MEDIUM, () -> m_inputs.supplyCurrent);
   }
 
   @Override
   public void simulationPeriodic() {
-    // First, we set our "inputs" (the motor voltage)    
-    m_armSim.setInput(m_motor.get() * RobotController.getBatteryVoltage());
-
-    // update the physics simulation, telling it how much time has passed, and it will calculate how much the wrist has moved
-    m_armSim.update(Constants.kLoopTime);
-
-    // set the distance to what we get from the sim
-    m_absEncoderSim.setDistance(m_armSim.getAngleRads());
-
-    // calculate the battery voltage based on the theoretical drawn amps.
-    // TODO: this is the wrong way to calculate battery voltage; it needs the sum of all currents.
-    // RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(m_armSim.getCurrentDrawAmps()));
-
-    // update the drawing of the robot
-    DrawMechanism.getInstance().setWristAngle(m_armSim.getAngleRads());
+    if (m_sim != null) m_sim.update();
   }
 
   /**
@@ -202,7 +167,6 @@ public class Wrist extends SubsystemBase {
    * Test routines need to deallocate simulation resources.
    */
   public void close() {
-    m_motor.close();
-    m_absEncoder.close();
+    m_io.close();
   }
 }
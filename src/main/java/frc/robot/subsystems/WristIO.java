@@ -0,0 +1,28 @@
+package frc.robot.subsystems;
+
+/**
+ * The hardware of the wrist: its Falcon and absolute encoder. The {@link Wrist} only talks to its hardware through
+ * this, so it runs the same on the robot ({@link WristIOTalonFX}), in simulation ({@link WristIOSim}), and in replay.
+ *
+ * <p> Every method does nothing by default, which is the IO used in replay, {@code new WristIO() {}}. The inputs are
+ * then filled in from the log, see {@link frc.robot.util.InputsLog}.
+ */
+public interface WristIO {
+
+  /**
+   * Reads the encoder and the motor.
+   * @param inputs the inputs to fill in
+   */
+  default void updateInputs(WristInputs inputs) {}
+
+  /**
+   * Runs the motor open loop.
+   * @param power the percent output, in [-1, 1]
+   */
+  default void setPower(double power) {}
+
+  /**
+   * Frees the hardware. For tests.
+   */
+  default void close() {}
+}
@@ -0,0 +1,74 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.robot.constants.Constants;
+import frc.robot.constants.WristConstants;
+import frc.robot.util.DrawMechanism;
+import frc.robot.util.SimBattery;
+import frc.robot.util.SimNoise;
+
+/**
+ * The hardware of the wrist in simulation. The wrist is moved by a {@link SingleJointedArmSim}, which is the source
+ * of truth for the encoder. No Talon or encoder is made, so nothing goes through the HAL.
+ *
+ * @see WristIOTalonFX
+ */
+public class WristIOSim implements WristIO {
+
+  /** Physics Simulator for the wrist. takes in a motor voltage and calculates how much the arm will move. */
+  private final SingleJointedArmSim m_armSim;
+  private final int m_batteryHandle;
+
+  private double m_power = 0;
+  private double m_supplyCurrent = 0;
+
+  public WristIOSim() {
+    // make the simulator
+    m_armSim = new SingleJointedArmSim(
+      // to know how much the arm will move with a certain power, needs to know the motor, gear ratio, MOI, and length
+      WristConstants.kGearBox, 
+      WristConstants.kGearRatio,
+      WristConstants.kMomentOfInertia * SimNoise.nextLoadScale(),
+      WristConstants.kLength,
+      // prevents moving past min/max
+      WristConstants.kMinPos,
+      WristConstants.kMaxPos,
+      true // will simulate gravity
+    );
+
+    // the wrist draws current from the simulated battery
+    m_batteryHandle = SimBattery.register("Wrist");
+  }
+
+  /**
+   * Runs the physics simulation for a loop. Call once a loop, after the wrist has set the motor's power.
+   */
+  public void update() {
+    // First, we set our "inputs" (the motor voltage)    
+    m_armSim.setInput(m_power * RobotController.getBatteryVoltage());
+
+    // update the physics simulation, telling it how much time has passed, and it will calculate how much the wrist has moved
+    m_armSim.update(Constants.kLoopTime);
+
+    // the motor draws the sim's current for the fraction of the time the Talon is on.
+    // Robot.simulationPeriodic() adds up the currents of every mechanism to find the battery voltage.
+    m_supplyCurrent = m_armSim.getCurrentDrawAmps() * Math.abs(m_power);
+    SimBattery.setCurrent(m_batteryHandle, m_supplyCurrent);
+
+    // update the drawing of the robot
+    DrawMechanism.getInstance().setWristAngle(m_armSim.getAngleRads());
+  }
+
+  @Override
+  public void updateInputs(WristInputs inputs) {
+    inputs.positionRadians = m_armSim.getAngleRads();
+    inputs.appliedOutput = m_power;
+    inputs.supplyCurrent = m_supplyCurrent;
+  }
+
+  @Override
+  public void setPower(double power) {
+    m_power = power;
+  }
+}
@@ -0,0 +1,71 @@
+package frc.robot.subsystems;
+
+import lib.drivers.LazyTalonFX;
+
+import edu.wpi.first.wpilibj.DutyCycleEncoder;
+import frc.robot.constants.Constants;
+import frc.robot.constants.WristConstants;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.MotorFactory;
+import frc.robot.util.StatusFramePolicy;
+
+/**
+ * The hardware of the wrist on the robot.
+ *
+ * @see WristIOSim
+ */
+public class WristIOTalonFX implements WristIO {
+
+  private final LazyTalonFX m_motor;
+  // unit tests want access to the DutyCycleEncoder
+  final DutyCycleEncoder m_absEncoder;
+
+  /**
+   * Makes and configures the motor and encoder.
+   */
+  public WristIOTalonFX() {
+    // configure the motor.
+    m_motor = MotorFactory.createTalonFXSupplyLimit(
+      WristConstants.kMotorID, 
+      Constants.kRioCAN, 
+      WristConstants.kContinuousCurrentLimit, 
+      WristConstants.kPeakCurrentLimit, 
+      WristConstants.kPeakCurrentDuration);
+    // runs after the MotorFactory settings
+    DeviceConfigurator.configure(m_motor, new DeviceConfigurator.Batch("Wrist motor")
+      .run("neutral mode", () -> m_motor.setNeutralMode(WristConstants.kNeutralMode))
+      .run("inverted", () -> m_motor.setInverted(WristConstants.kMotorInvert))
+      .run("enable voltage compensation", () -> m_motor.enableVoltageCompensation(true))
+      // config deadband to be less, may be powering at small values to keep it up
+      .add("neutral deadband", (timeoutMs) -> m_motor.configNeutralDeadband(0.005, timeoutMs))
+      .run("status frames", () -> StatusFramePolicy.apply(m_motor, Constants.kRioCAN, StatusFramePolicy.Role.WRIST)));
+
+    // configure the encoder
+    m_absEncoder = new DutyCycleEncoder(WristConstants.kAbsEncoderPort);
+    // Cleaner encoder implementation
+    // offset to zero (arm horizontal)
+    m_absEncoder.setPositionOffset(WristConstants.kEncoderOffset);
+    // scale to radians and invert direction
+    m_absEncoder.setDistancePerRotation(-2.0 * Math.PI);
+  }
+
+  @Override
+  public void updateInputs(WristInputs inputs) {
+    inputs.positionRadians = m_absEncoder.getDistance();
+    inputs.appliedOutput = m_motor.getMotorOutputPercent();
+    inputs.supplyCurrent = m_motor.getSupplyCurrent();
+  }
+
+  @Override
+  public void setPower(double power) {
+    m_motor.set(power);
+  }
+
+  @Override
+  public void close() {
+    // don't close the motor while it is still being configured
+    DeviceConfigurator.await(m_motor);
+    m_motor.close();
+    m_absEncoder.close();
+  }
+}
@@ -0,0 +1,34 @@
+package frc.robot.subsystems;
+
+import frc.robot.util.LoggableInputs;
+
+/**
+ * The sensor values of the wrist, read once a loop at the start of {@link Wrist#periodic()}.
+ */
+public class WristInputs implements LoggableInputs {
+  /** Angle of the wrist from the absolute encoder, in radians, zero being horizontal. Can be out of range. */
+  public double positionRadians = 0;
+  /** Percent output of the motor, in [-1, 1] */
+  public double appliedOutput = 0;
+  /** Supply current of the motor, in amps */
+  public double supplyCurrent = 0;
+
+  @Override
+  public int size() {
+    return 3;
+  }
+
+  @Override
+  public void toArray(double[] values) {
+    values[0] = positionRadians;
+    values[1] = appliedOutput;
+    values[2] = supplyCurrent;
+  }
+
+  @Override
+  public void fromArray(double[] values) {
+    positionRadians = values[0];
+    appliedOutput = values[1];
+    supplyCurrent = values[2];
+  }
+}
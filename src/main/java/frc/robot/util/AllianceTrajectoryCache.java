@@ -0,0 +1,118 @@
+package frc.robot.util;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Utility class that holds path planner paths already transformed for the alliance, keyed by path group, index, and
+ * alliance.
+ *
+ * <p> Transforming a path for the red alliance goes over every state of the path, which used to happen on the first
+ * loop of autonomous. Paths are registered when their command is made, and {@link #update(Alliance)} transforms all
+ * of them once the alliance is known while the robot is disabled, so autonomous only has to look them up.
+ *
+ * <p> Only used from the main thread.
+ */
+public class AllianceTrajectoryCache {
+
+  /**
+   * A registered path and its transformed versions.
+   */
+  private static class CachedPath {
+    final PathPlannerTrajectory path;
+    final EnumMap<Alliance, PathPlannerTrajectory> transformed = new EnumMap<>(Alliance.class);
+
+    CachedPath(PathPlannerTrajectory path) {
+      this.path = path;
+    }
+
+    PathPlannerTrajectory get(Alliance alliance) {
+      return transformed.computeIfAbsent(alliance,
+        (key) -> PathPlannerTrajectory.transformTrajectoryForAlliance(path, key));
+    }
+  }
+
+  private static Map<String, Map<Integer, CachedPath>> paths = new HashMap<>();
+
+  // the alliance every registered path is transformed for, or null if paths were registered since
+  private static Alliance filledAlliance = null;
+  // how many paths had to be transformed when they were asked for
+  private static int missCount = 0;
+
+  /**
+   * Adds a path to the cache, so it is transformed on the next {@link #update(Alliance)}. Registering the same path
+   * again does nothing.
+   *
+   * @param pathGroupName the name of the path group
+   * @param pathIndex the index of the path in the group
+   * @param path the path, as it was loaded
+   */
+  public static void register(String pathGroupName, int pathIndex, PathPlannerTrajectory path) {
+    Map<Integer, CachedPath> group = paths.computeIfAbsent(pathGroupName, (name) -> new HashMap<>());
+    CachedPath cached = group.get(pathIndex);
+    if (cached == null || cached.path != path) {
+      group.put(pathIndex, new CachedPath(path));
+      filledAlliance = null;
+    }
+  }
+
+  /**
+   * Transforms every registered path for the alliance, if it hasn't been already. Call this every loop while
+   * disabled, it returns right away once the paths are filled.
+   *
+   * @param alliance the current alliance. Does nothing if it is invalid.
+   */
+  public static void update(Alliance alliance) {
+    if (alliance == Alliance.Invalid || alliance == filledAlliance) return;
+    for (Map<Integer, CachedPath> group : paths.values()) {
+      for (CachedPath cached : group.values()) {
+        cached.get(alliance);
+      }
+    }
+    filledAlliance = alliance;
+  }
+
+  /**
+   * Gets a path transformed for the alliance. If it isn't in the cache, it is transformed now.
+   *
+   * @param pathGroupName the name of the path group
+   * @param pathIndex the index of the path in the group
+   * @param path the path, used if it was never registered
+   * @param alliance the alliance to transform for
+   * @return the transformed path
+   */
+  public static PathPlannerTrajectory get(String pathGroupName, int pathIndex, PathPlannerTrajectory path,
+      Alliance alliance) {
+    Map<Integer, CachedPath> group = paths.get(pathGroupName);
+    CachedPath cached = group == null ? null : group.get(pathIndex);
+    if (cached == null || cached.path != path) {
+      missCount++;
+      return PathPlannerTrajectory.transformTrajectoryForAlliance(path, alliance);
+    }
+    if (!cached.transformed.containsKey(alliance)) {
+      missCount++;
+    }
+    return cached.get(alliance);
+  }
+
+  /**
+   * @return how many paths had to be transformed when they were asked for, instead of ahead of time
+   */
+  public static int getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Forgets every path. Package-private for testing.
+   */
+  static void reset() {
+    paths.clear();
+    filledAlliance = null;
+    missCount = 0;
+  }
+}
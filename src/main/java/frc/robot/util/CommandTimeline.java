@@ -0,0 +1,502 @@
+package frc.robot.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.ConditionalCommand;
+import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
+import edu.wpi.first.wpilibj2.command.ParallelDeadlineGroup;
+import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
+import edu.wpi.first.wpilibj2.command.RepeatCommand;
+import edu.wpi.first.wpilibj2.command.SelectCommand;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import edu.wpi.first.wpilibj2.command.WaitCommand;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+
+/**
+ * Utility class that records when every command in an auto routine starts and ends, including the commands inside its
+ * command groups, and finds the critical path: the commands that decided how long the routine took. Each branch of a
+ * parallel group that didn't decide when the group ended gets its slack, how much longer it could have taken without
+ * making the routine longer.
+ *
+ * <p> Call {@link #install()} once, {@link #watch(Command)} before scheduling the routine, and {@link #update()} every
+ * loop after the scheduler runs. When the routine ends, the timeline is printed, and kept for
+ * {@link #getLastTimeline()}.
+ *
+ * <p> The scheduler only has callbacks for the routine itself, since it runs the commands inside a group through the
+ * group. The composition tree is read from the groups when the routine starts, and the groups are asked which of their
+ * commands are running after every scheduler run, so the times are the times of the loops the commands started and
+ * ended in. These are FPGA timestamps, which follow sim time in the simulator, so the timeline is the same in
+ * {@link frc.robot.AutoSimRunner} as on the field. Commands scheduled on their own by the routine, e.g. by a
+ * ScheduleCommand, aren't in the tree.
+ */
+public class CommandTimeline {
+
+  /**
+   * How a command runs the commands in it.
+   */
+  public enum Kind {
+    /** Not a group, or a group that can't be read. */
+    COMMAND,
+    /** One after another. */
+    SEQUENCE,
+    /** All at once, until they all end. */
+    PARALLEL,
+    /** All at once, until the first one ends. */
+    DEADLINE,
+    /** All at once, until any of them ends. */
+    RACE,
+    /** One command, e.g. from withName() or repeatedly(). */
+    WRAPPER,
+    /** One of its commands, chosen when it starts. */
+    SELECT
+  }
+
+  /**
+   * A command in the composition tree, and when it ran.
+   */
+  public static class Node {
+    private final Command m_command;
+    private final String m_name;
+    private final Kind m_kind;
+    private final ArrayList<Node> m_children = new ArrayList<>();
+    // the deadline of a deadline group
+    private Node m_deadline = null;
+    // how long a WaitCommand waits, or NaN
+    private double m_waitSeconds = Double.NaN;
+
+    // what the group is read from every loop, depending on the kind
+    private Field m_indexField = null;
+    private Field m_selectedField = null;
+    private Map<Command, Boolean> m_runningMap = null;
+
+    private boolean m_running = false;
+    // in seconds since the routine started, the first start and the last end
+    private double m_start = Double.NaN;
+    private double m_end = Double.NaN;
+    private boolean m_runningAtEnd = false;
+    private boolean m_interrupted = false;
+    private boolean m_timedOut = false;
+    private boolean m_critical = false;
+    private double m_slack = 0;
+
+    private Node(Command command, Kind kind) {
+      m_command = command;
+      m_name = command.getName();
+      m_kind = kind;
+    }
+
+    public String getName() {
+      return m_name;
+    }
+
+    public Kind getKind() {
+      return m_kind;
+    }
+
+    public List<Node> getChildren() {
+      return m_children;
+    }
+
+    /**
+     * @return when the command first started, in seconds since the routine started, or NaN if it didn't run
+     */
+    public double getStart() {
+      return m_start;
+    }
+
+    /**
+     * @return when the command last ended, in seconds since the routine started, or NaN if it didn't run
+     */
+    public double getEnd() {
+      return m_end;
+    }
+
+    public boolean ran() {
+      return !Double.isNaN(m_start);
+    }
+
+    /**
+     * @return if the command was stopped before it finished, by its group or because the routine was canceled
+     */
+    public boolean wasInterrupted() {
+      return m_interrupted;
+    }
+
+    /**
+     * @return if a timeout, a WaitCommand racing the command, ended it
+     */
+    public boolean timedOut() {
+      return m_timedOut;
+    }
+
+    /**
+     * @return if the command is on the critical path
+     */
+    public boolean isCritical() {
+      return m_critical;
+    }
+
+    /**
+     * @return how much later the command could have ended without its group ending later, in seconds. 0 on the
+     *     critical path, and for commands that were interrupted.
+     */
+    public double getSlack() {
+      return m_slack;
+    }
+  }
+
+  private static boolean installed = false;
+  // the routine to record when it is scheduled
+  private static Command watched = null;
+  // the routine being recorded, or null
+  private static Node root = null;
+  private static double startTime = 0;
+  private static Node lastTimeline = null;
+  private static boolean warnedUnreadable = false;
+
+  /**
+   * Adds the scheduler callbacks that start and end recording. Call this once.
+   */
+  public static void install() {
+    if (installed) return;
+    installed = true;
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    scheduler.onCommandInitialize(command -> {
+      if (command != watched) return;
+      startTime = Timer.getFPGATimestamp();
+      root = build(command);
+      root.m_running = true;
+      root.m_start = 0;
+    });
+    scheduler.onCommandFinish(command -> routineEnded(command, false));
+    scheduler.onCommandInterrupt(command -> routineEnded(command, true));
+  }
+
+  /**
+   * Records the routine the next time it is scheduled.
+   * @param routine the routine, or null to stop watching
+   */
+  public static void watch(Command routine) {
+    watched = routine;
+  }
+
+  /**
+   * Reads which commands are running from the groups. Call this every loop, after the scheduler runs.
+   */
+  public static void update() {
+    if (root == null) return;
+    double time = Timer.getFPGATimestamp() - startTime;
+    for (Node child : root.m_children) {
+      poll(child, root, true, time);
+    }
+  }
+
+  /**
+   * @return the timeline of the last routine that ended, or null if none has
+   */
+  public static Node getLastTimeline() {
+    return lastTimeline;
+  }
+
+  /**
+   * @param timeline a timeline from {@link #getLastTimeline()}
+   * @return the commands on the critical path that aren't groups, in order
+   */
+  public static List<Node> getCriticalPath(Node timeline) {
+    ArrayList<Node> path = new ArrayList<>();
+    addCriticalPath(timeline, path);
+    return path;
+  }
+
+  /**
+   * @param timeline a timeline from {@link #getLastTimeline()}
+   * @return the commands that were ended by a timeout
+   */
+  public static List<Node> getTimedOut(Node timeline) {
+    ArrayList<Node> timedOut = new ArrayList<>();
+    addTimedOut(timeline, timedOut);
+    return timedOut;
+  }
+
+  private static void routineEnded(Command command, boolean interrupted) {
+    if (root == null || command != root.m_command) return;
+    double time = Timer.getFPGATimestamp() - startTime;
+    // end everything that was still running with the routine
+    markRunning(root);
+    root.m_running = false;
+    root.m_end = time;
+    root.m_interrupted = interrupted;
+    for (Node child : root.m_children) {
+      poll(child, root, false, time);
+    }
+    analyze(root, true);
+    lastTimeline = root;
+    root = null;
+    watched = null;
+    print(lastTimeline);
+  }
+
+  /**
+   * Reads the composition tree of a command.
+   */
+  @SuppressWarnings("unchecked")
+  private static Node build(Command command) {
+    try {
+      if (command instanceof SequentialCommandGroup) {
+        Node node = new Node(command, Kind.SEQUENCE);
+        node.m_indexField = findField(command, "m_currentCommandIndex");
+        addChildren(node, (List<Command>) readField(command, "m_commands"));
+        return node;
+      } else if (command instanceof ParallelDeadlineGroup) {
+        Node node = new Node(command, Kind.DEADLINE);
+        node.m_runningMap = (Map<Command, Boolean>) readField(command, "m_commands");
+        Command deadline = (Command) readField(command, "m_deadline");
+        node.m_deadline = build(deadline);
+        node.m_children.add(node.m_deadline);
+        for (Command child : node.m_runningMap.keySet()) {
+          if (child != deadline) node.m_children.add(build(child));
+        }
+        return node;
+      } else if (command instanceof ParallelCommandGroup) {
+        Node node = new Node(command, Kind.PARALLEL);
+        node.m_runningMap = (Map<Command, Boolean>) readField(command, "m_commands");
+        addChildren(node, node.m_runningMap.keySet());
+        return node;
+      } else if (command instanceof ParallelRaceGroup) {
+        Node node = new Node(command, Kind.RACE);
+        addChildren(node, (Collection<Command>) readField(command, "m_commands"));
+        return node;
+      } else if (command instanceof ConditionalCommand) {
+        Node node = new Node(command, Kind.SELECT);
+        node.m_selectedField = findField(command, "m_selectedCommand");
+        node.m_children.add(build((Command) readField(command, "m_onTrue")));
+        node.m_children.add(build((Command) readField(command, "m_onFalse")));
+        return node;
+      } else if (command instanceof SelectCommand) {
+        Node node = new Node(command, Kind.SELECT);
+        node.m_selectedField = findField(command, "m_selectedCommand");
+        Map<Object, Command> commands = (Map<Object, Command>) readField(command, "m_commands");
+        // the select command can choose from a supplier instead of a map, then its commands aren't known
+        if (commands != null) addChildren(node, commands.values());
+        return node;
+      } else if (command instanceof WrapperCommand || command instanceof RepeatCommand) {
+        Node node = new Node(command, Kind.WRAPPER);
+        node.m_children.add(build((Command) readField(command, "m_command")));
+        return node;
+      }
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      // the fields are from WPILib 2023, a new version could change them. Time the group as one command.
+      if (!warnedUnreadable) {
+        warnedUnreadable = true;
+        DriverStation.reportWarning("CommandTimeline can't read the commands in " + command.getName() + ": " + e,
+          false);
+      }
+    }
+    Node node = new Node(command, Kind.COMMAND);
+    if (command instanceof WaitCommand) {
+      try {
+        node.m_waitSeconds = findField(command, "m_duration").getDouble(command);
+      } catch (ReflectiveOperationException e) {
+        // not known, it won't be reported as a timeout
+      }
+    }
+    return node;
+  }
+
+  private static void addChildren(Node node, Collection<Command> commands) {
+    for (Command command : commands) {
+      node.m_children.add(build(command));
+    }
+  }
+
+  private static Field findField(Object object, String name) throws NoSuchFieldException {
+    for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+      } catch (NoSuchFieldException e) {
+        // look in the superclass
+      }
+    }
+    throw new NoSuchFieldException(object.getClass().getName() + "." + name);
+  }
+
+  private static Object readField(Object object, String name) throws ReflectiveOperationException {
+    return findField(object, name).get(object);
+  }
+
+  /**
+   * Updates if a command, and the commands in it, are running.
+   *
+   * @param node the command
+   * @param parent the group it's in
+   * @param parentRunning if the group is running
+   * @param time the time of this loop, in seconds since the routine started
+   */
+  private static void poll(Node node, Node parent, boolean parentRunning, double time) {
+    boolean running = parentRunning && isRunning(node, parent);
+    if (running && !node.m_running) {
+      if (!node.ran()) node.m_start = time;
+    } else if (!running && node.m_running) {
+      node.m_end = time;
+    }
+    node.m_running = running;
+    for (int i = 0; i < node.m_children.size(); i++) {
+      poll(node.m_children.get(i), node, running, time);
+    }
+  }
+
+  /**
+   * Asks a running group if one of its commands is running.
+   */
+  private static boolean isRunning(Node node, Node parent) {
+    try {
+      switch (parent.m_kind) {
+        case SEQUENCE:
+          int index = parent.m_indexField.getInt(parent.m_command);
+          return index >= 0 && index < parent.m_children.size() && parent.m_children.get(index) == node;
+        case PARALLEL:
+        case DEADLINE:
+          return Boolean.TRUE.equals(parent.m_runningMap.get(node.m_command));
+        case SELECT:
+          return parent.m_selectedField.get(parent.m_command) == node.m_command;
+        default:
+          // races and wrappers run all their commands until they end
+          return true;
+      }
+    } catch (IllegalAccessException e) {
+      // the fields were made accessible when the tree was built
+      return false;
+    }
+  }
+
+  private static void markRunning(Node node) {
+    node.m_runningAtEnd = node.m_running;
+    for (Node child : node.m_children) {
+      markRunning(child);
+    }
+  }
+
+  /**
+   * Finds which commands decided when each group ended, their slack, and which were interrupted.
+   *
+   * @param node the command, which has ended
+   * @param critical if the command is on the critical path
+   */
+  private static void analyze(Node node, boolean critical) {
+    node.m_critical = critical;
+    // commands still running when the routine was canceled didn't finish
+    if (node.m_runningAtEnd && node != root && root.m_interrupted) node.m_interrupted = true;
+
+    Node gate = null;
+    switch (node.m_kind) {
+      case PARALLEL:
+        // the last to end
+        for (Node child : node.m_children) {
+          if (child.ran() && (gate == null || child.m_end > gate.m_end)) gate = child;
+        }
+        break;
+      case DEADLINE:
+        gate = node.m_deadline;
+        break;
+      case RACE:
+        // a timeout that waited as long as the race ran ended it, otherwise the command it timed
+        for (Node child : node.m_children) {
+          if (!Double.isNaN(child.m_waitSeconds) && child.ran()
+              && child.m_end - child.m_start >= child.m_waitSeconds - 1e-6) {
+            gate = child;
+          }
+        }
+        if (gate != null) {
+          for (Node child : node.m_children) {
+            if (child != gate) child.m_timedOut = true;
+          }
+        } else {
+          for (Node child : node.m_children) {
+            if (Double.isNaN(child.m_waitSeconds) && child.ran()) {
+              gate = child;
+              break;
+            }
+          }
+        }
+        break;
+      default:
+        // sequences and wrappers need every command that ran
+        for (Node child : node.m_children) {
+          analyze(child, critical && child.ran());
+        }
+        return;
+    }
+
+    for (Node child : node.m_children) {
+      if (!child.ran()) continue;
+      if (child != gate) {
+        if (node.m_kind == Kind.PARALLEL) {
+          child.m_slack = node.m_end - child.m_end;
+        } else if (child.m_end < node.m_end) {
+          // finished before the deadline
+          child.m_slack = node.m_end - child.m_end;
+        } else {
+          // still running when the deadline or race ended
+          child.m_interrupted = true;
+        }
+      }
+      analyze(child, critical && child == gate);
+    }
+  }
+
+  private static void addCriticalPath(Node node, List<Node> path) {
+    if (!node.m_critical) return;
+    if (node.m_children.isEmpty() || node.m_kind == Kind.COMMAND) {
+      path.add(node);
+      return;
+    }
+    for (Node child : node.m_children) {
+      addCriticalPath(child, path);
+    }
+  }
+
+  private static void addTimedOut(Node node, List<Node> timedOut) {
+    if (node.m_timedOut) timedOut.add(node);
+    for (Node child : node.m_children) {
+      addTimedOut(child, timedOut);
+    }
+  }
+
+  /**
+   * Prints every command that ran, with the critical path marked with *.
+   */
+  private static void print(Node timeline) {
+    StringBuilder text = new StringBuilder(String.format("Timeline of %s, %.3f s%s\n", timeline.m_name,
+      timeline.m_end, timeline.m_interrupted ? " (interrupted)" : ""));
+    text.append("    start     end  duration\n");
+    appendNode(text, timeline, 0);
+    text.append("Critical path:");
+    for (Node node : getCriticalPath(timeline)) {
+      text.append(String.format(" %s (%.3f s)", node.m_name, node.m_end - node.m_start));
+    }
+    System.out.println(text);
+  }
+
+  private static void appendNode(StringBuilder text, Node node, int depth) {
+    if (!node.ran()) return;
+    text.append(String.format("%s %7.3f %7.3f %7.3f  %s%s", node.m_critical ? "*" : " ", node.m_start, node.m_end,
+      node.m_end - node.m_start, "  ".repeat(depth), node.m_name));
+    if (node.m_timedOut) text.append(" (timed out)");
+    else if (node.m_interrupted) text.append(" (interrupted)");
+    if (node.m_slack > 0) text.append(String.format(" slack %.3f s", node.m_slack));
+    text.append('\n');
+    for (Node child : node.m_children) {
+      appendNode(text, child, depth + 1);
+    }
+  }
+}
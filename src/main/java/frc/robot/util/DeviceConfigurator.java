@@ -0,0 +1,363 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.ParamEnum;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.constants.Constants;
+
+/**
+ * Utility class for configuring CAN devices in parallel while the robot boots.
+ *
+ * <p> Each blocking config call waits for the device to answer, so configuring every device one after another on the
+ * main thread takes seconds. Instead, the config calls for a device are put in a {@link Batch} and passed to
+ * {@link #configure(Object, Batch)}, which runs them on a small thread pool. Batches for the same device run in the
+ * order they were submitted, and batches for different devices run at the same time. A batch can also wait for
+ * another device with {@link Batch#after(Object)}.
+ *
+ * <p> Every call gets a timeout and is retried if it fails or its read-back does not match. Call {@link #awaitAll()}
+ * once every subsystem is created, before the robot can be enabled. It waits for every batch, runs the code passed
+ * to {@link #afterConfiguration(Runnable)}, and prints and logs how long each device took. It never goes on with
+ * devices that are not configured: if the batches are slow it reports the ones still running and keeps waiting.
+ *
+ * <p> Batches must be submitted from the main thread.
+ */
+public class DeviceConfigurator {
+
+  /** How long each config call waits for the device to answer, in milliseconds. */
+  public static final int kTimeoutMs = 100;
+  /** How many times a config call is tried before giving up on it. */
+  public static final int kMaxAttempts = 3;
+  /** How long {@link #awaitAll()} waits before reporting the devices that are not configured yet, in seconds. */
+  public static final double kAwaitTimeoutSeconds = 10;
+
+  private static final int kThreads = 4;
+
+  /**
+   * A config call that waits for the device to answer.
+   */
+  public interface ConfigCall {
+    /**
+     * @param timeoutMs how long to wait for the device, in milliseconds
+     * @return the error code from the device
+     */
+    ErrorCode apply(int timeoutMs);
+  }
+
+  /**
+   * Reads a config back from a device to check that it was set.
+   */
+  public interface ReadBack {
+    /**
+     * @param timeoutMs how long to wait for the device, in milliseconds
+     * @return true if the device has the expected value
+     */
+    boolean verify(int timeoutMs);
+  }
+
+  private static class Step {
+    final String description;
+    final ConfigCall call;
+    final ReadBack readBack;
+
+    Step(String description, ConfigCall call, ReadBack readBack) {
+      this.description = description;
+      this.call = call;
+      this.readBack = readBack;
+    }
+  }
+
+  /**
+   * The config calls for one device, run in order.
+   */
+  public static class Batch {
+    private final String m_name;
+    private final ArrayList<Step> m_steps = new ArrayList<>();
+    private final ArrayList<Object> m_after = new ArrayList<>();
+
+    private long m_nanos;
+    private int m_retries;
+    private int m_failures;
+    private volatile boolean m_done;
+
+    /**
+     * @param name the name of the device, used in the report
+     */
+    public Batch(String name) {
+      m_name = name;
+    }
+
+    /**
+     * Adds a config call.
+     *
+     * @param description what the call sets, used in warnings
+     * @param call the config call
+     * @return this batch
+     */
+    public Batch add(String description, ConfigCall call) {
+      return add(description, call, null);
+    }
+
+    /**
+     * Adds a config call that is read back after it is set. If the value read back does not match, the call is
+     * tried again.
+     *
+     * @param description what the call sets, used in warnings
+     * @param call the config call
+     * @param readBack checks the value on the device
+     * @return this batch
+     */
+    public Batch add(String description, ConfigCall call, ReadBack readBack) {
+      m_steps.add(new Step(description, call, readBack));
+      return this;
+    }
+
+    /**
+     * Adds a call that does not wait for the device, like setting the neutral mode. It still runs in order with the
+     * config calls.
+     *
+     * @param description what the call sets
+     * @param call the call
+     * @return this batch
+     */
+    public Batch run(String description, Runnable call) {
+      return add(description, (timeoutMs) -> {
+        call.run();
+        return ErrorCode.OK;
+      });
+    }
+
+    /**
+     * Makes this batch wait for every batch already submitted for another device.
+     *
+     * @param device the other device
+     * @return this batch
+     */
+    public Batch after(Object device) {
+      m_after.add(device);
+      return this;
+    }
+
+    private void runSteps() {
+      long start = System.nanoTime();
+      for (Step step : m_steps) {
+        runStep(step);
+      }
+      m_nanos = System.nanoTime() - start;
+      m_done = true;
+    }
+
+    private void runStep(Step step) {
+      ErrorCode error = ErrorCode.OK;
+      for (int attempt = 1; attempt <= kMaxAttempts; attempt++) {
+        if (attempt > 1) m_retries++;
+        error = step.call.apply(kTimeoutMs);
+        if (error != ErrorCode.OK) continue;
+        if (step.readBack == null || step.readBack.verify(kTimeoutMs)) return;
+        error = null;
+      }
+      m_failures++;
+      DriverStation.reportWarning(m_name + ": " + step.description + " failed after " + kMaxAttempts + " attempts"
+          + (error == null ? ", the value read back did not match" : " (" + error + ")"), false);
+    }
+  }
+
+  private static ExecutorService executor;
+  private static IdentityHashMap<Object, CompletableFuture<Void>> deviceFutures = new IdentityHashMap<>();
+  private static ArrayList<Batch> batches = new ArrayList<>();
+  private static ArrayList<Runnable> afterConfiguration = new ArrayList<>();
+  private static long firstSubmitTime = 0;
+
+  /**
+   * Configures a device. The batch runs after every batch already submitted for the same device, and after the
+   * devices passed to {@link Batch#after(Object)}. If parallel configuration is off, the batch runs right away.
+   *
+   * @param device the device being configured, used to keep its batches in order
+   * @param batch the config calls
+   */
+  public static void configure(Object device, Batch batch) {
+    if (device == null) return;
+    if (batches.isEmpty()) firstSubmitTime = System.nanoTime();
+    batches.add(batch);
+
+    if (!Constants.kParallelDeviceConfig) {
+      batch.runSteps();
+      return;
+    }
+
+    if (executor == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(kThreads, (runnable) -> {
+        Thread thread = new Thread(runnable, "Device config " + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    ArrayList<CompletableFuture<Void>> dependencies = new ArrayList<>();
+    dependencies.add(deviceFutures.get(device));
+    for (Object other : batch.m_after) {
+      dependencies.add(deviceFutures.get(other));
+    }
+    dependencies.removeIf((future) -> future == null);
+
+    CompletableFuture<Void> future = CompletableFuture
+        .allOf(dependencies.toArray(new CompletableFuture[0]))
+        .thenRunAsync(batch::runSteps, executor);
+    deviceFutures.put(device, future);
+  }
+
+  /**
+   * Runs code on the main thread once every device is configured, e.g. commanding a motor to its current position.
+   * If parallel configuration is off, it runs right away.
+   *
+   * @param runnable the code to run
+   */
+  public static void afterConfiguration(Runnable runnable) {
+    if (!Constants.kParallelDeviceConfig) {
+      runnable.run();
+      return;
+    }
+    afterConfiguration.add(runnable);
+  }
+
+  /**
+   * Waits for every device to be configured, then runs the code passed to {@link #afterConfiguration(Runnable)} and
+   * reports how long configuring took. Call this once, at the end of robotInit.
+   */
+  public static void awaitAll() {
+    awaitAll(kAwaitTimeoutSeconds);
+  }
+
+  /**
+   * @param reportSeconds how long to wait before reporting the devices that are not configured yet
+   */
+  static void awaitAll(double reportSeconds) {
+    if (batches.isEmpty()) {
+      // e.g. in simulation, where nothing is configured but the code after configuration still has to run
+      for (Runnable runnable : afterConfiguration) {
+        runnable.run();
+      }
+      afterConfiguration.clear();
+      return;
+    }
+    CompletableFuture<Void> all = CompletableFuture.allOf(deviceFutures.values().toArray(new CompletableFuture[0]));
+    double waitedSeconds = 0;
+    while (true) {
+      try {
+        all.get((long) (reportSeconds * 1000), TimeUnit.MILLISECONDS);
+        break;
+      } catch (TimeoutException e) {
+        // every call has a timeout, so the batches finish, and using a device before then would undo its config
+        waitedSeconds += reportSeconds;
+        DriverStation.reportError(String.format("Device configuration did not finish in %.1f seconds, waiting for %s",
+            waitedSeconds, getUnfinished()), false);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for device configuration of " + getUnfinished());
+      } catch (ExecutionException e) {
+        // the batches after the one that threw are done too, they complete without running
+        DriverStation.reportError("Device configuration failed, did not finish " + getUnfinished(), false);
+        reset();
+        // let errors like wrong firmware stop the robot code like they would on the main thread
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        if (e.getCause() instanceof Error) throw (Error) e.getCause();
+        throw new RuntimeException(e.getCause());
+      }
+    }
+    double totalMs = (System.nanoTime() - firstSubmitTime) / 1e6;
+
+    for (Runnable runnable : afterConfiguration) {
+      runnable.run();
+    }
+
+    report(totalMs);
+    reset();
+  }
+
+  /**
+   * @return the names of the batches that have not finished, e.g. "FL steer motor, FL CANcoder"
+   */
+  private static String getUnfinished() {
+    StringBuilder names = new StringBuilder();
+    for (Batch batch : batches) {
+      if (batch.m_done) continue;
+      if (names.length() > 0) names.append(", ");
+      names.append(batch.m_name);
+    }
+    return names.toString();
+  }
+
+  private static void reset() {
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+    deviceFutures.clear();
+    batches.clear();
+    afterConfiguration.clear();
+  }
+
+  /**
+   * Waits for the batches submitted for one device, e.g. before closing it.
+   *
+   * @param device the device
+   */
+  public static void await(Object device) {
+    CompletableFuture<Void> future = deviceFutures.get(device);
+    if (future == null) return;
+    try {
+      future.get((long) (kAwaitTimeoutSeconds * 1000), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      // awaitAll reports the errors
+    }
+  }
+
+  private static void report(double totalMs) {
+    double sumMs = 0;
+    for (Batch batch : batches) {
+      double ms = batch.m_nanos / 1e6;
+      sumMs += ms;
+      System.out.println(String.format("Configured %s in %.1f ms (%d retries, %d failures)",
+          batch.m_name, ms, batch.m_retries, batch.m_failures));
+      if (Constants.kLogging) {
+        LogManager.addDouble(LogManager.registerDouble("DeviceConfig/" + batch.m_name + " (ms)"), ms);
+      }
+    }
+    System.out.println(String.format("Configured %d batches in %.1f ms, %.1f ms if run one after another",
+        batches.size(), totalMs, sumMs));
+    if (Constants.kLogging) {
+      LogManager.addDouble(LogManager.registerDouble("DeviceConfig/total (ms)"), totalMs);
+    }
+  }
+
+  /**
+   * Reads back a parameter from a motor controller, e.g. a PIDF gain.
+   *
+   * @param motor the motor controller
+   * @param param the parameter
+   * @param ordinal the slot or ordinal of the parameter
+   * @param expected the value that was set
+   * @return a read-back that checks the parameter is within a small tolerance of the value
+   */
+  public static ReadBack parameterEquals(BaseMotorController motor, ParamEnum param, int ordinal, double expected) {
+    return (timeoutMs) -> {
+      double actual = motor.configGetParameter(param, ordinal, timeoutMs);
+      // gains are stored in fixed point, so they don't come back exactly
+      return Math.abs(actual - expected) <= 1e-3 * Math.max(1, Math.abs(expected));
+    };
+  }
+}
@@ -0,0 +1,146 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.constants.Constants;
+
+/**
+ * Logs the inputs every subsystem reads from its IO, so a match can be replayed.
+ *
+ * <p> Each subsystem registers its inputs once, and calls {@link #process(int)} once a loop right after its IO filled
+ * them in. Normally that logs the inputs to {@code Inputs/<name>}. In replay, the subsystem is given an IO that doesn't
+ * read anything, and {@link #process(int)} fills the inputs in with the next values logged for them instead, so the
+ * subsystem runs the same as it did in the match without any hardware or the HAL.
+ *
+ * <p> Only used from the main robot thread.
+ */
+public class InputsLog {
+
+  private static final String kPrefix = "Inputs/";
+
+  private static final ArrayList<String> names = new ArrayList<>();
+  private static final ArrayList<LoggableInputs> inputs = new ArrayList<>();
+  private static final ArrayList<double[]> buffers = new ArrayList<>();
+  private static final ArrayList<Integer> logHandles = new ArrayList<>();
+
+  // the values logged for every input, by name, and the queue of each handle, null when not replaying
+  private static HashMap<String, ArrayDeque<double[]>> replayValues = null;
+  private static final ArrayList<ArrayDeque<double[]>> replayQueues = new ArrayList<>();
+
+  /**
+   * Registers a subsystem's inputs. Register once, in the subsystem's constructor.
+   *
+   * @param name the name of the inputs, unique to the subsystem
+   * @param loggableInputs the inputs the subsystem's IO fills in, kept and reused every loop
+   * @return the handle to pass to {@link #process(int)}
+   */
+  public static int register(String name, LoggableInputs loggableInputs) {
+    names.add(name);
+    inputs.add(loggableInputs);
+    buffers.add(new double[loggableInputs.size()]);
+    logHandles.add(LogManager.registerDoubleArray(kPrefix + name));
+    replayQueues.add(getReplayQueue(name));
+    return inputs.size() - 1;
+  }
+
+  /**
+   * Logs the inputs, or in replay, sets them to the next values in the log. Call once a loop, after the IO filled
+   * them in.
+   *
+   * @param handle the handle returned when the inputs were registered
+   */
+  public static void process(int handle) {
+    if (replayValues != null) {
+      // past the end of the log, the inputs keep their last values
+      double[] values = replayQueues.get(handle).poll();
+      if (values != null) inputs.get(handle).fromArray(values);
+      return;
+    }
+    if (!Constants.kLogging) return;
+    double[] buffer = buffers.get(handle);
+    inputs.get(handle).toArray(buffer);
+    LogManager.addDoubleArray(logHandles.get(handle), buffer);
+  }
+
+  /**
+   * Reads the inputs from a log, and replays them from then on. Subsystems replayed from it must be given IO that
+   * doesn't read anything, and be run loop for loop like they were in the match.
+   *
+   * @param filename the .wpilog file
+   * @throws IOException if the file can't be read or isn't a log
+   */
+  public static void startReplay(String filename) throws IOException {
+    DataLogReader reader = new DataLogReader(filename);
+    if (!reader.isValid()) throw new IOException(filename + " is not a data log");
+
+    replayValues = new HashMap<>();
+    // the log's ids of the inputs entries, only known from the start records
+    HashMap<Integer, ArrayDeque<double[]>> entries = new HashMap<>();
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (start.name.startsWith(kPrefix)) {
+          entries.put(start.entry,
+            replayValues.computeIfAbsent(start.name.substring(kPrefix.length()), (name) -> new ArrayDeque<>()));
+        }
+        continue;
+      }
+      if (record.isControl()) continue;
+      ArrayDeque<double[]> queue = entries.get(record.getEntry());
+      if (queue != null) queue.add(record.getDoubleArray());
+    }
+
+    for (int i = 0; i < names.size(); i++) {
+      replayQueues.set(i, getReplayQueue(names.get(i)));
+    }
+  }
+
+  /**
+   * @return if the inputs are being replayed from a log
+   */
+  public static boolean isReplaying() {
+    return replayValues != null;
+  }
+
+  /**
+   * @param handle the handle returned when the inputs were registered
+   * @return if every value logged for the inputs has been replayed
+   */
+  public static boolean isReplayFinished(int handle) {
+    return replayValues != null && replayQueues.get(handle).isEmpty();
+  }
+
+  /**
+   * Stops replaying, and logs the inputs again. For tests.
+   */
+  static void stopReplay() {
+    replayValues = null;
+    for (int i = 0; i < names.size(); i++) {
+      replayQueues.set(i, null);
+    }
+  }
+
+  /**
+   * Stops replaying and forgets every registered input, so the subsystems one test built don't stay registered for the
+   * next. The handles already returned can't be used after this. For tests.
+   */
+  public static void clear() {
+    stopReplay();
+    names.clear();
+    inputs.clear();
+    buffers.clear();
+    logHandles.clear();
+    replayQueues.clear();
+  }
+
+  private static ArrayDeque<double[]> getReplayQueue(String name) {
+    if (replayValues == null) return null;
+    // inputs that weren't logged are never filled in
+    return replayValues.computeIfAbsent(name, (n) -> new ArrayDeque<>());
+  }
+}
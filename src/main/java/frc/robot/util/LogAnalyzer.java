@@ -0,0 +1,350 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.subsystems.ElevatorInputs;
+
+/**
+ * Computes statistics over many match logs at once, without opening them in AdvantageScope. Run by the analyzeLogs
+ * Gradle task, not on the robot.
+ *
+ * <p> Each .wpilog is memory mapped and read in a single pass, and only the channels below are kept. Logs are read in
+ * parallel, one per thread, and the values of every log are put together for the totals.
+ * <ul>
+ * <li> Loop time: the time between values of {@link #kLoopLog}, which the drivetrain logs once a loop.
+ * <li> Drive speed error of each module, from {@link #kDriveSpeedErrorPrefix}.
+ * <li> Elevator supply current, from its inputs in {@link #kElevatorLog}.
+ * <li> Distance to the closest tag vision saw, from {@link #kClosestTagLog}.
+ * </ul>
+ *
+ * <p> If the background writer dropped values, see {@link LogManager#getDroppedCount()}, the loop times will have gaps.
+ */
+public class LogAnalyzer {
+
+  public static final String kLoopLog = "Inputs/Swerve/Gyro";
+  public static final String kDriveSpeedErrorPrefix = "Swerve/Modules/DriveSpeedError/";
+  public static final String kElevatorLog = "Inputs/Elevator";
+  public static final String kClosestTagLog = "Vision/ClosestTag Distance";
+
+  public static final String kLoopTimeStat = "Loop time (ms)";
+  public static final String kDriveSpeedErrorStat = "Drive speed error (m/s) ";
+  public static final String kElevatorCurrentStat = "Elevator supply current (A)";
+  public static final String kClosestTagStat = "Closest tag distance (m)";
+
+  private static final double[] kPercentiles = {50, 90, 99, 100};
+
+  /**
+   * The values of one statistic, in the order they were read.
+   */
+  public static class Channel {
+    private double[] m_values = new double[1024];
+    private int m_count = 0;
+    private double[] m_sorted = null;
+
+    public void add(double value) {
+      if (m_count == m_values.length) m_values = Arrays.copyOf(m_values, m_count * 2);
+      m_values[m_count++] = value;
+      m_sorted = null;
+    }
+
+    /**
+     * Adds every value of another channel to this one.
+     */
+    public void addAll(Channel other) {
+      for (int i = 0; i < other.m_count; i++) {
+        add(other.m_values[i]);
+      }
+    }
+
+    public int getCount() {
+      return m_count;
+    }
+
+    /**
+     * @return the mean of the values, or NaN if there are none
+     */
+    public double getMean() {
+      if (m_count == 0) return Double.NaN;
+      double sum = 0;
+      for (int i = 0; i < m_count; i++) {
+        sum += m_values[i];
+      }
+      return sum / m_count;
+    }
+
+    /**
+     * @param percentile the percentile, from 0 to 100
+     * @return the nearest value at or above the percentile, or NaN if there are no values
+     */
+    public double getPercentile(double percentile) {
+      if (m_count == 0) return Double.NaN;
+      if (m_sorted == null) {
+        m_sorted = Arrays.copyOf(m_values, m_count);
+        Arrays.sort(m_sorted);
+      }
+      int rank = (int) Math.ceil(percentile / 100 * m_count);
+      return m_sorted[Math.max(0, Math.min(m_count - 1, rank - 1))];
+    }
+  }
+
+  /**
+   * The statistics of one log, or of many put together.
+   */
+  public static class Result {
+    public final String name;
+    public int logs = 0;
+    public long records = 0;
+    /** Each statistic, by name. */
+    public final TreeMap<String, Channel> channels = new TreeMap<>();
+
+    public Result(String name) {
+      this.name = name;
+    }
+
+    public Channel getChannel(String statName) {
+      return channels.computeIfAbsent(statName, (n) -> new Channel());
+    }
+
+    /**
+     * Adds the logs and values of another result to this one.
+     */
+    public void addAll(Result other) {
+      logs += other.logs;
+      records += other.records;
+      for (Map.Entry<String, Channel> entry : other.channels.entrySet()) {
+        getChannel(entry.getKey()).addAll(entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * @param args the .wpilog files or directories of them, then optionally --csv and a CSV file to write the
+   *   statistics of each log to, and --threads and how many logs to read at once (one per processor by default)
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    List<Path> paths = new ArrayList<>();
+    Path csvFile = null;
+    int threads = 0;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--csv") && i + 1 < args.length) {
+        csvFile = Path.of(args[++i]);
+      } else if (args[i].equals("--threads") && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if (!args[i].isEmpty()) {
+        paths.add(Path.of(args[i]));
+      }
+    }
+    if (paths.isEmpty()) {
+      System.err.println("Usage: LogAnalyzer <log file or directory>... [--csv <file>] [--threads <count>]");
+      System.exit(1);
+    }
+    if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+
+    List<Path> files = findLogs(paths);
+    System.out.println(String.format("Reading %d logs, %d at a time", files.size(), threads));
+    long startTime = System.nanoTime();
+    List<Result> results = analyzeAll(files, threads);
+    double wallSeconds = (System.nanoTime() - startTime) / 1e9;
+
+    Result total = new Result("All logs");
+    for (Result result : results) {
+      total.addAll(result);
+    }
+    System.out.println(String.format("Read %d records from %d logs in %.2f s", total.records, total.logs,
+      wallSeconds));
+    print(total);
+
+    if (csvFile != null) {
+      results.add(total);
+      writeCsv(csvFile, results);
+    }
+  }
+
+  /**
+   * Finds every .wpilog in the given files and directories, and the directories under them.
+   *
+   * @return the logs, sorted by path
+   */
+  public static List<Path> findLogs(List<Path> paths) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (Path path : paths) {
+      if (Files.isDirectory(path)) {
+        try (Stream<Path> walk = Files.walk(path)) {
+          files.addAll(walk.filter((p) -> Files.isRegularFile(p) && p.toString().endsWith(".wpilog"))
+            .collect(Collectors.toList()));
+        }
+      } else {
+        files.add(path);
+      }
+    }
+    files.sort(null);
+    return files;
+  }
+
+  /**
+   * Reads logs in parallel. A log that can't be read is reported and left out.
+   *
+   * @param files the .wpilog files
+   * @param threads how many logs to read at once
+   * @return the statistics of each log that was read, in the order of the files
+   */
+  public static List<Result> analyzeAll(List<Path> files, int threads) throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<Result>> futures = new ArrayList<>();
+    for (Path file : files) {
+      futures.add(pool.submit(() -> analyze(file)));
+    }
+    pool.shutdown();
+
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < files.size(); i++) {
+      try {
+        results.add(futures.get(i).get());
+      } catch (ExecutionException e) {
+        System.err.println("Couldn't read " + files.get(i) + ": " + e.getCause());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Reads one log.
+   *
+   * @param file the .wpilog file
+   * @return its statistics
+   * @throws IOException if the file can't be read or isn't a log
+   */
+  public static Result analyze(Path file) throws IOException {
+    DataLogReader reader = openMapped(file);
+
+    Result result = new Result(file.toString());
+    result.logs = 1;
+    Channel loopTimes = result.getChannel(kLoopTimeStat);
+    Channel elevatorCurrents = result.getChannel(kElevatorCurrentStat);
+    Channel tagDistances = result.getChannel(kClosestTagStat);
+    ElevatorInputs elevatorInputs = new ElevatorInputs();
+
+    // the channel each of the log's ids is kept in, they're only known from the start records
+    HashMap<Integer, Channel> doubleChannels = new HashMap<>();
+    int loopEntry = -1, elevatorEntry = -1;
+    long lastLoopTimestamp = -1;
+
+    for (DataLogRecord record : reader) {
+      result.records++;
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (start.name.equals(kLoopLog)) {
+          loopEntry = start.entry;
+        } else if (start.name.equals(kElevatorLog)) {
+          elevatorEntry = start.entry;
+        } else if (start.name.equals(kClosestTagLog)) {
+          doubleChannels.put(start.entry, tagDistances);
+        } else if (start.name.startsWith(kDriveSpeedErrorPrefix)) {
+          doubleChannels.put(start.entry,
+            result.getChannel(kDriveSpeedErrorStat + start.name.substring(kDriveSpeedErrorPrefix.length())));
+        }
+        continue;
+      }
+      if (record.isControl()) continue;
+
+      int entry = record.getEntry();
+      if (entry == loopEntry) {
+        long timestamp = record.getTimestamp();
+        if (lastLoopTimestamp >= 0) loopTimes.add((timestamp - lastLoopTimestamp) / 1000.0);
+        lastLoopTimestamp = timestamp;
+      } else if (entry == elevatorEntry) {
+        double[] values = record.getDoubleArray();
+        if (values.length == elevatorInputs.size()) {
+          elevatorInputs.fromArray(values);
+          elevatorCurrents.add(elevatorInputs.supplyCurrent);
+        }
+      } else {
+        Channel channel = doubleChannels.get(entry);
+        if (channel != null) channel.add(record.getDouble());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Memory maps a log, so its records are decoded straight from the page cache as they are read.
+   *
+   * @param file the .wpilog file
+   * @return a reader over its records
+   * @throws IOException if the file can't be read or isn't a log
+   */
+  public static DataLogReader openMapped(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    // the mapping stays valid after the channel is closed
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    DataLogReader reader = new DataLogReader(buffer);
+    if (!reader.isValid()) throw new IOException(file + " is not a data log");
+    return reader;
+  }
+
+  private static void print(Result result) {
+    StringBuilder header = new StringBuilder(String.format("%-36s %8s", "", "count"));
+    for (double percentile : kPercentiles) {
+      header.append(String.format(" %9s", String.format("p%.0f", percentile)));
+    }
+    header.append(String.format(" %9s", "mean"));
+    System.out.println(header);
+    for (Map.Entry<String, Channel> entry : result.channels.entrySet()) {
+      Channel channel = entry.getValue();
+      StringBuilder line = new StringBuilder(String.format("%-36s %8d", entry.getKey(), channel.getCount()));
+      for (double percentile : kPercentiles) {
+        line.append(String.format(" %9.3f", channel.getPercentile(percentile)));
+      }
+      line.append(String.format(" %9.3f", channel.getMean()));
+      System.out.println(line);
+    }
+  }
+
+  /**
+   * Writes one line for each statistic of each result.
+   */
+  private static void writeCsv(Path file, List<Result> results) throws IOException {
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+      StringBuilder header = new StringBuilder("log,statistic,count");
+      for (double percentile : kPercentiles) {
+        header.append(String.format(",p%.0f", percentile));
+      }
+      header.append(",mean");
+      writer.println(header);
+      for (Result result : results) {
+        for (Map.Entry<String, Channel> entry : result.channels.entrySet()) {
+          Channel channel = entry.getValue();
+          StringBuilder line = new StringBuilder(
+            String.format("\"%s\",%s,%d", result.name, entry.getKey(), channel.getCount()));
+          for (double percentile : kPercentiles) {
+            line.append(String.format(",%f", channel.getPercentile(percentile)));
+          }
+          line.append(String.format(",%f", channel.getMean()));
+          writer.println(line);
+        }
+      }
+    }
+  }
+}
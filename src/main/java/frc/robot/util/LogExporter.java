@@ -0,0 +1,459 @@
+package frc.robot.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+/**
+ * Converts logs into one compressed column file per channel, so a script can read one signal from every match without
+ * decoding the rest of each log. Run by the exportLogs Gradle task, not on the robot.
+ *
+ * <p> Each log is read in one pass, see {@link LogAnalyzer#openMapped}, and written to a directory named after its path
+ * under the directory all the logs are in (day1/Q1.wpilog becomes day1/Q1). The directory has a file for each channel
+ * at the channel's path plus {@link #kColumnExtension} (Swerve/Pose2d becomes Swerve/Pose2d.col.gz), and an index.csv
+ * of the channels. Logs are exported in parallel, one per thread.
+ *
+ * <p> A column file is gzipped, and big endian inside:
+ * <ul>
+ * <li> the int {@link #kMagic}, then the byte {@link #kVersion}
+ * <li> the channel's type and name, each a varint length then UTF-8
+ * <li> the number of values, a varint
+ * <li> every timestamp in microseconds, each a zigzag varint of the difference from the one before (the first from 0)
+ * <li> every value. double and float are 8 and 4 byte IEEE 754, boolean is 1 byte, int64 is a zigzag varint of the
+ *   difference from the value before, string and json are a varint length then UTF-8, and arrays are a varint length
+ *   then their elements encoded the same way (int64 elements are not delta encoded)
+ * </ul>
+ * Varints are 7 bits a byte, least significant first, with the high bit set on every byte but the last.
+ */
+public class LogExporter {
+
+  public static final int kMagic = 0x57434F4C; // "WCOL"
+  public static final int kVersion = 1;
+  public static final String kColumnExtension = ".col.gz";
+  public static final String kIndexFile = "index.csv";
+  /** The channels exported when no prefixes are given. */
+  public static final List<String> kDefaultPrefixes = List.of("Swerve/", "Vision/", "Elevator/", "Wrist/");
+
+  /**
+   * A column read back from its file, for the types that are numbers. Booleans are 0 or 1, and scalars are arrays of
+   * one value.
+   */
+  public static class Column {
+    public String name;
+    public String type;
+    public long[] timestamps;
+    public double[][] values;
+  }
+
+  /**
+   * The values of one channel, encoded as they are read.
+   */
+  private static class ColumnWriter {
+    final String name;
+    final String type;
+    final ByteArrayOutputStream timestampBytes = new ByteArrayOutputStream();
+    final ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+    final DataOutputStream timestamps = new DataOutputStream(timestampBytes);
+    final DataOutputStream values = new DataOutputStream(valueBytes);
+    int count = 0;
+    long lastTimestamp = 0;
+    long lastInteger = 0;
+
+    ColumnWriter(String name, String type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    void add(DataLogRecord record) throws IOException {
+      long timestamp = record.getTimestamp();
+      writeVarLong(timestamps, zigzag(timestamp - lastTimestamp));
+      lastTimestamp = timestamp;
+      count++;
+
+      switch (type) {
+        case "double":
+          values.writeDouble(record.getDouble());
+          break;
+        case "float":
+          values.writeFloat(record.getFloat());
+          break;
+        case "boolean":
+          values.writeBoolean(record.getBoolean());
+          break;
+        case "int64":
+          long value = record.getInteger();
+          writeVarLong(values, zigzag(value - lastInteger));
+          lastInteger = value;
+          break;
+        case "string":
+        case "json":
+          writeString(values, record.getString());
+          break;
+        case "double[]":
+          double[] doubles = record.getDoubleArray();
+          writeVarLong(values, doubles.length);
+          for (double d : doubles) values.writeDouble(d);
+          break;
+        case "float[]":
+          float[] floats = record.getFloatArray();
+          writeVarLong(values, floats.length);
+          for (float f : floats) values.writeFloat(f);
+          break;
+        case "boolean[]":
+          boolean[] booleans = record.getBooleanArray();
+          writeVarLong(values, booleans.length);
+          for (boolean b : booleans) values.writeBoolean(b);
+          break;
+        case "int64[]":
+          long[] integers = record.getIntegerArray();
+          writeVarLong(values, integers.length);
+          for (long l : integers) writeVarLong(values, zigzag(l));
+          break;
+        default:
+          throw new IllegalStateException("Can't export " + type);
+      }
+    }
+
+    void write(Path file) throws IOException {
+      Files.createDirectories(file.getParent());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          new GZIPOutputStream(Files.newOutputStream(file))))) {
+        out.writeInt(kMagic);
+        out.writeByte(kVersion);
+        writeString(out, type);
+        writeString(out, name);
+        writeVarLong(out, count);
+        timestampBytes.writeTo(out);
+        valueBytes.writeTo(out);
+      }
+    }
+  }
+
+  /**
+   * @param args the output directory, the .wpilog files or directories of them, then optionally --prefixes and the
+   *   comma separated prefixes of the channels to export ("" for every channel), and --threads and how many logs to
+   *   export at once (one per processor by default)
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    List<Path> paths = new ArrayList<>();
+    List<String> prefixes = kDefaultPrefixes;
+    int threads = 0;
+    for (int i = 1; i < args.length; i++) {
+      if (args[i].equals("--prefixes") && i + 1 < args.length) {
+        prefixes = List.of(args[++i].split(",", -1));
+      } else if (args[i].equals("--threads") && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if (!args[i].isEmpty()) {
+        paths.add(Path.of(args[i]));
+      }
+    }
+    if (args.length < 1 || args[0].isEmpty() || paths.isEmpty()) {
+      System.err.println(
+        "Usage: LogExporter <output directory> <log file or directory>... [--prefixes <a/,b/>] [--threads <count>]");
+      System.exit(1);
+    }
+    if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+    Path outputDir = Path.of(args[0]);
+
+    List<Path> files = LogAnalyzer.findLogs(paths);
+    System.out.println(String.format("Exporting %d logs to %s, %d at a time", files.size(), outputDir, threads));
+    long startTime = System.nanoTime();
+    int channels = exportAll(files, outputDir, prefixes, threads);
+    System.out.println(String.format("Exported %d channels in %.2f s", channels,
+      (System.nanoTime() - startTime) / 1e9));
+  }
+
+  /**
+   * Exports logs in parallel. A log that can't be exported is reported and left out.
+   *
+   * @param files the .wpilog files
+   * @param outputDir where to put the directory of each log
+   * @param prefixes the prefixes of the channels to export
+   * @param threads how many logs to export at once
+   * @return how many channels were exported from all the logs
+   */
+  public static int exportAll(List<Path> files, Path outputDir, List<String> prefixes, int threads)
+      throws InterruptedException {
+    // check every directory before exporting, so two logs are never written to the same one
+    Path root = getCommonDirectory(files);
+    List<Path> logDirs = new ArrayList<>();
+    HashSet<Path> usedDirs = new HashSet<>();
+    for (Path file : files) {
+      Path logDir = getOutputDir(outputDir, root, file);
+      if (!usedDirs.add(logDir)) throw new IllegalArgumentException("More than one log would be exported to " + logDir);
+      logDirs.add(logDir);
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < files.size(); i++) {
+      Path file = files.get(i);
+      Path logDir = logDirs.get(i);
+      futures.add(pool.submit(() -> export(file, logDir, prefixes)));
+    }
+    pool.shutdown();
+
+    int channels = 0;
+    for (int i = 0; i < files.size(); i++) {
+      try {
+        channels += futures.get(i).get();
+      } catch (ExecutionException e) {
+        System.err.println("Couldn't export " + files.get(i) + ": " + e.getCause());
+      }
+    }
+    return channels;
+  }
+
+  /**
+   * @return the deepest directory that every file is in
+   */
+  public static Path getCommonDirectory(List<Path> files) {
+    Path common = null;
+    for (Path file : files) {
+      Path parent = file.toAbsolutePath().normalize().getParent();
+      if (common == null) {
+        common = parent;
+        continue;
+      }
+      while (!parent.startsWith(common)) {
+        common = common.getParent();
+      }
+    }
+    return common;
+  }
+
+  /**
+   * @param outputDir where to put the directory of each log
+   * @param root a directory the log is in, see {@link #getCommonDirectory(List)}
+   * @param file the .wpilog file
+   * @return the directory a log is exported to, named after its path under the root
+   */
+  public static Path getOutputDir(Path outputDir, Path root, Path file) {
+    String name = root.relativize(file.toAbsolutePath().normalize()).toString();
+    if (name.endsWith(".wpilog")) name = name.substring(0, name.length() - ".wpilog".length());
+    return outputDir.resolve(name);
+  }
+
+  /**
+   * The channel's directories are kept, but empty, . and .. directories are left out, so a channel can't be written
+   * outside the log's directory. Characters that can't be in a file name become _.
+   *
+   * @return the file a channel is exported to, under the log's directory
+   * @throws IllegalArgumentException if the channel's file would still be outside the log's directory
+   */
+  public static Path getColumnFile(Path logDir, String channel) {
+    StringBuilder path = new StringBuilder();
+    for (String part : channel.split("[/\\\\]")) {
+      if (part.isEmpty() || part.equals(".") || part.equals("..")) continue;
+      if (path.length() > 0) path.append('/');
+      path.append(part.replaceAll("[<>:\"|?*]", "_"));
+    }
+    // a channel that is only separators still gets a file
+    if (path.length() == 0) path.append('_');
+
+    Path file = logDir.resolve(path + kColumnExtension);
+    if (!file.normalize().startsWith(logDir.normalize())) {
+      throw new IllegalArgumentException("Channel " + channel + " would be exported outside " + logDir);
+    }
+    return file;
+  }
+
+  /**
+   * Exports one log.
+   *
+   * @param file the .wpilog file
+   * @param logDir the directory to write its columns to
+   * @param prefixes the prefixes of the channels to export
+   * @return how many channels were exported
+   * @throws IOException if the log can't be read or a column can't be written
+   */
+  public static int export(Path file, Path logDir, List<String> prefixes) throws IOException {
+    DataLogReader reader = LogAnalyzer.openMapped(file);
+
+    // a channel that is finished and started again is kept in the same column, by name
+    LinkedHashMap<String, ColumnWriter> columns = new LinkedHashMap<>();
+    // the column each of the log's ids is written to, they're only known from the start records
+    HashMap<Integer, ColumnWriter> entries = new HashMap<>();
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (!isExported(start.name, start.type, prefixes)) continue;
+        ColumnWriter column = columns.computeIfAbsent(start.name, (name) -> new ColumnWriter(name, start.type));
+        // a channel that changed type can't be one column, keep the first
+        if (column.type.equals(start.type)) entries.put(start.entry, column);
+        continue;
+      }
+      if (record.isFinish()) {
+        entries.remove(record.getFinishEntry());
+        continue;
+      }
+      if (record.isControl()) continue;
+      ColumnWriter column = entries.get(record.getEntry());
+      if (column != null) column.add(record);
+    }
+
+    // check every file before writing, so a channel never overwrites another with a name that maps to the same file
+    HashMap<ColumnWriter, Path> columnFiles = new HashMap<>();
+    HashMap<Path, String> usedFiles = new HashMap<>();
+    for (ColumnWriter column : columns.values()) {
+      Path columnFile = getColumnFile(logDir, column.name);
+      String other = usedFiles.putIfAbsent(columnFile, column.name);
+      if (other != null) {
+        throw new IOException("Channels " + other + " and " + column.name + " would both be exported to " + columnFile);
+      }
+      columnFiles.put(column, columnFile);
+    }
+
+    Files.createDirectories(logDir);
+    try (PrintWriter index = new PrintWriter(Files.newBufferedWriter(logDir.resolve(kIndexFile)))) {
+      index.println("channel,type,count,file");
+      for (ColumnWriter column : columns.values()) {
+        Path columnFile = columnFiles.get(column);
+        column.write(columnFile);
+        index.println(String.format("\"%s\",%s,%d,\"%s\"", column.name, column.type, column.count,
+          logDir.relativize(columnFile).toString().replace('\\', '/')));
+      }
+    }
+    return columns.size();
+  }
+
+  private static boolean isExported(String name, String type, List<String> prefixes) {
+    switch (type) {
+      case "double": case "float": case "boolean": case "int64": case "string": case "json":
+      case "double[]": case "float[]": case "boolean[]": case "int64[]":
+        break;
+      default:
+        // raw and struct channels aren't exported
+        return false;
+    }
+    for (String prefix : prefixes) {
+      if (name.startsWith(prefix)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Reads a column of numbers back from its file.
+   *
+   * @param file the column file
+   * @return the column
+   * @throws IOException if the file can't be read, isn't a column, or is a column of strings
+   */
+  public static Column readColumn(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new GZIPInputStream(Files.newInputStream(file))))) {
+      if (in.readInt() != kMagic || in.readByte() != kVersion) throw new IOException(file + " is not a column");
+      Column column = new Column();
+      column.type = readString(in);
+      column.name = readString(in);
+      int count = (int) readVarLong(in);
+
+      column.timestamps = new long[count];
+      long timestamp = 0;
+      for (int i = 0; i < count; i++) {
+        timestamp += unzigzag(readVarLong(in));
+        column.timestamps[i] = timestamp;
+      }
+
+      column.values = new double[count][];
+      long integer = 0;
+      for (int i = 0; i < count; i++) {
+        double[] values;
+        switch (column.type) {
+          case "double":
+            values = new double[] {in.readDouble()};
+            break;
+          case "float":
+            values = new double[] {in.readFloat()};
+            break;
+          case "boolean":
+            values = new double[] {in.readBoolean() ? 1 : 0};
+            break;
+          case "int64":
+            integer += unzigzag(readVarLong(in));
+            values = new double[] {integer};
+            break;
+          case "double[]":
+            values = new double[(int) readVarLong(in)];
+            for (int j = 0; j < values.length; j++) values[j] = in.readDouble();
+            break;
+          case "float[]":
+            values = new double[(int) readVarLong(in)];
+            for (int j = 0; j < values.length; j++) values[j] = in.readFloat();
+            break;
+          case "boolean[]":
+            values = new double[(int) readVarLong(in)];
+            for (int j = 0; j < values.length; j++) values[j] = in.readBoolean() ? 1 : 0;
+            break;
+          case "int64[]":
+            values = new double[(int) readVarLong(in)];
+            for (int j = 0; j < values.length; j++) values[j] = unzigzag(readVarLong(in));
+            break;
+          default:
+            throw new IOException(file + " is a column of " + column.type + ", not numbers");
+        }
+        column.values[i] = values;
+      }
+      return column;
+    }
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw new IOException("varint is too long");
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[(int) readVarLong(in)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
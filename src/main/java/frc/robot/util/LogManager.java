@@ -11,6 +11,7 @@ import edu.wpi.first.util.datalog.DataLog;
 import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
 import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.WPIUtilJNI;
 import edu.wpi.first.util.datalog.StringLogEntry;
 import edu.wpi.first.wpilibj.DataLogManager;
 
@@ -40,6 +41,21 @@ public class LogManager {
   private static HashMap<String, BooleanLogEntry> individualBooleanLogs = new HashMap<>();
   private static HashMap<String, IntegerLogEntry> individualIntegerLogs = new HashMap<>();
 
+  // These are the log entries that are registered ahead of time. The handle returned when registering is the index
+  // into these lists, so appending a value does not build a String, box the value, or look anything up in a map.
+  private static ArrayList<DoubleLogEntry> registeredDoubleLogs = new ArrayList<>();
+  private static ArrayList<DoubleArrayLogEntry> registeredDoubleArrayLogs = new ArrayList<>();
+  private static ArrayList<BooleanLogEntry> registeredBooleanLogs = new ArrayList<>();
+  private static ArrayList<IntegerLogEntry> registeredIntegerLogs = new ArrayList<>();
+
+  // Background writer. When it is running, values logged with a handle are put in the ring buffer with their timestamp
+  // and a daemon thread appends them to the log, so the main loop does not spend time writing to the log.
+  private static final int kRingBufferSize = 1 << 14;
+  private static final int kWriterBatchSize = 512;
+  private static final long kWriterPeriodMs = 5;
+  private static LogRingBuffer ringBuffer = null;
+  private static Thread writerThread = null;
+
   /**
    * Records the metadata supplied by gversion (https://github.com/lessthanoptimal/gversion-plugin) in BuildData.java.
    */
@@ -164,6 +180,200 @@ public class LogManager {
     }
   }
 
+  /**
+   * Registers a double log and returns a handle to it. Register once (e.g. in a constructor) and then use 
+   * {@link #addDouble(int, double)} in periodic code, which avoids building the name and looking it up every loop.
+   * 
+   * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+   * @return the handle used to append to the log
+   */
+  public static int registerDouble(String name) {
+    registeredDoubleLogs.add(new DoubleLogEntry(log, name));
+    return registeredDoubleLogs.size() - 1;
+  }
+
+  /**
+   * Logs a single double value to a log registered with {@link #registerDouble(String)}.
+   * 
+   * @param handle the handle returned when the log was registered
+   * @param value the value to be logged.
+   */
+  public static void addDouble(int handle, double value) {
+    if (ringBuffer != null) {
+      ringBuffer.add(LogRingBuffer.kDouble, handle, WPIUtilJNI.now(), value);
+      return;
+    }
+    registeredDoubleLogs.get(handle).append(value);
+  }
+
+  /**
+   * Registers a double array log and returns a handle to it. Register once (e.g. in a constructor) and then use 
+   * {@link #addDoubleArray(int, double[])} in periodic code, which avoids building the name and looking it up every loop.
+   * 
+   * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+   * @return the handle used to append to the log
+   */
+  public static int registerDoubleArray(String name) {
+    registeredDoubleArrayLogs.add(new DoubleArrayLogEntry(log, name));
+    return registeredDoubleArrayLogs.size() - 1;
+  }
+
+  /**
+   * Logs a double array to a log registered with {@link #registerDoubleArray(String)}.
+   * The array is copied when it is logged, so the caller can reuse the same array every loop.
+   * 
+   * @param handle the handle returned when the log was registered
+   * @param value the value to be logged.
+   */
+  public static void addDoubleArray(int handle, double[] value) {
+    if (ringBuffer != null) {
+      ringBuffer.addArray(handle, WPIUtilJNI.now(), value);
+      return;
+    }
+    registeredDoubleArrayLogs.get(handle).append(value);
+  }
+
+  /**
+   * Registers an int log and returns a handle to it. Register once (e.g. in a constructor) and then use 
+   * {@link #addInt(int, int)} in periodic code, which avoids building the name and looking it up every loop.
+   * 
+   * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+   * @return the handle used to append to the log
+   */
+  public static int registerInt(String name) {
+    registeredIntegerLogs.add(new IntegerLogEntry(log, name));
+    return registeredIntegerLogs.size() - 1;
+  }
+
+  /**
+   * Logs a single int to a log registered with {@link #registerInt(String)}.
+   * 
+   * @param handle the handle returned when the log was registered
+   * @param value the value to be logged.
+   */
+  public static void addInt(int handle, int value) {
+    if (ringBuffer != null) {
+      ringBuffer.add(LogRingBuffer.kInt, handle, WPIUtilJNI.now(), value);
+      return;
+    }
+    registeredIntegerLogs.get(handle).append(value);
+  }
+
+  /**
+   * Registers a boolean log and returns a handle to it. Register once (e.g. in a constructor) and then use 
+   * {@link #addBoolean(int, boolean)} in periodic code, which avoids building the name and looking it up every loop.
+   * 
+   * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+   * @return the handle used to append to the log
+   */
+  public static int registerBoolean(String name) {
+    registeredBooleanLogs.add(new BooleanLogEntry(log, name));
+    return registeredBooleanLogs.size() - 1;
+  }
+
+  /**
+   * Logs a single boolean to a log registered with {@link #registerBoolean(String)}.
+   * 
+   * @param handle the handle returned when the log was registered
+   * @param value the value to be logged.
+   */
+  public static void addBoolean(int handle, boolean value) {
+    if (ringBuffer != null) {
+      ringBuffer.add(LogRingBuffer.kBoolean, handle, WPIUtilJNI.now(), value ? 1 : 0);
+      return;
+    }
+    registeredBooleanLogs.get(handle).append(value);
+  }
+
+  /**
+   * Starts the background log writer. After this is called, values logged with a handle are timestamped and put in a
+   * preallocated ring buffer, and a daemon thread appends them to the log in batches. Values logged by name and the 
+   * deprecated supplier logs are still written on the calling thread.
+   * 
+   * <p> Handles must be registered and used on the main robot thread, since the ring buffer only supports one producer.
+   */
+  public static void startBackgroundWriter() {
+    if (writerThread != null) return;
+
+    ringBuffer = new LogRingBuffer(kRingBufferSize);
+    LogRingBuffer buffer = ringBuffer;
+
+    IntegerLogEntry droppedLog = new IntegerLogEntry(log, "LogManager/Dropped Samples");
+    IntegerLogEntry overflowLog = new IntegerLogEntry(log, "LogManager/Overflows");
+
+    LogRingBuffer.SampleConsumer writer = new LogRingBuffer.SampleConsumer() {
+      @Override
+      public void accept(int type, int handle, long timestamp, double value) {
+        switch (type) {
+          case LogRingBuffer.kDouble:
+            registeredDoubleLogs.get(handle).append(value, timestamp);
+            break;
+          case LogRingBuffer.kInt:
+            registeredIntegerLogs.get(handle).append((long) value, timestamp);
+            break;
+          case LogRingBuffer.kBoolean:
+            registeredBooleanLogs.get(handle).append(value != 0, timestamp);
+            break;
+        }
+      }
+
+      @Override
+      public void acceptArray(int handle, long timestamp, double[] values) {
+        registeredDoubleArrayLogs.get(handle).append(values, timestamp);
+      }
+    };
+
+    writerThread = new Thread(() -> {
+      long lastDropped = 0;
+      long lastOverflows = 0;
+      while (!Thread.currentThread().isInterrupted()) {
+        // drain everything that is waiting, in batches
+        int drained;
+        do {
+          drained = buffer.drain(writer, kWriterBatchSize);
+        } while (drained == kWriterBatchSize);
+
+        // only log the counters when they change
+        if (buffer.getDroppedCount() != lastDropped || buffer.getOverflowCount() != lastOverflows) {
+          lastDropped = buffer.getDroppedCount();
+          lastOverflows = buffer.getOverflowCount();
+          droppedLog.append(lastDropped);
+          overflowLog.append(lastOverflows);
+        }
+
+        try {
+          Thread.sleep(kWriterPeriodMs);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }, "LogManager Writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * @return the number of samples dropped because the background writer's ring buffer was full, 0 if it is not running
+   */
+  public static long getDroppedCount() {
+    return ringBuffer == null ? 0 : ringBuffer.getDroppedCount();
+  }
+
+  /**
+   * @return the number of times the background writer's ring buffer filled up, 0 if it is not running
+   */
+  public static long getOverflowCount() {
+    return ringBuffer == null ? 0 : ringBuffer.getOverflowCount();
+  }
+
+  /**
+   * @return the number of slots in the background writer's ring buffer waiting to be written, 0 if it is not running.
+   *     For benchmarks.
+   */
+  static int getWaitingCount() {
+    return ringBuffer == null ? 0 : ringBuffer.size();
+  }
+
   /**
    * Logs all the values that have been collected. Should be called periodically. 
    */
@@ -0,0 +1,208 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated single-producer/single-consumer ring buffer of timestamped log samples.
+ *
+ * <p> The producer (the main robot thread) only copies primitives into arrays that are allocated once, so adding
+ * a sample never allocates or locks. The consumer (the log writer thread) drains the samples in batches.
+ * Only one thread may add samples and only one thread may drain them.
+ *
+ * <p> A double array sample takes one header slot holding its length, followed by one slot per element.
+ * When there is not enough room for a sample, it is dropped and counted instead of blocking the producer.
+ */
+public class LogRingBuffer {
+
+  // Sample types, stored in the low bits of the key
+  public static final int kDouble = 0;
+  public static final int kDoubleArray = 1;
+  public static final int kInt = 2;
+  public static final int kBoolean = 3;
+
+  private static final int kTypeBits = 2;
+  private static final int kTypeMask = (1 << kTypeBits) - 1;
+
+  /**
+   * Receives the samples drained from the buffer.
+   */
+  public interface SampleConsumer {
+    /**
+     * Called for each double, int, or boolean sample. Ints are exact, and booleans are 1 for true and 0 for false.
+     */
+    void accept(int type, int handle, long timestamp, double value);
+
+    /**
+     * Called for each double array sample. The array is only valid until this method returns.
+     */
+    void acceptArray(int handle, long timestamp, double[] values);
+  }
+
+  private final int m_capacity;
+  private final int m_mask;
+  private final int[] m_keys;
+  private final long[] m_timestamps;
+  private final double[] m_values;
+
+  // next slot to read, only written by the consumer
+  private final AtomicLong m_head = new AtomicLong();
+  // next slot to write, only written by the producer
+  private final AtomicLong m_tail = new AtomicLong();
+  // producer's copy of the head, so it does not read the atomic for every sample
+  private long m_cachedHead = 0;
+
+  // only written by the producer
+  private volatile long m_droppedCount = 0;
+  private volatile long m_overflowCount = 0;
+  private boolean m_overflowing = false;
+
+  // consumer-side scratch arrays for double array samples, indexed by length
+  private final double[][] m_arrayScratch;
+
+  /**
+   * Creates a ring buffer.
+   * @param capacity the number of slots, rounded up to a power of two
+   */
+  public LogRingBuffer(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+    }
+    m_capacity = Integer.highestOneBit(capacity - 1) << 1;
+    m_mask = m_capacity - 1;
+    m_keys = new int[m_capacity];
+    m_timestamps = new long[m_capacity];
+    m_values = new double[m_capacity];
+    m_arrayScratch = new double[m_capacity][];
+  }
+
+  /**
+   * Adds a double, int, or boolean sample. Must only be called from the producer thread.
+   *
+   * @param type one of {@link #kDouble}, {@link #kInt}, or {@link #kBoolean}
+   * @param handle the LogManager handle of the log
+   * @param timestamp the timestamp in microseconds
+   * @param value the value, use 1 or 0 for booleans
+   * @return true if the sample was added, false if it was dropped
+   */
+  public boolean add(int type, int handle, long timestamp, double value) {
+    long tail = m_tail.get();
+    if (!hasRoom(tail, 1)) return false;
+    int slot = (int) tail & m_mask;
+    m_keys[slot] = (handle << kTypeBits) | type;
+    m_timestamps[slot] = timestamp;
+    m_values[slot] = value;
+    // publish the sample to the consumer
+    m_tail.lazySet(tail + 1);
+    return true;
+  }
+
+  /**
+   * Adds a double array sample. The values are copied, so the array can be reused by the caller.
+   * Must only be called from the producer thread.
+   *
+   * @param handle the LogManager handle of the log
+   * @param timestamp the timestamp in microseconds
+   * @param values the values to copy into the buffer
+   * @return true if the sample was added, false if it was dropped
+   */
+  public boolean addArray(int handle, long timestamp, double[] values) {
+    long tail = m_tail.get();
+    if (!hasRoom(tail, values.length + 1)) return false;
+    int slot = (int) tail & m_mask;
+    m_keys[slot] = (handle << kTypeBits) | kDoubleArray;
+    m_timestamps[slot] = timestamp;
+    m_values[slot] = values.length;
+    for (int i = 0; i < values.length; i++) {
+      m_values[(int) (tail + 1 + i) & m_mask] = values[i];
+    }
+    m_tail.lazySet(tail + 1 + values.length);
+    return true;
+  }
+
+  /**
+   * Checks if the buffer has enough free slots, counting the sample as dropped if it does not.
+   */
+  private boolean hasRoom(long tail, int slots) {
+    if (tail + slots - m_cachedHead > m_capacity) {
+      // refresh the cached head in case the consumer has caught up
+      m_cachedHead = m_head.get();
+      if (tail + slots - m_cachedHead > m_capacity) {
+        m_droppedCount++;
+        if (!m_overflowing) {
+          m_overflowing = true;
+          m_overflowCount++;
+        }
+        return false;
+      }
+    }
+    m_overflowing = false;
+    return true;
+  }
+
+  /**
+   * Drains samples from the buffer. Must only be called from the consumer thread.
+   *
+   * @param consumer receives each sample
+   * @param maxSamples the maximum number of samples to drain in this batch
+   * @return the number of samples drained
+   */
+  public int drain(SampleConsumer consumer, int maxSamples) {
+    long head = m_head.get();
+    long tail = m_tail.get();
+    int drained = 0;
+    while (head < tail && drained < maxSamples) {
+      int slot = (int) head & m_mask;
+      int key = m_keys[slot];
+      int type = key & kTypeMask;
+      int handle = key >>> kTypeBits;
+      if (type == kDoubleArray) {
+        int length = (int) m_values[slot];
+        double[] values = m_arrayScratch[length];
+        if (values == null) {
+          values = new double[length];
+          m_arrayScratch[length] = values;
+        }
+        for (int i = 0; i < length; i++) {
+          values[i] = m_values[(int) (head + 1 + i) & m_mask];
+        }
+        consumer.acceptArray(handle, m_timestamps[slot], values);
+        head += length + 1;
+      } else {
+        consumer.accept(type, handle, m_timestamps[slot], m_values[slot]);
+        head++;
+      }
+      drained++;
+    }
+    // free the slots for the producer
+    m_head.lazySet(head);
+    return drained;
+  }
+
+  /**
+   * @return the number of slots waiting to be drained
+   */
+  public int size() {
+    return (int) (m_tail.get() - m_head.get());
+  }
+
+  /**
+   * @return the number of slots in the buffer
+   */
+  public int getCapacity() {
+    return m_capacity;
+  }
+
+  /**
+   * @return the total number of samples dropped because the buffer was full
+   */
+  public long getDroppedCount() {
+    return m_droppedCount;
+  }
+
+  /**
+   * @return the number of times the buffer filled up. Consecutive dropped samples count as one overflow.
+   */
+  public long getOverflowCount() {
+    return m_overflowCount;
+  }
+}
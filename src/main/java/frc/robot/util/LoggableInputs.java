@@ -0,0 +1,25 @@
+package frc.robot.util;
+
+/**
+ * The sensor values a subsystem reads from its IO once a loop, which {@link InputsLog} logs as a double array and can
+ * fill back in from a log.
+ */
+public interface LoggableInputs {
+
+  /**
+   * @return the number of values in the array
+   */
+  int size();
+
+  /**
+   * Copies the inputs into an array.
+   * @param values the array to fill in, {@link #size()} long
+   */
+  void toArray(double[] values);
+
+  /**
+   * Sets the inputs from an array filled in by {@link #toArray(double[])}.
+   * @param values the array
+   */
+  void fromArray(double[] values);
+}
@@ -0,0 +1,137 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Utility class for measuring how long each part of the robot loop takes.
+ *
+ * <p> Register a {@link Stage} once, then call {@link Stage#start()} and {@link Stage#stop()} around the code to time.
+ * Each stage keeps a {@link TimingHistogram}, and {@link #publish()} logs the p50, p95, p99, and max of every stage
+ * (in milliseconds) to the LogManager about once a second, under Profiler/.
+ *
+ * <p> Command execute() times are measured with CommandScheduler callbacks, see {@link #profileCommands()}.
+ */
+public class LoopProfiler {
+
+  /** How many loops to collect timings for before publishing them. */
+  private static final int kPublishPeriodLoops = 50;
+
+  private static ArrayList<Stage> stages = new ArrayList<>();
+  // by command name, commands are often made again every time they run, and instances with the same name share a stage
+  private static HashMap<String, Stage> commandStages = new HashMap<>();
+
+  private static int loopsSincePublish = 0;
+  // the end of the last thing timed by the command callbacks
+  private static long commandMark = 0;
+
+  /**
+   * A timed part of the robot loop.
+   */
+  public static class Stage {
+    private final TimingHistogram m_histogram = new TimingHistogram();
+    private final int m_p50Log, m_p95Log, m_p99Log, m_maxLog, m_countLog;
+    private long m_startTime;
+
+    private Stage(String name) {
+      m_p50Log = LogManager.registerDouble("Profiler/" + name + "/p50 (ms)");
+      m_p95Log = LogManager.registerDouble("Profiler/" + name + "/p95 (ms)");
+      m_p99Log = LogManager.registerDouble("Profiler/" + name + "/p99 (ms)");
+      m_maxLog = LogManager.registerDouble("Profiler/" + name + "/max (ms)");
+      m_countLog = LogManager.registerInt("Profiler/" + name + "/count");
+    }
+
+    /**
+     * Starts timing the stage.
+     */
+    public void start() {
+      m_startTime = System.nanoTime();
+    }
+
+    /**
+     * Stops timing the stage and records how long it took since {@link #start()}.
+     */
+    public void stop() {
+      m_histogram.record(System.nanoTime() - m_startTime);
+    }
+
+    /**
+     * Records a duration that was measured somewhere else.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+      m_histogram.record(nanos);
+    }
+
+    public TimingHistogram getHistogram() {
+      return m_histogram;
+    }
+
+    private void publish() {
+      // nothing ran (e.g. a command that was not scheduled), don't log zeros
+      if (m_histogram.getCount() == 0) return;
+      LogManager.addDouble(m_p50Log, m_histogram.getPercentile(50) / 1e6);
+      LogManager.addDouble(m_p95Log, m_histogram.getPercentile(95) / 1e6);
+      LogManager.addDouble(m_p99Log, m_histogram.getPercentile(99) / 1e6);
+      LogManager.addDouble(m_maxLog, m_histogram.getMax() / 1e6);
+      LogManager.addInt(m_countLog, (int) m_histogram.getCount());
+      m_histogram.reset();
+    }
+  }
+
+  /**
+   * Registers a stage to time. Call this once, e.g. in a constructor, and keep the returned stage.
+   *
+   * @param name the name of the stage. Use / to create subdirectories, and keep names unique.
+   * @return the stage
+   */
+  public static Stage register(String name) {
+    Stage stage = new Stage(name);
+    stages.add(stage);
+    return stage;
+  }
+
+  /**
+   * Times the execute() of every scheduled command, in stages named Commands/(command name). Commands with the same
+   * name, e.g. a command made again each time a button is pressed, share a stage.
+   *
+   * <p> The scheduler has no callback before execute(), so the time is measured from the end of the button polling
+   * (or the previous command's execute() or end()) to the end of execute(). It also includes the previous command's
+   * isFinished(), which is normally tiny. Commands in a group are timed as part of the group.
+   *
+   * <p> Call this once after all the controls are configured, so the button polling mark runs after every button.
+   */
+  public static void profileCommands() {
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    // bound last, so it runs after all the buttons have been polled and just before the commands run
+    scheduler.getDefaultButtonLoop().bind(() -> commandMark = System.nanoTime());
+    scheduler.onCommandExecute(command -> {
+      long now = System.nanoTime();
+      String name = command.getName();
+      Stage stage = commandStages.get(name);
+      if (stage == null) {
+        stage = register("Commands/" + name);
+        commandStages.put(name, stage);
+      }
+      stage.record(now - commandMark);
+      commandMark = now;
+    });
+    // don't count end() towards the next command
+    scheduler.onCommandFinish(command -> commandMark = System.nanoTime());
+  }
+
+  /**
+   * Publishes the timings of every stage to the log, once every {@link #kPublishPeriodLoops} calls.
+   * Should be called periodically.
+   */
+  public static void publish() {
+    loopsSincePublish++;
+    if (loopsSincePublish < kPublishPeriodLoops) return;
+    loopsSincePublish = 0;
+    for (int i = 0; i < stages.size(); i++) {
+      stages.get(i).publish();
+    }
+  }
+}
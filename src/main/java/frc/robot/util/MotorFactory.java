@@ -149,17 +149,6 @@ public class MotorFactory {
 
     LazyTalonFX talon = new LazyTalonFX(id, CANBus);
 
-    if (RobotBase.isReal() && talon.getFirmwareVersion() != FalconConstants.kFirmwareVersion) {
-      String errorMessage = "TalonFX " + id + " firmware incorrect. Has " + talon.getFirmwareVersion()
-          + ", currently FalconConstants.java requires: " + FalconConstants.kFirmwareVersion;
-      if (FalconConstants.kBreakOnWrongFirmware) {
-        DriverStation.reportError(errorMessage, true);
-        throw new IOError(new IOException(errorMessage));
-      } else {
-        DriverStation.reportWarning(errorMessage + ", ignoring due to user specification.", false);
-      }
-    }
-
     TalonFXConfiguration config = new TalonFXConfiguration();
 
     // See explanations for Supply and Stator limiting in FalconConstants.java
@@ -170,15 +159,35 @@ public class MotorFactory {
 
     config.voltageCompSaturation = Constants.kRobotVoltage;
 
-    talon.configFactoryDefault();
-    talon.configAllSettings(config);
-    talon.enableVoltageCompensation(false);
-    talon.setNeutralMode(NeutralMode.Brake);
-    talon.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor);
+    // configured in the background, subsystems can add their own settings to the same talon after this
+    DeviceConfigurator.configure(talon, new DeviceConfigurator.Batch("TalonFX " + id)
+      .run("firmware check", () -> checkFirmware(talon, id))
+      .add("factory default", (timeoutMs) -> talon.configFactoryDefault(timeoutMs))
+      .add("all settings", (timeoutMs) -> talon.configAllSettings(config, timeoutMs))
+      .run("disable voltage compensation", () -> talon.enableVoltageCompensation(false))
+      .run("neutral mode", () -> talon.setNeutralMode(NeutralMode.Brake))
+      .add("feedback sensor",
+        (timeoutMs) -> talon.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor, 0, timeoutMs)));
 
     return talon;
   }
 
+  /**
+   * Reports the wrong firmware on a TalonFX, and stops the robot code if FalconConstants says to.
+   */
+  private static void checkFirmware(LazyTalonFX talon, int id) {
+    if (RobotBase.isReal() && talon.getFirmwareVersion() != FalconConstants.kFirmwareVersion) {
+      String errorMessage = "TalonFX " + id + " firmware incorrect. Has " + talon.getFirmwareVersion()
+          + ", currently FalconConstants.java requires: " + FalconConstants.kFirmwareVersion;
+      if (FalconConstants.kBreakOnWrongFirmware) {
+        DriverStation.reportError(errorMessage, true);
+        throw new IOError(new IOException(errorMessage));
+      } else {
+        DriverStation.reportWarning(errorMessage + ", ignoring due to user specification.", false);
+      }
+    }
+  }
+
   /**
    * 
    * Creates a TalonFX with all the default settings.
@@ -0,0 +1,177 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Samples the gyro yaw and the swerve module positions faster than the main loop, on a Notifier thread.
+ *
+ * <p> Each sample is timestamped with the FPGA time and stored in a preallocated single-producer/single-consumer
+ * buffer, so sampling never allocates or locks. The main thread drains the samples with {@link #drain} and feeds
+ * them to the pose estimator with their timestamps. If the buffer fills up, new samples are dropped and counted.
+ */
+public class OdometryThread {
+
+  /**
+   * Receives the samples drained from the buffer.
+   */
+  public interface SampleConsumer {
+    /**
+     * Called for each sample, oldest first. The arrays are only valid until this method returns.
+     *
+     * @param timestampSeconds the FPGA time the sample was taken at, in seconds
+     * @param yawDegrees the gyro yaw in degrees
+     * @param drivePositions the distance traveled by each module in meters, by module index
+     * @param steerAngles the angle of each module in radians, by module index
+     */
+    void accept(double timestampSeconds, double yawDegrees, double[] drivePositions, double[] steerAngles);
+  }
+
+  private final DoubleSupplier m_yawSupplier;
+  private final DoubleSupplier[] m_drivePositionSuppliers;
+  private final DoubleSupplier[] m_steerAngleSuppliers;
+  private final int m_moduleCount;
+
+  private final int m_capacity;
+  private final int m_mask;
+  private final double[] m_timestamps;
+  private final double[] m_yaws;
+  // indexed by slot * module count + module index
+  private final double[] m_drivePositions;
+  private final double[] m_steerAngles;
+
+  // next slot to read, only written by the consumer
+  private final AtomicLong m_head = new AtomicLong();
+  // next slot to write, only written by the producer
+  private final AtomicLong m_tail = new AtomicLong();
+  private volatile long m_droppedCount = 0;
+
+  // consumer-side scratch arrays
+  private final double[] m_drivePositionScratch;
+  private final double[] m_steerAngleScratch;
+
+  private Notifier m_notifier;
+
+  /**
+   * Creates an odometry thread. It does not sample until {@link #start} is called.
+   *
+   * @param yawSupplier supplies the gyro yaw in degrees
+   * @param drivePositionSuppliers supply the distance traveled by each module in meters, by module index
+   * @param steerAngleSuppliers supply the angle of each module in radians, by module index
+   * @param capacity the number of samples the buffer holds, rounded up to a power of two
+   */
+  public OdometryThread(DoubleSupplier yawSupplier, DoubleSupplier[] drivePositionSuppliers,
+      DoubleSupplier[] steerAngleSuppliers, int capacity) {
+    if (drivePositionSuppliers.length != steerAngleSuppliers.length) {
+      throw new IllegalArgumentException("Each module needs a drive position and a steer angle");
+    }
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Odometry buffer capacity must be at least 2");
+    }
+    m_yawSupplier = yawSupplier;
+    m_drivePositionSuppliers = drivePositionSuppliers;
+    m_steerAngleSuppliers = steerAngleSuppliers;
+    m_moduleCount = drivePositionSuppliers.length;
+
+    m_capacity = Integer.highestOneBit(capacity - 1) << 1;
+    m_mask = m_capacity - 1;
+    m_timestamps = new double[m_capacity];
+    m_yaws = new double[m_capacity];
+    m_drivePositions = new double[m_capacity * m_moduleCount];
+    m_steerAngles = new double[m_capacity * m_moduleCount];
+
+    m_drivePositionScratch = new double[m_moduleCount];
+    m_steerAngleScratch = new double[m_moduleCount];
+  }
+
+  /**
+   * Starts sampling on a Notifier thread.
+   * @param frequencyHz how many samples to take per second
+   */
+  public void start(double frequencyHz) {
+    if (m_notifier != null) return;
+    m_notifier = new Notifier(() -> sample(Timer.getFPGATimestamp()));
+    m_notifier.setName("Odometry");
+    m_notifier.startPeriodic(1.0 / frequencyHz);
+  }
+
+  /**
+   * Stops sampling. Samples already in the buffer can still be drained.
+   */
+  public void stop() {
+    if (m_notifier == null) return;
+    m_notifier.stop();
+    m_notifier.close();
+    m_notifier = null;
+  }
+
+  /**
+   * Takes one sample. Only called from the producer thread, package-private for testing.
+   * @param timestampSeconds the time of the sample
+   */
+  void sample(double timestampSeconds) {
+    long tail = m_tail.get();
+    if (tail - m_head.get() >= m_capacity) {
+      m_droppedCount++;
+      return;
+    }
+    int slot = (int) tail & m_mask;
+    m_timestamps[slot] = timestampSeconds;
+    m_yaws[slot] = m_yawSupplier.getAsDouble();
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_drivePositions[slot * m_moduleCount + i] = m_drivePositionSuppliers[i].getAsDouble();
+      m_steerAngles[slot * m_moduleCount + i] = m_steerAngleSuppliers[i].getAsDouble();
+    }
+    // publish the sample to the consumer
+    m_tail.lazySet(tail + 1);
+  }
+
+  /**
+   * Drains every sample taken since the last drain. Must only be called from one thread.
+   *
+   * @param consumer receives each sample, oldest first
+   * @return the number of samples drained
+   */
+  public int drain(SampleConsumer consumer) {
+    long head = m_head.get();
+    long tail = m_tail.get();
+    int drained = 0;
+    while (head < tail) {
+      int slot = (int) head & m_mask;
+      for (int i = 0; i < m_moduleCount; i++) {
+        m_drivePositionScratch[i] = m_drivePositions[slot * m_moduleCount + i];
+        m_steerAngleScratch[i] = m_steerAngles[slot * m_moduleCount + i];
+      }
+      consumer.accept(m_timestamps[slot], m_yaws[slot], m_drivePositionScratch, m_steerAngleScratch);
+      head++;
+      drained++;
+    }
+    // free the slots for the producer
+    m_head.lazySet(head);
+    return drained;
+  }
+
+  /**
+   * Throws away every sample in the buffer, e.g. after the odometry is reset. Must be called from the drain thread.
+   */
+  public void clear() {
+    m_head.lazySet(m_tail.get());
+  }
+
+  /**
+   * @return the number of samples waiting to be drained
+   */
+  public int size() {
+    return (int) (m_tail.get() - m_head.get());
+  }
+
+  /**
+   * @return the total number of samples dropped because the buffer was full
+   */
+  public long getDroppedCount() {
+    return m_droppedCount;
+  }
+}
@@ -1,8 +1,15 @@
 package frc.robot.util;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.pathplanner.lib.PathConstraints;
 import com.pathplanner.lib.PathPlanner;
@@ -11,57 +18,173 @@ import com.pathplanner.lib.PathPlannerTrajectory;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
 import frc.robot.constants.AutoConstants;
+import frc.robot.constants.Constants;
 
 /**
  * Utility class for loading paths using pathplanner.
+ *
+ * <p> Paths are generated in parallel on a small thread pool. With {@link AutoConstants#kLazyPathLoading}, loading
+ * only starts at boot and {@link #getPathGroup(String)} waits for a path if it isn't ready yet. The time each path
+ * took is logged under PathGroupLoader/ once every path is loaded, see {@link #publishTimings()}.
+ *
+ * <p> Path groups that were generated at build time are read from {@link AutoConstants#kPrecompiledTrajectoryFile}
+ * instead, unless their .path file changed since, see {@link PrecompiledTrajectories}.
  */
 public class PathGroupLoader {
 
-  private static HashMap<String, List<PathPlannerTrajectory>> pathGroups = new HashMap<>();
+  /**
+   * A path group being generated, and how long it took.
+   */
+  private static class LoadingPathGroup {
+    final CompletableFuture<List<PathPlannerTrajectory>> future;
+    volatile double loadMs = 0;
+    volatile long endTime = 0;
+    volatile boolean precompiled = false;
+
+    LoadingPathGroup(String name, File file, PrecompiledTrajectories precompiledTrajectories, ExecutorService executor) {
+      future = CompletableFuture.supplyAsync(() -> {
+        long startTime = System.nanoTime();
+        List<PathPlannerTrajectory> pathGroup = null;
+        if (precompiledTrajectories != null) {
+          pathGroup = precompiledTrajectories.getPathGroup(name, PrecompiledTrajectories.checksum(file.toPath()));
+          precompiled = pathGroup != null;
+        }
+        if (pathGroup == null) {
+          pathGroup = PathPlanner.loadPathGroup(
+            name, new PathConstraints(AutoConstants.kMaxAutoSpeed, AutoConstants.kMaxAutoAccel));
+        }
+        endTime = System.nanoTime();
+        loadMs = (endTime - startTime) / 1e6;
+        return pathGroup;
+      }, executor);
+    }
+  }
+
+  private static HashMap<String, LoadingPathGroup> pathGroups = new HashMap<>();
+
+  private static ExecutorService executor;
+  private static long loadStartTime = 0;
+  // how long the main thread spent waiting for paths that were not ready yet
+  private static double waitMs = 0;
+  private static boolean timingsPublished = true;
 
   /**
-   * Loads all of the paths in the trajectory directory (specified in the constants). 
-   * These paths are loaded and stored so that they do not take time while the robot is running 
-   * and can be accessed with {@link #getPathGroup() PathGroupLoader.getPathGroup()}
+   * Loads all of the paths in the trajectory directory (specified in the constants).
+   * These paths are loaded and stored so that they do not take time while the robot is running
+   * and can be accessed with {@link #getPathGroup(String) PathGroupLoader.getPathGroup()}
+   *
+   * <p> The paths are generated in parallel. Unless {@link AutoConstants#kLazyPathLoading} is set, this waits for
+   * all of them.
    */
   public static void loadPathGroups() {
-    double totalTime = 0;
     File[] directoryListing = Filesystem.getDeployDirectory().toPath().resolve(AutoConstants.kTrajectoryDirectory).toFile().listFiles();
-    if (directoryListing != null) {
-      for (File file : directoryListing) {
-        if (file.isFile() && file.getName().indexOf(".") != -1) {
-          long startTime = System.nanoTime();
-          String name = file.getName().substring(0, file.getName().indexOf("."));
-          pathGroups.put(name, PathPlanner.loadPathGroup(name, new PathConstraints(AutoConstants.kMaxAutoSpeed, AutoConstants.kMaxAutoAccel)));
-          double time = (System.nanoTime() - startTime) / 1000000.0;
-          totalTime += time;
-          System.out.println("Processed file: " + file.getName() + ", took " + time + " milliseconds.");
-        }
-      }
-    } else {
+    if (directoryListing == null) {
       System.out.println("Error processing file");
       DriverStation.reportWarning(
         "Issue with finding path files. Paths will not be loaded.",
         true
       );
+      return;
+    }
+
+    if (executor == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(AutoConstants.kPathLoadingThreads, (runnable) -> {
+        Thread thread = new Thread(runnable, "Path loader " + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        // the main loop is already running in lazy mode
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      });
+    }
+
+    loadStartTime = System.nanoTime();
+    waitMs = 0;
+    timingsPublished = false;
+    PrecompiledTrajectories precompiledTrajectories = PrecompiledTrajectories.open(
+      Filesystem.getDeployDirectory().toPath().resolve(AutoConstants.kPrecompiledTrajectoryFile),
+      AutoConstants.kMaxAutoSpeed, AutoConstants.kMaxAutoAccel);
+    for (File file : directoryListing) {
+      if (file.isFile() && file.getName().indexOf(".") != -1) {
+        String name = file.getName().substring(0, file.getName().indexOf("."));
+        pathGroups.put(name, new LoadingPathGroup(name, file, precompiledTrajectories, executor));
+      }
+    }
+
+    if (!AutoConstants.kLazyPathLoading) {
+      for (String name : new ArrayList<>(pathGroups.keySet())) {
+        getPathGroup(name);
+      }
+      publishTimings();
     }
-    System.out.println("File processing took a total of " + totalTime + " milliseconds");
   }
 
   /**
-   * 
-   * Gets a path that has already been loaded with {@link #loadPathGroups()}. The path group is a list 
-   * of trajectories that path planner can run.
-   * 
+   *
+   * Gets a path that has already been loaded with {@link #loadPathGroups()}. The path group is a list
+   * of trajectories that path planner can run. If the path is still being generated, this waits for it.
+   *
    * @param pathGroupName the name of the file, without any extensions. This should be the same exact name that is displayed in pathplanner
    * @return a list of trajectories that path planner can run.
    */
   public static List<PathPlannerTrajectory> getPathGroup(String pathGroupName) {
-    if (pathGroups.get(pathGroupName) == null) {
+    LoadingPathGroup pathGroup = pathGroups.get(pathGroupName);
+    if (pathGroup == null) {
+      System.out.println("Error retrieving " + pathGroupName + " path!");
+      return null;
+    }
+
+    if (!pathGroup.future.isDone()) {
+      long startTime = System.nanoTime();
+      try {
+        pathGroup.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // reported below
+      }
+      waitMs += (System.nanoTime() - startTime) / 1e6;
+    }
+
+    if (!pathGroup.future.isDone() || pathGroup.future.isCompletedExceptionally()) {
       System.out.println("Error retrieving " + pathGroupName + " path!");
+      return null;
     }
-    return pathGroups.get(pathGroupName);
+    return pathGroup.future.join();
   }
 
+  /**
+   * Logs how long each path took to generate, how long loading took in total, and how long the main thread waited
+   * for paths. Does nothing until every path is loaded, and only logs once, so it can be called every loop.
+   */
+  public static void publishTimings() {
+    if (timingsPublished) return;
+    for (LoadingPathGroup pathGroup : pathGroups.values()) {
+      if (!pathGroup.future.isDone()) return;
+    }
+    timingsPublished = true;
+
+    long endTime = loadStartTime;
+    double sumMs = 0;
+    int precompiledCount = 0;
+    for (Map.Entry<String, LoadingPathGroup> entry : pathGroups.entrySet()) {
+      endTime = Math.max(endTime, entry.getValue().endTime);
+      sumMs += entry.getValue().loadMs;
+      if (entry.getValue().precompiled) precompiledCount++;
+      if (Constants.kLogging) {
+        LogManager.addDouble(LogManager.registerDouble("PathGroupLoader/" + entry.getKey() + " (ms)"),
+          entry.getValue().loadMs);
+      }
+    }
+    double totalMs = (endTime - loadStartTime) / 1e6;
+    if (Constants.kLogging) {
+      LogManager.addDouble(LogManager.registerDouble("PathGroupLoader/total (ms)"), totalMs);
+      LogManager.addDouble(LogManager.registerDouble("PathGroupLoader/generation (ms)"), sumMs);
+      LogManager.addDouble(LogManager.registerDouble("PathGroupLoader/main thread wait (ms)"), waitMs);
+      LogManager.addInt(LogManager.registerInt("PathGroupLoader/precompiled groups"), precompiledCount);
+    }
 
-}
\ No newline at end of file
+    executor.shutdown();
+    executor = null;
+  }
+}
@@ -0,0 +1,213 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.subsystems.Drivetrain;
+
+/**
+ * Replays a match's log through the pose estimator, the same way {@link Drivetrain} runs it on the robot, so a change
+ * to the estimator can be tried on real matches. Doesn't use the HAL or any hardware, and a whole match replays in
+ * well under a second.
+ *
+ * <p> The drivetrain logs everything it gives the pose estimator, with the time it was measured, as double arrays:
+ * odometry samples to {@link #kSampleLog}, vision poses to {@link #kVisionLog}, and resets to {@link #kResetLog}. They
+ * are replayed in the order they were logged, which is the order the estimator got them. The replayed pose is compared
+ * with the pose the robot logged to {@link #kPoseLog} at the same point.
+ *
+ * <p> If the background writer dropped samples, see {@link LogManager#getDroppedCount()}, the replay won't match.
+ */
+public class PoseEstimatorReplay {
+
+  public static final String kSampleLog = "Odometry/Samples";
+  public static final String kVisionLog = "Odometry/Vision";
+  public static final String kResetLog = "Odometry/Reset";
+  public static final String kPoseLog = "Swerve/Pose2d";
+
+  /** timestamp (s), yaw (deg), then the distance (m) and angle (rad) of each module. */
+  public static final int kSampleLength = 10;
+  /** timestamp (s), x (m), y (m), heading (rad), then the standard deviations of x, y, and heading. */
+  public static final int kVisionLength = 7;
+  /** yaw (deg), the distance (m) and angle (rad) of each module, then x (m), y (m), heading (rad). */
+  public static final int kResetLength = 12;
+
+  /**
+   * What happened in a replay.
+   */
+  public static class Result {
+    public int samples = 0;
+    public int visionMeasurements = 0;
+    public int resets = 0;
+    /** The last pose the replay estimated, and the last pose the robot logged. */
+    public Pose2d finalPose = new Pose2d();
+    public Pose2d loggedFinalPose = new Pose2d();
+    /** The farthest the replayed pose was from the logged pose, in meters. */
+    public double maxPoseDifference = 0;
+    public double wallSeconds = 0;
+  }
+
+  // reused while replaying, the estimator copies the positions
+  private static final SwerveModulePosition[] positions = {
+    new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition()
+  };
+
+  /**
+   * @param args the .wpilog file to replay, then optionally a CSV file to write the replayed and logged poses to
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      System.err.println("Usage: PoseEstimatorReplay <log file> [pose CSV file]");
+      System.exit(1);
+    }
+    PrintWriter csv = null;
+    if (args.length > 1) {
+      csv = new PrintWriter(Files.newBufferedWriter(Path.of(args[1])));
+      csv.println("timestamp (s),x (m),y (m),heading (rad),logged x (m),logged y (m),logged heading (rad)");
+    }
+    Result result = replay(args[0], csv);
+    if (csv != null) csv.close();
+
+    System.out.println(String.format(
+      "Replayed %d odometry samples, %d vision poses, and %d resets in %.3f s", result.samples,
+      result.visionMeasurements, result.resets, result.wallSeconds));
+    System.out.println(String.format("Final pose (%.3f, %.3f, %.1f deg), logged (%.3f, %.3f, %.1f deg)",
+      result.finalPose.getX(), result.finalPose.getY(), result.finalPose.getRotation().getDegrees(),
+      result.loggedFinalPose.getX(), result.loggedFinalPose.getY(), result.loggedFinalPose.getRotation().getDegrees()));
+    System.out.println(String.format("At most %.4f m from the logged pose", result.maxPoseDifference));
+  }
+
+  /**
+   * Replays a log through the pose estimator from {@link Drivetrain#createPoseEstimator}.
+   *
+   * @param filename the .wpilog file
+   * @param csv where to write the replayed and logged poses each time the robot logged its pose, or null
+   * @return what happened
+   * @throws IOException if the file can't be read or isn't a log
+   */
+  public static Result replay(String filename, PrintWriter csv) throws IOException {
+    long startTime = System.nanoTime();
+    DataLogReader reader = new DataLogReader(filename);
+    if (!reader.isValid()) throw new IOException(filename + " is not a data log");
+
+    Result result = new Result();
+    // the log's ids of each entry, they're only known from the start records
+    int sampleEntry = -1, visionEntry = -1, resetEntry = -1, poseEntry = -1;
+    SwerveDrivePoseEstimator poseEstimator = null;
+    double lastTimestamp = 0;
+
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (start.name.equals(kSampleLog)) sampleEntry = start.entry;
+        else if (start.name.equals(kVisionLog)) visionEntry = start.entry;
+        else if (start.name.equals(kResetLog)) resetEntry = start.entry;
+        else if (start.name.equals(kPoseLog)) poseEntry = start.entry;
+        continue;
+      }
+      if (record.isControl()) continue;
+
+      int entry = record.getEntry();
+      if (entry == resetEntry) {
+        double[] values = record.getDoubleArray();
+        Rotation2d yaw = Rotation2d.fromDegrees(values[0]);
+        unpackPositions(values, 1);
+        Pose2d pose = new Pose2d(values[9], values[10], new Rotation2d(values[11]));
+        if (poseEstimator == null) {
+          poseEstimator = Drivetrain.createPoseEstimator(yaw, positions, pose);
+        } else {
+          poseEstimator.resetPosition(yaw, positions, pose);
+        }
+        result.resets++;
+      } else if (poseEstimator == null) {
+        // nothing can be replayed before the estimator is created
+        continue;
+      } else if (entry == sampleEntry) {
+        double[] values = record.getDoubleArray();
+        unpackPositions(values, 2);
+        poseEstimator.updateWithTime(values[0], Rotation2d.fromDegrees(values[1]), positions);
+        lastTimestamp = values[0];
+        result.samples++;
+      } else if (entry == visionEntry) {
+        double[] values = record.getDoubleArray();
+        poseEstimator.addVisionMeasurement(new Pose2d(values[1], values[2], new Rotation2d(values[3])), values[0],
+          VecBuilder.fill(values[4], values[5], values[6]));
+        result.visionMeasurements++;
+      } else if (entry == poseEntry) {
+        double[] values = record.getDoubleArray();
+        Pose2d pose = poseEstimator.getEstimatedPosition();
+        result.loggedFinalPose = new Pose2d(values[0], values[1], new Rotation2d(values[2]));
+        result.maxPoseDifference = Math.max(result.maxPoseDifference,
+          pose.getTranslation().getDistance(result.loggedFinalPose.getTranslation()));
+        if (csv != null) {
+          csv.println(String.format("%f,%f,%f,%f,%f,%f,%f", lastTimestamp, pose.getX(), pose.getY(),
+            pose.getRotation().getRadians(), values[0], values[1], values[2]));
+        }
+      }
+    }
+
+    if (poseEstimator != null) result.finalPose = poseEstimator.getEstimatedPosition();
+    result.wallSeconds = (System.nanoTime() - startTime) / 1e9;
+    return result;
+  }
+
+  private static void unpackPositions(double[] values, int offset) {
+    for (int i = 0; i < 4; i++) {
+      positions[i].distanceMeters = values[offset + 2 * i];
+      positions[i].angle = new Rotation2d(values[offset + 2 * i + 1]);
+    }
+  }
+
+  /**
+   * Fills in the values logged for an odometry sample, see {@link #kSampleLength}.
+   */
+  public static void packSample(double[] values, double timestampSeconds, double yawDegrees,
+      SwerveModulePosition[] modulePositions) {
+    values[0] = timestampSeconds;
+    values[1] = yawDegrees;
+    packPositions(values, 2, modulePositions);
+  }
+
+  /**
+   * Fills in the values logged for a vision pose, see {@link #kVisionLength}.
+   */
+  public static void packVision(double[] values, Pose2d pose, double timestampSeconds, Matrix<N3, N1> stdDevs) {
+    values[0] = timestampSeconds;
+    values[1] = pose.getX();
+    values[2] = pose.getY();
+    values[3] = pose.getRotation().getRadians();
+    values[4] = stdDevs.get(0, 0);
+    values[5] = stdDevs.get(1, 0);
+    values[6] = stdDevs.get(2, 0);
+  }
+
+  /**
+   * Fills in the values logged for a reset, see {@link #kResetLength}.
+   */
+  public static void packReset(double[] values, double yawDegrees, SwerveModulePosition[] modulePositions,
+      Pose2d pose) {
+    values[0] = yawDegrees;
+    packPositions(values, 1, modulePositions);
+    values[9] = pose.getX();
+    values[10] = pose.getY();
+    values[11] = pose.getRotation().getRadians();
+  }
+
+  private static void packPositions(double[] values, int offset, SwerveModulePosition[] modulePositions) {
+    for (int i = 0; i < 4; i++) {
+      values[offset + 2 * i] = modulePositions[i].distanceMeters;
+      values[offset + 2 * i + 1] = modulePositions[i].angle.getRadians();
+    }
+  }
+}
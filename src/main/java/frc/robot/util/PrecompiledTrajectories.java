@@ -0,0 +1,220 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Reads and writes path groups that were generated when deploying, so the robot does not have to generate them at
+ * boot. The file is written by the precompileTrajectories Gradle task, see {@link TrajectoryPrecompiler}.
+ *
+ * <p> The file starts with a header holding the format version and the constraints the paths were generated with.
+ * Each path group then has its name, the CRC32 of the .path file it was generated from, and the sampled states of
+ * each of its paths. A group is stale if its .path file changed since the build, and the whole file is ignored if the
+ * version or constraints don't match.
+ *
+ * <p> Only the states are stored. Groups with event markers or named stop events are not precompiled.
+ */
+public class PrecompiledTrajectories {
+
+  private static final int kMagic = 0x50505452; // "PPTR"
+  /** Change this when the format changes, so old files are ignored. */
+  private static final int kVersion = 1;
+
+  // time as a double, then x, y, heading, velocity, acceleration, curvature, angular velocity,
+  // holonomic rotation, and holonomic angular velocity as floats
+  private static final int kStateBytes = Double.BYTES + 9 * Float.BYTES;
+
+  private final ByteBuffer m_buffer;
+  // where each group's paths start in the buffer, and the CRC32 of the .path file they came from
+  private final Map<String, Integer> m_groupOffsets = new HashMap<>();
+  private final Map<String, Long> m_groupChecksums = new HashMap<>();
+
+  private PrecompiledTrajectories(ByteBuffer buffer) {
+    m_buffer = buffer;
+  }
+
+  /**
+   * Memory-maps a precompiled trajectory file and reads its index.
+   *
+   * @param file the file
+   * @param maxSpeed the max speed the paths should have been generated with, in m/s
+   * @param maxAccel the max acceleration the paths should have been generated with, in m/s^2
+   * @return the precompiled paths, or null if the file is missing, from another version, or used other constraints
+   */
+  public static PrecompiledTrajectories open(Path file, double maxSpeed, double maxAccel) {
+    if (!Files.isRegularFile(file)) return null;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), maxSpeed, maxAccel);
+    } catch (IOException | RuntimeException e) {
+      DriverStation.reportWarning("Could not read precompiled trajectories: " + e, false);
+      return null;
+    }
+  }
+
+  /**
+   * Reads the index of precompiled paths. Package-private for testing.
+   */
+  static PrecompiledTrajectories read(ByteBuffer buffer, double maxSpeed, double maxAccel) {
+    if (buffer.getInt() != kMagic || buffer.getInt() != kVersion) return null;
+    if (buffer.getDouble() != maxSpeed || buffer.getDouble() != maxAccel) return null;
+
+    PrecompiledTrajectories trajectories = new PrecompiledTrajectories(buffer);
+    int groupCount = buffer.getInt();
+    for (int i = 0; i < groupCount; i++) {
+      byte[] name = new byte[buffer.getShort()];
+      buffer.get(name);
+      String groupName = new String(name, StandardCharsets.UTF_8);
+      trajectories.m_groupChecksums.put(groupName, buffer.getLong());
+      trajectories.m_groupOffsets.put(groupName, buffer.position());
+
+      // skip over the paths
+      int pathCount = buffer.getInt();
+      for (int j = 0; j < pathCount; j++) {
+        buffer.get(); // from GUI
+        int stateCount = buffer.getInt();
+        buffer.position(buffer.position() + stateCount * kStateBytes);
+      }
+    }
+    return trajectories;
+  }
+
+  /**
+   * Decodes a path group. Safe to call from several threads at once.
+   *
+   * @param name the name of the path group
+   * @param checksum the CRC32 of the group's .path file now, see {@link #checksum(Path)}
+   * @return the paths in the group, or null if the group was not precompiled or its .path file changed
+   */
+  public List<PathPlannerTrajectory> getPathGroup(String name, long checksum) {
+    Integer offset = m_groupOffsets.get(name);
+    if (offset == null || m_groupChecksums.get(name) != checksum) return null;
+
+    // each caller reads with its own position
+    ByteBuffer buffer = m_buffer.duplicate();
+    buffer.position(offset);
+    int pathCount = buffer.getInt();
+    List<PathPlannerTrajectory> pathGroup = new ArrayList<>(pathCount);
+    for (int i = 0; i < pathCount; i++) {
+      boolean fromGUI = buffer.get() != 0;
+      int stateCount = buffer.getInt();
+      List<Trajectory.State> states = new ArrayList<>(stateCount);
+      for (int j = 0; j < stateCount; j++) {
+        PathPlannerState state = new PathPlannerState();
+        state.timeSeconds = buffer.getDouble();
+        double x = buffer.getFloat();
+        double y = buffer.getFloat();
+        state.poseMeters = new Pose2d(x, y, new Rotation2d(buffer.getFloat()));
+        state.velocityMetersPerSecond = buffer.getFloat();
+        state.accelerationMetersPerSecondSq = buffer.getFloat();
+        state.curvatureRadPerMeter = buffer.getFloat();
+        state.angularVelocityRadPerSec = buffer.getFloat();
+        state.holonomicRotation = new Rotation2d(buffer.getFloat());
+        state.holonomicAngularVelocityRadPerSec = buffer.getFloat();
+        states.add(state);
+      }
+      pathGroup.add(new PathPlannerTrajectory(states, new ArrayList<>(), new StopEvent(), new StopEvent(), fromGUI));
+    }
+    return pathGroup;
+  }
+
+  /**
+   * @return true if the group only has states, so nothing is lost by precompiling it
+   */
+  public static boolean canPrecompile(List<PathPlannerTrajectory> pathGroup) {
+    for (PathPlannerTrajectory path : pathGroup) {
+      if (!path.getMarkers().isEmpty()
+          || !path.getStartStopEvent().names.isEmpty()
+          || !path.getEndStopEvent().names.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes path groups in the precompiled format.
+   *
+   * @param pathGroups the path groups by name
+   * @param checksums the CRC32 of each group's .path file by name
+   * @param maxSpeed the max speed the paths were generated with, in m/s
+   * @param maxAccel the max acceleration the paths were generated with, in m/s^2
+   * @return the file contents
+   */
+  public static ByteBuffer write(Map<String, List<PathPlannerTrajectory>> pathGroups, Map<String, Long> checksums,
+      double maxSpeed, double maxAccel) {
+    int size = 2 * Integer.BYTES + 2 * Double.BYTES + Integer.BYTES;
+    for (Map.Entry<String, List<PathPlannerTrajectory>> entry : pathGroups.entrySet()) {
+      size += Short.BYTES + entry.getKey().getBytes(StandardCharsets.UTF_8).length + Long.BYTES + Integer.BYTES;
+      for (PathPlannerTrajectory path : entry.getValue()) {
+        size += 1 + Integer.BYTES + path.getStates().size() * kStateBytes;
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(kMagic);
+    buffer.putInt(kVersion);
+    buffer.putDouble(maxSpeed);
+    buffer.putDouble(maxAccel);
+    buffer.putInt(pathGroups.size());
+    for (Map.Entry<String, List<PathPlannerTrajectory>> entry : pathGroups.entrySet()) {
+      byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+      buffer.putShort((short) name.length);
+      buffer.put(name);
+      buffer.putLong(checksums.get(entry.getKey()));
+      buffer.putInt(entry.getValue().size());
+      for (PathPlannerTrajectory path : entry.getValue()) {
+        buffer.put((byte) (path.fromGUI ? 1 : 0));
+        buffer.putInt(path.getStates().size());
+        for (Trajectory.State trajectoryState : path.getStates()) {
+          PathPlannerState state = (PathPlannerState) trajectoryState;
+          buffer.putDouble(state.timeSeconds);
+          buffer.putFloat((float) state.poseMeters.getX());
+          buffer.putFloat((float) state.poseMeters.getY());
+          buffer.putFloat((float) state.poseMeters.getRotation().getRadians());
+          buffer.putFloat((float) state.velocityMetersPerSecond);
+          buffer.putFloat((float) state.accelerationMetersPerSecondSq);
+          buffer.putFloat((float) state.curvatureRadPerMeter);
+          buffer.putFloat((float) state.angularVelocityRadPerSec);
+          buffer.putFloat((float) state.holonomicRotation.getRadians());
+          buffer.putFloat((float) state.holonomicAngularVelocityRadPerSec);
+        }
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * @param file a .path file
+   * @return the CRC32 of the file, or -1 if it can't be read
+   */
+  public static long checksum(Path file) {
+    try {
+      CRC32 crc = new CRC32();
+      crc.update(Files.readAllBytes(file));
+      return crc.getValue();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import frc.robot.constants.Constants;
+
+/**
+ * The battery of the simulated robot. Every simulated mechanism registers once and sets the supply current it drew
+ * every loop, and {@link #update()} sets the RoboRIO's input voltage from the loaded battery voltage. The mechanisms
+ * read it with {@link RobotController#getBatteryVoltage()} on the next loop, so everything slows down together when
+ * the robot draws a lot of current, like on the field.
+ *
+ * <p> Only used in simulation.
+ */
+public class SimBattery {
+
+  /**
+   * How fast the voltage follows the current drawn, in seconds. The mechanisms draw less as the voltage sags, and only
+   * see the voltage a loop later, so if it followed within a loop it would swing between high and low every loop.
+   */
+  private static final double kVoltageTimeConstant = 0.04;
+
+  private static double[] currents = new double[0];
+  // log handles of each mechanism's current
+  private static int[] currentLogs = new int[0];
+  private static final int voltageLog = LogManager.registerDouble("SimBattery/voltage");
+  private static final int totalCurrentLog = LogManager.registerDouble("SimBattery/totalCurrent");
+
+  private static double voltage = BatterySim.calculateDefaultBatteryLoadedVoltage();
+  private static double totalCurrent = 0;
+
+  // for reporting, since the last resetStats()
+  private static double minVoltage = voltage;
+  private static double brownoutSeconds = 0;
+
+  /**
+   * Registers a mechanism that draws current from the battery.
+   * @param name the name of the mechanism, its current is logged under SimBattery/
+   * @return the handle to set its current with
+   */
+  public static int register(String name) {
+    int handle = currents.length;
+    currents = Arrays.copyOf(currents, handle + 1);
+    currentLogs = Arrays.copyOf(currentLogs, handle + 1);
+    currentLogs[handle] = LogManager.registerDouble("SimBattery/" + name);
+    return handle;
+  }
+
+  /**
+   * Sets the current a mechanism drew from the battery this loop. It is used until it is set again.
+   * @param handle the handle from {@link #register(String)}
+   * @param amps the supply current, in amps
+   */
+  public static void setCurrent(int handle, double amps) {
+    currents[handle] = Math.abs(amps);
+  }
+
+  /**
+   * Sets the RoboRIO's input voltage from the current every mechanism drew. Call this once every loop, after the
+   * mechanisms are simulated.
+   */
+  public static void update() {
+    totalCurrent = 0;
+    for (double current : currents) {
+      totalCurrent += current;
+    }
+    double loadedVoltage = BatterySim.calculateDefaultBatteryLoadedVoltage(totalCurrent);
+    voltage += (loadedVoltage - voltage) * Constants.kLoopTime / (kVoltageTimeConstant + Constants.kLoopTime);
+
+    boolean brownedOut = voltage < RobotController.getBrownoutVoltage();
+    RoboRioSim.setVInVoltage(voltage);
+    RoboRioSim.setVInCurrent(totalCurrent);
+    RoboRioSim.setBrownedOut(brownedOut);
+
+    minVoltage = Math.min(minVoltage, voltage);
+    if (brownedOut) brownoutSeconds += Constants.kLoopTime;
+
+    if (Constants.kLogging) {
+      LogManager.addDouble(voltageLog, voltage);
+      LogManager.addDouble(totalCurrentLog, totalCurrent);
+      for (int i = 0; i < currents.length; i++) {
+        LogManager.addDouble(currentLogs[i], currents[i]);
+      }
+    }
+  }
+
+  /**
+   * @return the battery voltage from the last update
+   */
+  public static double getVoltage() {
+    return voltage;
+  }
+
+  /**
+   * @return the total current drawn from the battery in the last update, in amps
+   */
+  public static double getTotalCurrent() {
+    return totalCurrent;
+  }
+
+  /**
+   * @return the lowest battery voltage since the last {@link #resetStats()}
+   */
+  public static double getMinVoltage() {
+    return minVoltage;
+  }
+
+  /**
+   * @return how long the RoboRIO was browned out since the last {@link #resetStats()}, in seconds
+   */
+  public static double getBrownoutSeconds() {
+    return brownoutSeconds;
+  }
+
+  /**
+   * Starts measuring the lowest voltage and the brownout time again.
+   */
+  public static void resetStats() {
+    minVoltage = voltage;
+    brownoutSeconds = 0;
+  }
+
+  /**
+   * Sets every mechanism's current to 0 and the voltage back to the unloaded voltage. For tests.
+   */
+  static void reset() {
+    Arrays.fill(currents, 0);
+    totalCurrent = 0;
+    voltage = BatterySim.calculateDefaultBatteryLoadedVoltage();
+    resetStats();
+  }
+}
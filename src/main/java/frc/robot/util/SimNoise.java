@@ -0,0 +1,116 @@
+package frc.robot.util;
+
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * Random errors added to the simulated robot, so an auto routine can be run many times to see how it does when the
+ * robot isn't placed exactly, the wheels slip, vision is noisy, and the mechanisms are slower or faster than the
+ * model. Every error comes from one seeded generator, so a run can be repeated with the same seed.
+ *
+ * <p> Off by default, then every error is 0 and the simulation is the same as without it. Must be enabled before the
+ * robot is constructed, since the mechanisms take their errors when they build their simulations.
+ *
+ * <p> Only used in simulation, see {@link frc.robot.AutoSweep}.
+ */
+public class SimNoise {
+
+  /** Standard deviation of where the robot is placed, in meters, in each direction. */
+  private static final double kStartingTranslationStdDev = 0.05;
+  /** Standard deviation of the heading the robot is placed at, in radians. */
+  private static final double kStartingHeadingStdDev = Units.degreesToRadians(2);
+  /** Standard deviation of how much farther each wheel's encoder says it went than it did, as a fraction. */
+  private static final double kWheelSlipStdDev = 0.02;
+  /** How much the friction between the wheels and the carpet can be off, as a fraction, uniform. */
+  private static final double kFrictionVariation = 0.15;
+  /** Standard deviation of the vision pose, in meters in each direction, and in radians. */
+  private static final double kVisionTranslationStdDev = 0.1;
+  private static final double kVisionHeadingStdDev = Units.degreesToRadians(3);
+  /** How often the simulated cameras see a tag, in seconds. */
+  private static final double kVisionPeriod = 0.1;
+  /** How much the load on each mechanism can be off, as a fraction, uniform. More load moves it slower. */
+  private static final double kLoadVariation = 0.2;
+
+  private static Random random = null;
+  private static Transform2d startingPoseError = new Transform2d();
+
+  /**
+   * Turns on the errors.
+   * @param seed the seed of the generator, the same seed gives the same errors
+   */
+  public static void enable(long seed) {
+    random = new Random(seed);
+    startingPoseError = new Transform2d(
+      new Translation2d(random.nextGaussian() * kStartingTranslationStdDev,
+        random.nextGaussian() * kStartingTranslationStdDev),
+      new Rotation2d(random.nextGaussian() * kStartingHeadingStdDev));
+  }
+
+  /**
+   * @return if the errors are on
+   */
+  public static boolean isEnabled() {
+    return random != null;
+  }
+
+  /**
+   * @return how far the simulated robot is placed from where odometry is first reset to in a routine, in the robot's
+   *     frame. Only applied once, later resets don't move the simulated robot
+   */
+  public static Transform2d getStartingPoseError() {
+    return startingPoseError;
+  }
+
+  /**
+   * @return a new scale for the distance a wheel's encoder measures, 1 when off
+   */
+  public static double nextWheelSlip() {
+    return random == null ? 1 : 1 + random.nextGaussian() * kWheelSlipStdDev;
+  }
+
+  /**
+   * @return a new scale for the friction between the wheels and the carpet, 1 when off
+   */
+  public static double nextFrictionScale() {
+    return random == null ? 1 : 1 + (2 * random.nextDouble() - 1) * kFrictionVariation;
+  }
+
+  /**
+   * @return a new scale for a mechanism's mass or moment of inertia, 1 when off
+   */
+  public static double nextLoadScale() {
+    return random == null ? 1 : 1 + (2 * random.nextDouble() - 1) * kLoadVariation;
+  }
+
+  /**
+   * @return how often the simulated cameras see a tag, in seconds
+   */
+  public static double getVisionPeriod() {
+    return kVisionPeriod;
+  }
+
+  /**
+   * @param pose where the robot really is
+   * @return the pose the simulated cameras estimate, or the pose itself when off
+   */
+  public static Pose2d addVisionNoise(Pose2d pose) {
+    if (random == null) return pose;
+    return new Pose2d(
+      pose.getX() + random.nextGaussian() * kVisionTranslationStdDev,
+      pose.getY() + random.nextGaussian() * kVisionTranslationStdDev,
+      pose.getRotation().plus(new Rotation2d(random.nextGaussian() * kVisionHeadingStdDev)));
+  }
+
+  /**
+   * Turns off the errors. For tests.
+   */
+  static void disable() {
+    random = null;
+    startingPoseError = new Transform2d();
+  }
+}
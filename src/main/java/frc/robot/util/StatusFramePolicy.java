@@ -0,0 +1,226 @@
+package frc.robot.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.ctre.phoenix.sensors.CANCoder;
+import com.ctre.phoenix.sensors.CANCoderStatusFrame;
+
+import frc.robot.constants.Constants;
+import frc.robot.constants.swerve.DriveConstants;
+
+/**
+ * Utility class that sets how often each Talon FX and CANcoder sends its status frames.
+ *
+ * <p> By default every device streams every status frame, most of them far faster than the 20 ms loop reads them.
+ * Each {@link Role} lists the period of every frame for one kind of device, so frames that are read every loop come
+ * at the loop rate, and frames that are never read are slowed down as far as they go. Apply the role right after the
+ * device is configured, see {@link #apply(TalonFX, String, Role)}.
+ *
+ * <p> The periods of every device applied are added up per CAN bus, and {@link #reportBusLoad()} prints and logs the
+ * estimated load on each bus. Only the devices applied here are counted, so the real load is a bit higher.
+ *
+ * <p> Status frame periods are not saved on the device, so they go back to the defaults if it loses power. Devices
+ * can be applied from the device configuration threads, so the bus totals are synchronized.
+ */
+public class StatusFramePolicy {
+
+  /** The slowest period a status frame can be set to, in milliseconds. */
+  public static final int kUnusedPeriodMs = 255;
+
+  /** Roughly how many bits an extended CAN frame with 8 data bytes takes, including stuffing. */
+  private static final double kBitsPerFrame = 128;
+  /** Bits per second on both the rio bus and the CANivore. */
+  private static final double kBitRate = 1_000_000;
+
+  // The Talon FX frames set by each role, in the order of the role's periods
+  private static final StatusFrameEnhanced[] kTalonFrames = {
+    StatusFrameEnhanced.Status_1_General, // applied output, faults
+    StatusFrameEnhanced.Status_2_Feedback0, // selected sensor position and velocity
+    StatusFrameEnhanced.Status_Brushless_Current, // stator and supply current
+    StatusFrameEnhanced.Status_4_AinTempVbat, // temperature and bus voltage
+    StatusFrameEnhanced.Status_3_Quadrature,
+    StatusFrameEnhanced.Status_8_PulseWidth,
+    StatusFrameEnhanced.Status_10_Targets,
+    StatusFrameEnhanced.Status_12_Feedback1,
+    StatusFrameEnhanced.Status_13_Base_PIDF0,
+    StatusFrameEnhanced.Status_14_Turn_PIDF1,
+  };
+  // The defaults after boot. The slow frames are only documented as "over 100 ms", so 160 ms is an estimate.
+  private static final int[] kTalonDefaultPeriodsMs = {10, 20, 50, 160, 160, 160, 160, 160, 160, 160};
+
+  // The CANcoder frames set by the CANcoder role
+  private static final CANCoderStatusFrame[] kCANcoderFrames = {
+    CANCoderStatusFrame.SensorData, // position, absolute position, velocity
+    CANCoderStatusFrame.VbatAndFaults,
+  };
+  private static final int[] kCANcoderDefaultPeriodsMs = {10, 100};
+
+  // The swerve encoders are sent as fast as the odometry thread samples them
+  private static final int kSwerveFeedbackPeriodMs = DriveConstants.kUseOdometryThread
+      ? DriveConstants.kOdometryStatusFramePeriodMs
+      : 20;
+
+  /**
+   * Which frames a kind of device needs, and how often.
+   */
+  public enum Role {
+    // Talon FX roles: general, feedback, current, temperature and battery. The rest are not read.
+    SWERVE_DRIVE(false, 20, kSwerveFeedbackPeriodMs, 50, 250),
+    SWERVE_STEER(false, 20, kSwerveFeedbackPeriodMs, 50, 250),
+    // the elevator uses its position and velocity every loop
+    ELEVATOR(false, 20, 20, 100, 250),
+    // the wrist uses the absolute encoder on the rio, not the motor's encoder
+    WRIST(false, 20, kUnusedPeriodMs, 100, 250),
+    // the intake checks its current every loop to tell when it has a game piece
+    INTAKE(false, 20, kUnusedPeriodMs, 20, 250),
+    // CANcoder: sensor data, battery and faults. The absolute position is only used to reset the steer motors.
+    CANCODER(true, 100, kUnusedPeriodMs);
+
+    private final boolean m_isCANcoder;
+    private final int[] m_periodsMs;
+
+    private Role(boolean isCANcoder, int... periodsMs) {
+      m_isCANcoder = isCANcoder;
+      m_periodsMs = new int[isCANcoder ? kCANcoderFrames.length : kTalonFrames.length];
+      for (int i = 0; i < m_periodsMs.length; i++) {
+        m_periodsMs[i] = i < periodsMs.length ? periodsMs[i] : kUnusedPeriodMs;
+      }
+    }
+
+    public boolean isCANcoder() {
+      return m_isCANcoder;
+    }
+
+    /**
+     * @param frame the index of the frame, in the order they are set in
+     * @return the period of the frame in milliseconds
+     */
+    public int getPeriodMs(int frame) {
+      return m_periodsMs[frame];
+    }
+
+    /**
+     * @return how many status frames a device with this role sends per second
+     */
+    public double getFramesPerSecond() {
+      return framesPerSecond(m_periodsMs);
+    }
+
+    /**
+     * @return how many status frames the device would send per second with the default periods
+     */
+    public double getDefaultFramesPerSecond() {
+      return framesPerSecond(m_isCANcoder ? kCANcoderDefaultPeriodsMs : kTalonDefaultPeriodsMs);
+    }
+  }
+
+  /**
+   * The devices and frames counted on one CAN bus.
+   */
+  private static class BusLoad {
+    int devices = 0;
+    double framesPerSecond = 0;
+    double defaultFramesPerSecond = 0;
+  }
+
+  private static Map<String, BusLoad> busLoads = new LinkedHashMap<>();
+
+  /**
+   * Sets the status frame periods of a Talon FX and counts it in its bus's load.
+   *
+   * @param talon the Talon FX, does nothing if null
+   * @param CANBus the CAN bus the Talon FX is on
+   * @param role which frames the Talon FX needs
+   */
+  public static void apply(TalonFX talon, String CANBus, Role role) {
+    if (talon == null) return;
+    if (role.isCANcoder()) {
+      throw new IllegalArgumentException("A Talon FX can't use the CANcoder status frame role");
+    }
+    for (int i = 0; i < kTalonFrames.length; i++) {
+      talon.setStatusFramePeriod(kTalonFrames[i], role.getPeriodMs(i));
+    }
+    record(CANBus, role);
+  }
+
+  /**
+   * Sets the status frame periods of a CANcoder and counts it in its bus's load.
+   *
+   * @param canCoder the CANcoder
+   * @param CANBus the CAN bus the CANcoder is on
+   */
+  public static void apply(CANCoder canCoder, String CANBus) {
+    for (int i = 0; i < kCANcoderFrames.length; i++) {
+      canCoder.setStatusFramePeriod(kCANcoderFrames[i], Role.CANCODER.getPeriodMs(i));
+    }
+    record(CANBus, Role.CANCODER);
+  }
+
+  /**
+   * Counts a device in its bus's load. Package-private for testing.
+   */
+  static synchronized void record(String CANBus, Role role) {
+    BusLoad load = busLoads.computeIfAbsent(CANBus, (bus) -> new BusLoad());
+    load.devices++;
+    load.framesPerSecond += role.getFramesPerSecond();
+    load.defaultFramesPerSecond += role.getDefaultFramesPerSecond();
+  }
+
+  /**
+   * @param CANBus the name of the CAN bus
+   * @return how many status frames per second the devices applied on the bus send
+   */
+  public static synchronized double getFramesPerSecond(String CANBus) {
+    BusLoad load = busLoads.get(CANBus);
+    return load == null ? 0 : load.framesPerSecond;
+  }
+
+  /**
+   * @param CANBus the name of the CAN bus
+   * @return the estimated fraction of the bus used by the status frames of the devices applied on it
+   */
+  public static double getEstimatedLoad(String CANBus) {
+    return getFramesPerSecond(CANBus) * kBitsPerFrame / kBitRate;
+  }
+
+  /**
+   * Prints the estimated status frame load of each bus, with and without the policy, and logs it under CAN/.
+   * Call this once every device has been created.
+   */
+  public static synchronized void reportBusLoad() {
+    for (Map.Entry<String, BusLoad> entry : busLoads.entrySet()) {
+      String bus = entry.getKey();
+      BusLoad load = entry.getValue();
+      double percent = getEstimatedLoad(bus) * 100;
+      double defaultPercent = load.defaultFramesPerSecond * kBitsPerFrame / kBitRate * 100;
+
+      System.out.println(String.format(
+          "CAN bus %s: %d devices, %.0f status frames/s (%.1f%% load), %.0f frames/s (%.1f%% load) with defaults",
+          bus, load.devices, load.framesPerSecond, percent, load.defaultFramesPerSecond, defaultPercent));
+
+      if (Constants.kLogging) {
+        LogManager.addDouble(LogManager.registerDouble("CAN/" + bus + "/status frames per second"),
+            load.framesPerSecond);
+        LogManager.addDouble(LogManager.registerDouble("CAN/" + bus + "/estimated load (%)"), percent);
+      }
+    }
+  }
+
+  /**
+   * Forgets every device counted. Package-private for testing.
+   */
+  static synchronized void reset() {
+    busLoads.clear();
+  }
+
+  private static double framesPerSecond(int[] periodsMs) {
+    double framesPerSecond = 0;
+    for (int periodMs : periodsMs) {
+      framesPerSecond += 1000.0 / periodMs;
+    }
+    return framesPerSecond;
+  }
+}
@@ -0,0 +1,280 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.shuffleboard.SuppliedValueWidget;
+import frc.robot.constants.Constants;
+
+/**
+ * Utility class for publishing values to Shuffleboard at a chosen rate, instead of every loop.
+ *
+ * <p> Values added to a tab with a supplier (e.g. {@code tab.addDouble(name, supplier)}) are read every loop by
+ * Shuffleboard. Values added here are only read at their {@link Rate}. Their widgets are the same read only supplied
+ * widgets, but their supplier only returns the last value read, and NetworkTables doesn't send a value that didn't
+ * change. The values of a rate are spread over the loops between its updates, so e.g. the 1 Hz values are read a few at
+ * a time every loop instead of all in the same loop.
+ *
+ * <p> {@link #update()} reads the values that are due, once a loop. Its time is profiled as Telemetry.update(), and how
+ * many values it read and how many of them changed are logged to Telemetry/.
+ */
+public class Telemetry {
+
+  /**
+   * How often a value is read.
+   */
+  public enum Rate {
+    /** 50 Hz, every loop. For values watched while tuning. */
+    FAST(50),
+    /** 10 Hz. For values drivers and the pit watch. */
+    MEDIUM(10),
+    /** 1 Hz. For values that rarely change. */
+    SLOW(1);
+
+    private final int m_periodLoops;
+
+    private Rate(double hz) {
+      m_periodLoops = Math.max(1, (int) Math.round(1 / (hz * Constants.kLoopTime)));
+    }
+
+    /**
+     * @return how many loops there are between reads of a value
+     */
+    public int getPeriodLoops() {
+      return m_periodLoops;
+    }
+  }
+
+  /**
+   * A value, and what it was last read as. The widget shows the last value read, so the supplier only runs at the
+   * value's rate.
+   */
+  private abstract static class Value {
+    boolean m_read = false;
+
+    /**
+     * Reads the value, and keeps it if it changed.
+     * @return if it changed
+     */
+    abstract boolean update();
+  }
+
+  private static class DoubleValue extends Value {
+    final DoubleSupplier m_supplier;
+    volatile double m_last;
+
+    DoubleValue(DoubleSupplier supplier) {
+      m_supplier = supplier;
+    }
+
+    @Override
+    boolean update() {
+      double value = m_supplier.getAsDouble();
+      // compares bits, so NaN is equal to NaN
+      if (m_read && Double.doubleToLongBits(value) == Double.doubleToLongBits(m_last)) return false;
+      m_last = value;
+      m_read = true;
+      return true;
+    }
+  }
+
+  private static class BooleanValue extends Value {
+    final BooleanSupplier m_supplier;
+    volatile boolean m_last;
+
+    BooleanValue(BooleanSupplier supplier) {
+      m_supplier = supplier;
+    }
+
+    @Override
+    boolean update() {
+      boolean value = m_supplier.getAsBoolean();
+      if (m_read && value == m_last) return false;
+      m_last = value;
+      m_read = true;
+      return true;
+    }
+  }
+
+  private static class StringValue extends Value {
+    final Supplier<String> m_supplier;
+    volatile String m_last = "";
+
+    StringValue(Supplier<String> supplier) {
+      m_supplier = supplier;
+    }
+
+    @Override
+    boolean update() {
+      String value = m_supplier.get();
+      // NetworkTables can't send null
+      if (value == null) value = "";
+      if (m_read && Objects.equals(value, m_last)) return false;
+      m_last = value;
+      m_read = true;
+      return true;
+    }
+  }
+
+  private static class StringArrayValue extends Value {
+    final Supplier<String[]> m_supplier;
+    volatile String[] m_last = new String[0];
+
+    StringArrayValue(Supplier<String[]> supplier) {
+      m_supplier = supplier;
+    }
+
+    @Override
+    boolean update() {
+      String[] value = m_supplier.get();
+      if (value == null) value = new String[0];
+      if (m_read && Arrays.equals(value, m_last)) return false;
+      // a copy, so changes the caller makes to its array later are seen as changes
+      m_last = value.clone();
+      m_read = true;
+      return true;
+    }
+  }
+
+  // the values of each rate, by the loop (out of the rate's period) they are read in
+  private static ArrayList<ArrayList<ArrayList<Value>>> phases = new ArrayList<>();
+  // how many values each rate has, to pick the loop the next one is read in
+  private static int[] counts = new int[Rate.values().length];
+  private static long loop = 0;
+
+  private static int lastEvaluated = 0;
+  private static int lastSent = 0;
+
+  private static final LoopProfiler.Stage updateStage = LoopProfiler.register("Telemetry.update()");
+  private static final int evaluatedLog = LogManager.registerInt("Telemetry/evaluated");
+  private static final int sentLog = LogManager.registerInt("Telemetry/sent");
+
+  static {
+    for (Rate rate : Rate.values()) {
+      ArrayList<ArrayList<Value>> ratePhases = new ArrayList<>();
+      for (int i = 0; i < rate.getPeriodLoops(); i++) {
+        ratePhases.add(new ArrayList<>());
+      }
+      phases.add(ratePhases);
+    }
+  }
+
+  /**
+   * Adds a number to a tab. The widget is read only, like {@code tab.addDouble(name, supplier)}.
+   *
+   * @param tab the tab
+   * @param name the name of the value, unique in the tab
+   * @param rate how often to read it
+   * @param supplier reads the value
+   * @return the widget, to place it on the tab
+   */
+  public static SuppliedValueWidget<Double> addDouble(ShuffleboardTab tab, String name, Rate rate,
+      DoubleSupplier supplier) {
+    DoubleValue value = new DoubleValue(supplier);
+    add(rate, value);
+    return tab.addDouble(name, () -> value.m_last);
+  }
+
+  /**
+   * Adds a boolean to a tab.
+   *
+   * @see #addDouble(ShuffleboardTab, String, Rate, DoubleSupplier)
+   */
+  public static SuppliedValueWidget<Boolean> addBoolean(ShuffleboardTab tab, String name, Rate rate,
+      BooleanSupplier supplier) {
+    BooleanValue value = new BooleanValue(supplier);
+    add(rate, value);
+    return tab.addBoolean(name, () -> value.m_last);
+  }
+
+  /**
+   * Adds a string to a tab. A null string is shown as an empty one.
+   *
+   * @see #addDouble(ShuffleboardTab, String, Rate, DoubleSupplier)
+   */
+  public static SuppliedValueWidget<String> addString(ShuffleboardTab tab, String name, Rate rate,
+      Supplier<String> supplier) {
+    StringValue value = new StringValue(supplier);
+    add(rate, value);
+    return tab.addString(name, () -> value.m_last);
+  }
+
+  /**
+   * Adds an array of strings to a tab. The array is copied when it changes, so the supplier can reuse one array.
+   *
+   * @see #addDouble(ShuffleboardTab, String, Rate, DoubleSupplier)
+   */
+  public static SuppliedValueWidget<String[]> addStringArray(ShuffleboardTab tab, String name, Rate rate,
+      Supplier<String[]> supplier) {
+    StringArrayValue value = new StringArrayValue(supplier);
+    add(rate, value);
+    return tab.addStringArray(name, () -> value.m_last);
+  }
+
+  private static void add(Rate rate, Value value) {
+    // round robin over the loops of the period, so each loop reads about as many
+    int phase = counts[rate.ordinal()] % rate.getPeriodLoops();
+    counts[rate.ordinal()]++;
+    phases.get(rate.ordinal()).get(phase).add(value);
+  }
+
+  /**
+   * Reads the values that are due this loop, and keeps the ones that changed for Shuffleboard. Call once a loop.
+   */
+  public static void update() {
+    if (Constants.kLoopProfiling) updateStage.start();
+
+    int evaluated = 0;
+    int sent = 0;
+    for (int i = 0; i < phases.size(); i++) {
+      ArrayList<ArrayList<Value>> ratePhases = phases.get(i);
+      ArrayList<Value> values = ratePhases.get((int) (loop % ratePhases.size()));
+      for (int j = 0; j < values.size(); j++) {
+        if (values.get(j).update()) sent++;
+      }
+      evaluated += values.size();
+    }
+    loop++;
+    lastEvaluated = evaluated;
+    lastSent = sent;
+
+    if (Constants.kLogging) {
+      LogManager.addInt(evaluatedLog, evaluated);
+      LogManager.addInt(sentLog, sent);
+    }
+
+    if (Constants.kLoopProfiling) updateStage.stop();
+  }
+
+  /**
+   * @return how many values the last {@link #update()} read
+   */
+  public static int getLastEvaluatedCount() {
+    return lastEvaluated;
+  }
+
+  /**
+   * @return how many values changed in the last {@link #update()}, and will be sent
+   */
+  public static int getLastSentCount() {
+    return lastSent;
+  }
+
+  /**
+   * Removes every value, and starts over at the first loop. For tests.
+   */
+  public static void clear() {
+    for (ArrayList<ArrayList<Value>> ratePhases : phases) {
+      for (ArrayList<Value> values : ratePhases) {
+        values.clear();
+      }
+    }
+    Arrays.fill(counts, 0);
+    loop = 0;
+  }
+}
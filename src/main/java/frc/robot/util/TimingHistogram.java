@@ -0,0 +1,102 @@
+package frc.robot.util;
+
+/**
+ * Fixed-size histogram of durations in nanoseconds. Recording a duration does not allocate.
+ *
+ * <p> Durations are rounded to microseconds and bucketed log-linearly: below 16 microseconds every microsecond has
+ * its own bucket, above that each power of two is split into 16 buckets, so a percentile is off by at most 1/16
+ * (about 6%). Durations past the last bucket (about 8 seconds) are counted in the last bucket. The max is exact.
+ */
+public class TimingHistogram {
+
+  // durations are shifted by this to get (approximately) microseconds
+  private static final int kUnitShift = 10;
+  private static final int kSubBucketBits = 4;
+  private static final int kSubBuckets = 1 << kSubBucketBits;
+  private static final int kBuckets = 20 * kSubBuckets;
+
+  private final int[] m_counts = new int[kBuckets];
+  private long m_count = 0;
+  private long m_max = 0;
+
+  /**
+   * Records a duration.
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    if (nanos < 0) nanos = 0;
+    m_counts[bucketFor(nanos)]++;
+    m_count++;
+    if (nanos > m_max) m_max = nanos;
+  }
+
+  /**
+   * Gets a percentile of the recorded durations.
+   * @param percentile the percentile, from 0 to 100
+   * @return the upper edge of the bucket holding the percentile, in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getPercentile(double percentile) {
+    if (m_count == 0) return 0;
+    // the rank of the sample at the percentile, starting at 1
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * m_count));
+    long seen = 0;
+    for (int i = 0; i < kBuckets; i++) {
+      seen += m_counts[i];
+      if (seen >= rank) {
+        // the bucket edge can be above the largest duration, which is known exactly
+        return Math.min(upperEdgeOf(i), m_max);
+      }
+    }
+    return m_max;
+  }
+
+  /**
+   * @return the longest recorded duration in nanoseconds
+   */
+  public long getMax() {
+    return m_max;
+  }
+
+  /**
+   * @return the number of recorded durations
+   */
+  public long getCount() {
+    return m_count;
+  }
+
+  /**
+   * Clears all recorded durations.
+   */
+  public void reset() {
+    for (int i = 0; i < kBuckets; i++) {
+      m_counts[i] = 0;
+    }
+    m_count = 0;
+    m_max = 0;
+  }
+
+  /**
+   * Gets the bucket a duration belongs in.
+   */
+  static int bucketFor(long nanos) {
+    long units = nanos >> kUnitShift;
+    if (units < kSubBuckets) return (int) units;
+    // the position of the highest set bit, at least kSubBucketBits
+    int exponent = 63 - Long.numberOfLeadingZeros(units);
+    // the bits right after the highest set bit pick the sub bucket
+    int subBucket = (int) (units >> (exponent - kSubBucketBits)) & (kSubBuckets - 1);
+    int bucket = (exponent - kSubBucketBits + 1) * kSubBuckets + subBucket;
+    return Math.min(bucket, kBuckets - 1);
+  }
+
+  /**
+   * Gets the smallest duration, in nanoseconds, that is too long for a bucket.
+   */
+  static long upperEdgeOf(int bucket) {
+    if (bucket < kSubBuckets) return (long) (bucket + 1) << kUnitShift;
+    int exponent = bucket / kSubBuckets + kSubBucketBits - 1;
+    int subBucket = bucket % kSubBuckets;
+    long units = (long) (kSubBuckets + subBucket + 1) << (exponent - kSubBucketBits);
+    return units << kUnitShift;
+  }
+}
@@ -0,0 +1,72 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.constants.AutoConstants;
+
+/**
+ * Generates every path group in the deploy directory at build time and writes them to one file, see
+ * {@link PrecompiledTrajectories}. Run by the precompileTrajectories Gradle task, not on the robot.
+ */
+public class TrajectoryPrecompiler {
+
+  /**
+   * @param args the file to write
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: TrajectoryPrecompiler <output file>");
+      System.exit(1);
+    }
+
+    Path pathDirectory = Filesystem.getDeployDirectory().toPath().resolve(AutoConstants.kTrajectoryDirectory);
+    File[] directoryListing = pathDirectory.toFile().listFiles();
+    if (directoryListing == null) {
+      System.err.println("No paths found in " + pathDirectory);
+      System.exit(1);
+    }
+
+    // sorted, so the same paths always make the same file
+    Map<String, List<PathPlannerTrajectory>> pathGroups = new TreeMap<>();
+    Map<String, Long> checksums = new TreeMap<>();
+    for (File file : directoryListing) {
+      // the same files PathGroupLoader loads
+      if (file.isFile() && file.getName().indexOf(".") != -1) {
+        String name = file.getName().substring(0, file.getName().indexOf("."));
+        List<PathPlannerTrajectory> pathGroup = PathPlanner.loadPathGroup(
+          name, new PathConstraints(AutoConstants.kMaxAutoSpeed, AutoConstants.kMaxAutoAccel));
+        if (!PrecompiledTrajectories.canPrecompile(pathGroup)) {
+          System.out.println("Skipping " + name + ", it has events that are not precompiled");
+          continue;
+        }
+        pathGroups.put(name, pathGroup);
+        checksums.put(name, PrecompiledTrajectories.checksum(file.toPath()));
+      }
+    }
+
+    ByteBuffer contents = PrecompiledTrajectories.write(
+      pathGroups, checksums, AutoConstants.kMaxAutoSpeed, AutoConstants.kMaxAutoAccel);
+    Path output = Path.of(args[0]);
+    try (FileChannel channel = FileChannel.open(output,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (contents.hasRemaining()) {
+        channel.write(contents);
+      }
+    }
+    System.out.println("Precompiled " + pathGroups.size() + " path groups into " + output
+      + " (" + output.toFile().length() + " bytes)");
+  }
+}
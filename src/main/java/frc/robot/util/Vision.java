@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
@@ -23,6 +25,7 @@ import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import frc.robot.commands.vision.CalculateStdDevs;
@@ -42,6 +45,12 @@ public class Vision {
   private GenericEntry m_visionTestVisionEntry;
   private GenericEntry m_visionTestDiffEntry;
   private GenericEntry m_visionTestPercentDiffEntry;
+  // The pose the camera threads use as a reference, set by the main thread
+  private volatile Pose2d m_referencePose = new Pose2d();
+  // If the cameras estimate poses on their own threads
+  private boolean m_threadsStarted = false;
+  // If the camera threads queue their poses, off while the drivetrain isn't using vision
+  private volatile boolean m_queueing = true;
 
   /**
    * Creates a new instance of Vision
@@ -65,12 +74,68 @@ public class Vision {
 
     // Puts the cameras in an array list
     for (int i = 0; i < camList.size(); i++) {
-      m_cameras.add(this.new VisionCamera(camList.get(i).getFirst(), camList.get(i).getSecond()));
+      m_cameras.add(this.new VisionCamera(i, camList.get(i).getFirst(), camList.get(i).getSecond()));
     }
+
+    // There are no camera results in simulation, so don't waste time polling for them
+    if (VisionConstants.kUseThreads && RobotBase.isReal()) {
+      for (int i = 0; i < m_cameras.size(); i++) {
+        m_cameras.get(i).startThread();
+      }
+      m_threadsStarted = true;
+    }
+  }
+
+  /**
+   * Sets the pose the cameras use as a reference for new estimates. Can be called from any thread.
+   * @param referencePose The pose to use as a reference, usually the current estimated robot pose
+   */
+  public void setReferencePose(Pose2d referencePose) {
+    m_referencePose = referencePose;
+  }
+
+  /**
+   * Sets whether the camera threads queue the poses they estimate. When turned off, the poses already queued are
+   * dropped, so old poses aren't used once vision is turned back on.
+   * @param enabled If the poses should be queued
+   */
+  public void setQueueingEnabled(boolean enabled) {
+    m_queueing = enabled;
+    if (enabled) return;
+    for (int i = 0; i < m_cameras.size(); i++) {
+      m_cameras.get(i).clearQueue();
+    }
+  }
+
+  /**
+   * Adds the poses estimated since the last call to a list, without blocking. Should be called from the main thread.
+   * If the camera threads are not running, the cameras are read directly instead.
+   *
+   * @param estimatedPoses The list to add the new poses to, oldest first for each camera
+   * @return The number of poses added
+   */
+  public int pollEstimatedPoses(ArrayList<EstimatedRobotPose> estimatedPoses) {
+    if (!m_threadsStarted) {
+      ArrayList<EstimatedRobotPose> newPoses = getEstimatedPoses(m_referencePose);
+      estimatedPoses.addAll(newPoses);
+      return newPoses.size();
+    }
+    int added = 0;
+    for (int i = 0; i < m_cameras.size(); i++) {
+      VisionCamera camera = m_cameras.get(i);
+      EstimatedRobotPose estimatedPose;
+      while ((estimatedPose = camera.m_poseQueue.poll()) != null) {
+        camera.m_queuedCount.decrementAndGet();
+        estimatedPoses.add(estimatedPose);
+        added++;
+        camera.logPose(estimatedPose);
+      }
+    }
+    return added;
   }
 
   /**
-   * Returns where it thinks the robot is
+   * Returns where it thinks the robot is, reading every camera on the calling thread
    * @param referencePose The pose to use as a reference, usually the previous robot pose
    * @return An array list of estimated poses, one for each camera that can see an april tag
    */
@@ -82,11 +147,7 @@ public class Vision {
       // April tags that don't exist might return a result that is present but doesn't have a pose
       if (estimatedPose.isPresent() && estimatedPose.get().estimatedPose != null) {
         estimatedPoses.add(estimatedPose.get());
-        LogManager.addDoubleArray("Vision/camera " + i + "/estimated pose2d", new double[] {
-          estimatedPose.get().estimatedPose.getX(),
-          estimatedPose.get().estimatedPose.getY(),
-          estimatedPose.get().estimatedPose.getRotation().getZ()
-        });
+        m_cameras.get(i).logPose(estimatedPose.get());
       }
     }
     return estimatedPoses;
@@ -163,13 +224,24 @@ public class Vision {
   class VisionCamera {
     PhotonCamera camera;
     PhotonPoseEstimator photonPoseEstimator;
+    // Poses estimated by the camera thread, waiting for the main thread
+    final ConcurrentLinkedQueue<EstimatedRobotPose> m_poseQueue = new ConcurrentLinkedQueue<>();
+    // The size of the queue, since ConcurrentLinkedQueue.size() has to walk the whole queue
+    final AtomicInteger m_queuedCount = new AtomicInteger();
+    // Timestamp of the last result the camera thread used, so the same result isn't used twice
+    private double m_lastTimestamp = -1;
+    private final int m_poseLog;
+    // Reused for logging poses, only used by the main thread
+    private final double[] m_poseLogValues = new double[3];
   
     /**
      * Stores information about a camera
+     * @param index The index of the camera, used in the log names
      * @param cameraName The name of the camera on PhotonVision
      * @param robotToCam The transformation from the robot to the camera
      */
-    public VisionCamera(String cameraName, Transform3d robotToCam) {
+    public VisionCamera(int index, String cameraName, Transform3d robotToCam) {
+      m_poseLog = LogManager.registerDoubleArray("Vision/camera " + index + "/estimated pose2d");
       camera = new PhotonCamera(cameraName);
       photonPoseEstimator = new PhotonPoseEstimator(
         m_aprilTagFieldLayout, 
@@ -187,9 +259,70 @@ public class Vision {
      * @return estimated robot pose
      */
     public Optional<EstimatedRobotPose> getEstimatedPose(Pose2d referencePose) {
-      photonPoseEstimator.setReferencePose(referencePose);
+      return estimatePose(camera.getLatestResult(), referencePose);
+    }
 
-      PhotonPipelineResult cameraResult = camera.getLatestResult();
+    /**
+     * Starts a daemon thread that estimates poses from new camera results and adds them to the queue
+     */
+    public void startThread() {
+      Thread thread = new Thread(this::runThread, "Vision " + camera.getName());
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    private void runThread() {
+      while (!Thread.currentThread().isInterrupted()) {
+        PhotonPipelineResult cameraResult = camera.getLatestResult();
+        // only estimate a pose for results that haven't been used yet
+        if (cameraResult.getTimestampSeconds() != m_lastTimestamp) {
+          m_lastTimestamp = cameraResult.getTimestampSeconds();
+          Optional<EstimatedRobotPose> estimatedPose = estimatePose(cameraResult, m_referencePose);
+          if (m_queueing && estimatedPose.isPresent() && estimatedPose.get().estimatedPose != null) {
+            m_poseQueue.offer(estimatedPose.get());
+            // If the main thread isn't draining the queue, drop the oldest pose instead of using up memory
+            if (m_queuedCount.incrementAndGet() > VisionConstants.kMaxQueuedPoses && m_poseQueue.poll() != null) {
+              m_queuedCount.decrementAndGet();
+            }
+          }
+        }
+        try {
+          Thread.sleep(VisionConstants.kThreadPeriodMs);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Drops every queued pose
+     */
+    void clearQueue() {
+      while (m_poseQueue.poll() != null) {
+        m_queuedCount.decrementAndGet();
+      }
+    }
+
+    /**
+     * Logs an estimated pose as x, y, and rotation. Should be called from the main thread.
+     * @param estimatedPose The estimated pose
+     */
+    void logPose(EstimatedRobotPose estimatedPose) {
+      m_poseLogValues[0] = estimatedPose.estimatedPose.getX();
+      m_poseLogValues[1] = estimatedPose.estimatedPose.getY();
+      m_poseLogValues[2] = estimatedPose.estimatedPose.getRotation().getZ();
+      LogManager.addDoubleArray(m_poseLog, m_poseLogValues);
+    }
+
+    /**
+     * Estimates the pose from a camera result.
+     * Synchronized since the camera thread and the vision test commands can both use the pose estimator.
+     * @param cameraResult The result from the camera
+     * @param referencePose Pose to use for reference, usually the previous estimated robot pose
+     * @return estimated robot pose
+     */
+    private synchronized Optional<EstimatedRobotPose> estimatePose(PhotonPipelineResult cameraResult, Pose2d referencePose) {
+      photonPoseEstimator.setReferencePose(referencePose);
       
       // if there is a target detected and not in the past, 
       // check the ambiguity isn't too high
@@ -14,14 +14,43 @@ public class CTREModuleState {
    * @param currentAngle The current module angle.
    */
   public static SwerveModuleState optimize(SwerveModuleState desiredState, Rotation2d currentAngle) {
-    double targetAngle = placeInAppropriate0To360Scope(currentAngle.getDegrees(), desiredState.angle.getDegrees());
-    double targetSpeed = desiredState.speedMetersPerSecond;
-    double delta = targetAngle - currentAngle.getDegrees();
-    if (Math.abs(delta) > 90){
-        targetSpeed = -targetSpeed;
-        targetAngle = delta > 90 ? (targetAngle -= 180) : (targetAngle += 180);
-    }        
-    return new SwerveModuleState(targetSpeed, Rotation2d.fromDegrees(targetAngle));
+    double currentDegrees = currentAngle.getDegrees();
+    double desiredDegrees = desiredState.angle.getDegrees();
+    return new SwerveModuleState(
+      optimizeSpeed(desiredState.speedMetersPerSecond, desiredDegrees, currentDegrees),
+      Rotation2d.fromDegrees(optimizeAngle(desiredDegrees, currentDegrees))
+    );
+  }
+
+  /**
+   * Gets the angle part of {@link #optimize}, without allocating.
+   *
+   * @param desiredDegrees The desired angle in degrees.
+   * @param currentDegrees The current module angle in degrees.
+   * @return The angle to turn to, in degrees, within 90 degrees of the current angle.
+   */
+  public static double optimizeAngle(double desiredDegrees, double currentDegrees) {
+    double targetAngle = placeInAppropriate0To360Scope(currentDegrees, desiredDegrees);
+    double delta = targetAngle - currentDegrees;
+    if (delta > 90) {
+      targetAngle -= 180;
+    } else if (delta < -90) {
+      targetAngle += 180;
+    }
+    return targetAngle;
+  }
+
+  /**
+   * Gets the speed part of {@link #optimize}, without allocating.
+   *
+   * @param desiredSpeed The desired speed.
+   * @param desiredDegrees The desired angle in degrees.
+   * @param currentDegrees The current module angle in degrees.
+   * @return The speed to drive at, reversed if the module turns to the opposite angle.
+   */
+  public static double optimizeSpeed(double desiredSpeed, double desiredDegrees, double currentDegrees) {
+    double delta = placeInAppropriate0To360Scope(currentDegrees, desiredDegrees) - currentDegrees;
+    return Math.abs(delta) > 90 ? -desiredSpeed : desiredSpeed;
   }
 
   /**
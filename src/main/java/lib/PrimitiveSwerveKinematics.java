@@ -0,0 +1,101 @@
+package lib;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Swerve inverse kinematics that write into arrays owned by the caller instead of allocating module states,
+ * so commanding the drivetrain every loop does not create garbage.
+ *
+ * <p> Matches {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#toSwerveModuleStates}: when the chassis
+ * is not moving, the speeds are set to zero and the angles are left as they were, so the modules don't snap to 0.
+ */
+public class PrimitiveSwerveKinematics {
+
+  private final int m_numModules;
+  private final double[] m_moduleX;
+  private final double[] m_moduleY;
+
+  /**
+   * Constructs swerve kinematics from the module locations, in the same order as SwerveDriveKinematics.
+   * @param moduleTranslationsMeters the locations of the modules relative to the center of the robot
+   */
+  public PrimitiveSwerveKinematics(Translation2d... moduleTranslationsMeters) {
+    if (moduleTranslationsMeters.length < 2) {
+      throw new IllegalArgumentException("A swerve drive requires at least two modules");
+    }
+    m_numModules = moduleTranslationsMeters.length;
+    m_moduleX = new double[m_numModules];
+    m_moduleY = new double[m_numModules];
+    for (int i = 0; i < m_numModules; i++) {
+      m_moduleX[i] = moduleTranslationsMeters[i].getX();
+      m_moduleY[i] = moduleTranslationsMeters[i].getY();
+    }
+  }
+
+  /**
+   * Constructs swerve kinematics from the module locations as arrays.
+   * @param moduleX the x location of each module in meters, positive is forward
+   * @param moduleY the y location of each module in meters, positive is left
+   */
+  public PrimitiveSwerveKinematics(double[] moduleX, double[] moduleY) {
+    if (moduleX.length != moduleY.length || moduleX.length < 2) {
+      throw new IllegalArgumentException("A swerve drive requires at least two modules with an x and y location");
+    }
+    m_numModules = moduleX.length;
+    m_moduleX = moduleX.clone();
+    m_moduleY = moduleY.clone();
+  }
+
+  /**
+   * @return the number of modules
+   */
+  public int getNumModules() {
+    return m_numModules;
+  }
+
+  /**
+   * Converts chassis speeds to module speeds and angles.
+   *
+   * @param vxMetersPerSecond forward speed of the robot
+   * @param vyMetersPerSecond sideways speed of the robot, positive is left
+   * @param omegaRadiansPerSecond angular speed of the robot, positive is counterclockwise
+   * @param speeds filled with the speed of each module in meters per second
+   * @param anglesRadians filled with the angle of each module in radians, from -pi to pi.
+   * Left unchanged if the robot is not moving.
+   */
+  public void toModuleStates(double vxMetersPerSecond, double vyMetersPerSecond, double omegaRadiansPerSecond,
+      double[] speeds, double[] anglesRadians) {
+    if (vxMetersPerSecond == 0 && vyMetersPerSecond == 0 && omegaRadiansPerSecond == 0) {
+      for (int i = 0; i < m_numModules; i++) {
+        speeds[i] = 0;
+      }
+      return;
+    }
+    for (int i = 0; i < m_numModules; i++) {
+      // velocity of the module is the chassis velocity plus omega cross the module location
+      double x = vxMetersPerSecond - omegaRadiansPerSecond * m_moduleY[i];
+      double y = vyMetersPerSecond + omegaRadiansPerSecond * m_moduleX[i];
+      speeds[i] = Math.hypot(x, y);
+      anglesRadians[i] = Math.atan2(y, x);
+    }
+  }
+
+  /**
+   * Scales down the module speeds so none of them are faster than the max speed, keeping their ratios the same.
+   * Same as {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#desaturateWheelSpeeds}.
+   *
+   * @param speeds the module speeds, changed in place
+   * @param maxSpeedMetersPerSecond the fastest a module can go
+   */
+  public static void desaturateWheelSpeeds(double[] speeds, double maxSpeedMetersPerSecond) {
+    double realMaxSpeed = 0;
+    for (int i = 0; i < speeds.length; i++) {
+      realMaxSpeed = Math.max(realMaxSpeed, Math.abs(speeds[i]));
+    }
+    if (realMaxSpeed > maxSpeedMetersPerSecond) {
+      for (int i = 0; i < speeds.length; i++) {
+        speeds[i] = speeds[i] / realMaxSpeed * maxSpeedMetersPerSecond;
+      }
+    }
+  }
+}
@@ -1,27 +1,128 @@
 package lib.drivers;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 
 /**
  * This class is a thin wrapper around the CANTalon that reduces CAN bus / CPU overhead by skipping duplicate set
  * commands. (By default the Talon flushes the Tx buffer on every set call).
+ * <p>
+ * Every set overload goes through {@link #set(ControlMode, double, DemandType, double)}, which compares the control
+ * mode, demand, demand type, and auxiliary demand with the last ones sent. The Talon keeps sending the last control
+ * frame on its own, so skipping a duplicate does not change what the motor does. Demands within the epsilon of the
+ * last ones sent count as duplicates.
+ * <p>
+ * {@link #set(double)} still goes through WPI_TalonFX, so {@link #get()} returns the last percent output and the
+ * motor safety is fed, even when the set is skipped.
  */
 public class LazyTalonFX extends WPI_TalonFX {
+    protected ControlMode mLastMode = null;
     protected double mLastSet = Double.NaN;
+    protected DemandType mLastDemandType = null;
+    protected double mLastDemand1 = Double.NaN;
+
+    protected double mEpsilon = 0;
+
+    protected long mSentCount = 0;
+    protected long mSuppressedCount = 0;
+
+    // totals for every LazyTalonFX, atomic since motors can be set from other threads
+    private static final AtomicLong sTotalSentCount = new AtomicLong();
+    private static final AtomicLong sTotalSuppressedCount = new AtomicLong();
 
     public LazyTalonFX(int deviceNumber, String canbus) {
         super(deviceNumber, canbus);
     }
 
+    /**
+     * Sets how far the demands have to change before a set is sent again. Defaults to 0, only skipping exact duplicates.
+     * @param epsilon the tolerance, in the units of the control mode, and of the auxiliary demand
+     */
+    public void setEpsilon(double epsilon) {
+        mEpsilon = epsilon;
+    }
+
     public double getLastSet() {
         return mLastSet;
     }
 
+    /**
+     * @return the control mode of the last set sent, or null if nothing was sent since the last reset
+     */
+    public ControlMode getLastControlMode() {
+        return mLastMode;
+    }
+
+    /**
+     * @return the demand type of the last set sent, or null if nothing was sent since the last reset
+     */
+    public DemandType getLastDemandType() {
+        return mLastDemandType;
+    }
+
+    /**
+     * @return the auxiliary demand of the last set sent
+     */
+    public double getLastDemand1() {
+        return mLastDemand1;
+    }
+
     @Override
     public void set(double value) {
-        if (value != mLastSet) {
-            mLastSet = value;
-            super.set(value);
+        // WPI_TalonFX keeps the value for get() and feeds the motor safety, then sends it through the overloads below
+        super.set(value);
+    }
+
+    @Override
+    public void set(ControlMode mode, double value) {
+        set(mode, value, DemandType.Neutral, 0);
+    }
+
+    @Override
+    public void set(ControlMode mode, double demand0, DemandType demand1Type, double demand1) {
+        if (mode == mLastMode && demand1Type == mLastDemandType
+            && Math.abs(demand0 - mLastSet) <= mEpsilon && Math.abs(demand1 - mLastDemand1) <= mEpsilon) {
+            mSuppressedCount++;
+            sTotalSuppressedCount.incrementAndGet();
+            return;
         }
+        mLastMode = mode;
+        mLastSet = demand0;
+        mLastDemandType = demand1Type;
+        mLastDemand1 = demand1;
+        mSentCount++;
+        sTotalSentCount.incrementAndGet();
+        super.set(mode, demand0, demand1Type, demand1);
+    }
+
+    /**
+     * @return the number of sets sent to this Talon
+     */
+    public long getSentCount() {
+        return mSentCount;
+    }
+
+    /**
+     * @return the number of sets skipped because they were duplicates
+     */
+    public long getSuppressedCount() {
+        return mSuppressedCount;
+    }
+
+    /**
+     * @return the number of sets sent to every LazyTalonFX
+     */
+    public static long getTotalSentCount() {
+        return sTotalSentCount.get();
+    }
+
+    /**
+     * @return the number of sets skipped by every LazyTalonFX
+     */
+    public static long getTotalSuppressedCount() {
+        return sTotalSuppressedCount.get();
     }
-}
\ No newline at end of file
+}
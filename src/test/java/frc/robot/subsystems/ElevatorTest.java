@@ -0,0 +1,96 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.constants.Constants;
+import frc.robot.constants.ElevatorConstants;
+import frc.robot.util.InputsLog;
+import frc.robot.util.Telemetry;
+
+/**
+ * Test the Elevator subsystem with its physics simulation.
+ */
+public class ElevatorTest {
+  // get the Elevator tab (needed to construct an Elevator)
+  static ShuffleboardTab m_elevatorTab = Shuffleboard.getTab("Elevator");
+
+  // elevator subsystem
+  Elevator m_elevator;
+
+  @BeforeEach
+  public void prepare() {
+    // The kUseTelemetry must be turned off to avoid an Illegal Argument exception.
+    // Otherwise there will be multiple .add method calls to the tab with the same
+    // key.
+    Constants.kUseTelemetry = false;
+
+    // build the elevator, without a cone
+    m_elevator = new Elevator(m_elevatorTab, () -> false);
+
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  @AfterEach
+  public void cleanup() {
+    DriverStationSim.setEnabled(false);
+    DriverStationSim.notifyNewData();
+    // deallocate resources
+    m_elevator.close();
+    InputsLog.clear();
+    Telemetry.clear();
+  }
+
+  /**
+   * Runs the elevator for one robot loop, in the order the scheduler does.
+   */
+  private void runLoop() {
+    m_elevator.periodic();
+    m_elevator.simulationPeriodic();
+  }
+
+  /**
+   * The elevator starts at the bottom, so it should calibrate on the first loop.
+   */
+  @Test
+  public void testCalibratesAtBottom() {
+    assertTrue(m_elevator.isBottomLimitSwitchReached());
+    assertFalse(m_elevator.isTopLimitSwitchReached());
+
+    runLoop();
+    assertTrue(m_elevator.isCalibrated());
+    assertEquals(0, m_elevator.getPosition(), ElevatorConstants.kSimLimitSwitchDistance);
+  }
+
+  /**
+   * The elevator should take time to move to the top scoring position, instead of being there right away, but not so
+   * long that it can't score in auto.
+   */
+  @Test
+  public void testMoveTime() {
+    runLoop();
+    m_elevator.setDesiredPosition(ElevatorConstants.kAutoTopCone);
+
+    double seconds = 0;
+    runLoop();
+    while (!m_elevator.reachedDesiredPosition() && seconds < 5) {
+      runLoop();
+      seconds += Constants.kLoopTime;
+    }
+
+    assertTrue(m_elevator.reachedDesiredPosition());
+    assertTrue(seconds > 0.3, "moved in " + seconds + " s");
+    // about a second at full output, so slower than this is a problem with the gains or the simulation
+    assertTrue(seconds < 3, "moved in " + seconds + " s");
+    assertFalse(m_elevator.isBottomLimitSwitchReached());
+  }
+}
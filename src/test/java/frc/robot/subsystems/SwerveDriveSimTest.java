@@ -0,0 +1,128 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+
+import frc.robot.constants.Constants;
+import frc.robot.constants.swerve.DriveConstants;
+import frc.robot.util.Conversions;
+
+/**
+ * Tests the physics model of the swerve drive.
+ */
+public class SwerveDriveSimTest {
+
+  /**
+   * Drives every module forward at a velocity, the way Module does.
+   */
+  private static void driveForward(SwerveDriveSim sim, double speedMetersPerSecond) {
+    double velocity = Conversions.MPSToFalcon(speedMetersPerSecond, DriveConstants.kWheelCircumference,
+      DriveConstants.kDriveGearRatio);
+    double feedforward = DriveConstants.kDriveKS + DriveConstants.kDriveKV * speedMetersPerSecond;
+    for (int i = 0; i < 4; i++) {
+      sim.setDriveControl(i, ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward, feedforward);
+      sim.setSteerControl(i, ControlMode.Position, 0);
+    }
+  }
+
+  /**
+   * The robot should speed up to the velocity the modules are told to drive at, and go straight.
+   */
+  @Test
+  public void testDriveForward() {
+    SwerveDriveSim sim = new SwerveDriveSim(DriveConstants.kSimSubstepSeconds);
+    driveForward(sim, 2);
+    for (int i = 0; i < 100; i++) {
+      sim.update(Constants.kLoopTime, Constants.kRobotVoltage);
+    }
+
+    ModuleInputs inputs = new ModuleInputs();
+    sim.updateInputs(0, inputs);
+    // the characterized kV is less than the Falcon's, so the P gain only makes up part of the difference
+    assertEquals(2, inputs.driveVelocityMetersPerSecond, 0.4);
+    // about 2 m/s for most of the 2 seconds
+    assertTrue(sim.getPose().getX() > 2.5 && sim.getPose().getX() < 4, "moved " + sim.getPose().getX() + " m");
+    assertEquals(0, sim.getPose().getY(), 1e-6);
+    assertEquals(0, sim.getHeadingRadians(), 1e-6);
+    assertEquals(sim.getPose().getX(), inputs.drivePositionMeters, 0.01);
+  }
+
+  /**
+   * A slipping wheel's encoder should count more than the robot moved, and the other wheels' encoders shouldn't.
+   */
+  @Test
+  public void testWheelSlip() {
+    SwerveDriveSim sim = new SwerveDriveSim(DriveConstants.kSimSubstepSeconds);
+    sim.setWheelSlip(0, 1.05);
+    driveForward(sim, 1);
+    for (int i = 0; i < 50; i++) {
+      sim.update(Constants.kLoopTime, Constants.kRobotVoltage);
+    }
+
+    double moved = sim.getPose().getX();
+    assertEquals(moved * 1.05, sim.getDrivePositionMeters(0), 0.02);
+    assertEquals(moved, sim.getDrivePositionMeters(1), 0.01);
+  }
+
+  /**
+   * Full output from a stop should only draw more than the peak supply current for the peak duration, and
+   * accelerate the robot at most as fast as the wheels can grip.
+   */
+  @Test
+  public void testCurrentAndTractionLimits() {
+    SwerveDriveSim sim = new SwerveDriveSim(DriveConstants.kSimSubstepSeconds);
+    for (int i = 0; i < 4; i++) {
+      sim.setDriveControl(i, ControlMode.PercentOutput, 1, DemandType.Neutral, 0);
+      sim.setSteerControl(i, ControlMode.Position, 0);
+    }
+    ModuleInputs inputs = new ModuleInputs();
+    double lastVelocity = 0;
+    double overPeakSeconds = 0;
+    double maxTotalCurrent = 0;
+    double maxAccel = DriveConstants.kWheelCoefficientOfFriction * Constants.kGravitationalAccel;
+    for (int i = 0; i < 50; i++) {
+      sim.update(Constants.kLoopTime, Constants.kRobotVoltage);
+      sim.updateInputs(0, inputs);
+      double accel = (inputs.driveVelocityMetersPerSecond - lastVelocity) / Constants.kLoopTime;
+      assertTrue(accel <= maxAccel + 1e-6, "accelerated at " + accel + " m/s^2");
+      lastVelocity = inputs.driveVelocityMetersPerSecond;
+      maxTotalCurrent = Math.max(maxTotalCurrent, sim.getDriveSupplyCurrent());
+      overPeakSeconds = inputs.driveSupplyCurrent > DriveConstants.kDrivePeakCurrentLimit
+        ? overPeakSeconds + Constants.kLoopTime
+        : 0;
+      assertTrue(overPeakSeconds <= DriveConstants.kDrivePeakCurrentDuration + Constants.kLoopTime,
+        "drew " + inputs.driveSupplyCurrent + " A for " + overPeakSeconds + " s");
+    }
+    // all four modules draw current from the battery
+    assertTrue(maxTotalCurrent > 3 * DriveConstants.kDriveContinuousCurrentLimit);
+  }
+
+  /**
+   * Steering the modules tangent to the robot's center and driving them should spin the robot in place,
+   * counterclockwise for positive speeds.
+   */
+  @Test
+  public void testSpinInPlace() {
+    SwerveDriveSim sim = new SwerveDriveSim(DriveConstants.kSimSubstepSeconds);
+    double velocity = Conversions.MPSToFalcon(1, DriveConstants.kWheelCircumference, DriveConstants.kDriveGearRatio);
+    double feedforward = DriveConstants.kDriveKS + DriveConstants.kDriveKV;
+    for (int i = 0; i < 4; i++) {
+      double angleDegrees = Math.toDegrees(DriveConstants.getModuleTranslation(i).getAngle().getRadians()) + 90;
+      sim.setDriveControl(i, ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward, feedforward);
+      sim.setSteerControl(i, ControlMode.Position,
+        Conversions.degreesToFalcon(angleDegrees, DriveConstants.kAngleGearRatio));
+    }
+    for (int i = 0; i < 100; i++) {
+      sim.update(Constants.kLoopTime, Constants.kRobotVoltage);
+    }
+
+    assertTrue(sim.getHeadingRadians() > 1, "turned " + sim.getHeadingRadians() + " rad");
+    assertEquals(0, sim.getPose().getX(), 0.05);
+    assertEquals(0, sim.getPose().getY(), 0.05);
+  }
+}
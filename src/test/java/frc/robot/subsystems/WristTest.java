@@ -16,6 +16,8 @@ import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.simulation.DutyCycleEncoderSim;
 import frc.robot.constants.Constants;
 import frc.robot.constants.WristConstants;
+import frc.robot.util.InputsLog;
+import frc.robot.util.Telemetry;
 
 /**
  * Test the Wrist subsystem.
@@ -44,6 +46,8 @@ public class WristTest {
   public void cleanup() {
     // deallocate resources
     m_wrist.close();
+    InputsLog.clear();
+    Telemetry.clear();
   }
 
   /**
@@ -119,32 +123,44 @@ public class WristTest {
    */
   @Test
   public void testWristEncoder() {
-    DutyCycleEncoder encoder = m_wrist.m_absEncoder;
-    DutyCycleEncoderSim encoderSim = m_wrist.m_absEncoderSim;
-
-    // the encoder objects should exist
-    assertNotNull(encoder);
-    assertNotNull(encoderSim);
-
-    // The offset and scale were set when the Wrist was constructed ...
-    assertEquals(WristConstants.kEncoderOffset, encoder.getPositionOffset(), 0.00001);
-    assertEquals(-2.0 * Math.PI, encoder.getDistancePerRotation(), 0.000001);
-
-    // the absolute encoder should start out at zero
-    // These results may not be correct but they are what we get
-    assertEquals(0.0, encoder.getAbsolutePosition(), 0.001);
-    assertEquals(0.0, encoder.getDistance(), 0.001);
-
-    // we can set rotations
-    encoderSim.set(WristConstants.kStowPos / encoder.getDistancePerRotation());
-
-    assertEquals(WristConstants.kStowPos, encoder.get() * encoder.getDistancePerRotation(), 0.001);
-
-    // distance should be a multiple
-    assertEquals(WristConstants.kStowPos, encoder.getDistance(), 0.001);
-
-    encoderSim.setDistance(WristConstants.kStowPos);
-    assertEquals(WristConstants.kStowPos, encoder.getDistance(), 0.001);
+    // the wrist's hardware on the robot, which makes the encoder
+    WristIOTalonFX io = new WristIOTalonFX();
+    // closed even if an assert fails, so the Talons and DIO are free for the next test
+    try {
+      DutyCycleEncoder encoder = io.m_absEncoder;
+      DutyCycleEncoderSim encoderSim = new DutyCycleEncoderSim(encoder);
+
+      // the encoder objects should exist
+      assertNotNull(encoder);
+      assertNotNull(encoderSim);
+
+      // The offset and scale were set when the WristIOTalonFX was constructed ...
+      assertEquals(WristConstants.kEncoderOffset, encoder.getPositionOffset(), 0.00001);
+      assertEquals(-2.0 * Math.PI, encoder.getDistancePerRotation(), 0.000001);
+
+      // the absolute encoder should start out at zero
+      // These results may not be correct but they are what we get
+      assertEquals(0.0, encoder.getAbsolutePosition(), 0.001);
+      assertEquals(0.0, encoder.getDistance(), 0.001);
+
+      // we can set rotations
+      encoderSim.set(WristConstants.kStowPos / encoder.getDistancePerRotation());
+
+      assertEquals(WristConstants.kStowPos, encoder.get() * encoder.getDistancePerRotation(), 0.001);
+
+      // distance should be a multiple
+      assertEquals(WristConstants.kStowPos, encoder.getDistance(), 0.001);
+
+      encoderSim.setDistance(WristConstants.kStowPos);
+      assertEquals(WristConstants.kStowPos, encoder.getDistance(), 0.001);
+
+      // the inputs read the encoder
+      WristInputs inputs = new WristInputs();
+      io.updateInputs(inputs);
+      assertEquals(WristConstants.kStowPos, inputs.positionRadians, 0.001);
+    } finally {
+      io.close();
+    }
   }
 
   /**
@@ -0,0 +1,97 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Tests that paths are transformed for the alliance ahead of time.
+ */
+public class AllianceTrajectoryCacheTest {
+
+  private static PathPlannerTrajectory makePath() {
+    List<Trajectory.State> states = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      PathPlannerState state = new PathPlannerState();
+      state.timeSeconds = i * 0.02;
+      state.poseMeters = new Pose2d(i * 0.1, 1, new Rotation2d());
+      state.holonomicRotation = new Rotation2d();
+      states.add(state);
+    }
+    return new PathPlannerTrajectory(states, new ArrayList<>(), new StopEvent(), new StopEvent(), true);
+  }
+
+  @BeforeEach
+  public void prepare() {
+    AllianceTrajectoryCache.reset();
+  }
+
+  /**
+   * Registered paths should be transformed on update, and not again when they are asked for.
+   */
+  @Test
+  public void testFilledWhileDisabled() {
+    PathPlannerTrajectory path = makePath();
+    AllianceTrajectoryCache.register("Path", 0, path);
+    AllianceTrajectoryCache.update(Alliance.Red);
+
+    PathPlannerTrajectory transformed = AllianceTrajectoryCache.get("Path", 0, path, Alliance.Red);
+    assertNotSame(path, transformed);
+    assertSame(transformed, AllianceTrajectoryCache.get("Path", 0, path, Alliance.Red));
+    assertEquals(0, AllianceTrajectoryCache.getMissCount());
+  }
+
+  /**
+   * Nothing should be transformed before the alliance is known.
+   */
+  @Test
+  public void testInvalidAlliance() {
+    PathPlannerTrajectory path = makePath();
+    AllianceTrajectoryCache.register("Path", 0, path);
+    AllianceTrajectoryCache.update(Alliance.Invalid);
+
+    AllianceTrajectoryCache.get("Path", 0, path, Alliance.Red);
+    assertEquals(1, AllianceTrajectoryCache.getMissCount());
+  }
+
+  /**
+   * Paths registered after an update should be transformed on the next one.
+   */
+  @Test
+  public void testRegisteredLater() {
+    PathPlannerTrajectory first = makePath();
+    PathPlannerTrajectory second = makePath();
+    AllianceTrajectoryCache.register("Path", 0, first);
+    AllianceTrajectoryCache.update(Alliance.Red);
+    AllianceTrajectoryCache.register("Path", 1, second);
+    AllianceTrajectoryCache.update(Alliance.Red);
+
+    AllianceTrajectoryCache.get("Path", 1, second, Alliance.Red);
+    assertEquals(0, AllianceTrajectoryCache.getMissCount());
+  }
+
+  /**
+   * Paths that were never registered should still be transformed.
+   */
+  @Test
+  public void testNotRegistered() {
+    PathPlannerTrajectory path = makePath();
+    assertNotSame(path, AllianceTrajectoryCache.get(null, 0, path, Alliance.Red));
+    assertEquals(1, AllianceTrajectoryCache.getMissCount());
+  }
+}
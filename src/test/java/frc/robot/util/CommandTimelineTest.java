@@ -0,0 +1,107 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WaitCommand;
+import frc.robot.constants.Constants;
+
+/**
+ * Tests the timeline of the commands in a routine.
+ */
+public class CommandTimelineTest {
+  // the timeline only knows which loop a command started and ended in
+  private static final double kTolerance = Constants.kLoopTime + 1e-6;
+
+  @BeforeAll
+  public static void setup() {
+    HAL.initialize(500, 0);
+    // sim time only moves when the test steps it
+    SimHooks.pauseTiming();
+    CommandTimeline.install();
+  }
+
+  @AfterAll
+  public static void teardown() {
+    SimHooks.resumeTiming();
+  }
+
+  @AfterEach
+  public void cleanup() {
+    CommandScheduler.getInstance().cancelAll();
+  }
+
+  /**
+   * Runs the routine like Robot does, until it ends.
+   * @return its timeline
+   */
+  private static CommandTimeline.Node run(Command routine) {
+    CommandTimeline.watch(routine);
+    routine.schedule();
+    for (int i = 0; i < 200 && routine.isScheduled(); i++) {
+      CommandScheduler.getInstance().run();
+      CommandTimeline.update();
+      SimHooks.stepTiming(Constants.kLoopTime);
+    }
+    assertFalse(routine.isScheduled());
+    return CommandTimeline.getLastTimeline();
+  }
+
+  /**
+   * The longer branch of a parallel group should be on the critical path, and the shorter one should have the
+   * difference as slack.
+   */
+  @Test
+  public void testParallelSlack() {
+    CommandTimeline.Node timeline = run(Commands.sequence(
+      new WaitCommand(0.1),
+      Commands.parallel(new WaitCommand(0.2), new WaitCommand(0.5))));
+    assertNotNull(timeline);
+    assertEquals(0.6, timeline.getEnd(), kTolerance);
+
+    List<CommandTimeline.Node> path = CommandTimeline.getCriticalPath(timeline);
+    assertEquals(2, path.size());
+    assertEquals(0.1, path.get(0).getEnd() - path.get(0).getStart(), kTolerance);
+    assertEquals(0.5, path.get(1).getEnd() - path.get(1).getStart(), kTolerance);
+
+    CommandTimeline.Node parallel = timeline.getChildren().get(1);
+    assertEquals(CommandTimeline.Kind.PARALLEL, parallel.getKind());
+    for (CommandTimeline.Node branch : parallel.getChildren()) {
+      if (branch.isCritical()) {
+        assertEquals(0, branch.getSlack());
+      } else {
+        assertEquals(0.3, branch.getSlack(), kTolerance);
+      }
+    }
+  }
+
+  /**
+   * A command cut off by withTimeout() should be reported as timed out, with the timeout on the critical path.
+   */
+  @Test
+  public void testTimeout() {
+    CommandTimeline.Node timeline = run(new WaitCommand(1).withTimeout(0.3));
+    assertEquals(CommandTimeline.Kind.RACE, timeline.getKind());
+    assertEquals(0.3, timeline.getEnd(), kTolerance);
+
+    List<CommandTimeline.Node> timedOut = CommandTimeline.getTimedOut(timeline);
+    assertEquals(1, timedOut.size());
+    assertFalse(timedOut.get(0).isCritical());
+    List<CommandTimeline.Node> path = CommandTimeline.getCriticalPath(timeline);
+    assertEquals(1, path.size());
+    assertFalse(path.get(0).timedOut());
+  }
+}
@@ -0,0 +1,133 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.ctre.phoenix.ErrorCode;
+
+/**
+ * Tests the ordering, retries, and read-back of the device configurator.
+ */
+public class DeviceConfiguratorTest {
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Batches for the same device should run in the order they were submitted, even if the first one is slow.
+   */
+  @Test
+  public void testSameDeviceInOrder() {
+    Object device = new Object();
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    DeviceConfigurator.configure(device, new DeviceConfigurator.Batch("first")
+      .run("slow", () -> sleep(50))
+      .run("first", () -> order.add("first")));
+    DeviceConfigurator.configure(device, new DeviceConfigurator.Batch("second")
+      .run("second", () -> order.add("second")));
+    DeviceConfigurator.awaitAll();
+
+    assertEquals(List.of("first", "second"), order);
+  }
+
+  /**
+   * A batch should wait for the devices it runs after.
+   */
+  @Test
+  public void testAfterOtherDevice() {
+    Object encoder = new Object();
+    Object motor = new Object();
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    DeviceConfigurator.configure(encoder, new DeviceConfigurator.Batch("encoder")
+      .run("slow", () -> sleep(50))
+      .run("encoder", () -> order.add("encoder")));
+    DeviceConfigurator.configure(motor, new DeviceConfigurator.Batch("motor")
+      .after(encoder)
+      .run("motor", () -> order.add("motor")));
+    DeviceConfigurator.awaitAll();
+
+    assertEquals(List.of("encoder", "motor"), order);
+  }
+
+  /**
+   * Calls that fail or don't read back should be tried again, up to the most attempts.
+   */
+  @Test
+  public void testRetries() {
+    Object device = new Object();
+    AtomicInteger failingCalls = new AtomicInteger();
+    AtomicInteger readBackCalls = new AtomicInteger();
+    AtomicInteger brokenCalls = new AtomicInteger();
+
+    DeviceConfigurator.configure(device, new DeviceConfigurator.Batch("device")
+      // fails once, then works
+      .add("flaky", (timeoutMs) -> failingCalls.incrementAndGet() == 1 ? ErrorCode.RxTimeout : ErrorCode.OK)
+      // works, but the first read-back doesn't match
+      .add("read back", (timeoutMs) -> {
+        readBackCalls.incrementAndGet();
+        return ErrorCode.OK;
+      }, (timeoutMs) -> readBackCalls.get() > 1)
+      // never works
+      .add("broken", (timeoutMs) -> {
+        brokenCalls.incrementAndGet();
+        return ErrorCode.RxTimeout;
+      }));
+    DeviceConfigurator.awaitAll();
+
+    assertEquals(2, failingCalls.get());
+    assertEquals(2, readBackCalls.get());
+    assertEquals(DeviceConfigurator.kMaxAttempts, brokenCalls.get());
+  }
+
+  /**
+   * Errors thrown while configuring should reach the main thread.
+   */
+  @Test
+  public void testErrorsRethrown() {
+    DeviceConfigurator.configure(new Object(), new DeviceConfigurator.Batch("device")
+      .run("throws", () -> {
+        throw new IllegalStateException("wrong firmware");
+      }));
+
+    assertThrows(IllegalStateException.class, () -> DeviceConfigurator.awaitAll());
+  }
+
+  /**
+   * Batches slower than the report time should still finish, along with the batches waiting on them, before the code
+   * after configuration runs.
+   */
+  @Test
+  public void testWaitsPastReportTime() {
+    Object encoder = new Object();
+    Object motor = new Object();
+    AtomicBoolean motorConfigured = new AtomicBoolean();
+    List<Boolean> configuredAfter = new ArrayList<>();
+
+    DeviceConfigurator.configure(encoder, new DeviceConfigurator.Batch("encoder")
+      .run("slow", () -> sleep(200)));
+    DeviceConfigurator.configure(motor, new DeviceConfigurator.Batch("motor")
+      .after(encoder)
+      .run("reset to absolute", () -> motorConfigured.set(true)));
+    DeviceConfigurator.afterConfiguration(() -> configuredAfter.add(motorConfigured.get()));
+    DeviceConfigurator.awaitAll(0.05);
+
+    assertEquals(List.of(true), configuredAfter);
+    assertTrue(motorConfigured.get());
+  }
+}
@@ -0,0 +1,136 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import frc.robot.constants.Constants;
+import frc.robot.subsystems.Elevator;
+import frc.robot.subsystems.ElevatorIO;
+import frc.robot.subsystems.ElevatorInputs;
+
+/**
+ * Tests replaying subsystem inputs from a log.
+ */
+public class InputsLogTest {
+
+  @TempDir
+  Path m_tempDir;
+
+  @AfterEach
+  public void cleanup() {
+    InputsLog.clear();
+    Telemetry.clear();
+  }
+
+  /** Inputs of a single value, for testing. */
+  private static class TestInputs implements LoggableInputs {
+    double value = 0;
+
+    @Override
+    public int size() {
+      return 1;
+    }
+
+    @Override
+    public void toArray(double[] values) {
+      values[0] = value;
+    }
+
+    @Override
+    public void fromArray(double[] values) {
+      value = values[0];
+    }
+  }
+
+  /**
+   * The inputs should be replayed in the order they were logged, and keep their last values after the end of the log.
+   */
+  @Test
+  public void testReplay() throws IOException {
+    DataLog log = new DataLog(m_tempDir.toString(), "inputs.wpilog");
+    DoubleArrayLogEntry entry = new DoubleArrayLogEntry(log, "Inputs/Test/Replay");
+    for (int i = 1; i <= 3; i++) {
+      entry.append(new double[] {i}, i * 20000);
+    }
+    log.close();
+
+    TestInputs inputs = new TestInputs();
+    TestInputs unlogged = new TestInputs();
+    unlogged.value = 7;
+    try {
+      InputsLog.startReplay(m_tempDir.resolve("inputs.wpilog").toString());
+      assertTrue(InputsLog.isReplaying());
+      int handle = InputsLog.register("Test/Replay", inputs);
+      int unloggedHandle = InputsLog.register("Test/Unlogged", unlogged);
+
+      for (int i = 1; i <= 3; i++) {
+        assertFalse(InputsLog.isReplayFinished(handle));
+        InputsLog.process(handle);
+        assertEquals(i, inputs.value);
+      }
+      assertTrue(InputsLog.isReplayFinished(handle));
+      InputsLog.process(handle);
+      assertEquals(3, inputs.value);
+
+      // inputs that weren't logged are left alone
+      InputsLog.process(unloggedHandle);
+      assertEquals(7, unlogged.value);
+    } finally {
+      InputsLog.stopReplay();
+    }
+    assertFalse(InputsLog.isReplaying());
+  }
+
+  /**
+   * An elevator replayed from a log should calibrate when the logged limit switch was reached, and follow the
+   * logged encoder, without any hardware.
+   */
+  @Test
+  public void testElevatorReplay() throws IOException {
+    DataLog log = new DataLog(m_tempDir.toString(), "elevator.wpilog");
+    DoubleArrayLogEntry entry = new DoubleArrayLogEntry(log, "Inputs/Elevator");
+    ElevatorInputs logged = new ElevatorInputs();
+    double[] values = new double[logged.size()];
+    // read by the constructor, then the first loop is at the bottom, then the carriage goes up 1 cm a loop
+    for (int i = 0; i <= 10; i++) {
+      logged.positionMeters = Math.max(0, i - 1) * 0.01;
+      logged.bottomLimitSwitchReached = i <= 1;
+      logged.toArray(values);
+      entry.append(values, i * 20000);
+    }
+    log.close();
+
+    boolean useTelemetry = Constants.kUseTelemetry;
+    Constants.kUseTelemetry = false;
+    try {
+      InputsLog.startReplay(m_tempDir.resolve("elevator.wpilog").toString());
+      Elevator elevator = new Elevator(Shuffleboard.getTab("Elevator"), () -> false, new ElevatorIO() {});
+      assertFalse(elevator.isCalibrated());
+
+      elevator.periodic();
+      assertTrue(elevator.isCalibrated());
+      assertTrue(elevator.isBottomLimitSwitchReached());
+
+      for (int i = 2; i <= 10; i++) {
+        elevator.periodic();
+        assertEquals((i - 1) * 0.01, elevator.getPosition(), 1e-9);
+      }
+      assertFalse(elevator.isBottomLimitSwitchReached());
+      elevator.close();
+    } finally {
+      InputsLog.stopReplay();
+      Constants.kUseTelemetry = useTelemetry;
+    }
+  }
+}
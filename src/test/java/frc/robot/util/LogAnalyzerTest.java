@@ -0,0 +1,105 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import frc.robot.subsystems.ElevatorInputs;
+
+/**
+ * Tests computing statistics over logs.
+ */
+public class LogAnalyzerTest {
+
+  @TempDir
+  Path m_tempDir;
+
+  /**
+   * Writes a log of 101 loops 20 ms apart, with one loop overrunning to 40 ms, logged the way the robot logs it.
+   *
+   * @param current the elevator's supply current every loop
+   */
+  private void writeLog(String directory, String filename, double current) throws IOException {
+    Files.createDirectories(m_tempDir.resolve(directory));
+    DataLog log = new DataLog(m_tempDir.resolve(directory).toString(), filename);
+    DoubleArrayLogEntry gyro = new DoubleArrayLogEntry(log, LogAnalyzer.kLoopLog);
+    DoubleArrayLogEntry elevator = new DoubleArrayLogEntry(log, LogAnalyzer.kElevatorLog);
+    DoubleLogEntry speedError = new DoubleLogEntry(log, LogAnalyzer.kDriveSpeedErrorPrefix + "FL");
+    DoubleLogEntry tagDistance = new DoubleLogEntry(log, LogAnalyzer.kClosestTagLog);
+    // not one of the channels, should be skipped
+    DoubleLogEntry other = new DoubleLogEntry(log, "Elevator/extension");
+
+    ElevatorInputs inputs = new ElevatorInputs();
+    inputs.supplyCurrent = current;
+    double[] values = new double[inputs.size()];
+    inputs.toArray(values);
+    long timestamp = 1000000;
+    for (int i = 0; i <= 100; i++) {
+      timestamp += i == 50 ? 40000 : 20000;
+      gyro.append(new double[6], timestamp);
+      elevator.append(values, timestamp);
+      speedError.append(i % 10 == 0 ? 0.5 : 0.1, timestamp);
+      other.append(100, timestamp);
+    }
+    tagDistance.append(2, timestamp);
+    log.close();
+  }
+
+  /**
+   * The statistics of one log should come from its channels.
+   */
+  @Test
+  public void testAnalyze() throws IOException {
+    writeLog("logs", "match.wpilog", 10);
+    LogAnalyzer.Result result = LogAnalyzer.analyze(m_tempDir.resolve("logs").resolve("match.wpilog"));
+
+    LogAnalyzer.Channel loopTimes = result.getChannel(LogAnalyzer.kLoopTimeStat);
+    assertEquals(100, loopTimes.getCount());
+    assertEquals(20, loopTimes.getPercentile(50), 1e-9);
+    assertEquals(20, loopTimes.getPercentile(99), 1e-9);
+    assertEquals(40, loopTimes.getPercentile(100), 1e-9);
+    assertEquals(20.2, loopTimes.getMean(), 1e-9);
+
+    LogAnalyzer.Channel speedErrors = result.getChannel(LogAnalyzer.kDriveSpeedErrorStat + "FL");
+    assertEquals(101, speedErrors.getCount());
+    assertEquals(0.1, speedErrors.getPercentile(50), 1e-9);
+    assertEquals(0.5, speedErrors.getPercentile(95), 1e-9);
+
+    assertEquals(10, result.getChannel(LogAnalyzer.kElevatorCurrentStat).getMean(), 1e-9);
+    assertEquals(1, result.getChannel(LogAnalyzer.kClosestTagStat).getCount());
+    assertEquals(4, result.channels.size());
+  }
+
+  /**
+   * Every log under a directory should be read, and their values put together.
+   */
+  @Test
+  public void testAnalyzeDirectory() throws IOException, InterruptedException {
+    writeLog("logs", "q1.wpilog", 10);
+    writeLog("logs/day2", "q2.wpilog", 30);
+    Files.writeString(m_tempDir.resolve("logs").resolve("notes.txt"), "not a log");
+
+    List<Path> files = LogAnalyzer.findLogs(List.of(m_tempDir.resolve("logs")));
+    assertEquals(2, files.size());
+    List<LogAnalyzer.Result> results = LogAnalyzer.analyzeAll(files, 2);
+    assertEquals(2, results.size());
+
+    LogAnalyzer.Result total = new LogAnalyzer.Result("All logs");
+    for (LogAnalyzer.Result result : results) {
+      total.addAll(result);
+    }
+    assertEquals(2, total.logs);
+    assertEquals(200, total.getChannel(LogAnalyzer.kLoopTimeStat).getCount());
+    assertEquals(20, total.getChannel(LogAnalyzer.kElevatorCurrentStat).getMean(), 1e-9);
+    assertEquals(30, total.getChannel(LogAnalyzer.kElevatorCurrentStat).getPercentile(100), 1e-9);
+  }
+}
@@ -0,0 +1,151 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+
+/**
+ * Tests converting logs into columns.
+ */
+public class LogExporterTest {
+
+  @TempDir
+  Path m_tempDir;
+
+  private Path writeLog(String filename) throws IOException {
+    return writeLog("", filename);
+  }
+
+  private Path writeLog(String directory, String filename) throws IOException {
+    Files.createDirectories(m_tempDir.resolve(directory));
+    DataLog log = new DataLog(m_tempDir.resolve(directory).toString(), filename);
+    DoubleLogEntry speedError = new DoubleLogEntry(log, "Swerve/Modules/DriveSpeedError/FL");
+    DoubleArrayLogEntry pose = new DoubleArrayLogEntry(log, "Swerve/Pose2d");
+    BooleanLogEntry limitSwitch = new BooleanLogEntry(log, "Elevator/bottomLimitSwitch");
+    IntegerLogEntry count = new IntegerLogEntry(log, "Vision/count");
+    StringLogEntry mode = new StringLogEntry(log, "Wrist/mode");
+    // not under one of the default prefixes
+    DoubleLogEntry other = new DoubleLogEntry(log, "Intake/current");
+
+    for (int i = 0; i < 50; i++) {
+      long timestamp = 1000000 + i * 20000 + (i % 3);
+      speedError.append(i * 0.01, timestamp);
+      pose.append(new double[] {i, -i, 0.5}, timestamp);
+      limitSwitch.append(i < 10, timestamp);
+      count.append(1000 - i * 7, timestamp);
+      other.append(i, timestamp);
+    }
+    mode.append("stow", 1000000);
+    log.close();
+    return m_tempDir.resolve(directory).resolve(filename);
+  }
+
+  /**
+   * Each channel should read back with the same timestamps and values it was logged with.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path logDir = m_tempDir.resolve("out").resolve("match");
+    int channels = LogExporter.export(writeLog("match.wpilog"), logDir, LogExporter.kDefaultPrefixes);
+    assertEquals(5, channels);
+    assertFalse(Files.exists(LogExporter.getColumnFile(logDir, "Intake/current")));
+    assertEquals(6, Files.readAllLines(logDir.resolve(LogExporter.kIndexFile)).size());
+
+    LogExporter.Column speedError =
+      LogExporter.readColumn(LogExporter.getColumnFile(logDir, "Swerve/Modules/DriveSpeedError/FL"));
+    assertEquals("Swerve/Modules/DriveSpeedError/FL", speedError.name);
+    assertEquals("double", speedError.type);
+    assertEquals(50, speedError.timestamps.length);
+    for (int i = 0; i < 50; i++) {
+      assertEquals(1000000 + i * 20000 + (i % 3), speedError.timestamps[i]);
+      assertEquals(i * 0.01, speedError.values[i][0]);
+    }
+
+    LogExporter.Column pose = LogExporter.readColumn(LogExporter.getColumnFile(logDir, "Swerve/Pose2d"));
+    assertArrayEquals(new double[] {49, -49, 0.5}, pose.values[49]);
+
+    LogExporter.Column limitSwitch =
+      LogExporter.readColumn(LogExporter.getColumnFile(logDir, "Elevator/bottomLimitSwitch"));
+    assertEquals(1, limitSwitch.values[9][0]);
+    assertEquals(0, limitSwitch.values[10][0]);
+
+    LogExporter.Column count = LogExporter.readColumn(LogExporter.getColumnFile(logDir, "Vision/count"));
+    assertEquals(1000 - 49 * 7, count.values[49][0]);
+
+    // strings are exported, but can't be read back as numbers
+    assertTrue(Files.exists(LogExporter.getColumnFile(logDir, "Wrist/mode")));
+    assertThrows(IOException.class, () -> LogExporter.readColumn(LogExporter.getColumnFile(logDir, "Wrist/mode")));
+  }
+
+  /**
+   * Many logs should be exported to a directory each.
+   */
+  @Test
+  public void testExportAll() throws IOException, InterruptedException {
+    List<Path> files = List.of(writeLog("q1.wpilog"), writeLog("q2.wpilog"));
+    Path outputDir = m_tempDir.resolve("out");
+    assertEquals(2, LogExporter.exportAll(files, outputDir, List.of("Swerve/Pose2d"), 2));
+
+    for (Path file : files) {
+      Path logDir = LogExporter.getOutputDir(outputDir, LogExporter.getCommonDirectory(files), file);
+      assertEquals(50,
+        LogExporter.readColumn(LogExporter.getColumnFile(logDir, "Swerve/Pose2d")).timestamps.length);
+    }
+  }
+
+  /**
+   * Logs with the same name in different directories should be exported to different directories.
+   */
+  @Test
+  public void testSameNames() throws IOException, InterruptedException {
+    writeLog("logs/day1", "q1.wpilog");
+    writeLog("logs/day2", "q1.wpilog");
+    List<Path> files = LogAnalyzer.findLogs(List.of(m_tempDir.resolve("logs")));
+    Path outputDir = m_tempDir.resolve("out");
+    assertEquals(2, LogExporter.exportAll(files, outputDir, List.of("Swerve/Pose2d"), 2));
+
+    assertTrue(Files.exists(LogExporter.getColumnFile(outputDir.resolve("day1").resolve("q1"), "Swerve/Pose2d")));
+    assertTrue(Files.exists(LogExporter.getColumnFile(outputDir.resolve("day2").resolve("q1"), "Swerve/Pose2d")));
+
+    // the same log twice can't go to two directories
+    assertThrows(IllegalArgumentException.class,
+      () -> LogExporter.exportAll(List.of(files.get(0), files.get(0)), outputDir, List.of("Swerve/Pose2d"), 2));
+  }
+
+  /**
+   * A channel's file should always be under the log's directory, and two channels with the same file can't be
+   * exported.
+   */
+  @Test
+  public void testChannelPaths() throws IOException {
+    Path logDir = m_tempDir.resolve("out");
+    assertEquals(logDir.resolve("Swerve/x.col.gz"), LogExporter.getColumnFile(logDir, "/Swerve/../../x"));
+    assertEquals(logDir.resolve("a/b.col.gz"), LogExporter.getColumnFile(logDir, "\\a\\.\\b"));
+    assertEquals(logDir.resolve("_.col.gz"), LogExporter.getColumnFile(logDir, "/../"));
+
+    DataLog log = new DataLog(m_tempDir.toString(), "collide.wpilog");
+    new DoubleLogEntry(log, "Swerve/a:b").append(1, 1000);
+    new DoubleLogEntry(log, "Swerve/a?b").append(2, 1000);
+    log.close();
+    assertThrows(IOException.class,
+      () -> LogExporter.export(m_tempDir.resolve("collide.wpilog"), logDir, List.of("Swerve/")));
+    assertFalse(Files.exists(logDir.resolve("Swerve/a_b.col.gz")));
+  }
+}
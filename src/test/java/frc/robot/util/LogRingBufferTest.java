@@ -0,0 +1,104 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the ring buffer used by the background log writer.
+ */
+public class LogRingBufferTest {
+
+  /** Records everything drained from the buffer. */
+  private static class Recorder implements LogRingBuffer.SampleConsumer {
+    ArrayList<double[]> samples = new ArrayList<>();
+    ArrayList<double[]> arrays = new ArrayList<>();
+
+    @Override
+    public void accept(int type, int handle, long timestamp, double value) {
+      samples.add(new double[] {type, handle, timestamp, value});
+    }
+
+    @Override
+    public void acceptArray(int handle, long timestamp, double[] values) {
+      arrays.add(values.clone());
+    }
+  }
+
+  /**
+   * The capacity should be rounded up to a power of two.
+   */
+  @Test
+  public void testCapacity() {
+    assertEquals(16, new LogRingBuffer(10).getCapacity());
+    assertEquals(16, new LogRingBuffer(16).getCapacity());
+  }
+
+  /**
+   * Samples should come out in the same order with the same values.
+   */
+  @Test
+  public void testOrder() {
+    LogRingBuffer buffer = new LogRingBuffer(16);
+    Recorder recorder = new Recorder();
+
+    assertTrue(buffer.add(LogRingBuffer.kDouble, 3, 100, 1.5));
+    assertTrue(buffer.addArray(4, 200, new double[] {1, 2, 3}));
+    assertTrue(buffer.add(LogRingBuffer.kBoolean, 5, 300, 1));
+    assertEquals(6, buffer.size());
+
+    assertEquals(3, buffer.drain(recorder, 100));
+    assertEquals(0, buffer.size());
+
+    assertArrayEquals(new double[] {LogRingBuffer.kDouble, 3, 100, 1.5}, recorder.samples.get(0));
+    assertArrayEquals(new double[] {LogRingBuffer.kBoolean, 5, 300, 1}, recorder.samples.get(1));
+    assertArrayEquals(new double[] {1, 2, 3}, recorder.arrays.get(0));
+  }
+
+  /**
+   * A full buffer should drop samples and count them instead of overwriting.
+   */
+  @Test
+  public void testOverflow() {
+    LogRingBuffer buffer = new LogRingBuffer(8);
+    Recorder recorder = new Recorder();
+
+    for (int i = 0; i < 10; i++) {
+      buffer.add(LogRingBuffer.kDouble, 0, i, i);
+    }
+    assertEquals(2, buffer.getDroppedCount());
+    assertEquals(1, buffer.getOverflowCount());
+    assertFalse(buffer.addArray(0, 0, new double[] {1}));
+
+    // the oldest samples should be kept
+    buffer.drain(recorder, 1);
+    assertEquals(0, recorder.samples.get(0)[3], 0);
+
+    // after draining there is room again, and the next overflow is counted separately
+    assertTrue(buffer.add(LogRingBuffer.kDouble, 0, 0, 0));
+    assertFalse(buffer.add(LogRingBuffer.kDouble, 0, 0, 0));
+    assertEquals(2, buffer.getOverflowCount());
+  }
+
+  /**
+   * Samples should survive the indices wrapping around the end of the arrays.
+   */
+  @Test
+  public void testWrapAround() {
+    LogRingBuffer buffer = new LogRingBuffer(8);
+    Recorder recorder = new Recorder();
+
+    for (int i = 0; i < 20; i++) {
+      assertTrue(buffer.addArray(i, i, new double[] {i, i + 1, i + 2}));
+      buffer.drain(recorder, 100);
+    }
+    assertEquals(20, recorder.arrays.size());
+    assertArrayEquals(new double[] {19, 20, 21}, recorder.arrays.get(19));
+    assertEquals(0, buffer.getDroppedCount());
+  }
+}
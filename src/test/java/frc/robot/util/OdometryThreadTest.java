@@ -0,0 +1,72 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the sample buffer of the odometry thread, without starting the thread.
+ */
+public class OdometryThreadTest {
+
+  private double m_yaw = 0;
+  private double[] m_positions = new double[4];
+  private double[] m_angles = new double[4];
+
+  private OdometryThread createThread(int capacity) {
+    DoubleSupplier[] positions = new DoubleSupplier[4];
+    DoubleSupplier[] angles = new DoubleSupplier[4];
+    for (int i = 0; i < 4; i++) {
+      int index = i;
+      positions[i] = () -> m_positions[index];
+      angles[i] = () -> m_angles[index];
+    }
+    return new OdometryThread(() -> m_yaw, positions, angles, capacity);
+  }
+
+  /**
+   * Samples should come out in order with their timestamps and values.
+   */
+  @Test
+  public void testOrder() {
+    OdometryThread thread = createThread(8);
+    ArrayList<double[]> samples = new ArrayList<>();
+
+    for (int i = 0; i < 3; i++) {
+      m_yaw = i * 10;
+      m_positions[2] = i;
+      m_angles[3] = -i;
+      thread.sample(i * 0.004);
+    }
+    assertEquals(3, thread.size());
+
+    thread.drain((timestamp, yaw, positions, angles) ->
+      samples.add(new double[] {timestamp, yaw, positions[2], angles[3]})
+    );
+    assertEquals(0, thread.size());
+    assertEquals(3, samples.size());
+    assertArrayEquals(new double[] {0.008, 20, 2, -2}, samples.get(2));
+  }
+
+  /**
+   * A full buffer should drop new samples, and clearing should throw away the old ones.
+   */
+  @Test
+  public void testOverflowAndClear() {
+    OdometryThread thread = createThread(4);
+
+    for (int i = 0; i < 6; i++) {
+      thread.sample(i);
+    }
+    assertEquals(4, thread.size());
+    assertEquals(2, thread.getDroppedCount());
+
+    thread.clear();
+    assertEquals(0, thread.size());
+    assertEquals(0, thread.drain((timestamp, yaw, positions, angles) -> {}));
+  }
+}
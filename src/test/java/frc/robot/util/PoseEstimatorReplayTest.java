@@ -0,0 +1,87 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+
+/**
+ * Tests replaying the pose estimator from a log.
+ */
+public class PoseEstimatorReplayTest {
+
+  @TempDir
+  Path m_tempDir;
+
+  /**
+   * Writes a log of the robot starting at (1, 2) and driving 1 m forward in a second, logged the way Drivetrain logs
+   * it, optionally with a vision pose at the end.
+   */
+  private String writeLog(boolean withVision) {
+    DataLog log = new DataLog(m_tempDir.toString(), "replay.wpilog");
+    DoubleArrayLogEntry samples = new DoubleArrayLogEntry(log, PoseEstimatorReplay.kSampleLog);
+    DoubleArrayLogEntry vision = new DoubleArrayLogEntry(log, PoseEstimatorReplay.kVisionLog);
+    DoubleArrayLogEntry resets = new DoubleArrayLogEntry(log, PoseEstimatorReplay.kResetLog);
+    DoubleArrayLogEntry poses = new DoubleArrayLogEntry(log, PoseEstimatorReplay.kPoseLog);
+
+    SwerveModulePosition[] positions = {
+      new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition()
+    };
+    double[] values = new double[PoseEstimatorReplay.kResetLength];
+    PoseEstimatorReplay.packReset(values, 0, positions, new Pose2d(1, 2, new Rotation2d()));
+    resets.append(values, 0);
+
+    values = new double[PoseEstimatorReplay.kSampleLength];
+    for (int i = 1; i <= 50; i++) {
+      for (SwerveModulePosition position : positions) {
+        position.distanceMeters = i / 50.0;
+      }
+      PoseEstimatorReplay.packSample(values, i * 0.02, 0, positions);
+      samples.append(values, i * 20000);
+      poses.append(new double[] {1 + i / 50.0, 2, 0}, i * 20000);
+    }
+
+    if (withVision) {
+      values = new double[PoseEstimatorReplay.kVisionLength];
+      PoseEstimatorReplay.packVision(values, new Pose2d(2.5, 2, new Rotation2d()), 1.0,
+        VecBuilder.fill(0.1, 0.1, 0.1));
+      vision.append(values, 1000000);
+    }
+    log.close();
+    return m_tempDir.resolve("replay.wpilog").toString();
+  }
+
+  /**
+   * Replaying odometry should end where the robot logged it was.
+   */
+  @Test
+  public void testOdometry() throws IOException {
+    PoseEstimatorReplay.Result result = PoseEstimatorReplay.replay(writeLog(false), null);
+    assertEquals(1, result.resets);
+    assertEquals(50, result.samples);
+    assertEquals(2, result.finalPose.getX(), 1e-6);
+    assertEquals(2, result.finalPose.getY(), 1e-6);
+    assertEquals(0, result.maxPoseDifference, 1e-6);
+  }
+
+  /**
+   * A vision pose should pull the estimate towards it.
+   */
+  @Test
+  public void testVision() throws IOException {
+    PoseEstimatorReplay.Result result = PoseEstimatorReplay.replay(writeLog(true), null);
+    assertEquals(1, result.visionMeasurements);
+    assertTrue(result.finalPose.getX() > 2 && result.finalPose.getX() < 2.5, "ended at " + result.finalPose);
+  }
+}
@@ -0,0 +1,102 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Tests writing and reading precompiled path groups.
+ */
+public class PrecompiledTrajectoriesTest {
+
+  private static PathPlannerTrajectory makePath(int stateCount) {
+    List<Trajectory.State> states = new ArrayList<>();
+    for (int i = 0; i < stateCount; i++) {
+      PathPlannerState state = new PathPlannerState();
+      state.timeSeconds = i * 0.02;
+      state.poseMeters = new Pose2d(i * 0.1, 2 - i * 0.05, new Rotation2d(i * 0.01));
+      state.velocityMetersPerSecond = i * 0.5;
+      state.accelerationMetersPerSecondSq = 2.1;
+      state.curvatureRadPerMeter = 0.25;
+      state.angularVelocityRadPerSec = -0.5;
+      state.holonomicRotation = new Rotation2d(Math.PI - i * 0.02);
+      state.holonomicAngularVelocityRadPerSec = 1.5;
+      states.add(state);
+    }
+    return new PathPlannerTrajectory(states, new ArrayList<>(), new StopEvent(), new StopEvent(), true);
+  }
+
+  private static ByteBuffer writeTwoGroups() {
+    return PrecompiledTrajectories.write(
+      Map.of("One", List.of(makePath(10)), "Two", List.of(makePath(5), makePath(20))),
+      Map.of("One", 123L, "Two", 456L),
+      4.3, 2.1);
+  }
+
+  /**
+   * Path groups should read back as they were written, to float precision.
+   */
+  @Test
+  public void testRoundTrip() {
+    PrecompiledTrajectories trajectories = PrecompiledTrajectories.read(writeTwoGroups(), 4.3, 2.1);
+    assertNotNull(trajectories);
+
+    List<PathPlannerTrajectory> group = trajectories.getPathGroup("Two", 456L);
+    assertEquals(2, group.size());
+    assertEquals(5, group.get(0).getStates().size());
+    assertEquals(20, group.get(1).getStates().size());
+
+    PathPlannerTrajectory expected = makePath(20);
+    for (int i = 0; i < 20; i++) {
+      PathPlannerState expectedState = (PathPlannerState) expected.getStates().get(i);
+      PathPlannerState state = (PathPlannerState) group.get(1).getStates().get(i);
+      assertEquals(expectedState.timeSeconds, state.timeSeconds, 1e-12);
+      assertEquals(expectedState.poseMeters.getX(), state.poseMeters.getX(), 1e-6);
+      assertEquals(expectedState.poseMeters.getY(), state.poseMeters.getY(), 1e-6);
+      assertEquals(expectedState.poseMeters.getRotation().getRadians(),
+        state.poseMeters.getRotation().getRadians(), 1e-6);
+      assertEquals(expectedState.velocityMetersPerSecond, state.velocityMetersPerSecond, 1e-6);
+      assertEquals(expectedState.accelerationMetersPerSecondSq, state.accelerationMetersPerSecondSq, 1e-6);
+      assertEquals(expectedState.curvatureRadPerMeter, state.curvatureRadPerMeter, 1e-6);
+      assertEquals(expectedState.angularVelocityRadPerSec, state.angularVelocityRadPerSec, 1e-6);
+      assertEquals(expectedState.holonomicRotation.getRadians(), state.holonomicRotation.getRadians(), 1e-6);
+      assertEquals(expectedState.holonomicAngularVelocityRadPerSec, state.holonomicAngularVelocityRadPerSec, 1e-6);
+    }
+
+    assertEquals(10, trajectories.getPathGroup("One", 123L).get(0).getStates().size());
+  }
+
+  /**
+   * A group whose .path file changed, or that was never precompiled, should not be returned.
+   */
+  @Test
+  public void testStaleGroup() {
+    PrecompiledTrajectories trajectories = PrecompiledTrajectories.read(writeTwoGroups(), 4.3, 2.1);
+    assertNull(trajectories.getPathGroup("One", 124L));
+    assertNull(trajectories.getPathGroup("Three", 123L));
+  }
+
+  /**
+   * A file made with other constraints should be ignored.
+   */
+  @Test
+  public void testOtherConstraints() {
+    assertNull(PrecompiledTrajectories.read(writeTwoGroups(), 4.0, 2.1));
+    assertNull(PrecompiledTrajectories.read(writeTwoGroups(), 4.3, 3.0));
+  }
+}
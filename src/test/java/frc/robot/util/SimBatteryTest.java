@@ -0,0 +1,68 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+
+/**
+ * Tests the battery of the simulated robot.
+ */
+public class SimBatteryTest {
+
+  @BeforeEach
+  public void prepare() {
+    // other tests' mechanisms may have left currents set
+    SimBattery.reset();
+  }
+
+  /**
+   * The voltage should settle at the loaded voltage for the total current of every mechanism.
+   */
+  @Test
+  public void testLoadedVoltage() {
+    int drive = SimBattery.register("Test drive");
+    int elevator = SimBattery.register("Test elevator");
+    SimBattery.setCurrent(drive, 150);
+    // regenerating still counts as current drawn, the Talons don't charge the battery
+    SimBattery.setCurrent(elevator, -30);
+    for (int i = 0; i < 50; i++) {
+      SimBattery.update();
+    }
+
+    double expected = BatterySim.calculateDefaultBatteryLoadedVoltage(180);
+    assertEquals(180, SimBattery.getTotalCurrent(), 1e-9);
+    assertEquals(expected, SimBattery.getVoltage(), 0.01);
+    assertEquals(SimBattery.getVoltage(), RobotController.getBatteryVoltage(), 0.01);
+  }
+
+  /**
+   * Drawing too much current should brown out the RoboRIO until the current drops.
+   */
+  @Test
+  public void testBrownout() {
+    int drive = SimBattery.register("Test brownout");
+    // the voltage follows the load over a few loops instead of dropping right away
+    SimBattery.setCurrent(drive, 400);
+    SimBattery.update();
+    assertTrue(SimBattery.getVoltage() > RobotController.getBrownoutVoltage());
+
+    for (int i = 0; i < 50; i++) {
+      SimBattery.update();
+    }
+    assertTrue(RobotController.isBrownedOut());
+    assertTrue(SimBattery.getBrownoutSeconds() > 0);
+    assertTrue(SimBattery.getMinVoltage() < RobotController.getBrownoutVoltage());
+
+    SimBattery.setCurrent(drive, 0);
+    for (int i = 0; i < 50; i++) {
+      SimBattery.update();
+    }
+    assertFalse(RobotController.isBrownedOut());
+  }
+}
@@ -0,0 +1,57 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+
+/**
+ * Tests the random errors added to the simulated robot.
+ */
+public class SimNoiseTest {
+
+  @AfterEach
+  public void cleanup() {
+    // the other tests' simulations shouldn't get errors
+    SimNoise.disable();
+  }
+
+  /**
+   * When off, nothing should change.
+   */
+  @Test
+  public void testOff() {
+    Pose2d pose = new Pose2d(1, 2, new Rotation2d());
+    assertEquals(new Transform2d(), SimNoise.getStartingPoseError());
+    assertEquals(1, SimNoise.nextWheelSlip());
+    assertEquals(1, SimNoise.nextFrictionScale());
+    assertEquals(1, SimNoise.nextLoadScale());
+    assertEquals(pose, SimNoise.addVisionNoise(pose));
+  }
+
+  /**
+   * The same seed should give the same errors, so a run can be repeated.
+   */
+  @Test
+  public void testRepeatable() {
+    Pose2d pose = new Pose2d();
+    SimNoise.enable(7);
+    Transform2d startingPoseError = SimNoise.getStartingPoseError();
+    double wheelSlip = SimNoise.nextWheelSlip();
+    double loadScale = SimNoise.nextLoadScale();
+    Pose2d visionPose = SimNoise.addVisionNoise(pose);
+    assertNotEquals(new Transform2d(), startingPoseError);
+    assertNotEquals(pose, visionPose);
+
+    SimNoise.enable(7);
+    assertEquals(startingPoseError, SimNoise.getStartingPoseError());
+    assertEquals(wheelSlip, SimNoise.nextWheelSlip());
+    assertEquals(loadScale, SimNoise.nextLoadScale());
+    assertEquals(visionPose, SimNoise.addVisionNoise(pose));
+  }
+}
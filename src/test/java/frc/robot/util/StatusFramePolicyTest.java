@@ -0,0 +1,73 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the status frame profiles and the bus load estimate.
+ */
+public class StatusFramePolicyTest {
+
+  @AfterEach
+  public void reset() {
+    StatusFramePolicy.reset();
+  }
+
+  /**
+   * Every role should send fewer frames than the defaults, and no period can be slower than the device allows.
+   * The swerve feedback frames can be faster than the default for the odometry thread, so they are left out.
+   */
+  @Test
+  public void testRolesReduceFrames() {
+    for (StatusFramePolicy.Role role : StatusFramePolicy.Role.values()) {
+      double framesPerSecond = role.getFramesPerSecond();
+      double defaultFramesPerSecond = role.getDefaultFramesPerSecond();
+      if (role == StatusFramePolicy.Role.SWERVE_DRIVE || role == StatusFramePolicy.Role.SWERVE_STEER) {
+        framesPerSecond -= 1000.0 / role.getPeriodMs(1);
+        defaultFramesPerSecond -= 1000.0 / 20;
+      }
+      assertTrue(framesPerSecond < defaultFramesPerSecond, role.name());
+
+      int frames = role.isCANcoder() ? 2 : 10;
+      for (int i = 0; i < frames; i++) {
+        assertTrue(role.getPeriodMs(i) > 0, role.name());
+        assertTrue(role.getPeriodMs(i) <= StatusFramePolicy.kUnusedPeriodMs, role.name());
+      }
+    }
+  }
+
+  /**
+   * Frames that a role does not read should be as slow as possible.
+   */
+  @Test
+  public void testUnusedFramesSlowest() {
+    // the wrist reads the absolute encoder, not the motor's encoder
+    assertEquals(StatusFramePolicy.kUnusedPeriodMs, StatusFramePolicy.Role.WRIST.getPeriodMs(1));
+    // nothing reads the motion magic targets or the PIDF status
+    assertEquals(StatusFramePolicy.kUnusedPeriodMs, StatusFramePolicy.Role.SWERVE_DRIVE.getPeriodMs(6));
+    assertEquals(StatusFramePolicy.kUnusedPeriodMs, StatusFramePolicy.Role.ELEVATOR.getPeriodMs(8));
+  }
+
+  /**
+   * The load of each bus should only count the devices on that bus.
+   */
+  @Test
+  public void testBusLoad() {
+    StatusFramePolicy.record("rio", StatusFramePolicy.Role.INTAKE);
+    StatusFramePolicy.record("rio", StatusFramePolicy.Role.WRIST);
+    StatusFramePolicy.record("CANivore", StatusFramePolicy.Role.ELEVATOR);
+
+    assertEquals(StatusFramePolicy.Role.INTAKE.getFramesPerSecond() + StatusFramePolicy.Role.WRIST.getFramesPerSecond(),
+        StatusFramePolicy.getFramesPerSecond("rio"), 1e-9);
+    assertEquals(StatusFramePolicy.Role.ELEVATOR.getFramesPerSecond(),
+        StatusFramePolicy.getFramesPerSecond("CANivore"), 1e-9);
+    assertEquals(0.0, StatusFramePolicy.getFramesPerSecond("other"));
+
+    // 128 bits a frame on a 1 Mbit/s bus
+    assertEquals(StatusFramePolicy.getFramesPerSecond("rio") * 128 / 1e6,
+        StatusFramePolicy.getEstimatedLoad("rio"), 1e-9);
+  }
+}
@@ -0,0 +1,127 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Tests publishing Shuffleboard values at their rates.
+ */
+public class TelemetryTest {
+
+  static ShuffleboardTab m_tab = Shuffleboard.getTab("Telemetry Test");
+
+  @AfterEach
+  public void cleanup() {
+    Telemetry.clear();
+  }
+
+  /**
+   * Each value should be read at its rate, and the values of a rate spread over the loops of its period.
+   */
+  @Test
+  public void testRates() {
+    int[] fastReads = new int[1];
+    int[] slowReads = new int[Telemetry.Rate.SLOW.getPeriodLoops()];
+    Telemetry.addDouble(m_tab, "Fast", Telemetry.Rate.FAST, () -> fastReads[0]++);
+    for (int i = 0; i < slowReads.length; i++) {
+      int index = i;
+      Telemetry.addDouble(m_tab, "Slow " + i, Telemetry.Rate.SLOW, () -> slowReads[index]++);
+    }
+
+    int loops = 2 * Telemetry.Rate.SLOW.getPeriodLoops();
+    for (int i = 0; i < loops; i++) {
+      Telemetry.update();
+      // the fast value, and one slow value, every loop
+      assertEquals(2, Telemetry.getLastEvaluatedCount());
+    }
+    assertEquals(loops, fastReads[0]);
+    for (int reads : slowReads) {
+      assertEquals(2, reads);
+    }
+  }
+
+  /**
+   * A value should only count as sent when it changes, and the widget should show the last value read.
+   */
+  @Test
+  public void testChangeDetection() {
+    double[] value = {1};
+    boolean[] flag = {true};
+    String[][] lines = {{"a", "b"}};
+    Telemetry.addDouble(m_tab, "Changing", Telemetry.Rate.FAST, () -> value[0]);
+    Telemetry.addBoolean(m_tab, "Flag", Telemetry.Rate.FAST, () -> flag[0]);
+    Telemetry.addStringArray(m_tab, "Lines", Telemetry.Rate.FAST, () -> lines[0].clone());
+    NetworkTableEntry entry = getEntry("Changing");
+    NetworkTableEntry linesEntry = getEntry("Lines");
+
+    // everything is sent the first time
+    update();
+    assertEquals(3, Telemetry.getLastSentCount());
+    assertEquals(1, entry.getDouble(0));
+    assertArrayEquals(new String[] {"a", "b"}, linesEntry.getStringArray(new String[0]));
+
+    // nothing changed, and equal arrays count as unchanged
+    update();
+    assertEquals(3, Telemetry.getLastEvaluatedCount());
+    assertEquals(0, Telemetry.getLastSentCount());
+
+    value[0] = 2;
+    update();
+    assertEquals(1, Telemetry.getLastSentCount());
+    assertEquals(2, entry.getDouble(0));
+
+    value[0] = Double.NaN;
+    update();
+    update();
+    assertEquals(0, Telemetry.getLastSentCount());
+    assertTrue(Double.isNaN(entry.getDouble(0)));
+  }
+
+  /**
+   * An array changed in place should count as changed, and a null string should be shown as an empty one.
+   */
+  @Test
+  public void testReusedAndNull() {
+    String[] lines = {"a", "b"};
+    String[] text = {"text"};
+    Telemetry.addStringArray(m_tab, "Reused", Telemetry.Rate.FAST, () -> lines);
+    Telemetry.addString(m_tab, "Nullable", Telemetry.Rate.FAST, () -> text[0]);
+    NetworkTableEntry linesEntry = getEntry("Reused");
+    NetworkTableEntry textEntry = getEntry("Nullable");
+
+    update();
+    assertEquals(2, Telemetry.getLastSentCount());
+
+    lines[1] = "c";
+    update();
+    assertEquals(1, Telemetry.getLastSentCount());
+    assertArrayEquals(new String[] {"a", "c"}, linesEntry.getStringArray(new String[0]));
+
+    text[0] = null;
+    update();
+    update();
+    assertEquals(0, Telemetry.getLastSentCount());
+    assertEquals("", textEntry.getString(null));
+  }
+
+  /**
+   * Reads the values that are due, and has Shuffleboard send them, like a loop of the robot.
+   */
+  private static void update() {
+    Telemetry.update();
+    Shuffleboard.update();
+  }
+
+  private static NetworkTableEntry getEntry(String name) {
+    return NetworkTableInstance.getDefault().getEntry("/Shuffleboard/" + m_tab.getTitle() + "/" + name);
+  }
+}
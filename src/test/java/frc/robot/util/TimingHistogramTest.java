@@ -0,0 +1,72 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the histogram used by the loop profiler.
+ */
+public class TimingHistogramTest {
+
+  /**
+   * Every duration should land in a bucket whose upper edge is above it and within 1/16 of it.
+   */
+  @Test
+  public void testBucketEdges() {
+    for (long nanos = 0; nanos < 5_000_000_000L; nanos = nanos * 5 / 4 + 1) {
+      long edge = TimingHistogram.upperEdgeOf(TimingHistogram.bucketFor(nanos));
+      assertTrue(edge > nanos);
+      // below 16 microseconds the buckets are one microsecond wide
+      assertTrue(edge - nanos <= Math.max(1024, nanos / 16 + 1024));
+    }
+  }
+
+  /**
+   * Buckets should be in increasing order of duration.
+   */
+  @Test
+  public void testBucketsIncrease() {
+    int lastBucket = 0;
+    for (long nanos = 0; nanos < 5_000_000_000L; nanos = nanos * 9 / 8 + 1) {
+      int bucket = TimingHistogram.bucketFor(nanos);
+      assertTrue(bucket >= lastBucket);
+      lastBucket = bucket;
+    }
+  }
+
+  /**
+   * Percentiles should be close to the exact values.
+   */
+  @Test
+  public void testPercentiles() {
+    TimingHistogram histogram = new TimingHistogram();
+    // 1 ms to 100 ms
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1_000_000L);
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(100_000_000L, histogram.getMax());
+    assertEquals(50e6, histogram.getPercentile(50), 50e6 / 16);
+    assertEquals(95e6, histogram.getPercentile(95), 95e6 / 16);
+    assertEquals(99e6, histogram.getPercentile(99), 99e6 / 16);
+    // the max is exact, so the top percentile is too
+    assertEquals(100_000_000L, histogram.getPercentile(100));
+  }
+
+  /**
+   * Resetting should clear everything.
+   */
+  @Test
+  public void testReset() {
+    TimingHistogram histogram = new TimingHistogram();
+    histogram.record(12345);
+    histogram.reset();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(50));
+  }
+}
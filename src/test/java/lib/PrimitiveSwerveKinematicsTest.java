@@ -0,0 +1,99 @@
+package lib;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the allocation free kinematics and module state optimization.
+ */
+public class PrimitiveSwerveKinematicsTest {
+
+  private static final double kDelta = 1e-9;
+
+  // a 1 meter square robot, in the same order as DriveConstants
+  private final PrimitiveSwerveKinematics m_kinematics = new PrimitiveSwerveKinematics(
+    new double[] {0.5, 0.5, -0.5, -0.5},
+    new double[] {0.5, -0.5, 0.5, -0.5}
+  );
+
+  /**
+   * Driving straight should point every module the same way at the same speed.
+   */
+  @Test
+  public void testStraight() {
+    double[] speeds = new double[4];
+    double[] angles = new double[4];
+
+    m_kinematics.toModuleStates(0, 2, 0, speeds, angles);
+    assertArrayEquals(new double[] {2, 2, 2, 2}, speeds, kDelta);
+    assertArrayEquals(new double[] {Math.PI / 2, Math.PI / 2, Math.PI / 2, Math.PI / 2}, angles, kDelta);
+  }
+
+  /**
+   * Spinning in place should point every module tangent to the circle.
+   */
+  @Test
+  public void testRotation() {
+    double[] speeds = new double[4];
+    double[] angles = new double[4];
+
+    m_kinematics.toModuleStates(0, 0, 1, speeds, angles);
+    double radius = Math.hypot(0.5, 0.5);
+    assertArrayEquals(new double[] {radius, radius, radius, radius}, speeds, kDelta);
+    // front left moves back and left, front right moves forward and left
+    assertEquals(3 * Math.PI / 4, angles[0], kDelta);
+    assertEquals(Math.PI / 4, angles[1], kDelta);
+    assertEquals(-3 * Math.PI / 4, angles[2], kDelta);
+    assertEquals(-Math.PI / 4, angles[3], kDelta);
+  }
+
+  /**
+   * Stopping should keep the last angles, so the modules don't snap to 0.
+   */
+  @Test
+  public void testStopKeepsAngles() {
+    double[] speeds = new double[4];
+    double[] angles = new double[4];
+
+    m_kinematics.toModuleStates(1, 1, 0, speeds, angles);
+    m_kinematics.toModuleStates(0, 0, 0, speeds, angles);
+    assertArrayEquals(new double[] {0, 0, 0, 0}, speeds, kDelta);
+    assertArrayEquals(new double[] {Math.PI / 4, Math.PI / 4, Math.PI / 4, Math.PI / 4}, angles, kDelta);
+  }
+
+  /**
+   * Desaturating should scale every speed by the same amount.
+   */
+  @Test
+  public void testDesaturate() {
+    double[] speeds = {1, -4, 2, 0};
+    PrimitiveSwerveKinematics.desaturateWheelSpeeds(speeds, 2);
+    assertArrayEquals(new double[] {0.5, -2, 1, 0}, speeds, kDelta);
+
+    double[] slowSpeeds = {1, -1.5, 0, 0};
+    PrimitiveSwerveKinematics.desaturateWheelSpeeds(slowSpeeds, 2);
+    assertArrayEquals(new double[] {1, -1.5, 0, 0}, slowSpeeds, kDelta);
+  }
+
+  /**
+   * The module should never turn more than 90 degrees, and should stay in the scope of its current angle.
+   */
+  @Test
+  public void testOptimize() {
+    // close enough, no change
+    assertEquals(30, CTREModuleState.optimizeAngle(30, 0), kDelta);
+    assertEquals(1, CTREModuleState.optimizeSpeed(1, 30, 0), kDelta);
+
+    // more than 90 degrees away, turn to the opposite angle and drive backwards
+    assertEquals(-30, CTREModuleState.optimizeAngle(150, 0), kDelta);
+    assertEquals(-1, CTREModuleState.optimizeSpeed(1, 150, 0), kDelta);
+
+    // the current angle is not wrapped, so the target should be near it
+    assertEquals(720 + 10, CTREModuleState.optimizeAngle(10, 720), kDelta);
+    assertEquals(1, CTREModuleState.optimizeSpeed(1, 10, 720), kDelta);
+    assertEquals(-360 - 190, CTREModuleState.optimizeAngle(-10, -360 - 170), kDelta);
+    assertEquals(-1, CTREModuleState.optimizeSpeed(1, -10, -360 - 170), kDelta);
+  }
+}
@@ -0,0 +1,87 @@
+package lib.drivers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+
+/**
+ * Tests skipping duplicate sets on the lazy TalonFX.
+ */
+public class LazyTalonFXTest {
+
+  LazyTalonFX m_motor;
+
+  @BeforeEach
+  public void prepare() {
+    // an id no subsystem uses
+    m_motor = new LazyTalonFX(60, "rio");
+  }
+
+  @AfterEach
+  public void cleanup() {
+    m_motor.close();
+  }
+
+  /**
+   * Percent output sets should be skipped when they repeat, but get() should still return the last value.
+   */
+  @Test
+  public void testPercentOutput() {
+    m_motor.set(0.5);
+    m_motor.set(0.5);
+    assertEquals(1, m_motor.getSentCount());
+    assertEquals(1, m_motor.getSuppressedCount());
+    assertEquals(0.5, m_motor.get());
+    assertEquals(ControlMode.PercentOutput, m_motor.getLastControlMode());
+
+    m_motor.set(-0.25);
+    assertEquals(2, m_motor.getSentCount());
+    assertEquals(-0.25, m_motor.get());
+  }
+
+  /**
+   * A set should be sent when its mode, demand, demand type, or auxiliary demand changes.
+   */
+  @Test
+  public void testEveryField() {
+    m_motor.set(ControlMode.Position, 100);
+    m_motor.set(ControlMode.Position, 100, DemandType.Neutral, 0);
+    assertEquals(1, m_motor.getSentCount());
+    assertEquals(1, m_motor.getSuppressedCount());
+
+    m_motor.set(ControlMode.MotionMagic, 100);
+    m_motor.set(ControlMode.MotionMagic, 100, DemandType.ArbitraryFeedForward, 0);
+    m_motor.set(ControlMode.MotionMagic, 100, DemandType.ArbitraryFeedForward, 0.1);
+    m_motor.set(ControlMode.MotionMagic, 101, DemandType.ArbitraryFeedForward, 0.1);
+    assertEquals(5, m_motor.getSentCount());
+    assertEquals(1, m_motor.getSuppressedCount());
+    assertEquals(101, m_motor.getLastSet());
+    assertEquals(0.1, m_motor.getLastDemand1());
+  }
+
+  /**
+   * Demands within the epsilon of the last ones sent should be skipped.
+   */
+  @Test
+  public void testEpsilon() {
+    m_motor.setEpsilon(1);
+    long totalSuppressed = LazyTalonFX.getTotalSuppressedCount();
+
+    m_motor.set(ControlMode.Position, 100);
+    m_motor.set(ControlMode.Position, 100.5);
+    m_motor.set(ControlMode.Position, 99);
+    assertEquals(1, m_motor.getSentCount());
+    assertEquals(2, m_motor.getSuppressedCount());
+    assertEquals(totalSuppressed + 2, LazyTalonFX.getTotalSuppressedCount());
+    // the demand is compared with the last one sent, not the last one skipped
+    assertEquals(100, m_motor.getLastSet());
+
+    m_motor.set(ControlMode.Position, 101.5);
+    assertEquals(2, m_motor.getSentCount());
+  }
+}